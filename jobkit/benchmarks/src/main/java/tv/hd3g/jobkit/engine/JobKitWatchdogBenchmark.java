@@ -0,0 +1,121 @@
+/*
+ * This file is part of jobkit-benchmarks.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tv.hd3g.jobkit.engine.watchdog.MaxSpoolQueueSizePolicy;
+
+/**
+ * Watchdog cost for a job lifecycle (add, start, end), with an already large queue to watch.
+ * Policies evaluations run in background, coalesced, like with the real engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobKitWatchdogBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	int queueSize;
+
+	private ScheduledExecutorService scheduledExecutor;
+	private JobKitWatchdog watchdog;
+	private SpoolExecutor spool;
+	private AtomicLong createdIndex;
+
+	private record BenchmarkJob(SpoolExecutor spool, long index) implements WatchableSpoolJob {
+
+		@Override
+		public Optional<StackTraceElement> getCreator() {
+			return Optional.empty();
+		}
+
+		@Override
+		public String getCommandName() {
+			return "job";
+		}
+
+		@Override
+		public long getCreatedIndex() {
+			return index;
+		}
+
+		@Override
+		public SpoolExecutor getExecutorReferer() {
+			return spool;
+		}
+
+	}
+
+	@Setup
+	public void setup() {
+		scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+		final var events = SupervisableManager.voidSupervisableEvents();
+		final var policy = new MaxSpoolQueueSizePolicy();
+		policy.setMaxSize(Integer.MAX_VALUE);
+		watchdog = new JobKitWatchdog(events, scheduledExecutor).addPolicies(policy);
+		spool = new SpoolExecutor("benchmark", new ExecutionEvent() {}, new AtomicLong(), events, watchdog);
+		watchdog.addJobs(LongStream.range(0, queueSize)
+				.mapToObj(i -> new BenchmarkJob(spool, i))
+				.toList());
+		createdIndex = new AtomicLong(queueSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+		watchdog.shutdown();
+		scheduledExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public void addThenEndJob() {
+		final var job = new BenchmarkJob(spool, createdIndex.getAndIncrement());
+		watchdog.addJob(job);
+		watchdog.endJob(job);
+	}
+
+	@Benchmark
+	public void addStartThenEndJob() {
+		final var job = new BenchmarkJob(spool, createdIndex.getAndIncrement());
+		watchdog.addJob(job);
+		watchdog.startJob(job, System.currentTimeMillis());
+		watchdog.endJob(job);
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of jobkit-benchmarks.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static tv.hd3g.jobkit.engine.SpoolAdmissionPolicy.BLOCK;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Submission throughput (1..N producers) and empty job round-trip latency.
+ * The spool queue is bounded with a BLOCK admission, so producers can't be faster than the spool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpoolExecutorBenchmark {
+	private static final int QUEUE_CAPACITY = 10_000;
+	private static final RunnableWithException EMPTY_JOB = () -> {
+	};
+	private static final Consumer<Exception> NO_AFTER_RUN = e -> {
+	};
+
+	@Param({ "PLATFORM", "VIRTUAL" })
+	SpoolThreadType threadType;
+	@Param({ "1", "4" })
+	int parallelism;
+
+	private ScheduledExecutorService scheduledExecutor;
+	private Spooler spooler;
+	private SpoolExecutor spool;
+
+	@Setup
+	public void setup() {
+		scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+		final var events = SupervisableManager.voidSupervisableEvents();
+		spooler = new Spooler(new ExecutionEvent() {}, events, new JobKitWatchdog(events, scheduledExecutor));
+		spool = spooler.getExecutor("benchmark")
+				.setThreadType(threadType)
+				.setParallelism(parallelism)
+				.setQueueCapacity(QUEUE_CAPACITY)
+				.setAdmissionPolicy(BLOCK)
+				.setAdmissionBlockTimeout(Duration.ofMinutes(1));
+	}
+
+	@TearDown
+	public void tearDown() {
+		spooler.shutdown(Set.of());
+		scheduledExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean submit_1producer() {
+		return spool.addToQueue(EMPTY_JOB, "empty", 0, NO_AFTER_RUN);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean submit_4producers() {
+		return spool.addToQueue(EMPTY_JOB, "empty", 0, NO_AFTER_RUN);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean submit_maxProducers() {
+		return spool.addToQueue(EMPTY_JOB, "empty", 0, NO_AFTER_RUN);
+	}
+
+	/**
+	 * From the submit call to the job end, seen by the producer.
+	 */
+	@Benchmark
+	@Threads(1)
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(MICROSECONDS)
+	public void roundTrip() throws InterruptedException, ExecutionException {
+		spool.submit(EMPTY_JOB, "empty", 0, NO_AFTER_RUN).get();
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of jobkit-benchmarks.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a Supervisable lifecycle, by caller capture mode.
+ * Each benchmark starts from a new Supervisable, so steps never pile up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SupervisableBenchmark {
+
+	@Param({ "OFF", "SINGLE_FRAME", "FULL_TRACE" })
+	CallerCaptureMode callerCaptureMode;
+
+	private final SupervisableEvents events = SupervisableManager.voidSupervisableEvents();
+
+	private Supervisable create() {
+		return new Supervisable("benchmark", "job", events, callerCaptureMode);
+	}
+
+	@Benchmark
+	public Supervisable baseline() {
+		return create();
+	}
+
+	@Benchmark
+	public Supervisable step() {
+		return create().onMessage("benchmark.step", "Step {0}", 1);
+	}
+
+	@Benchmark
+	public Supervisable mark() {
+		return create().markAsUrgent().markAsSecurity();
+	}
+
+	@Benchmark
+	public Optional<SupervisableEndEvent> endEvent() {
+		final var s = create();
+		s.start();
+		s.onMessage("benchmark.step", "Step {0}", 1);
+		s.resultDone("benchmark.done", "Done");
+		s.end();
+		return s.getEndEvent(Optional.empty(), "benchmark");
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of jobkit-benchmarks.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.DROP_OLDEST;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End event fan-out cost, seen by the job thread, with synchronous (asyncQueueSize = 0) or asynchronous consumers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SupervisableManagerBenchmark {
+
+	@Param({ "1", "8" })
+	int consumers;
+	@Param({ "0", "1024" })
+	int asyncQueueSize;
+
+	private SupervisableManager manager;
+	private Supervisable supervisable;
+	private LongAdder consumed;
+
+	@Setup
+	public void setup() {
+		manager = new SupervisableManager("benchmark", new ObjectMapper(), 10, asyncQueueSize, DROP_OLDEST);
+		consumed = new LongAdder();
+		for (var pos = 0; pos < consumers; pos++) {
+			manager.registerOnEndEventConsumer(endEvent -> consumed.increment());
+		}
+		supervisable = new Supervisable("benchmark", "fanout", manager, CallerCaptureMode.OFF);
+		supervisable.onMessage("benchmark.step", "Step");
+	}
+
+	@TearDown
+	public void tearDown() {
+		manager.close();
+	}
+
+	@Benchmark
+	public void onEnd() {
+		manager.onEnd(supervisable, Optional.empty());
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of jobkit-benchmarks.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.watchfolder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.io.FilenameUtils.wildcardMatch;
+
+import java.io.File;
+import java.util.Random;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ObservedFolder name and path rules cost, by file name, over a million synthetic names.
+ * "legacy" is the previous WatchedFileScanner filtering (streams on extensions and wildcardMatch calls),
+ * "compiled" is ObservedFolderFilter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObservedFolderFilterBenchmark {
+
+	private static final int NAMES = 1_000_000;
+	private static final String[] EXTENSIONS = { "mxf", "MOV", "mp4", "wav", "tmp", "part", "txt", "tar.gz", "xml" };
+
+	private ObservedFolder observedFolder;
+	private ObservedFolderFilter filter;
+	private String[] names;
+	private String[] paths;
+	private boolean[] directories;
+
+	@Setup
+	public void setup() {
+		observedFolder = new ObservedFolder();
+		observedFolder.setTargetFolder(new File("").getAbsolutePath());
+		observedFolder.setLabel("benchmark");
+		observedFolder.setAllowedExtentions(Set.of("mxf", "mov", "mp4", "wav", "xml", "jpg", "tar.gz"));
+		observedFolder.setBlockedExtentions(Set.of("tmp", "part", "txt"));
+		observedFolder.setIgnoreFiles(Set.of("desktop.ini", ".DS_Store", "Thumbs.db"));
+		observedFolder.setIgnoreRelativePaths(Set.of("/never", "/dir1/never", "/dir2/temp"));
+		observedFolder.setBlockedFileNames(Set.of("~*", "*_old.*", "*.bak.*", "proxy_??_*", "Thumbs.db"));
+		observedFolder.setBlockedDirNames(Set.of("tmp*", "*.trash", "backup_??"));
+		observedFolder.postConfiguration();
+		filter = observedFolder.getFilter();
+
+		final var random = new Random(0);
+		names = new String[NAMES];
+		paths = new String[NAMES];
+		directories = new boolean[NAMES];
+		for (var pos = 0; pos < NAMES; pos++) {
+			directories[pos] = random.nextInt(10) == 0;
+			final var prefix = switch (random.nextInt(20)) {
+			case 0 -> "~";
+			case 1 -> "proxy_" + random.nextInt(100) + "_";
+			case 2 -> "tmp";
+			default -> "";
+			};
+			final var suffix = switch (random.nextInt(20)) {
+			case 0 -> "_old";
+			case 1 -> ".bak";
+			default -> "";
+			};
+			if (directories[pos]) {
+				names[pos] = prefix + "directory_" + random.nextInt(NAMES) + suffix;
+			} else {
+				names[pos] = prefix + "file_" + random.nextInt(NAMES) + suffix
+							 + "." + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+			}
+			paths[pos] = "/dir" + random.nextInt(5) + "/" + names[pos];
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NAMES)
+	public int compiled() {
+		var accepted = 0;
+		for (var pos = 0; pos < NAMES; pos++) {
+			if (filter.isAccepted(names[pos], paths[pos], directories[pos])) {
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NAMES)
+	public int legacy() {
+		var accepted = 0;
+		for (var pos = 0; pos < NAMES; pos++) {
+			if (legacyIsAccepted(names[pos], paths[pos], directories[pos])) {
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+
+	private boolean legacyIsAccepted(final String name, final String path, final boolean directory) {
+		if (observedFolder.getIgnoreFiles().contains(name.toLowerCase())) {
+			return false;
+		}
+		if (directory == false) {
+			final var allowedExtentions = observedFolder.getAllowedExtentions();
+			if (allowedExtentions.isEmpty() == false
+				&& WatchedFileScanner.containExtension(name, allowedExtentions) == false
+				|| WatchedFileScanner.containExtension(name, observedFolder.getBlockedExtentions())) {
+				return false;
+			}
+		}
+		final var ignoreRelativePaths = observedFolder.getIgnoreRelativePaths();
+		if (ignoreRelativePaths.isEmpty() == false && ignoreRelativePaths.contains(path)) {
+			return false;
+		}
+		if (directory) {
+			final var allowedDirNames = observedFolder.getAllowedDirNames();
+			if (allowedDirNames.isEmpty() == false) {
+				return allowedDirNames.stream().anyMatch(w -> wildcardMatch(name, w));
+			}
+			final var blockedDirNames = observedFolder.getBlockedDirNames();
+			if (blockedDirNames.isEmpty() == false) {
+				return blockedDirNames.stream().noneMatch(w -> wildcardMatch(name, w));
+			}
+		} else {
+			final var allowedFileNames = observedFolder.getAllowedFileNames();
+			if (allowedFileNames.isEmpty() == false) {
+				return allowedFileNames.stream().anyMatch(w -> wildcardMatch(name, w));
+			}
+			final var blockedFileNames = observedFolder.getBlockedFileNames();
+			if (blockedFileNames.isEmpty() == false) {
+				return blockedFileNames.stream().noneMatch(w -> wildcardMatch(name, w));
+			}
+		}
+		return true;
+	}
+
+}
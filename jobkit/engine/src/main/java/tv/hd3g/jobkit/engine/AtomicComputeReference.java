@@ -21,47 +21,60 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
+import lombok.Locked;
+
+/**
+ * ThreadSafe, without pin the virtual threads.
+ */
 public class AtomicComputeReference<T> {
 	private T t;
 
-	public synchronized T get() {
+	@Locked
+	public T get() {
 		return t;
 	}
 
-	public synchronized void set(final T t) {
+	@Locked
+	public void set(final T t) {
 		this.t = t;
 	}
 
-	public synchronized void setAnd(final T t, final Consumer<T> process) {
+	@Locked
+	public void setAnd(final T t, final Consumer<T> process) {
 		this.t = t;
 		process.accept(t);
 	}
 
-	public synchronized T reset() {
+	@Locked
+	public T reset() {
 		final var old = t;
 		t = null;
 		return old;
 	}
 
-	public synchronized boolean isSet() {
+	@Locked
+	public boolean isSet() {
 		return t != null;
 	}
 
-	public synchronized <V> V compute(final Function<T, V> process) {
+	@Locked
+	public <V> V compute(final Function<T, V> process) {
 		if (t == null) {
 			return null;
 		}
 		return process.apply(t);
 	}
 
-	public synchronized boolean computePredicate(final Predicate<T> process) {
+	@Locked
+	public boolean computePredicate(final Predicate<T> process) {
 		if (t == null) {
 			return false;
 		}
 		return process.test(t);
 	}
 
-	public synchronized void replace(final UnaryOperator<T> process) {
+	@Locked
+	public void replace(final UnaryOperator<T> process) {
 		t = process.apply(t);
 	}
 
@@ -1,16 +1,31 @@
 package tv.hd3g.jobkit.engine;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static tv.hd3g.jobkit.engine.BackgroundServiceCircuitState.CLOSED;
+import static tv.hd3g.jobkit.engine.BackgroundServiceCircuitState.HALF_OPEN;
+import static tv.hd3g.jobkit.engine.BackgroundServiceCircuitState.OPEN;
 
 import java.time.Duration;
 import java.util.Date;
+import java.util.Objects;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * ThreadSafe, without a global lock: all states are atomic, and the next run is planned only by the
+ * enabling, the timed interval change, the previous run end, or a run refused by its spool.
+ * Runs are queued like the JobKitTimer ones: the scheduledExecutor thread never waits on a full spool queue
+ * (BLOCK), and never runs a job itself (CALLER_RUNS).
+ */
 @Slf4j
 public class BackgroundService {
 
@@ -23,13 +38,21 @@ public class BackgroundService {
 	private final RunnableWithException disableTask;
 	private final JobKitWatchdog jobKitWatchdog;
 
-	private boolean enabled;
-	private ScheduledFuture<?> nextRunReference;
-	private long timedInterval;
-	private int priority;
-	private double retryAfterTimeFactor;
+	private final AtomicBoolean enabled;
+	private final AtomicReference<ScheduledFuture<?>> nextRunReference;
+	private final AtomicLong timedInterval;
+	private volatile int priority;
+	private volatile double retryAfterTimeFactor;
+	private volatile long maxRetryAfterTime;
+	private volatile BackgroundServiceRetryJitter retryJitter;
 	private final AtomicInteger sequentialErrorCount;
-	private boolean hasFirstStarted;
+	private final AtomicLong lastRetryDelay;
+	private volatile boolean hasFirstStarted;
+
+	private volatile int circuitFailureThreshold;
+	private volatile long circuitOpenDuration;
+	private final AtomicReference<BackgroundServiceCircuitState> circuitState;
+	private volatile long circuitOpenedAt;
 
 	public BackgroundService(final String name,
 							 final String spoolName,
@@ -48,138 +71,181 @@ public class BackgroundService {
 		this.task = task;
 		this.disableTask = disableTask;
 		hasFirstStarted = false;
-		enabled = false;
+		enabled = new AtomicBoolean(false);
+		nextRunReference = new AtomicReference<>();
+		timedInterval = new AtomicLong(0);
 		priority = 0;
 		retryAfterTimeFactor = 1;
+		maxRetryAfterTime = 0;
+		retryJitter = BackgroundServiceRetryJitter.NONE;
 		sequentialErrorCount = new AtomicInteger(0);
+		lastRetryDelay = new AtomicLong(0);
+		circuitFailureThreshold = 0;
+		circuitOpenDuration = 0;
+		circuitState = new AtomicReference<>(CLOSED);
 	}
 
 	public String getSpoolName() {
 		return spoolName;
 	}
 
-	private void ifNextRunReferenceScheduled(final Runnable ifReady) {
-		if (nextRunReference != null
-			&& nextRunReference.isDone() == false
-			&& nextRunReference.isCancelled() == false
-			&& nextRunReference.getDelay(MILLISECONDS) >= 0) {
-			ifReady.run();
-		}
+	private static boolean isScheduled(final ScheduledFuture<?> reference) {
+		return reference != null
+			   && reference.isDone() == false
+			   && reference.isCancelled() == false
+			   && reference.getDelay(MILLISECONDS) >= 0;
 	}
 
-	private synchronized void planNextExec(final long interval) {
-		ifNextRunReferenceScheduled(() -> {
+	private void planNextExec(final long interval) {
+		final var actualReference = nextRunReference.get();
+		if (isScheduled(actualReference)) {
 			throw new IllegalStateException("Beware, the nextRunReference for \"" + name + "\" is still active (in "
-											+ nextRunReference.getDelay(MILLISECONDS) + ")");
-		});
-		if (enabled == false) {
+											+ actualReference.getDelay(MILLISECONDS) + ")");
+		}
+		if (enabled.get() == false) {
 			throw new IllegalStateException("Beware, this service is not enabled (" + name + ")");
 		}
 		event.scheduleNextBackgroundServiceTask(name, spoolName, priority, interval);
-		nextRunReference = scheduledExecutor.schedule(() -> {
-			hasFirstStarted = true;
-			event.nextBackgroundServiceTask(name, spoolName, priority);
-			spooler.getExecutor(spoolName).addToQueue(task, name, priority, lastExecException -> {
-				if (enabled == false) {
-					return;
-				}
-				long nextInterval;
-				if (lastExecException != null) {
-					event.onPreviousRunWithError(name, spoolName, lastExecException);
-					nextInterval = Math.round(timedInterval
-											  * Math.pow(retryAfterTimeFactor, sequentialErrorCount.incrementAndGet()));
-					planNextExec(nextInterval);
-				} else {
-					sequentialErrorCount.set(0);
-					nextInterval = timedInterval;
-					planNextExec(nextInterval);
-				}
-				log.debug("Schedule for {} the next run to {} sec, the {}", name, nextInterval / 1000d,
-						new Date(System.currentTimeMillis() + nextInterval));
-				event.planNextExec(name, spoolName, nextInterval);
-			});
-		}, interval, MILLISECONDS);
+		BackgroundServiceScheduledEvent.emit(name, spoolName, priority, interval);
+		final var scheduled = scheduledExecutor.schedule(this::onScheduledRun, interval, MILLISECONDS);
+		if (nextRunReference.compareAndSet(actualReference, scheduled) == false) {
+			/**
+			 * Planned in the same time by another thread (enable and a previous run end)
+			 */
+			log.debug("The next run for \"{}\" is already planned", name);
+			scheduled.cancel(false);
+			return;
+		}
+		if (enabled.get() == false && nextRunReference.compareAndSet(scheduled, null)) {
+			/**
+			 * Disabled during the planning
+			 */
+			scheduled.cancel(false);
+		}
 	}
 
-	private synchronized void refreshInternalState(final boolean newEnabled, final long newTimedInterval) {
-		if (newTimedInterval == 0 && timedInterval > 0) {
-			throw new IllegalArgumentException("Invalid time interval of 0");
+	private void onScheduledRun() {
+		if (enabled.get() == false) {
+			return;
 		}
-		if (newEnabled) {
-			refreshToEnabledMode(newTimedInterval);
-		} else {
-			refreshToDisabledMode(newTimedInterval);
+		hasFirstStarted = true;
+		if (isCircuitOpen()) {
+			final var remaining = Math.max(1,
+					circuitOpenDuration - MILLISECONDS.convert(System.nanoTime() - circuitOpenedAt, NANOSECONDS));
+			log.debug("Circuit is open for \"{}\", skip this run and wait {} ms", name, remaining);
+			nextRunReference.set(null);
+			planNextExec(remaining);
+			return;
+		}
+		event.nextBackgroundServiceTask(name, spoolName, priority);
+		final var queued = spooler.getExecutor(spoolName)
+				.addToQueueFromTimer(task, name, priority, this::afterRun);
+		if (queued == false && enabled.get()) {
+			final var interval = timedInterval.get();
+			log.warn("Can't queue service \"{}\" on {}, retry in {} ms", name, spoolName, interval);
+			nextRunReference.set(null);
+			planNextExec(interval);
 		}
-		jobKitWatchdog.refreshBackgroundService(name, spoolName, enabled, timedInterval);
 	}
 
-	private void refreshToEnabledMode(final long newTimedInterval) {
-		if (enabled) {
-			/**
-			 * Still enabled
-			 */
-			if (newTimedInterval != timedInterval) {
-				log.info("Change Service interval time \"{}\", from {} to {}", name, timedInterval,
-						newTimedInterval);
-				ifNextRunReferenceScheduled(() -> {
-					final var eta = timedInterval - nextRunReference.getDelay(MILLISECONDS);
-					if (newTimedInterval > eta) {
-						/**
-						 * Extend interval: replan next time newTimedInterval-eta
-						 */
-						nextRunReference.cancel(false);
-						nextRunReference = null;
-						planNextExec(newTimedInterval - eta);
-					}
-				});
-				timedInterval = newTimedInterval;
-				event.onChangeTimedInterval(name, spoolName, timedInterval);
+	private void afterRun(final Exception lastExecException) {
+		if (enabled.get() == false) {
+			return;
+		}
+		long nextInterval;
+		if (lastExecException != null) {
+			event.onPreviousRunWithError(name, spoolName, lastExecException);
+			final var errorCount = sequentialErrorCount.incrementAndGet();
+			nextInterval = computeRetryDelay(errorCount);
+			if (onCircuitError(errorCount)) {
+				nextInterval = circuitOpenDuration;
 			}
 		} else {
-			/**
-			 * Wan't to enable
-			 */
-			if (timedInterval == 0) {
-				throw new IllegalArgumentException("Invalid time interval of 0");
+			sequentialErrorCount.set(0);
+			lastRetryDelay.set(0);
+			onCircuitSuccess();
+			nextInterval = timedInterval.get();
+		}
+		planNextExec(nextInterval);
+		log.debug("Schedule for {} the next run to {} sec, the {}", name, nextInterval / 1000d,
+				new Date(System.currentTimeMillis() + nextInterval));
+		event.planNextExec(name, spoolName, nextInterval);
+	}
+
+	/**
+	 * @return the delay before the next retry, in ms, at least 1
+	 */
+	long computeRetryDelay(final int errorCount) {
+		final var interval = timedInterval.get();
+		final var cap = maxRetryAfterTime > 0 ? maxRetryAfterTime : Long.MAX_VALUE;
+		final var random = ThreadLocalRandom.current();
+		final long delay;
+		switch (retryJitter) {
+		case FULL:
+			final var exponentialDelay = Math.min(cap,
+					Math.round(interval * Math.pow(retryAfterTimeFactor, errorCount)));
+			delay = exponentialDelay > 0 ? random.nextLong(exponentialDelay) + 1 : 1;
+			break;
+		case DECORRELATED:
+			final var previous = Math.max(interval, lastRetryDelay.get());
+			final var upper = Math.min(cap, previous > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : previous * 3);
+			delay = upper > interval ? random.nextLong(interval, upper) : Math.min(cap, interval);
+			break;
+		default:
+			delay = Math.min(cap, Math.round(interval * Math.pow(retryAfterTimeFactor, errorCount)));
+			break;
+		}
+		lastRetryDelay.set(delay);
+		return Math.max(1, delay);
+	}
+
+	private boolean isCircuitOpen() {
+		if (circuitState.get() != OPEN) {
+			return false;
+		}
+		final var openSince = MILLISECONDS.convert(System.nanoTime() - circuitOpenedAt, NANOSECONDS);
+		if (openSince < circuitOpenDuration) {
+			return true;
+		}
+		if (circuitState.compareAndSet(OPEN, HALF_OPEN)) {
+			log.info("Circuit is half-open for \"{}\", try a run", name);
+			event.onChangeCircuitState(name, spoolName, HALF_OPEN);
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the circuit is now open
+	 */
+	private boolean onCircuitError(final int errorCount) {
+		final var threshold = circuitFailureThreshold;
+		if (threshold < 1) {
+			return false;
+		}
+		final var actualState = circuitState.get();
+		if (actualState == HALF_OPEN || actualState == CLOSED && errorCount >= threshold) {
+			circuitOpenedAt = System.nanoTime();
+			if (circuitState.compareAndSet(actualState, OPEN)) {
+				log.warn("Circuit is open for \"{}\" after {} sequential error(s), skip runs during {} ms",
+						name, errorCount, circuitOpenDuration);
+				event.onChangeCircuitState(name, spoolName, OPEN);
 			}
-			log.info("Enable Service \"{}\" for each {}", name, timedInterval);
-			enabled = true;
-			event.onChangeEnabled(name, spoolName, enabled);
-			planNextExec(timedInterval);
 		}
+		return circuitState.get() == OPEN;
 	}
 
-	private void refreshToDisabledMode(final long newTimedInterval) {
-		if (enabled) {
-			/**
-			 * Wan't to disable
-			 */
-			log.info("Disable Service \"{}\"", name);
-			enabled = false;
-			event.onChangeEnabled(name, spoolName, enabled);
-			ifNextRunReferenceScheduled(() -> {
-				nextRunReference.cancel(false);
-				nextRunReference = null;
-			});
-			final var disableName = "On disable service " + name;
-			spooler.getExecutor(spoolName)
-					.addToQueue(disableTask, disableName, priority,
-							e -> {
-								if (e != null) {
-									log.warn("Can't run disableTask {}/{}", spoolName, disableName, e);
-								} else {
-									log.trace("Run disableTask {}/{} is ok", spoolName, disableName);
-								}
-							});
-		} else {
-			/**
-			 * Don't wan't to enable
-			 */
-			timedInterval = newTimedInterval;
-			event.onChangeTimedInterval(name, spoolName, timedInterval);
+	private void onCircuitSuccess() {
+		final var actualState = circuitState.get();
+		if (actualState != CLOSED && circuitState.compareAndSet(actualState, CLOSED)) {
+			log.info("Circuit is closed for \"{}\"", name);
+			event.onChangeCircuitState(name, spoolName, CLOSED);
 		}
 	}
 
+	private void refreshWatchdog() {
+		jobKitWatchdog.refreshBackgroundService(name, spoolName, enabled.get(), timedInterval.get());
+	}
+
 	public int getPriority() {
 		return priority;
 	}
@@ -189,40 +255,97 @@ public class BackgroundService {
 		return this;
 	}
 
-	public synchronized BackgroundService enable() {
-		refreshInternalState(true, timedInterval);
+	public BackgroundService enable() {
+		final var interval = timedInterval.get();
+		if (interval == 0) {
+			throw new IllegalArgumentException("Invalid time interval of 0");
+		}
+		if (enabled.compareAndSet(false, true)) {
+			log.info("Enable Service \"{}\" for each {}", name, interval);
+			event.onChangeEnabled(name, spoolName, true);
+			planNextExec(interval);
+		}
+		refreshWatchdog();
 		return this;
 	}
 
-	public synchronized BackgroundService disable() {
-		refreshInternalState(false, timedInterval);
+	public BackgroundService disable() {
+		if (enabled.compareAndSet(true, false)) {
+			log.info("Disable Service \"{}\"", name);
+			event.onChangeEnabled(name, spoolName, false);
+			final var reference = nextRunReference.getAndSet(null);
+			if (isScheduled(reference)) {
+				reference.cancel(false);
+			}
+			final var disableName = "On disable service " + name;
+			spooler.getExecutor(spoolName)
+					.addToQueue(disableTask, disableName, priority,
+							e -> {
+								if (e != null) {
+									log.warn("Can't run disableTask {}/{}", spoolName, disableName, e);
+								} else {
+									log.trace("Run disableTask {}/{} is ok", spoolName, disableName);
+								}
+							});
+		} else {
+			event.onChangeTimedInterval(name, spoolName, timedInterval.get());
+		}
+		refreshWatchdog();
 		return this;
 	}
 
-	public synchronized boolean isEnabled() {
-		return enabled;
+	public boolean isEnabled() {
+		return enabled.get();
+	}
+
+	private void changeTimedInterval(final long newTimedInterval) {
+		final var previousTimedInterval = timedInterval.get();
+		if (newTimedInterval == 0 && previousTimedInterval > 0) {
+			throw new IllegalArgumentException("Invalid time interval of 0");
+		}
+		if (enabled.get() == false) {
+			timedInterval.set(newTimedInterval);
+			event.onChangeTimedInterval(name, spoolName, newTimedInterval);
+		} else if (newTimedInterval != previousTimedInterval
+				   && timedInterval.compareAndSet(previousTimedInterval, newTimedInterval)) {
+			log.info("Change Service interval time \"{}\", from {} to {}", name, previousTimedInterval,
+					newTimedInterval);
+			final var reference = nextRunReference.get();
+			if (isScheduled(reference)) {
+				final var eta = previousTimedInterval - reference.getDelay(MILLISECONDS);
+				if (newTimedInterval > eta && nextRunReference.compareAndSet(reference, null)) {
+					/**
+					 * Extend interval: replan next time newTimedInterval-eta
+					 */
+					reference.cancel(false);
+					planNextExec(newTimedInterval - eta);
+				}
+			}
+			event.onChangeTimedInterval(name, spoolName, newTimedInterval);
+		}
+		refreshWatchdog();
 	}
 
-	public synchronized BackgroundService setTimedInterval(final long timedInterval, final TimeUnit unit) {
-		refreshInternalState(enabled, unit.toMillis(timedInterval));
+	public BackgroundService setTimedInterval(final long timedInterval, final TimeUnit unit) {
+		changeTimedInterval(unit.toMillis(timedInterval));
 		return this;
 	}
 
-	public synchronized long getTimedInterval(final TimeUnit unit) {
-		return unit.convert(timedInterval, TimeUnit.MILLISECONDS);
+	public long getTimedInterval(final TimeUnit unit) {
+		return unit.convert(timedInterval.get(), TimeUnit.MILLISECONDS);
 	}
 
-	public synchronized BackgroundService setTimedInterval(final Duration duration) {
-		refreshInternalState(enabled, duration.toMillis());
+	public BackgroundService setTimedInterval(final Duration duration) {
+		changeTimedInterval(duration.toMillis());
 		return this;
 	}
 
-	protected synchronized void setInternalTimedInterval(final Duration duration) {
-		timedInterval = duration.toMillis();
+	protected void setInternalTimedInterval(final Duration duration) {
+		timedInterval.set(duration.toMillis());
 	}
 
-	public synchronized Duration getTimedIntervalDuration() {
-		return Duration.ofMillis(timedInterval);
+	public Duration getTimedIntervalDuration() {
+		return Duration.ofMillis(timedInterval.get());
 	}
 
 	/**
@@ -236,8 +359,9 @@ public class BackgroundService {
 	 *        - 5000, 25000, 125000, 625000, 3125000, 15625000 (aprox. 260 min)
 	 *        With retryAfterTimeFactor = 10
 	 *        - 10000, 100000, 1000000, 10000000, 100000000, (aprox. 28 hrs)
+	 *        See setMaxRetryAfterTime and setRetryJitter for cap and randomize it.
 	 */
-	public synchronized BackgroundService setRetryAfterTimeFactor(final double retryAfterTimeFactor) {
+	public BackgroundService setRetryAfterTimeFactor(final double retryAfterTimeFactor) {
 		if (retryAfterTimeFactor <= 0d) {
 			throw new IllegalArgumentException("Invalid retryAfterTimeFactor: " + retryAfterTimeFactor);
 		}
@@ -246,29 +370,81 @@ public class BackgroundService {
 		return this;
 	}
 
-	protected synchronized void setInternalRetryAfterTimeFactor(final double retryAfterTimeFactor) {
+	protected void setInternalRetryAfterTimeFactor(final double retryAfterTimeFactor) {
 		this.retryAfterTimeFactor = retryAfterTimeFactor;
 	}
 
-	public synchronized double getRetryAfterTimeFactor() {
+	public double getRetryAfterTimeFactor() {
 		return retryAfterTimeFactor;
 	}
 
-	public synchronized boolean isHasFirstStarted() {
+	/**
+	 * @param maxRetryAfterTime the max delay before a retry after errors. Zero for no cap (default).
+	 */
+	public BackgroundService setMaxRetryAfterTime(final Duration maxRetryAfterTime) {
+		Objects.requireNonNull(maxRetryAfterTime, "\"maxRetryAfterTime\" can't to be null");
+		if (maxRetryAfterTime.isNegative()) {
+			throw new IllegalArgumentException("Invalid maxRetryAfterTime: " + maxRetryAfterTime);
+		}
+		this.maxRetryAfterTime = maxRetryAfterTime.toMillis();
+		return this;
+	}
+
+	public Duration getMaxRetryAfterTime() {
+		return Duration.ofMillis(maxRetryAfterTime);
+	}
+
+	/**
+	 * Default is NONE.
+	 */
+	public BackgroundService setRetryJitter(final BackgroundServiceRetryJitter retryJitter) {
+		this.retryJitter = Objects.requireNonNull(retryJitter, "\"retryJitter\" can't to be null");
+		return this;
+	}
+
+	public BackgroundServiceRetryJitter getRetryJitter() {
+		return retryJitter;
+	}
+
+	/**
+	 * After failureThreshold sequential errors, the circuit opens: the task will not be queued during openDuration.
+	 * Then, the next run is a trial: on success, the circuit closes, on error it opens again.
+	 * @param failureThreshold 0 for disable the circuit breaker (default)
+	 */
+	public BackgroundService setCircuitBreaker(final int failureThreshold, final Duration openDuration) {
+		Objects.requireNonNull(openDuration, "\"openDuration\" can't to be null");
+		if (failureThreshold < 0) {
+			throw new IllegalArgumentException("Invalid failureThreshold: " + failureThreshold);
+		} else if (openDuration.isNegative() || failureThreshold > 0 && openDuration.isZero()) {
+			throw new IllegalArgumentException("Invalid openDuration: " + openDuration);
+		}
+		circuitOpenDuration = openDuration.toMillis();
+		circuitFailureThreshold = failureThreshold;
+		if (failureThreshold == 0) {
+			onCircuitSuccess();
+		}
+		return this;
+	}
+
+	public BackgroundServiceCircuitState getCircuitState() {
+		return circuitState.get();
+	}
+
+	public boolean isHasFirstStarted() {
 		return hasFirstStarted;
 	}
 
-	public synchronized void runFirstOnStartup() {
-		if (enabled == false) {
+	public void runFirstOnStartup() {
+		if (enabled.get() == false) {
 			log.trace("Want to run first start service \"{}\" ({}), but it's disabled", name, spoolName);
 			return;
 		} else if (hasFirstStarted) {
 			log.debug("Want to run first start service \"{}\" ({}), but it has already been started", name, spoolName);
 			return;
 		}
-		if (nextRunReference != null) {
-			nextRunReference.cancel(false);
-			nextRunReference = null;
+		final var reference = nextRunReference.getAndSet(null);
+		if (reference != null) {
+			reference.cancel(false);
 		}
 		log.info("Run first start service \"{}\" ({})", name, spoolName);
 		planNextExec(1);
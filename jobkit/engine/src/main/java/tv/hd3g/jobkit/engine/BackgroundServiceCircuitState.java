@@ -0,0 +1,38 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * BackgroundService circuit breaker state.
+ */
+public enum BackgroundServiceCircuitState {
+
+	/**
+	 * Normal runs
+	 */
+	CLOSED,
+	/**
+	 * Too many sequential errors: the service task will not be queued until the open duration end
+	 */
+	OPEN,
+	/**
+	 * The open duration has ended: the next run is a trial, who closes the circuit on success,
+	 * or opens it again on error.
+	 */
+	HALF_OPEN;
+
+}
@@ -28,4 +28,9 @@ public interface BackgroundServiceEvent {
 	                                          final double retryAfterTimeFactor) {
 	}
 
+	default void onChangeCircuitState(final String name,
+	                                  final String spoolName,
+	                                  final BackgroundServiceCircuitState circuitState) {
+	}
+
 }
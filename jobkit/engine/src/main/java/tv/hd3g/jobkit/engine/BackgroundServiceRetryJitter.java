@@ -0,0 +1,39 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * How to randomize the BackgroundService retry delays after errors, so services in error on the same backend
+ * don't retry all in the same time.
+ */
+public enum BackgroundServiceRetryJitter {
+
+	/**
+	 * timedInterval * retryAfterTimeFactor ^ (error count), capped by maxRetryAfterTime
+	 */
+	NONE,
+	/**
+	 * A random delay between 0 and the NONE delay
+	 */
+	FULL,
+	/**
+	 * A random delay between timedInterval and 3 times the previous delay, capped by maxRetryAfterTime.
+	 * Ignore retryAfterTimeFactor.
+	 */
+	DECORRELATED;
+
+}
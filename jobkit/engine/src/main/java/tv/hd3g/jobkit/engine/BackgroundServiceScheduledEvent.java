@@ -0,0 +1,59 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("tv.hd3g.jobkit.BackgroundServiceScheduled")
+@Label("Background Service Scheduled")
+@Description("The next run of a background service (or a cron service) is planned")
+@Category({ "JobKit", "Service" })
+@StackTrace(false)
+final class BackgroundServiceScheduledEvent extends Event {
+
+	@Label("Service")
+	String serviceName;
+	@Label("Spool")
+	String spoolName;
+	@Label("Priority")
+	int priority;
+	@Label("Delay")
+	@Timespan(Timespan.MILLISECONDS)
+	long delay;
+
+	/**
+	 * Near zero cost if JFR is off, or if this event is disabled.
+	 */
+	static void emit(final String serviceName, final String spoolName, final int priority, final long delay) {
+		final var event = new BackgroundServiceScheduledEvent();
+		if (event.isEnabled() == false) {
+			return;
+		}
+		event.serviceName = serviceName;
+		event.spoolName = spoolName;
+		event.priority = priority;
+		event.delay = delay;
+		event.commit();
+	}
+
+}
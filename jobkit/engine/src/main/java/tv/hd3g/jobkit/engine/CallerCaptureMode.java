@@ -0,0 +1,102 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.function.Predicate.not;
+
+import java.util.stream.Stream;
+
+/**
+ * How to get the callers for queued jobs and Supervisable steps/results.
+ * In any case, the StackTraceElement is only resolved when someone reads it.
+ */
+public enum CallerCaptureMode {
+
+	/**
+	 * Never capture callers: all callers will be null. Default mode.
+	 */
+	OFF {
+		@Override
+		LazyCaller capture(final int skip) {
+			return LazyCaller.NONE;
+		}
+
+		@Override
+		LazyCaller captureFirstOutside(final String packageName) {
+			return LazyCaller.NONE;
+		}
+	},
+
+	/**
+	 * Walk the stack only up to the caller frame, on each job submission and Supervisable step/result.
+	 */
+	SINGLE_FRAME {
+		@Override
+		LazyCaller capture(final int skip) {
+			return WALKER.walk(s -> s.skip(skip + 1L).findFirst())
+					.map(f -> new LazyCaller(f::toStackTraceElement))
+					.orElse(LazyCaller.NONE);
+		}
+
+		@Override
+		LazyCaller captureFirstOutside(final String packageName) {
+			return WALKER.walk(s -> s
+					.filter(not(StackWalker.StackFrame::isNativeMethod))
+					.filter(not(f -> f.getClassName().startsWith(packageName)))
+					.findFirst())
+					.map(f -> new LazyCaller(f::toStackTraceElement))
+					.orElse(LazyCaller.NONE);
+		}
+	},
+
+	/**
+	 * Capture all the stack trace (the slower way).
+	 */
+	FULL_TRACE {
+		@Override
+		LazyCaller capture(final int skip) {
+			final var trace = new Throwable();
+			return new LazyCaller(() -> Stream.of(trace.getStackTrace())
+					.skip(skip + 1L)
+					.findFirst()
+					.orElse(null));
+		}
+
+		@Override
+		LazyCaller captureFirstOutside(final String packageName) {
+			final var trace = new Throwable();
+			return new LazyCaller(() -> Stream.of(trace.getStackTrace())
+					.filter(not(StackTraceElement::isNativeMethod))
+					.filter(not(t -> t.getClassName().startsWith(packageName)))
+					.findFirst()
+					.orElse(null));
+		}
+	};
+
+	private static final StackWalker WALKER = StackWalker.getInstance();
+
+	/**
+	 * @param skip frames to skip, relative to the capture() caller method (0 == the capture() caller)
+	 */
+	abstract LazyCaller capture(int skip);
+
+	/**
+	 * @return the first non-native caller outside this package name
+	 */
+	abstract LazyCaller captureFirstOutside(String packageName);
+
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable and ThreadSafe standard (5 fields) cron expression: "minute hour day-of-month month day-of-week".
+ * Fields accept "*", lists (1,2,3), ranges (1-5), steps (*&#47;15, 0-30/5), month and day names (JAN, MON),
+ * and 0 or 7 for Sunday.
+ * Like the Unix cron, if both day-of-month and day-of-week are restricted, a day match with one of them.
+ * Also accept the "@yearly", "@monthly", "@weekly", "@daily" and "@hourly" macros.
+ */
+public final class CronExpression {
+
+	private static final Map<String, String> MACROS = Map.of(
+			"@yearly", "0 0 1 1 *",
+			"@annually", "0 0 1 1 *",
+			"@monthly", "0 0 1 * *",
+			"@weekly", "0 0 * * 0",
+			"@daily", "0 0 * * *",
+			"@midnight", "0 0 * * *",
+			"@hourly", "0 * * * *");
+	private static final String[] MONTHS = {
+											 "JAN", "FEB", "MAR", "APR", "MAY", "JUN",
+											 "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+	private static final String[] DAYS_OF_WEEK = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+	private static final int MAX_SEARCH_YEARS = 8;
+
+	private final String expression;
+	private final long minutes;
+	private final long hours;
+	private final long daysOfMonth;
+	private final long months;
+	private final long daysOfWeek;
+	private final boolean daysOfMonthRestricted;
+	private final boolean daysOfWeekRestricted;
+
+	private CronExpression(final String expression) {
+		this.expression = expression;
+		final var fields = MACROS.getOrDefault(expression.toLowerCase(Locale.ENGLISH), expression)
+				.toUpperCase(Locale.ENGLISH)
+				.split("\\s+");
+		if (fields.length != 5) {
+			throw new IllegalArgumentException("Invalid cron expression \"" + expression
+											   + "\", it needs 5 fields (minute hour day-of-month month day-of-week)");
+		}
+		minutes = parseField(fields[0], 0, 59, null);
+		hours = parseField(fields[1], 0, 23, null);
+		daysOfMonth = parseField(fields[2], 1, 31, null);
+		months = parseField(fields[3], 1, 12, MONTHS);
+		final var dow = parseField(fields[4], 0, 7, DAYS_OF_WEEK);
+		daysOfWeek = (dow & ~(1L << 7)) | (dow >>> 7);
+		daysOfMonthRestricted = fields[2].startsWith("*") == false;
+		daysOfWeekRestricted = fields[4].startsWith("*") == false;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the expression is invalid
+	 */
+	public static CronExpression parse(final String expression) {
+		return new CronExpression(Objects.requireNonNull(expression, "\"expression\" can't to be null").trim());
+	}
+
+	private static long parseField(final String field, final int min, final int max, final String[] names) {
+		var bits = 0L;
+		for (final var part : field.split(",")) {
+			final var slash = part.indexOf('/');
+			final var range = slash < 0 ? part : part.substring(0, slash);
+			final var step = slash < 0 ? 1 : parseValue(part.substring(slash + 1), 1, max, null, field);
+
+			final int from;
+			final int to;
+			if (range.equals("*")) {
+				from = min;
+				to = max;
+			} else if (range.contains("-")) {
+				final var dash = range.indexOf('-');
+				from = parseValue(range.substring(0, dash), min, max, names, field);
+				to = parseValue(range.substring(dash + 1), min, max, names, field);
+			} else {
+				from = parseValue(range, min, max, names, field);
+				to = slash < 0 ? from : max;
+			}
+			if (from > to) {
+				throw new IllegalArgumentException("Invalid cron range \"" + part + "\"");
+			}
+			for (var value = from; value <= to; value += step) {
+				bits |= 1L << value;
+			}
+		}
+		return bits;
+	}
+
+	private static int parseValue(final String value,
+								  final int min,
+								  final int max,
+								  final String[] names,
+								  final String field) {
+		if (names != null) {
+			for (var pos = 0; pos < names.length; pos++) {
+				if (names[pos].equals(value)) {
+					return pos + (min == 1 ? 1 : 0);
+				}
+			}
+		}
+		final int result;
+		try {
+			result = Integer.parseInt(value);
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cron field \"" + field + "\"", e);
+		}
+		if (result < min || result > max) {
+			throw new IllegalArgumentException("Invalid cron field \"" + field + "\", "
+											   + result + " is out of [" + min + "-" + max + "]");
+		}
+		return result;
+	}
+
+	private static boolean match(final long bits, final int value) {
+		return (bits & (1L << value)) != 0;
+	}
+
+	private boolean matchDay(final ZonedDateTime date) {
+		final var dom = match(daysOfMonth, date.getDayOfMonth());
+		final var dow = match(daysOfWeek, date.getDayOfWeek().getValue() % 7);
+		if (daysOfMonthRestricted && daysOfWeekRestricted) {
+			return dom || dow;
+		}
+		return dom && dow;
+	}
+
+	/**
+	 * @return the next matching date, strictly after the provided date, on the same time zone.
+	 * @throws IllegalStateException if no date can match (like "0 0 31 2 *")
+	 */
+	public ZonedDateTime next(final ZonedDateTime after) {
+		var date = after.truncatedTo(MINUTES).plusMinutes(1);
+		final var limit = date.plusYears(MAX_SEARCH_YEARS);
+		while (date.isBefore(limit)) {
+			if (match(months, date.getMonthValue()) == false) {
+				date = date.truncatedTo(DAYS).withDayOfMonth(1).plusMonths(1);
+			} else if (matchDay(date) == false) {
+				date = date.truncatedTo(DAYS).plusDays(1);
+			} else if (match(hours, date.getHour()) == false) {
+				date = date.truncatedTo(HOURS).plusHours(1);
+			} else if (match(minutes, date.getMinute()) == false) {
+				date = date.plusMinutes(1);
+			} else {
+				return date;
+			}
+		}
+		throw new IllegalStateException("No date can match the cron expression \"" + expression + "\"");
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	@Override
+	public int hashCode() {
+		return expression.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		return obj instanceof final CronExpression other && expression.equals(other.expression);
+	}
+
+}
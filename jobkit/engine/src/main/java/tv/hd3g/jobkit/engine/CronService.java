@@ -0,0 +1,255 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A background service run on each CronExpression match, on its spool. The next run is only planned after the
+ * end of the current one: two runs of the same service will never overlap (a late run will skip the
+ * missed matches).
+ * Its timer is shared with the delayed jobs of its JobKitEngine: like them, with the BLOCK and CALLER_RUNS
+ * admission policies, a run is queued over the spool queue capacity.
+ */
+@Slf4j
+public class CronService {
+
+	private final String name;
+	private final String spoolName;
+	private final Spooler spooler;
+	private final JobKitTimer timer;
+	private final BackgroundServiceEvent event;
+	private final JobKitWatchdog jobKitWatchdog;
+	private final CronExpression cronExpression;
+	private final ZoneId zoneId;
+	private final RunnableWithException task;
+	private final RunnableWithException disableTask;
+
+	private boolean enabled;
+	private int priority;
+	private JobKitTimer.TimerEntry nextRunReference;
+	private ZonedDateTime nextRunDate;
+	private final ReentrantLock lock;
+
+	CronService(final String name,
+				final String spoolName,
+				final Spooler spooler,
+				final JobKitTimer timer,
+				final BackgroundServiceEvent event,
+				final JobKitWatchdog jobKitWatchdog,
+				final CronExpression cronExpression,
+				final ZoneId zoneId,
+				final RunnableWithException task,
+				final RunnableWithException disableTask) {
+		this.name = name;
+		this.spoolName = spoolName;
+		this.spooler = spooler;
+		this.timer = timer;
+		this.event = event;
+		this.jobKitWatchdog = jobKitWatchdog;
+		this.cronExpression = Objects.requireNonNull(cronExpression, "\"cronExpression\" can't to be null");
+		this.zoneId = Objects.requireNonNull(zoneId, "\"zoneId\" can't to be null");
+		this.task = Objects.requireNonNull(task, "\"task\" can't to be null");
+		this.disableTask = Objects.requireNonNull(disableTask, "\"disableTask\" can't to be null");
+		enabled = false;
+		priority = 0;
+		lock = new ReentrantLock();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getSpoolName() {
+		return spoolName;
+	}
+
+	public CronExpression getCronExpression() {
+		return cronExpression;
+	}
+
+	public ZoneId getZoneId() {
+		return zoneId;
+	}
+
+	public int getPriority() {
+		lock.lock();
+		try {
+			return priority;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public CronService setPriority(final int priority) {
+		lock.lock();
+		try {
+			this.priority = priority;
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	public boolean isEnabled() {
+		lock.lock();
+		try {
+			return enabled;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return empty if disabled, or during a run
+	 */
+	public Optional<ZonedDateTime> getNextRunDate() {
+		lock.lock();
+		try {
+			return Optional.ofNullable(nextRunDate);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public CronService enable() {
+		lock.lock();
+		try {
+			if (enabled) {
+				return this;
+			}
+			log.info("Enable cron service \"{}\" with \"{}\" ({})", name, cronExpression, zoneId);
+			enabled = true;
+			event.onChangeEnabled(name, spoolName, enabled);
+			planNextExec();
+			jobKitWatchdog.refreshBackgroundService(name, spoolName, enabled, getNominalInterval());
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	public CronService disable() {
+		final int disablePriority;
+		lock.lock();
+		try {
+			if (enabled == false) {
+				return this;
+			}
+			log.info("Disable cron service \"{}\"", name);
+			enabled = false;
+			event.onChangeEnabled(name, spoolName, enabled);
+			if (nextRunReference != null) {
+				nextRunReference.cancel();
+				nextRunReference = null;
+			}
+			nextRunDate = null;
+			jobKitWatchdog.refreshBackgroundService(name, spoolName, enabled, 0);
+			disablePriority = priority;
+		} finally {
+			lock.unlock();
+		}
+
+		final var disableName = "On disable service " + name;
+		spooler.getExecutor(spoolName)
+				.addToQueue(disableTask, disableName, disablePriority,
+						e -> {
+							if (e != null) {
+								log.warn("Can't run disableTask {}/{}", spoolName, disableName, e);
+							} else {
+								log.trace("Run disableTask {}/{} is ok", spoolName, disableName);
+							}
+						});
+		return this;
+	}
+
+	/**
+	 * @return the time between the next two matches, for the watchdog policies
+	 */
+	private long getNominalInterval() {
+		final var next = cronExpression.next(ZonedDateTime.now(zoneId));
+		return Duration.between(next, cronExpression.next(next)).toMillis();
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private long planNextExec() {
+		final var now = ZonedDateTime.now(zoneId);
+		nextRunDate = cronExpression.next(now);
+		final var delay = Duration.between(now, nextRunDate);
+		event.scheduleNextBackgroundServiceTask(name, spoolName, priority, delay.toMillis());
+		BackgroundServiceScheduledEvent.emit(name, spoolName, priority, delay.toMillis());
+		nextRunReference = timer.schedule(delay, this::onTimer, null);
+		return delay.toMillis();
+	}
+
+	/**
+	 * Run by the timer thread: just queue the task.
+	 */
+	private void onTimer() {
+		lock.lock();
+		try {
+			if (enabled == false) {
+				return;
+			}
+			nextRunReference = null;
+			nextRunDate = null;
+			event.nextBackgroundServiceTask(name, spoolName, priority);
+			final var queued = spooler.getExecutor(spoolName)
+					.addToQueueFromTimer(task, name, priority, this::afterRun);
+			if (queued == false) {
+				log.warn("Can't queue cron service \"{}\" on {}, wait for the next match", name, spoolName);
+				planNextExec();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void afterRun(final Exception lastExecException) {
+		lock.lock();
+		try {
+			if (enabled == false) {
+				return;
+			}
+			if (lastExecException != null) {
+				event.onPreviousRunWithError(name, spoolName, lastExecException);
+			}
+			if (nextRunReference != null) {
+				/**
+				 * Disabled then enabled during this run: the next run is already planned by enable()
+				 */
+				log.debug("The next run of {} is already planned to {}", name, nextRunDate);
+				return;
+			}
+			final var nextInterval = planNextExec();
+			log.debug("Schedule for {} the next run to {} sec, the {}", name, nextInterval / 1000d, nextRunDate);
+			event.planNextExec(name, spoolName, nextInterval);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
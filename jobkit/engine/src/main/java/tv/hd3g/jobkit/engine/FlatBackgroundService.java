@@ -36,43 +36,43 @@ class FlatBackgroundService extends BackgroundService {
 	}
 
 	@Override
-	public synchronized BackgroundService disable() {
+	public BackgroundService disable() {
 		scheduledExecutor.remove(runReference);
 		disableTask.toRunnable().run();
 		return this;
 	}
 
 	@Override
-	public synchronized BackgroundService enable() {
+	public BackgroundService enable() {
 		scheduledExecutor.add(runReference);
 		return this;
 	}
 
 	@Override
-	public synchronized boolean isEnabled() {
+	public boolean isEnabled() {
 		return scheduledExecutor.contain(runReference);
 	}
 
 	@Override
-	public synchronized BackgroundService setRetryAfterTimeFactor(final double retryAfterTimeFactor) {
+	public BackgroundService setRetryAfterTimeFactor(final double retryAfterTimeFactor) {
 		super.setInternalRetryAfterTimeFactor(retryAfterTimeFactor);
 		return this;
 	}
 
 	@Override
-	public synchronized BackgroundService setTimedInterval(final Duration duration) {
+	public BackgroundService setTimedInterval(final Duration duration) {
 		super.setInternalTimedInterval(duration);
 		return this;
 	}
 
 	@Override
-	public synchronized BackgroundService setTimedInterval(final long timedInterval, final TimeUnit unit) {
+	public BackgroundService setTimedInterval(final long timedInterval, final TimeUnit unit) {
 		super.setInternalTimedInterval(Duration.ofMillis(unit.toMillis(timedInterval)));
 		return this;
 	}
 
 	@Override
-	public synchronized void runFirstOnStartup() {
+	public void runFirstOnStartup() {
 		/**
 		 * Not needed, not implemented
 		 */
@@ -19,11 +19,16 @@ package tv.hd3g.jobkit.engine;
 import static tv.hd3g.jobkit.engine.Supervisable.manuallyRegistedSupervisables;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +41,7 @@ public class FlatJobKitEngine extends JobKitEngine {
 	private final List<SupervisableEndEvent> endEvents;
 	private final FlatSupervisableEvents supervisableEvents;
 	private final List<RunnableWithException> disableTaskList;
+	private volatile CallerCaptureMode callerCaptureMode;
 
 	public FlatJobKitEngine() {
 		super();
@@ -43,6 +49,7 @@ public class FlatJobKitEngine extends JobKitEngine {
 		endEvents = Collections.synchronizedList(new ArrayList<>());
 		disableTaskList = Collections.synchronizedList(new ArrayList<>());
 		supervisableEvents = new FlatSupervisableEvents();
+		callerCaptureMode = CallerCaptureMode.OFF;
 	}
 
 	private class FlatSupervisableEvents implements SupervisableEvents {
@@ -103,26 +110,74 @@ public class FlatJobKitEngine extends JobKitEngine {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public void setSpoolThreadType(final String spoolName, final SpoolThreadType threadType) {
+		log.debug("Set thread type {} for spool {} (not used here)", threadType, spoolName);
+	}
+
+	@Override
+	public void setSpoolParallelism(final String spoolName, final int parallelism) {
+		log.debug("Set parallelism {} for spool {} (not used here)", parallelism, spoolName);
+	}
+
+	@Override
+	public void setSharedWorkerPool(final int workers, final SpoolThreadType threadType) {
+		log.debug("Set shared worker pool of {} {} thread(s) (not used here)", workers, threadType);
+	}
+
+	@Override
+	public void setSpoolPoolWeight(final String spoolName, final int poolWeight) {
+		log.debug("Set pool weight {} for spool {} (not used here)", poolWeight, spoolName);
+	}
+
+	@Override
+	public void setSpoolMetricsListener(final SpoolMetricsListener metricsListener) {
+		log.debug("Set metrics listener {} (not used here)", metricsListener);
+	}
+
+	@Override
+	public void setSpoolPriorityAging(final String spoolName, final Duration agingStep) {
+		log.debug("Set priority aging {} for spool {} (not used here)", agingStep, spoolName);
+	}
+
+	@Override
+	public void setSpoolAdmission(final String spoolName,
+								  final int queueCapacity,
+								  final SpoolAdmissionPolicy admissionPolicy,
+								  final Duration blockTimeout) {
+		log.debug("Set queue capacity {} ({}) for spool {} (not used here)", queueCapacity, admissionPolicy, spoolName);
+	}
+
+	@Override
+	public void setSpoolRateLimit(final String spoolName, final double permitsPerSecond, final int burst) {
+		log.debug("Set rate limit {}/sec for spool {} (not used here)", permitsPerSecond, spoolName);
+	}
+
+	@Override
+	public void setCallerCaptureMode(final CallerCaptureMode callerCaptureMode) {
+		this.callerCaptureMode = Objects.requireNonNull(callerCaptureMode, "\"callerCaptureMode\" can't to be null");
+	}
+
 	@Override
 	public boolean runOneShot(final Job job) {
 		final var name = job.getJobName();
 		final var spoolName = job.getJobSpoolname();
 
-		var supervisable = new Supervisable(spoolName, "BEFORE " + name, supervisableEvents);
+		var supervisable = new Supervisable(spoolName, "BEFORE " + name, supervisableEvents, callerCaptureMode);
 		manuallyRegistedSupervisables.set(supervisable);
 		job.onJobStart();
 		try {
 			job.run();
 			supervisable.end();
 
-			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents);
+			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents, callerCaptureMode);
 			manuallyRegistedSupervisables.set(supervisable);
 			job.onJobDone();
 			supervisable.end();
 		} catch (final Exception e) {
 			supervisable.end(e);
 
-			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents);
+			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents, callerCaptureMode);
 			manuallyRegistedSupervisables.set(supervisable);
 			job.onJobFail(e);
 			supervisable.end(e);
@@ -137,20 +192,20 @@ public class FlatJobKitEngine extends JobKitEngine {
 							  final int priority,
 							  final RunnableWithException task,
 							  final Consumer<Exception> afterRunCommand) {
-		var supervisable = new Supervisable(spoolName, "BEFORE " + name, supervisableEvents);
+		var supervisable = new Supervisable(spoolName, "BEFORE " + name, supervisableEvents, callerCaptureMode);
 		manuallyRegistedSupervisables.set(supervisable);
 		try {
 			task.run();
 			supervisable.end();
 
-			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents);
+			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents, callerCaptureMode);
 			manuallyRegistedSupervisables.set(supervisable);
 			afterRunCommand.accept(null);
 			supervisable.end();
 		} catch (final Exception e) {
 			supervisable.end(e);
 
-			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents);
+			supervisable = new Supervisable(spoolName, AFTER + name, supervisableEvents, callerCaptureMode);
 			manuallyRegistedSupervisables.set(supervisable);
 			afterRunCommand.accept(e);
 			supervisable.end(e);
@@ -159,6 +214,90 @@ public class FlatJobKitEngine extends JobKitEngine {
 		return true;
 	}
 
+	@Override
+	public JobFuture submit(final String name,
+							final String spoolName,
+							final int priority,
+							final RunnableWithException task,
+							final Consumer<Exception> afterRunCommand) {
+		final var error = new AtomicReference<Exception>();
+		runOneShot(name, spoolName, priority, task, e -> {
+			error.set(e);
+			afterRunCommand.accept(e);
+		});
+
+		final var future = new JobFuture(() -> false);
+		if (error.get() == null) {
+			future.complete(null);
+		} else {
+			future.completeExceptionally(error.get());
+		}
+		return future;
+	}
+
+	/**
+	 * Run the job now, without journal it.
+	 */
+	@Override
+	public JobFuture submit(final String spoolName, final JobDescriptor descriptor) {
+		final var journal = getSpoolJournal()
+				.orElseThrow(() -> new IllegalStateException("No SpoolJournal is set"));
+		return submit(descriptor.name(), spoolName, descriptor.priority(), journal.createTask(descriptor), e -> {
+		});
+	}
+
+	/**
+	 * Run the job now, without wait the delay.
+	 */
+	@Override
+	public JobFuture submitAfter(final String name,
+								 final String spoolName,
+								 final int priority,
+								 final Duration delay,
+								 final RunnableWithException task,
+								 final Consumer<Exception> afterRunCommand) {
+		log.debug("Run now {}, spool {}, instead of after {}", name, spoolName, delay);
+		return submit(name, spoolName, priority, task, afterRunCommand);
+	}
+
+	/**
+	 * Run the job now, without wait the date.
+	 */
+	@Override
+	public JobFuture submitAt(final String name,
+							  final String spoolName,
+							  final int priority,
+							  final Instant at,
+							  final RunnableWithException task,
+							  final Consumer<Exception> afterRunCommand) {
+		log.debug("Run now {}, spool {}, instead of at {}", name, spoolName, at);
+		return submit(name, spoolName, priority, task, afterRunCommand);
+	}
+
+	@Override
+	public CronService startCronService(final String name,
+										final String spoolName,
+										final CronExpression cronExpression,
+										final ZoneId zoneId,
+										final RunnableWithException serviceTask,
+										final RunnableWithException onServiceDisableTask) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Run all tasks now, one by one.
+	 */
+	@Override
+	public List<JobFuture> submitAll(final String name,
+									 final String spoolName,
+									 final int priority,
+									 final Collection<? extends RunnableWithException> tasks,
+									 final Consumer<Exception> afterRunCommand) {
+		return tasks.stream()
+				.map(task -> submit(name, spoolName, priority, task, afterRunCommand))
+				.toList();
+	}
+
 	@Override
 	void shutdown() {
 		disableTaskList.forEach(d -> d.toRunnable().run());
@@ -0,0 +1,32 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Objects;
+
+/**
+ * A serializable job, for the SpoolJournal. The job task is (re)created by the JobTypeFactory registered for jobType.
+ * @param payload free content for the factory (a path, a JSON, an id...). Can be null.
+ */
+public record JobDescriptor(String jobType, String name, int priority, String payload) {
+
+	public JobDescriptor {
+		Objects.requireNonNull(jobType, "\"jobType\" can't to be null");
+		Objects.requireNonNull(name, "\"name\" can't to be null");
+	}
+
+}
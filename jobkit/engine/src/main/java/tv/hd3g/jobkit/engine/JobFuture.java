@@ -0,0 +1,91 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Completed when a queued job ends (exceptionally if the job fails).
+ * Cancel it to remove the job from its spool queue. If the job is running, cancel(true) will interrupt it,
+ * cooperatively: the job should check Thread.interrupted() for stop it. In this case, this future is
+ * cancelled before the real job end.
+ */
+@Slf4j
+public class JobFuture extends CompletableFuture<Void> {
+
+	private final BooleanSupplier removeFromQueue;
+	private volatile Thread runningThread;
+	private volatile JobFuture delegate;
+
+	JobFuture(final BooleanSupplier removeFromQueue) {
+		this.removeFromQueue = Objects.requireNonNull(removeFromQueue, "\"removeFromQueue\" can't to be null");
+	}
+
+	void setRunningThread(final Thread runningThread) {
+		this.runningThread = runningThread;
+	}
+
+	/**
+	 * For the delayed jobs: this future will follow the real queued job future, and cancel it on cancel.
+	 */
+	void delegateTo(final JobFuture queued) {
+		delegate = Objects.requireNonNull(queued, "\"queued\" can't to be null");
+		queued.whenComplete((v, e) -> {
+			if (queued.isCancelled()) {
+				super.cancel(false);
+			} else if (e != null) {
+				completeExceptionally(e);
+			} else {
+				complete(null);
+			}
+		});
+		if (isCancelled()) {
+			queued.cancel(false);
+		}
+	}
+
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		if (isDone()) {
+			return false;
+		}
+		final var queued = delegate;
+		if (queued != null) {
+			if (queued.cancel(mayInterruptIfRunning) == false) {
+				return false;
+			}
+			super.cancel(false);
+			return true;
+		}
+		if (removeFromQueue.getAsBoolean()) {
+			log.debug("Queued job is removed from its spool");
+			return super.cancel(false);
+		}
+		final var cancelled = super.cancel(mayInterruptIfRunning);
+		final var thread = runningThread;
+		if (cancelled && mayInterruptIfRunning && thread != null) {
+			log.debug("Interrupt running job thread {}", thread.getName());
+			thread.interrupt();
+		}
+		return cancelled;
+	}
+
+}
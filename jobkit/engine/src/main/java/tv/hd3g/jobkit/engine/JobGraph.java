@@ -0,0 +1,80 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Describe jobs to run across spools, each one started as soon as all its dependencies are done.
+ * Dependencies must be added before the nodes that use them, so a JobGraph can't have cycles.
+ * Not thread safe: build it, then submit it with JobKitEngine.submit(JobGraph).
+ */
+public class JobGraph {
+
+	private final String name;
+	private final Map<String, JobGraphNode> nodes;
+
+	public JobGraph(final String name) {
+		this.name = Objects.requireNonNull(name, "\"name\" can't to be null");
+		nodes = new LinkedHashMap<>();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param dependsOn names of nodes previously added on this graph
+	 * @throws IllegalArgumentException if this node name is already added, or for an unknown dependency
+	 */
+	public JobGraph addNode(final String nodeName,
+							final String spoolName,
+							final int priority,
+							final RunnableWithException task,
+							final String... dependsOn) {
+		final var node = new JobGraphNode(nodeName, spoolName, priority, task, Arrays.asList(dependsOn));
+		if (nodes.containsKey(nodeName)) {
+			throw new IllegalArgumentException("Node \"" + nodeName + "\" is already added on " + name);
+		}
+		node.dependsOn().stream()
+				.filter(d -> nodes.containsKey(d) == false)
+				.findFirst()
+				.ifPresent(d -> {
+					throw new IllegalArgumentException("Unknown dependency \"" + d + "\" for node \"" + nodeName
+													   + "\" on " + name + ": add it before");
+				});
+		nodes.put(nodeName, node);
+		return this;
+	}
+
+	/**
+	 * @return all nodes, in the add order (a topological order)
+	 */
+	public Collection<JobGraphNode> getNodes() {
+		return Collections.unmodifiableCollection(nodes.values());
+	}
+
+	public boolean isEmpty() {
+		return nodes.isEmpty();
+	}
+
+}
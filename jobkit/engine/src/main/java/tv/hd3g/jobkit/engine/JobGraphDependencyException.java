@@ -0,0 +1,45 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * A JobGraph node is not run because one of its dependencies has failed. The cause is the dependency error.
+ */
+public class JobGraphDependencyException extends RuntimeException {
+
+	private final String nodeName;
+	private final String dependencyName;
+
+	public JobGraphDependencyException(final String graphName,
+									   final String nodeName,
+									   final String dependencyName,
+									   final Throwable cause) {
+		super("Can't run \"" + nodeName + "\" on " + graphName + ": its dependency \"" + dependencyName
+			  + "\" has failed", cause);
+		this.nodeName = nodeName;
+		this.dependencyName = dependencyName;
+	}
+
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	public String getDependencyName() {
+		return dependencyName;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The running JobGraph nodes futures. A node future is completed on its job end, failed with a
+ * JobGraphDependencyException if one of its dependencies has failed, or cancelled if one of its dependencies was
+ * cancelled.
+ */
+public class JobGraphExecution {
+
+	private final String graphName;
+	private final Map<String, JobFuture> futures;
+	private final CompletableFuture<Void> allDone;
+
+	JobGraphExecution(final String graphName, final Map<String, JobFuture> futures) {
+		this.graphName = graphName;
+		this.futures = Collections.unmodifiableMap(futures);
+		allDone = CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new));
+	}
+
+	public String getGraphName() {
+		return graphName;
+	}
+
+	/**
+	 * @return node name -&gt; node future, in the graph order
+	 */
+	public Map<String, JobFuture> getFutures() {
+		return futures;
+	}
+
+	public Optional<JobFuture> getFuture(final String nodeName) {
+		return Optional.ofNullable(futures.get(nodeName));
+	}
+
+	/**
+	 * @return completed when all nodes are done, exceptionally if one of them has failed or was cancelled
+	 */
+	public CompletableFuture<Void> getAllDone() {
+		return allDone;
+	}
+
+	/**
+	 * Cancel all the not done nodes: remove them from the spool queues, or interrupt them if they are running
+	 * and mayInterruptIfRunning. Not started nodes will never be queued.
+	 */
+	public void cancel(final boolean mayInterruptIfRunning) {
+		futures.values().forEach(f -> f.cancel(mayInterruptIfRunning));
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A JobGraph node: a task to run on its spool, after the end of all its dependencies.
+ * @param dependsOn the names of the nodes to wait before run this one
+ */
+public record JobGraphNode(String name,
+						   String spoolName,
+						   int priority,
+						   RunnableWithException task,
+						   List<String> dependsOn) {
+
+	public JobGraphNode {
+		Objects.requireNonNull(name, "\"name\" can't to be null");
+		Objects.requireNonNull(spoolName, "\"spoolName\" can't to be null");
+		Objects.requireNonNull(task, "\"task\" can't to be null");
+		dependsOn = List.copyOf(Objects.requireNonNull(dependsOn, "\"dependsOn\" can't to be null"));
+	}
+
+}
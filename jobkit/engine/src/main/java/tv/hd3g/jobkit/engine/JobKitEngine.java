@@ -3,15 +3,23 @@ package tv.hd3g.jobkit.engine;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import lombok.Getter;
@@ -21,6 +29,8 @@ import lombok.extern.slf4j.Slf4j;
 public class JobKitEngine implements JobTrait {
 
 	private final List<BackgroundService> backgroundServices;
+	private final List<CronService> cronServices;
+	private final JobKitTimer timer;
 	private final ScheduledExecutorService scheduledExecutor;
 	private final BackgroundServiceEvent backgroundServiceEvent;
 	private final Spooler spooler;
@@ -29,6 +39,7 @@ public class JobKitEngine implements JobTrait {
 	private final Set<String> spoolsNamesToKeepRunningToTheEnd;
 	@Getter
 	private final JobKitWatchdog jobKitWatchdog;
+	private volatile SpoolJournal spoolJournal;
 
 	public JobKitEngine(final ScheduledExecutorService scheduledExecutor,
 						final ExecutionEvent executionEvent,
@@ -37,6 +48,8 @@ public class JobKitEngine implements JobTrait {
 		this.scheduledExecutor = scheduledExecutor;
 		this.backgroundServiceEvent = backgroundServiceEvent;
 		backgroundServices = Collections.synchronizedList(new ArrayList<>());
+		cronServices = Collections.synchronizedList(new ArrayList<>());
+		timer = new JobKitTimer("JobKitTimer");
 		spoolsNamesToKeepRunningToTheEnd = Collections.synchronizedSet(new HashSet<>());
 		this.supervisableManager = supervisableManager;
 		shutdown = new AtomicBoolean(false);
@@ -63,6 +76,8 @@ public class JobKitEngine implements JobTrait {
 		spooler = null;
 		jobKitWatchdog = null;
 		backgroundServices = null;
+		cronServices = null;
+		timer = null;
 		supervisableManager = null;
 		shutdown = new AtomicBoolean(false);
 		spoolsNamesToKeepRunningToTheEnd = null;
@@ -87,6 +102,247 @@ public class JobKitEngine implements JobTrait {
 		return spooler.getExecutor(spoolName).addToQueue(task, name, priority, afterRunCommand);
 	}
 
+	/**
+	 * @param afterRunCommand called before the future completion, with the job error (or null)
+	 * @return completed on the job end, or failed with a RejectedExecutionException if the spool is shutdown.
+	 *         Cancel it for remove the job from the queue, or interrupt it if it's running.
+	 */
+	public JobFuture submit(final String name,
+							final String spoolName,
+							final int priority,
+							final RunnableWithException task,
+							final Consumer<Exception> afterRunCommand) {
+		checkNoShutdown();
+		return spooler.getExecutor(spoolName).submit(task, name, priority, afterRunCommand);
+	}
+
+	/**
+	 * @return completed on the job end, or failed with a RejectedExecutionException if the spool is shutdown.
+	 *         Cancel it for remove the job from the queue, or interrupt it if it's running.
+	 */
+	public JobFuture submit(final String name,
+							final String spoolName,
+							final int priority,
+							final RunnableWithException task) {
+		return submit(name, spoolName, priority, task, e -> {
+		});
+	}
+
+	/**
+	 * Queue the job in its spool after this delay. Delayed jobs don't use a thread: they wait on a timer shared
+	 * by all delayed jobs and cron services. The timer never waits on a full spool queue: with the BLOCK and
+	 * CALLER_RUNS admission policies, the job is queued over the queue capacity.
+	 * @param delay zero or negative for queue it as soon as possible
+	 * @param afterRunCommand called before the future completion, with the job error (or null)
+	 * @return completed on the job end, or failed with a RejectedExecutionException if the spool is shutdown
+	 *         before the job queuing. Cancel it for cancel the delayed queuing, remove the job from the queue,
+	 *         or interrupt it if it's running.
+	 */
+	public JobFuture submitAfter(final String name,
+								 final String spoolName,
+								 final int priority,
+								 final Duration delay,
+								 final RunnableWithException task,
+								 final Consumer<Exception> afterRunCommand) {
+		checkNoShutdown();
+		Objects.requireNonNull(task, "\"task\" can't to be null");
+		Objects.requireNonNull(afterRunCommand, "\"afterRunCommand\" can't to be null");
+		final var entryRef = new AtomicReference<JobKitTimer.TimerEntry>();
+		final var future = new JobFuture(() -> Optional.ofNullable(entryRef.get())
+				.map(JobKitTimer.TimerEntry::cancel)
+				.orElse(false));
+		final var entry = timer.schedule(delay,
+				() -> {
+					if (shutdown.get()) {
+						future.completeExceptionally(new RejectedExecutionException(
+								"JobKit is currently to close, can't queue " + name));
+						return;
+					}
+					future.delegateTo(spooler.getExecutor(spoolName)
+							.submitFromTimer(task, name, priority, afterRunCommand));
+				},
+				() -> future.completeExceptionally(new RejectedExecutionException(
+						"JobKit is closed before the " + name + " delay")));
+		entryRef.set(entry);
+		return future;
+	}
+
+	/**
+	 * Queue the job in its spool at this date. See submitAfter.
+	 * @param at if in the past, the job will be queued as soon as possible
+	 */
+	public JobFuture submitAt(final String name,
+							  final String spoolName,
+							  final int priority,
+							  final Instant at,
+							  final RunnableWithException task,
+							  final Consumer<Exception> afterRunCommand) {
+		Objects.requireNonNull(at, "\"at\" can't to be null");
+		return submitAfter(name, spoolName, priority, Duration.between(Instant.now(), at), task, afterRunCommand);
+	}
+
+	/**
+	 * Queue all tasks in one operation, with the same name and priority, like for a large watchfolder scan.
+	 * Watchdog notifications and caller capture are done one time for all the batch.
+	 * @param afterRunCommand called after each task, with the task error (or null)
+	 * @return one future by task, in the tasks order
+	 */
+	public List<JobFuture> submitAll(final String name,
+									 final String spoolName,
+									 final int priority,
+									 final Collection<? extends RunnableWithException> tasks,
+									 final Consumer<Exception> afterRunCommand) {
+		checkNoShutdown();
+		return spooler.getExecutor(spoolName).submitAll(tasks, name, priority, afterRunCommand);
+	}
+
+	/**
+	 * @return completed on the job end, or failed with a RejectedExecutionException if the spool is shutdown.
+	 *         Cancel it for remove the job from the queue, or interrupt it if it's running.
+	 */
+	public JobFuture submit(final Job job) {
+		return submit(job.getJobName(), job.getJobSpoolname(), job.getJobPriority(), () -> {
+			job.onJobStart();
+			job.run();
+		}, e -> {
+			if (e != null) {
+				job.onJobFail(e);
+			} else {
+				job.onJobDone();
+			}
+		});
+	}
+
+	/**
+	 * Submit all the graph nodes: each node is queued on its spool only when all its dependencies are done,
+	 * without wait in a thread. Each node job is named "graph name/node name". A node error adds a "jobGraphNode"
+	 * context to its Supervisable: a successful node don't create a Supervisable only for this context.
+	 * If a node fails, all its downstream nodes fail with a JobGraphDependencyException and will never be queued.
+	 * If a node is cancelled, all its downstream nodes are cancelled.
+	 */
+	public JobGraphExecution submit(final JobGraph graph) {
+		checkNoShutdown();
+		final var futures = new LinkedHashMap<String, JobFuture>();
+		graph.getNodes().forEach(node -> {
+			final var future = new JobFuture(() -> false);
+			final var dependencies = node.dependsOn().stream()
+					.map(futures::get)
+					.toList();
+			futures.put(node.name(), future);
+
+			if (dependencies.isEmpty()) {
+				queueGraphNode(graph.getName(), node, future);
+				return;
+			}
+			final var remaining = new AtomicInteger(dependencies.size());
+			for (var pos = 0; pos < dependencies.size(); pos++) {
+				final var dependency = dependencies.get(pos);
+				final var dependencyName = node.dependsOn().get(pos);
+				dependency.whenComplete((v, e) -> {
+					if (dependency.isCancelled()) {
+						future.cancel(false);
+					} else if (e != null) {
+						future.completeExceptionally(
+								new JobGraphDependencyException(graph.getName(), node.name(), dependencyName, e));
+					} else if (remaining.decrementAndGet() == 0) {
+						queueGraphNode(graph.getName(), node, future);
+					}
+				});
+			}
+		});
+		return new JobGraphExecution(graph.getName(), futures);
+	}
+
+	private void queueGraphNode(final String graphName, final JobGraphNode node, final JobFuture future) {
+		if (future.isDone()) {
+			return;
+		}
+		final RunnableWithException task = () -> {
+			try {
+				node.task().run();
+			} catch (final Exception e) {
+				/**
+				 * A Supervisable is created anyway for this error
+				 */
+				Supervisable.getSupervisable().setContext("jobGraphNode",
+						"graph", graphName,
+						"node", node.name(),
+						"dependsOn", node.dependsOn());
+				throw e;
+			}
+		};
+		try {
+			future.delegateTo(submit(graphName + "/" + node.name(), node.spoolName(), node.priority(), task, e -> {
+			}));
+		} catch (final IllegalStateException e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Journaled submit: if the app stops before the job end, the job will be replayed on the next startup.
+	 * Needs a SpoolJournal, with a registered JobTypeFactory for this descriptor job type.
+	 * @return completed on the job end, or failed with a RejectedExecutionException if the spool refuses it
+	 *         (the job is also removed from the journal). Cancel it for remove the job from the queue and
+	 *         the journal, or interrupt it if it's running.
+	 */
+	public JobFuture submit(final String spoolName, final JobDescriptor descriptor) {
+		checkNoShutdown();
+		final var journal = Optional.ofNullable(spoolJournal)
+				.orElseThrow(() -> new IllegalStateException("No SpoolJournal is set"));
+		final var task = journal.createTask(descriptor);
+		final var id = journal.append(spoolName, descriptor);
+		return submitJournaled(journal, spoolName, id, descriptor, task);
+	}
+
+	private JobFuture submitJournaled(final SpoolJournal journal,
+									  final String spoolName,
+									  final long id,
+									  final JobDescriptor descriptor,
+									  final RunnableWithException task) {
+		/**
+		 * Removed before the job end, so a shutdown will not keep it
+		 */
+		final var future = spooler.getExecutor(spoolName).submit(task, descriptor.name(), descriptor.priority(),
+				e -> journal.remove(spoolName, id));
+		future.whenComplete((v, e) -> {
+			/**
+			 * A job refused by the spool admission will never run: the caller get the error, not the journal.
+			 */
+			if (future.isCancelled() == false && e instanceof RejectedExecutionException == false) {
+				return;
+			} else if (shutdown.get()) {
+				log.debug("Keep on journal the job {} canceled by shutdown, on {}", descriptor.name(), spoolName);
+				return;
+			}
+			journal.remove(spoolName, id);
+		});
+		return future;
+	}
+
+	/**
+	 * Submit again the jobs loaded from the journal files, in their original order by spool.
+	 * Jobs without registered job type are ignored, and kept on the journal.
+	 */
+	private void replayJournal() {
+		final var journal = spoolJournal;
+		if (journal == null) {
+			return;
+		}
+		journal.getJobsToReplay().forEach((spoolName, jobs) -> {
+			log.info("Replay {} journaled job(s) on spool {}", jobs.size(), spoolName);
+			jobs.forEach((id, descriptor) -> {
+				final var oFactory = journal.getFactory(descriptor.jobType());
+				if (oFactory.isEmpty()) {
+					log.error("Can't replay job {} on {}: unregistred job type {}",
+							descriptor.name(), spoolName, descriptor.jobType());
+					return;
+				}
+				submitJournaled(journal, spoolName, id, descriptor, oFactory.get().createTask(descriptor));
+			});
+		});
+	}
+
 	public BackgroundService createService(final String name, // NOSONAR S1133
 										   final String spoolName,
 										   final RunnableWithException serviceTask,
@@ -131,12 +387,160 @@ public class JobKitEngine implements JobTrait {
 		return startService(name, spoolName, duration.toMillis(), MILLISECONDS, serviceTask, onServiceDisableTask);
 	}
 
+	/**
+	 * Create and enable a service run on each cron expression match.
+	 * @param cronExpression like "*&#47;15 8-18 * * MON-FRI", see CronExpression
+	 */
+	public CronService startCronService(final String name,
+										final String spoolName,
+										final CronExpression cronExpression,
+										final ZoneId zoneId,
+										final RunnableWithException serviceTask,
+										final RunnableWithException onServiceDisableTask) {
+		checkNoShutdown();
+		final var service = new CronService(name,
+				spoolName,
+				spooler,
+				timer,
+				backgroundServiceEvent,
+				jobKitWatchdog,
+				cronExpression,
+				zoneId,
+				serviceTask,
+				onServiceDisableTask);
+		cronServices.add(service);
+		return service.enable();
+	}
+
+	/**
+	 * Create and enable a service run on each cron expression match, on the system time zone.
+	 * @param cronExpression like "*&#47;15 8-18 * * MON-FRI", see CronExpression
+	 */
+	public CronService startCronService(final String name,
+										final String spoolName,
+										final String cronExpression,
+										final RunnableWithException serviceTask,
+										final RunnableWithException onServiceDisableTask) {
+		return startCronService(name, spoolName, CronExpression.parse(cronExpression), ZoneId.systemDefault(),
+				serviceTask, onServiceDisableTask);
+	}
+
 	public Spooler getSpooler() {
 		return spooler;
 	}
 
+	/**
+	 * Set how the jobs of this spool will be run (platform or virtual threads). Create the spool as needed.
+	 * Only applied on the next started jobs.
+	 */
+	public void setSpoolThreadType(final String spoolName, final SpoolThreadType threadType) {
+		checkNoShutdown();
+		spooler.getExecutor(spoolName).setThreadType(threadType);
+	}
+
+	/**
+	 * Set the max jobs count to run in the same time on this spool (default is 1). Create the spool as needed.
+	 */
+	public void setSpoolParallelism(final String spoolName, final int parallelism) {
+		checkNoShutdown();
+		spooler.getExecutor(spoolName).setParallelism(parallelism);
+	}
+
+	/**
+	 * Run the jobs of all spools with a shared pool of workers threads, instead of one new thread by job.
+	 * Each spool still applies its parallelism. See Spooler.setWorkerPool.
+	 * @param workers 0 for stop to use a shared pool (default)
+	 */
+	public void setSharedWorkerPool(final int workers, final SpoolThreadType threadType) {
+		checkNoShutdown();
+		spooler.setWorkerPool(workers, threadType);
+	}
+
+	/**
+	 * Set the share of the shared worker pool for this spool (default is 1), against the other spools with queued
+	 * jobs. Create the spool as needed.
+	 */
+	public void setSpoolPoolWeight(final String spoolName, final int poolWeight) {
+		checkNoShutdown();
+		spooler.getExecutor(spoolName).setPoolWeight(poolWeight);
+	}
+
+	/**
+	 * Set a metrics listener for all actual and future spools. Metrics are also available with
+	 * getSpooler().getSpoolsMetrics().
+	 * @param metricsListener can be null, to remove the actual listener
+	 */
+	public void setSpoolMetricsListener(final SpoolMetricsListener metricsListener) {
+		checkNoShutdown();
+		spooler.setMetricsListener(metricsListener);
+	}
+
+	/**
+	 * Let the queued jobs gain +1 priority for each agingStep spend in this spool queue (zero for disable it,
+	 * by default). Create the spool as needed.
+	 */
+	public void setSpoolPriorityAging(final String spoolName, final Duration agingStep) {
+		checkNoShutdown();
+		spooler.getExecutor(spoolName).setPriorityAging(agingStep);
+	}
+
+	/**
+	 * Set the max queued jobs count on this spool, and what to do with the new jobs when the queue is full.
+	 * Create the spool as needed. See SpoolExecutor.getAdmissionStats for the counters.
+	 * @param queueCapacity 0 for an unlimited queue (default)
+	 * @param blockTimeout only used with the BLOCK policy
+	 */
+	public void setSpoolAdmission(final String spoolName,
+								  final int queueCapacity,
+								  final SpoolAdmissionPolicy admissionPolicy,
+								  final Duration blockTimeout) {
+		checkNoShutdown();
+		spooler.getExecutor(spoolName)
+				.setAdmissionPolicy(admissionPolicy)
+				.setAdmissionBlockTimeout(blockTimeout)
+				.setQueueCapacity(queueCapacity);
+	}
+
+	/**
+	 * Limit the jobs starts on this spool to permitsPerSecond, with a token bucket of burst size.
+	 * Throttled jobs wait in the queue, without use a thread. Create the spool as needed.
+	 * See getSpooler().getSpoolsRateLimitStats() for the current rates and the throttled times.
+	 * @param permitsPerSecond 0 for remove the limit (default)
+	 */
+	public void setSpoolRateLimit(final String spoolName, final double permitsPerSecond, final int burst) {
+		checkNoShutdown();
+		spooler.setRateLimit(spoolName, permitsPerSecond, burst);
+	}
+
+	/**
+	 * Set how to capture the job creators and the Supervisable callers, for all spools (default is OFF).
+	 * Only applied on the next added jobs.
+	 */
+	public void setCallerCaptureMode(final CallerCaptureMode callerCaptureMode) {
+		checkNoShutdown();
+		spooler.setCallerCaptureMode(callerCaptureMode);
+	}
+
+	/**
+	 * Set a journal for the submit(spoolName, JobDescriptor) jobs. Its pending jobs will be replayed with
+	 * onApplicationReadyRunBackgroundServices, so register all job types before.
+	 * It will be closed with this engine.
+	 */
+	public void setSpoolJournal(final SpoolJournal spoolJournal) {
+		checkNoShutdown();
+		this.spoolJournal = Objects.requireNonNull(spoolJournal, "\"spoolJournal\" can't to be null");
+	}
+
+	public Optional<SpoolJournal> getSpoolJournal() {
+		return Optional.ofNullable(spoolJournal);
+	}
+
+	/**
+	 * Replay the journaled jobs (if a SpoolJournal is set), before start the background services.
+	 */
 	public void onApplicationReadyRunBackgroundServices() {
 		checkNoShutdown();
+		replayJournal();
 		backgroundServices.forEach(BackgroundService::runFirstOnStartup);
 	}
 
@@ -151,7 +555,10 @@ public class JobKitEngine implements JobTrait {
 		log.warn("App want to close: shutdown jobKitEngine...");
 		shutdown.set(true);
 		backgroundServices.forEach(BackgroundService::disable);
+		cronServices.forEach(CronService::disable);
+		timer.close();
 		spooler.shutdown(spoolsNamesToKeepRunningToTheEnd);
+		Optional.ofNullable(spoolJournal).ifPresent(SpoolJournal::close);
 		Optional.ofNullable(supervisableManager).ifPresent(SupervisableManager::close);
 	}
 
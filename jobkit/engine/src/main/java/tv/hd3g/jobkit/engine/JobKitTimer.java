@@ -0,0 +1,175 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One thread and one DelayQueue for all the delayed jobs and cron services: each pending timer only costs
+ * one queue entry. Timer actions are run by the timer thread, so they must be quick, like queue a job in a spool.
+ */
+@Slf4j
+class JobKitTimer {
+
+	private final DelayQueue<TimerEntry> queue;
+	private final AtomicLong sequence;
+	private final AtomicBoolean closed;
+	private final Thread thread;
+
+	JobKitTimer(final String threadName) {
+		queue = new DelayQueue<>();
+		sequence = new AtomicLong();
+		closed = new AtomicBoolean(false);
+		thread = Thread.ofPlatform()
+				.name(threadName)
+				.daemon(true)
+				.start(this::run);
+	}
+
+	class TimerEntry implements Delayed {
+		private final long deadline;
+		private final long index;
+		private final Runnable action;
+		private final Runnable onClose;
+		private final AtomicBoolean done;
+
+		private TimerEntry(final long deadline, final Runnable action, final Runnable onClose) {
+			this.deadline = deadline;
+			this.action = action;
+			this.onClose = onClose;
+			index = sequence.getAndIncrement();
+			done = new AtomicBoolean(false);
+		}
+
+		@Override
+		public long getDelay(final TimeUnit unit) {
+			return unit.convert(deadline - System.nanoTime(), NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(final Delayed o) {
+			final var other = (TimerEntry) o;
+			final var compared = Long.compare(deadline - other.deadline, 0);
+			if (compared == 0) {
+				return Long.compare(index, other.index);
+			}
+			return compared;
+		}
+
+		/**
+		 * @return false if the action is already run (or running), or if it was already cancelled
+		 */
+		boolean cancel() {
+			if (done.compareAndSet(false, true)) {
+				queue.remove(this);
+				return true;
+			}
+			return false;
+		}
+
+		boolean isDone() {
+			return done.get();
+		}
+
+		private void fire(final Runnable toRun) {
+			if (toRun == null || done.compareAndSet(false, true) == false) {
+				return;
+			}
+			try {
+				toRun.run();
+			} catch (final RuntimeException e) {
+				log.error("Can't run timer action", e);
+			}
+		}
+
+	}
+
+	/**
+	 * @param delay if negative or zero, the action will be run as soon as possible, by the timer thread
+	 * @param onClose run instead of the action, if this timer is closed before the delay. Can be null.
+	 */
+	TimerEntry schedule(final Duration delay, final Runnable action, final Runnable onClose) {
+		Objects.requireNonNull(delay, "\"delay\" can't to be null");
+		Objects.requireNonNull(action, "\"action\" can't to be null");
+		if (closed.get()) {
+			throw new IllegalStateException("This timer is closed");
+		}
+		final long delayNanos;
+		if (delay.isNegative()) {
+			delayNanos = 0;
+		} else {
+			delayNanos = saturatedNanos(delay);
+		}
+		final var entry = new TimerEntry(System.nanoTime() + delayNanos, action, onClose);
+		queue.add(entry);
+		return entry;
+	}
+
+	private static long saturatedNanos(final Duration delay) {
+		try {
+			return delay.toNanos();
+		} catch (final ArithmeticException e) {
+			return Long.MAX_VALUE / 2;
+		}
+	}
+
+	/**
+	 * @return the pending timers count
+	 */
+	int size() {
+		return queue.size();
+	}
+
+	private void run() {
+		while (closed.get() == false) {
+			try {
+				final var entry = queue.take();
+				entry.fire(entry.action);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		log.debug("Timer thread {} is now closed", Thread.currentThread().getName());
+	}
+
+	/**
+	 * Run the onClose of all pending timers, and stop the timer thread. Non-blocking.
+	 */
+	void close() {
+		if (closed.compareAndSet(false, true) == false) {
+			return;
+		}
+		final var pending = List.copyOf(queue);
+		queue.clear();
+		log.debug("Close timer {}, with {} pending timer(s)", thread.getName(), pending.size());
+		pending.forEach(entry -> entry.fire(entry.onClose));
+		thread.interrupt();
+	}
+
+}
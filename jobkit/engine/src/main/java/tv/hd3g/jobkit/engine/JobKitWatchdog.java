@@ -18,13 +18,12 @@ package tv.hd3g.jobkit.engine;
 
 import static java.lang.Long.MAX_VALUE;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static java.util.function.Predicate.not;
-import static java.util.stream.Collectors.toUnmodifiableMap;
-import static java.util.stream.Collectors.toUnmodifiableSet;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,9 +32,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import lombok.extern.slf4j.Slf4j;
 import tv.hd3g.jobkit.engine.watchdog.JobWatchdogPolicy;
@@ -46,16 +47,24 @@ import tv.hd3g.jobkit.engine.watchdog.WatchableSpoolJobState;
 
 /**
  * ThreadSafe
+ * Jobs and services are indexed by spool on each event, and policies evaluations are coalesced:
+ * a burst of events will only trigger one evaluation.
  */
 @Slf4j
 public class JobKitWatchdog {
 
+	private static final Comparator<WatchableSpoolJobState> STARTED_ORDER = Comparator
+			.<WatchableSpoolJobState> comparingLong(j -> j.startedDate().orElse(MAX_VALUE))
+			.thenComparingLong(WatchableSpoolJobState::createdIndex);
+
 	private final SupervisableEvents supervisableEvents;
 	private final ScheduledExecutorService scheduledExecutor;
 	private final List<JobWatchdogPolicy> policies;
-	private final Map<String, Set<WatchableBackgroundService>> activeServicesBySpool;
-	private final Map<String, Set<WatchableSpoolJobState>> jobsBySpool;
+	private final Map<String, SpoolIndex> indexBySpool;
 	private final Map<String, JobWatchdogSpoolReport> tiggeredPolicyBySpool;
+	private final ReentrantLock lock;
+	private final Policies policiesEvaluation;
+	private final AtomicBoolean evaluationPending;
 	private final AtomicComputeReference<ScheduledFuture<?>> nextPolicyCheck;
 	private final AtomicBoolean shutdown;
 
@@ -64,9 +73,11 @@ public class JobKitWatchdog {
 		this.supervisableEvents = supervisableEvents;
 		this.scheduledExecutor = scheduledExecutor;
 		policies = new ArrayList<>();
-		activeServicesBySpool = new HashMap<>();
-		jobsBySpool = new HashMap<>();
+		indexBySpool = new HashMap<>();
 		tiggeredPolicyBySpool = new HashMap<>();
+		lock = new ReentrantLock();
+		policiesEvaluation = new Policies();
+		evaluationPending = new AtomicBoolean(false);
 		nextPolicyCheck = new AtomicComputeReference<>();
 		shutdown = new AtomicBoolean(false);
 	}
@@ -88,6 +99,9 @@ public class JobKitWatchdog {
 		}
 	}
 
+	/**
+	 * Only one evaluation can wait to run: the next ones are coalesced with it.
+	 */
 	private void executePolicies() {
 		if (shutdown.get()) {
 			log.debug("Don't apply policies: shutdown");
@@ -97,258 +111,392 @@ public class JobKitWatchdog {
 			log.debug("Don't apply policies: closed scheduledExecutor");
 			return;
 		}
-		scheduledExecutor.execute(new Policies());
+		if (evaluationPending.compareAndSet(false, true)) {
+			scheduledExecutor.execute(policiesEvaluation);
+		} else {
+			log.trace("Policies evaluation is already pending");
+		}
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private SpoolIndex getSpoolIndex(final String spoolName) {
+		return indexBySpool.computeIfAbsent(spoolName, n -> new SpoolIndex());
 	}
 
 	void refreshBackgroundService(final String serviceName,
 								  final String spoolName,
 								  final boolean enabled,
 								  final long timedInterval) {
-		synchronized (activeServicesBySpool) {
-			activeServicesBySpool.putIfAbsent(spoolName, new HashSet<>());
-			final var services = activeServicesBySpool.get(spoolName);
-			services.removeIf(s -> s.serviceName().equals(spoolName));
+		lock.lock();
+		try {
+			final var index = getSpoolIndex(spoolName);
+			index.services.removeIf(s -> s.serviceName().equals(serviceName));
 			if (enabled) {
-				services.add(
+				index.services.add(
 						new WatchableBackgroundService(
 								serviceName,
 								spoolName,
 								timedInterval));
 			}
+			index.servicesSnapshot = null;
+		} finally {
+			lock.unlock();
 		}
 		executePolicies();
 	}
 
-	private void addWatchableJob(final Set<WatchableSpoolJobState> jobs,
-								 final WatchableSpoolJob job,
-								 final Date createdDate,
-								 final long statedDate) {
+	private static WatchableSpoolJobState createWatchableJob(final WatchableSpoolJob job,
+															 final Date createdDate,
+															 final long statedDate) {
 		Optional<Long> oStartedDate = Optional.empty();
 		if (statedDate > 0l) {
 			oStartedDate = Optional.ofNullable(statedDate);
 		}
-		jobs.add(
-				new WatchableSpoolJobState(createdDate,
-						job.getCommandName(),
-						job.getCreatedIndex(),
-						job.getCreator(),
-						oStartedDate));
+		return new WatchableSpoolJobState(createdDate,
+				job.getCommandName(),
+				job.getCreatedIndex(),
+				job.getCreator(),
+				oStartedDate);
 	}
 
 	void addJob(final WatchableSpoolJob job) {
-		final var createdDate = new Date();
-		synchronized (jobsBySpool) {
-			jobsBySpool.putIfAbsent(job.getSpoolName(), new HashSet<>());
-			final var jobs = jobsBySpool.get(job.getSpoolName());
-			addWatchableJob(jobs, job, createdDate, 0);
+		final var state = createWatchableJob(job, new Date(), 0);
+		lock.lock();
+		try {
+			getSpoolIndex(job.getSpoolName()).addQueued(state);
+		} finally {
+			lock.unlock();
 		}
 		executePolicies();
 	}
 
-	private WatchableSpoolJobState getOldAndRemoveJobInSpool(final WatchableSpoolJob job,
-															 final Set<WatchableSpoolJobState> jobs) {
-		final var createdIndex = job.getCreatedIndex();
-		final var createdJob = jobs.stream()
-				.filter(j -> j.createdIndex() == createdIndex)
-				.findFirst()
-				.orElseThrow(() -> new IllegalStateException("Can't found job {}/{} #{} in current active jobs"));
-		jobs.remove(createdJob);
-		return createdJob;
+	/**
+	 * Only one lock and one policies evaluation for all the jobs.
+	 */
+	void addJobs(final Collection<? extends WatchableSpoolJob> jobs) {
+		if (jobs.isEmpty()) {
+			return;
+		}
+		final var createdDate = new Date();
+		final var states = jobs.stream()
+				.map(job -> createWatchableJob(job, createdDate, 0))
+				.toList();
+		final var spoolNames = jobs.stream()
+				.map(WatchableSpoolJob::getSpoolName)
+				.toList();
+		lock.lock();
+		try {
+			for (var pos = 0; pos < states.size(); pos++) {
+				getSpoolIndex(spoolNames.get(pos)).addQueued(states.get(pos));
+			}
+		} finally {
+			lock.unlock();
+		}
+		executePolicies();
 	}
 
 	void startJob(final WatchableSpoolJob job, final long startedDate) {
-		synchronized (jobsBySpool) {
-			final var jobs = jobsBySpool.get(job.getSpoolName());
-			final var createdJob = getOldAndRemoveJobInSpool(job, jobs);
-			addWatchableJob(jobs, job, createdJob.createdDate(), startedDate);
+		lock.lock();
+		try {
+			final var index = getSpoolIndex(job.getSpoolName());
+			final var createdJob = index.remove(job);
+			index.addRunning(createWatchableJob(job, createdJob.createdDate(), startedDate));
+		} finally {
+			lock.unlock();
 		}
 		executePolicies();
 	}
 
 	void endJob(final WatchableSpoolJob job) {
-		synchronized (jobsBySpool) {
-			final var jobs = jobsBySpool.get(job.getSpoolName());
-			getOldAndRemoveJobInSpool(job, jobs);
+		lock.lock();
+		try {
+			getSpoolIndex(job.getSpoolName()).remove(job);
+		} finally {
+			lock.unlock();
 		}
 		executePolicies();
 	}
 
-	private static <T> Map<String, Set<T>> deepCloneFilterEmpty(final Map<String, Set<T>> map) {
-		return map.keySet().stream()
-				.filter(key -> map.get(key).isEmpty() == false)
-				.collect(toUnmodifiableMap(key -> key,
-						key -> map.get(key)
-								.stream()
-								.collect(toUnmodifiableSet())));
-	}
+	/**
+	 * Incremental jobs and services state for a spool. Not ThreadSafe.
+	 * Immutable snapshots of queued jobs and services are kept between changes: a policies evaluation only
+	 * copy the spools changed since the previous one.
+	 */
+	private static class SpoolIndex {
+		private final Map<Long, WatchableSpoolJobState> jobsByCreatedIndex;
+		private final Set<WatchableSpoolJobState> queuedJobs;
+		private final TreeSet<WatchableSpoolJobState> runningJobs;
+		private final Set<WatchableBackgroundService> services;
+		/**
+		 * null after a change
+		 */
+		private Set<WatchableSpoolJobState> queuedJobsSnapshot;
+		private Set<WatchableBackgroundService> servicesSnapshot;
+
+		SpoolIndex() {
+			jobsByCreatedIndex = new HashMap<>();
+			queuedJobs = new HashSet<>();
+			runningJobs = new TreeSet<>(STARTED_ORDER);
+			services = new HashSet<>();
+		}
 
-	private class Policies implements Runnable {
+		void addQueued(final WatchableSpoolJobState job) {
+			jobsByCreatedIndex.put(job.createdIndex(), job);
+			queuedJobs.add(job);
+			queuedJobsSnapshot = null;
+		}
+
+		void addRunning(final WatchableSpoolJobState job) {
+			jobsByCreatedIndex.put(job.createdIndex(), job);
+			runningJobs.add(job);
+		}
 
-		private Map<String, Set<WatchableSpoolJobState>> currentJobsBySpool;
-		private Map<String, Set<WatchableBackgroundService>> currentServicesBySpool;
+		WatchableSpoolJobState remove(final WatchableSpoolJob job) {
+			final var oldJob = jobsByCreatedIndex.remove(job.getCreatedIndex());
+			if (oldJob == null) {
+				throw new IllegalStateException("Can't found job " + job.getSpoolName() + "/" + job.getCommandName()
+												+ " #" + job.getCreatedIndex() + " in current active jobs");
+			}
+			if (oldJob.startedDate().isPresent()) {
+				runningJobs.remove(oldJob);
+			} else {
+				queuedJobs.remove(oldJob);
+				queuedJobsSnapshot = null;
+			}
+			return oldJob;
+		}
 
-		private Set<WatchableSpoolJobState> getQueuedJobs(final String spoolName) {
-			return currentJobsBySpool.get(spoolName)
-					.stream()
-					.filter(j -> j.startedDate().isPresent() == false)
-					.collect(toUnmodifiableSet());
+		Set<WatchableSpoolJobState> getQueuedJobsSnapshot() {
+			if (queuedJobsSnapshot == null) {
+				queuedJobsSnapshot = Set.copyOf(queuedJobs);
+			}
+			return queuedJobsSnapshot;
 		}
 
-		private Optional<WatchableSpoolJobState> getActiveJob(final String spoolName) {
-			return currentJobsBySpool.get(spoolName)
-					.stream()
-					.filter(j -> j.startedDate().isPresent())
-					.findFirst();
+		Set<WatchableBackgroundService> getServicesSnapshot() {
+			if (servicesSnapshot == null) {
+				servicesSnapshot = Set.copyOf(services);
+			}
+			return servicesSnapshot;
+		}
+
+		/**
+		 * @return the older started job, if the spool run some jobs in parallel
+		 */
+		Optional<WatchableSpoolJobState> getActiveJob() {
+			if (runningJobs.isEmpty()) {
+				return Optional.empty();
+			}
+			return Optional.ofNullable(runningJobs.first());
+		}
+
+	}
+
+	/**
+	 * A spool state copy, taken with the lock, for evaluate the policies without it.
+	 */
+	private record SpoolState(String spoolName,
+							  WatchableSpoolJobState activeJob,
+							  Set<WatchableSpoolJobState> queuedJobs,
+							  Set<WatchableBackgroundService> services) {
+	}
+
+	/**
+	 * @param warning null if the policy status is ok
+	 */
+	private record PolicyResult(SpoolState state,
+								JobWatchdogPolicy policy,
+								JobWatchdogPolicyWarning warning) {
+	}
+
+	private class Policies implements Runnable {
+
+		/**
+		 * Reports to send, after the lock release
+		 */
+		private final List<Runnable> notifications = new ArrayList<>();
+
+		/**
+		 * Only call it with the lock
+		 */
+		private List<SpoolState> getSpoolStates() {
+			final var states = new ArrayList<SpoolState>();
+			for (final var entry : indexBySpool.entrySet()) {
+				final var index = entry.getValue();
+				index.getActiveJob().ifPresent(activeJob -> states.add(new SpoolState(
+						entry.getKey(),
+						activeJob,
+						index.getQueuedJobsSnapshot(),
+						index.getServicesSnapshot())));
+			}
+			return states;
 		}
 
-		private void tiggerPolicy(final String spoolName,
-								  final WatchableSpoolJobState activeJob,
-								  final Set<WatchableSpoolJobState> queuedJobs,
-								  final Set<WatchableBackgroundService> relativeBackgroundServices,
+		/**
+		 * Only call it with the lock
+		 */
+		private void tiggerPolicy(final SpoolState state,
 								  final JobWatchdogPolicy policy,
 								  final JobWatchdogPolicyWarning warning) {
-			synchronized (tiggeredPolicyBySpool) {
-				if (tiggeredPolicyBySpool.containsKey(spoolName)) {
-					log.trace("Policy \"{}\" was rise a warn, again, on {}", policy.getDescription(), spoolName);
-					return;
-				}
-				final var report = new JobWatchdogSpoolReport(
-						new Date(),
-						spoolName,
-						activeJob,
-						queuedJobs,
-						policy,
-						warning,
-						relativeBackgroundServices);
-				tiggeredPolicyBySpool.put(spoolName, report);
-
-				log.warn("Policy \"{}\" rise a warn on {}: {}", policy.getDescription(), spoolName);
-				log.debug("Send report: {}", report);
-				supervisableEvents.onJobWatchdogSpoolReport(report);
+			final var spoolName = state.spoolName();
+			if (tiggeredPolicyBySpool.containsKey(spoolName)) {
+				log.trace("Policy \"{}\" was rise a warn, again, on {}", policy.getDescription(), spoolName);
+				return;
 			}
+			final var report = new JobWatchdogSpoolReport(
+					new Date(),
+					spoolName,
+					state.activeJob(),
+					state.queuedJobs(),
+					policy,
+					warning,
+					state.services());
+			tiggeredPolicyBySpool.put(spoolName, report);
+
+			log.warn("Policy \"{}\" rise a warn on {}: {}", policy.getDescription(), spoolName);
+			log.debug("Send report: {}", report);
+			notifications.add(() -> supervisableEvents.onJobWatchdogSpoolReport(report));
 		}
 
+		/**
+		 * Only call it with the lock
+		 */
 		private void releasePolicy(final String spoolName, final JobWatchdogPolicy policy) {
-			synchronized (tiggeredPolicyBySpool) {
-				final var oldReport = tiggeredPolicyBySpool.get(spoolName);
-				if (oldReport == null || oldReport.policy().equals(policy) == false) {
-					return;
-				}
-				tiggeredPolicyBySpool.remove(spoolName);
-
-				log.info("Policy \"{}\" release a warn on {}: {}", policy.getDescription(), spoolName);
-				log.debug("Send report: {}", oldReport);
-				supervisableEvents.onJobWatchdogSpoolReleaseReport(oldReport);
+			final var oldReport = tiggeredPolicyBySpool.get(spoolName);
+			if (oldReport == null || oldReport.policy().equals(policy) == false) {
+				return;
 			}
+			tiggeredPolicyBySpool.remove(spoolName);
+
+			log.info("Policy \"{}\" release a warn on {}: {}", policy.getDescription(), spoolName);
+			log.debug("Send report: {}", oldReport);
+			notifications.add(() -> supervisableEvents.onJobWatchdogSpoolReleaseReport(oldReport));
 		}
 
-		private long applyPoliciesAndGetLowerNextTimeToCheckOnRegularSpools(final Set<String> regularSpools,
-																			final JobWatchdogPolicy policy,
-																			final String description) {
-			log.debug("Apply policy: {}, on regular spools: {}", description, regularSpools);
-			return regularSpools.stream().mapToLong(spoolName -> {
-				final var oActiveJob = getActiveJob(spoolName);
-				if (oActiveJob.isEmpty()) {
-					return MAX_VALUE;
-				}
-				final var activeJob = oActiveJob.get();
-				final var queuedJobs = getQueuedJobs(spoolName);
-				try {
-					final var durationToQueue = policy.isStatusOk(
-							spoolName,
-							activeJob,
-							queuedJobs)
-							.map(Duration::toMillis)
-							.orElse(0l);
-					releasePolicy(spoolName, policy);
-					if (durationToQueue > 0) {
-						return durationToQueue;
-					}
-				} catch (final JobWatchdogPolicyWarning e) {
-					tiggerPolicy(spoolName, activeJob, queuedJobs, Set.of(), policy, e);
+		private long applyPolicyOnRegularSpool(final SpoolState state,
+											   final JobWatchdogPolicy policy,
+											   final List<PolicyResult> results) {
+			final var spoolName = state.spoolName();
+			final var policyEvent = new JobWatchdogPolicyEvent();
+			policyEvent.begin();
+			try {
+				final var durationToQueue = policy.isStatusOk(
+						spoolName,
+						state.activeJob(),
+						state.queuedJobs())
+						.map(Duration::toMillis)
+						.orElse(0l);
+				policyEvent.endAndCommit(spoolName, policy, false, false);
+				results.add(new PolicyResult(state, policy, null));
+				if (durationToQueue > 0) {
+					return durationToQueue;
 				}
-				return MAX_VALUE;
-			}).min().orElse(MAX_VALUE);
+			} catch (final JobWatchdogPolicyWarning e) {
+				policyEvent.endAndCommit(spoolName, policy, false, true);
+				results.add(new PolicyResult(state, policy, e));
+			}
+			return MAX_VALUE;
 		}
 
-		private long applyPoliciesAndGetLowerNextTimeToCheckOnServicesSpools(final Set<String> serviceSpools,
-																			 final JobWatchdogPolicy policy,
-																			 final String description) {
-			log.debug("Apply policy: {}, on services spools: {}", description, serviceSpools);
-			return serviceSpools.stream().mapToLong(spoolName -> {
-				final var oActiveJob = getActiveJob(spoolName);
-				if (oActiveJob.isEmpty()) {
-					return MAX_VALUE;
-				}
-				final var activeJob = oActiveJob.get();
-				final var queuedJobs = getQueuedJobs(spoolName);
-				final var relativeBackgroundServices = currentServicesBySpool.get(spoolName)
-						.stream()
-						.collect(toUnmodifiableSet());
-				try {
-					policy.isStatusOk(
-							spoolName,
-							oActiveJob.get(),
-							queuedJobs,
-							relativeBackgroundServices);
-
-					final var nextInterval = currentServicesBySpool.get(spoolName).stream()
-							.mapToLong(WatchableBackgroundService::timedInterval)
-							.min()
-							.orElse(MAX_VALUE);
-					releasePolicy(spoolName, policy);
-					return nextInterval;
-				} catch (final JobWatchdogPolicyWarning e) {
-					tiggerPolicy(spoolName, activeJob, queuedJobs, relativeBackgroundServices, policy, e);
+		private long applyPolicyOnServicesSpool(final SpoolState state,
+												final JobWatchdogPolicy policy,
+												final List<PolicyResult> results) {
+			final var spoolName = state.spoolName();
+			final var policyEvent = new JobWatchdogPolicyEvent();
+			policyEvent.begin();
+			try {
+				policy.isStatusOk(
+						spoolName,
+						state.activeJob(),
+						state.queuedJobs(),
+						state.services());
+				policyEvent.endAndCommit(spoolName, policy, true, false);
+				results.add(new PolicyResult(state, policy, null));
+				return state.services().stream()
+						.mapToLong(WatchableBackgroundService::timedInterval)
+						.min()
+						.orElse(MAX_VALUE);
+			} catch (final JobWatchdogPolicyWarning e) {
+				policyEvent.endAndCommit(spoolName, policy, true, true);
+				results.add(new PolicyResult(state, policy, e));
+			}
+			return MAX_VALUE;
+		}
+
+		/**
+		 * Call it without the lock: policies are user code.
+		 * @param results will be populated by the policy results, to apply with the lock
+		 * @return MAX_VALUE if no next check is needed
+		 */
+		private long applyPolicies(final List<JobWatchdogPolicy> currentPolicies,
+								   final List<SpoolState> states,
+								   final List<PolicyResult> results) {
+			var lowerDurationToQueue = MAX_VALUE;
+			for (final var state : states) {
+				final var spoolName = state.spoolName();
+				final var serviceSpool = state.services().isEmpty() == false;
+
+				for (final var policy : currentPolicies) {
+					final long durationToQueue;
+					if (serviceSpool) {
+						log.debug("Apply policy: {}, on service spool: {}", policy.getDescription(), spoolName);
+						durationToQueue = applyPolicyOnServicesSpool(state, policy, results);
+					} else {
+						log.debug("Apply policy: {}, on regular spool: {}", policy.getDescription(), spoolName);
+						durationToQueue = applyPolicyOnRegularSpool(state, policy, results);
+					}
+					lowerDurationToQueue = Math.min(lowerDurationToQueue, durationToQueue);
 				}
-				return MAX_VALUE;
-			}).min().orElse(MAX_VALUE);
+			}
+			return lowerDurationToQueue;
 		}
 
 		@Override
 		public void run() {
+			evaluationPending.set(false);
 			if (shutdown.get()) {
 				log.debug("Don't apply policies: shutdown");
 				return;
 			}
-			synchronized (activeServicesBySpool) {
-				currentServicesBySpool = deepCloneFilterEmpty(activeServicesBySpool);
-			}
-			synchronized (jobsBySpool) {
-				currentJobsBySpool = deepCloneFilterEmpty(jobsBySpool);
+			final var currentPolicies = getPolicies();
+			if (currentPolicies.isEmpty()) {
+				return;
 			}
 
-			final var regularSpools = currentJobsBySpool.keySet().stream()
-					.filter(not(currentServicesBySpool::containsKey))
-					.collect(toUnmodifiableSet());
-			final var serviceSpools = currentJobsBySpool.keySet().stream()
-					.filter(currentServicesBySpool::containsKey)
-					.collect(toUnmodifiableSet());
-
-			final var oLowerDurationToQueue = getPolicies().stream()
-					.mapToLong(policy -> {
-						final var description = policy.getDescription();
-
-						final var lowerDurationToQueueRegular = applyPoliciesAndGetLowerNextTimeToCheckOnRegularSpools(
-								regularSpools, policy, description);
-						final var lowerDurationToQueueService = applyPoliciesAndGetLowerNextTimeToCheckOnServicesSpools(
-								serviceSpools, policy, description);
-
-						log.trace("Next lowerDurationToQueueRegular={}, lowerDurationToQueueService={}",
-								Duration.ofMillis(lowerDurationToQueueRegular),
-								Duration.ofMillis(lowerDurationToQueueService));
+			final List<SpoolState> states;
+			lock.lock();
+			try {
+				states = getSpoolStates();
+			} finally {
+				lock.unlock();
+			}
 
-						return Math.min(lowerDurationToQueueRegular, lowerDurationToQueueService);
-					})
-					.min();
+			final var results = new ArrayList<PolicyResult>();
+			final var lowerDurationToQueue = applyPolicies(currentPolicies, states, results);
+
+			final List<Runnable> currentNotifications;
+			lock.lock();
+			try {
+				results.forEach(result -> {
+					if (result.warning() == null) {
+						releasePolicy(result.state().spoolName(), result.policy());
+					} else {
+						tiggerPolicy(result.state(), result.policy(), result.warning());
+					}
+				});
+				currentNotifications = List.copyOf(notifications);
+				notifications.clear();
+			} finally {
+				lock.unlock();
+			}
+			currentNotifications.forEach(Runnable::run);
 
-			if (oLowerDurationToQueue.isEmpty()
-				|| oLowerDurationToQueue.getAsLong() == MAX_VALUE) {
+			if (lowerDurationToQueue == MAX_VALUE) {
 				return;
 			}
 
-			final var lowerDurationToQueue = oLowerDurationToQueue.getAsLong();
-
 			log.debug("Next lowerDurationToQueue={}", Duration.ofMillis(lowerDurationToQueue));
 
 			nextPolicyCheck.replace(actualSch -> {
@@ -366,9 +514,8 @@ public class JobKitWatchdog {
 					actualSch.cancel(false);
 				}
 				log.trace("Scheduled next {} in {}", actualSch, Duration.ofMillis(lowerDurationToQueue));
-				return scheduledExecutor.schedule(new Policies(), lowerDurationToQueue, MILLISECONDS);
+				return scheduledExecutor.schedule(this, lowerDurationToQueue, MILLISECONDS);
 			});
-
 		}
 
 	}
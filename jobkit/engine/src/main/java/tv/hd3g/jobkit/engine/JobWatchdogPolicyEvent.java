@@ -0,0 +1,61 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tv.hd3g.jobkit.engine.watchdog.JobWatchdogPolicy;
+
+@Name("tv.hd3g.jobkit.JobWatchdogPolicy")
+@Label("Watchdog Policy Evaluation")
+@Description("A JobKitWatchdog policy evaluation on a spool")
+@Category({ "JobKit", "Watchdog" })
+@StackTrace(false)
+final class JobWatchdogPolicyEvent extends Event {
+
+	@Label("Spool")
+	String spoolName;
+	@Label("Policy")
+	String policy;
+	@Label("Service Spool")
+	boolean serviceSpool;
+	@Label("Warning")
+	boolean warning;
+
+	/**
+	 * Near zero cost if JFR is off, or if this event is disabled, or under its threshold.
+	 */
+	void endAndCommit(final String spoolName,
+					  final JobWatchdogPolicy policy,
+					  final boolean serviceSpool,
+					  final boolean warning) {
+		end();
+		if (shouldCommit() == false) {
+			return;
+		}
+		this.spoolName = spoolName;
+		this.policy = policy.getDescription();
+		this.serviceSpool = serviceSpool;
+		this.warning = warning;
+		commit();
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * A captured caller, only resolved as StackTraceElement on the first get().
+ * ThreadSafe.
+ */
+public final class LazyCaller implements Supplier<StackTraceElement> {
+
+	static final LazyCaller NONE = new LazyCaller(() -> null);
+
+	private Supplier<StackTraceElement> resolver;
+	private StackTraceElement caller;
+
+	LazyCaller(final Supplier<StackTraceElement> resolver) {
+		this.resolver = Objects.requireNonNull(resolver, "\"resolver\" can't to be null");
+	}
+
+	/**
+	 * @param caller can be null
+	 * @return an already resolved LazyCaller
+	 */
+	@JsonCreator
+	public static LazyCaller of(final StackTraceElement caller) {
+		if (caller == null) {
+			return NONE;
+		}
+		final var lazyCaller = new LazyCaller(() -> caller);
+		lazyCaller.get();
+		return lazyCaller;
+	}
+
+	/**
+	 * @return can be null, if not captured
+	 */
+	@Override
+	@JsonValue
+	public synchronized StackTraceElement get() {
+		if (resolver != null) {
+			caller = resolver.get();
+			resolver = null;
+		}
+		return caller;
+	}
+
+	/**
+	 * Compare the resolved callers.
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof final LazyCaller other) {
+			return Objects.equals(get(), other.get());
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(get());
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(get());
+	}
+
+}
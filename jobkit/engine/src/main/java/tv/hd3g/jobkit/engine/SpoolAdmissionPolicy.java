@@ -0,0 +1,47 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * What to do when a new job is added to a full spool queue (see SpoolExecutor.setQueueCapacity).
+ */
+public enum SpoolAdmissionPolicy {
+
+	/**
+	 * Don't add the new job. Default mode.
+	 */
+	REJECT,
+
+	/**
+	 * The caller thread waits for a free place in the queue, up to the admission block timeout,
+	 * and reject the new job after it.
+	 */
+	BLOCK,
+
+	/**
+	 * Run the new job now, in the caller thread, outside the spool parallelism.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * Remove (and cancel) the lowest priority queued job to add the new one, only if the new job have a higher priority.
+	 * The removed job afterRunCommand is called with a CancellationException.
+	 * Else, the new job is the shedded one, and it's rejected.
+	 */
+	SHED_LOWEST_PRIORITY;
+
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * @param queueCapacity 0 for an unlimited queue
+ * @param rejected new jobs not added due to a full queue, including BLOCK timeouts and SHED_LOWEST_PRIORITY
+ *        new jobs without a higher priority than the queued ones
+ * @param blocked new jobs who have waited for a free place in the queue
+ * @param callerRuns new jobs runned in the caller thread
+ * @param shed jobs removed from the queue for a higher priority new job
+ */
+public record SpoolAdmissionStats(String spoolName,
+								  int queueCapacity,
+								  SpoolAdmissionPolicy admissionPolicy,
+								  long rejected,
+								  long blocked,
+								  long callerRuns,
+								  long shed) {
+}
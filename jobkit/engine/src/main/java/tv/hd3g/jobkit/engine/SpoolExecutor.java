@@ -1,18 +1,32 @@
 package tv.hd3g.jobkit.engine;
 
-import static java.util.function.Predicate.not;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static tv.hd3g.jobkit.engine.Supervisable.spoolJobSupervisableSuppliers;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -25,12 +39,41 @@ public class SpoolExecutor {
 	private final ExecutionEvent event;
 	private final AtomicLong threadCount;
 
-	private final AtomicComputeReference<Thread> currentOperation;
+	private final Set<SpoolJob> runningJobs;
 	private final Comparator<SpoolJob> queueComparator;
-	private final PriorityBlockingQueue<SpoolJob> queue;
+	private final TreeSet<SpoolJob> queue;
 	private final AtomicBoolean shutdown;
 	private final SupervisableEvents supervisableEvents;
 	private final JobKitWatchdog jobKitWatchdog;
+	private final ReentrantLock queueLock;
+	private final Condition jobEnded;
+	private final Condition queueNotFull;
+	private final LongAdder rejectedCount;
+	private final LongAdder blockedCount;
+	private final LongAdder callerRunsCount;
+	private final LongAdder shedCount;
+	private volatile SpoolThreadType threadType;
+	private volatile int parallelism;
+	private volatile CallerCaptureMode callerCaptureMode;
+	private volatile int queueCapacity;
+	private volatile SpoolAdmissionPolicy admissionPolicy;
+	private volatile Duration admissionBlockTimeout;
+	private final long agingEpoch;
+	private volatile long agingStepNanos;
+	private final Map<Integer, SpoolQueueWaitCounter> queueWaitByPriority;
+	private final SpoolLatencyHistogram queueLatency;
+	private final SpoolLatencyHistogram runDuration;
+	private final LongAdder startedCount;
+	private final LongAdder succeededCount;
+	private final LongAdder failedCount;
+	private volatile SpoolMetricsListener metricsListener;
+	/**
+	 * Only set and read with the queue lock
+	 */
+	private SpoolRateLimiter rateLimiter;
+	private boolean throttledStartPlanned;
+	private volatile SpoolWorkerPool workerPool;
+	private volatile int poolWeight;
 
 	SpoolExecutor(final String name,
 				  final ExecutionEvent event,
@@ -42,40 +85,677 @@ public class SpoolExecutor {
 		this.threadCount = threadCount;
 		this.jobKitWatchdog = jobKitWatchdog;
 		queueComparator = (l, r) -> {
-			final var compared = Integer.compare(r.jobPriority, l.jobPriority);
+			final var compared = Long.compare(r.agedPriority, l.agedPriority);
 			if (compared == 0) {
 				return Long.compare(l.createdIndex, r.createdIndex);
 			}
 			return compared;
 		};
-		queue = new PriorityBlockingQueue<>(1, queueComparator);
+		queue = new TreeSet<>(queueComparator);
 		shutdown = new AtomicBoolean(false);
 		this.supervisableEvents = supervisableEvents;
-		currentOperation = new AtomicComputeReference<>();
+		runningJobs = ConcurrentHashMap.newKeySet();
+		queueLock = new ReentrantLock();
+		jobEnded = queueLock.newCondition();
+		queueNotFull = queueLock.newCondition();
+		rejectedCount = new LongAdder();
+		blockedCount = new LongAdder();
+		callerRunsCount = new LongAdder();
+		shedCount = new LongAdder();
+		threadType = SpoolThreadType.PLATFORM;
+		parallelism = 1;
+		callerCaptureMode = CallerCaptureMode.OFF;
+		queueCapacity = 0;
+		admissionPolicy = SpoolAdmissionPolicy.REJECT;
+		admissionBlockTimeout = Duration.ZERO;
+		agingEpoch = System.nanoTime();
+		agingStepNanos = 0;
+		queueWaitByPriority = new ConcurrentHashMap<>();
+		queueLatency = new SpoolLatencyHistogram();
+		runDuration = new SpoolLatencyHistogram();
+		startedCount = new LongAdder();
+		succeededCount = new LongAdder();
+		failedCount = new LongAdder();
+		poolWeight = 1;
+	}
+
+	public SpoolThreadType getThreadType() {
+		return threadType;
+	}
+
+	/**
+	 * Only applied on the next started jobs.
+	 */
+	public SpoolExecutor setThreadType(final SpoolThreadType threadType) {
+		this.threadType = Objects.requireNonNull(threadType, "\"threadType\" can't to be null");
+		log.debug("Set thread type {} for spool {}", threadType, name);
+		return this;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism max jobs to run in the same time on this spool. Default is 1: all jobs run one by one.
+	 *        With more than 1, jobs start in priority order, but can end in any order.
+	 */
+	public SpoolExecutor setParallelism(final int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		log.debug("Set parallelism to {} for spool {}", parallelism, name);
+		runNext();
+		return this;
+	}
+
+	public int getPoolWeight() {
+		return poolWeight;
+	}
+
+	/**
+	 * Only used with a shared worker pool (see Spooler.setWorkerPool): a spool with a weight of 3 get 3 times
+	 * more job starts than a spool with a weight of 1, when the both have queued jobs. Default is 1.
+	 */
+	public SpoolExecutor setPoolWeight(final int poolWeight) {
+		if (poolWeight < 1) {
+			throw new IllegalArgumentException("Invalid poolWeight: " + poolWeight);
+		}
+		this.poolWeight = poolWeight;
+		log.debug("Set pool weight to {} for spool {}", poolWeight, name);
+		return this;
+	}
+
+	boolean isUseWorkerPool() {
+		return workerPool != null;
+	}
+
+	/**
+	 * @param workerPool can be null: this spool will start its own threads (default)
+	 */
+	SpoolExecutor setWorkerPool(final SpoolWorkerPool workerPool) {
+		this.workerPool = workerPool;
+		runNext();
+		return this;
+	}
+
+	public CallerCaptureMode getCallerCaptureMode() {
+		return callerCaptureMode;
+	}
+
+	/**
+	 * Only applied on the next added jobs.
+	 */
+	public SpoolExecutor setCallerCaptureMode(final CallerCaptureMode callerCaptureMode) {
+		this.callerCaptureMode = Objects.requireNonNull(callerCaptureMode, "\"callerCaptureMode\" can't to be null");
+		log.debug("Set caller capture mode {} for spool {}", callerCaptureMode, name);
+		return this;
+	}
+
+	/**
+	 * @param metricsListener can be null, to remove the actual listener
+	 */
+	public SpoolExecutor setMetricsListener(final SpoolMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		return this;
+	}
+
+	/**
+	 * Low overhead: the latencies are recorded in fixed memory histograms.
+	 */
+	public SpoolMetrics getMetrics() {
+		return new SpoolMetrics(
+				name,
+				getQueueSize(),
+				getRunningCount(),
+				startedCount.sum(),
+				succeededCount.sum(),
+				failedCount.sum(),
+				queueLatency.getSnapshot(),
+				runDuration.getSnapshot());
+	}
+
+	/**
+	 * Monotonic, and cheaper than getMetrics: for export the histograms as counters, like a Micrometer FunctionTimer.
+	 */
+	public long getQueueLatencyCount() {
+		return queueLatency.getCount();
+	}
+
+	/**
+	 * Monotonic sum of all the recorded queue latencies.
+	 */
+	public long getQueueLatencyTotalNanos() {
+		return queueLatency.getTotalNanos();
+	}
+
+	/**
+	 * Monotonic, and cheaper than getMetrics: for export the histograms as counters, like a Micrometer FunctionTimer.
+	 */
+	public long getRunDurationCount() {
+		return runDuration.getCount();
+	}
+
+	/**
+	 * Monotonic sum of all the recorded run durations.
+	 */
+	public long getRunDurationTotalNanos() {
+		return runDuration.getTotalNanos();
+	}
+
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	private void onJobStarted(final long queueLatencyNanos) {
+		startedCount.increment();
+		queueLatency.record(queueLatencyNanos);
+		final var listener = metricsListener;
+		if (listener != null) {
+			try {
+				listener.onJobStarted(this, Duration.ofNanos(queueLatencyNanos));
+			} catch (final RuntimeException e) {
+				log.warn("Can't send job started metrics for {}", name, e);
+			}
+		}
+	}
+
+	private void onJobEnded(final long runDurationNanos, final boolean failed) {
+		if (failed) {
+			failedCount.increment();
+		} else {
+			succeededCount.increment();
+		}
+		runDuration.record(runDurationNanos);
+		final var listener = metricsListener;
+		if (listener != null) {
+			try {
+				listener.onJobEnded(this, Duration.ofNanos(runDurationNanos), failed);
+			} catch (final RuntimeException e) {
+				log.warn("Can't send job ended metrics for {}", name, e);
+			}
+		}
+	}
+
+	public Duration getPriorityAging() {
+		return Duration.ofNanos(agingStepNanos);
 	}
 
+	/**
+	 * Let the queued jobs gain priority with their waiting time, to never starve the low priority jobs.
+	 * The queue order stay stable with the time: each job is sorted one time with an aged priority,
+	 * "priority - (queued date / agingStep)", so a job queued one agingStep before another have +1 priority
+	 * on it. Only the actual queue is re-sorted on this call.
+	 * @param agingStep +1 priority for each agingStep spend in queue. Zero for disable aging (default).
+	 */
+	public SpoolExecutor setPriorityAging(final Duration agingStep) {
+		Objects.requireNonNull(agingStep, "\"agingStep\" can't to be null");
+		if (agingStep.isNegative()) {
+			throw new IllegalArgumentException("Invalid agingStep: " + agingStep);
+		}
+		queueLock.lock();
+		try {
+			agingStepNanos = agingStep.toNanos();
+			final var queued = List.copyOf(queue);
+			queue.clear();
+			queued.forEach(this::queueJob);
+		} finally {
+			queueLock.unlock();
+		}
+		log.debug("Set priority aging to {} for spool {}", agingStep, name);
+		return this;
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private void queueJob(final SpoolJob job) {
+		final var step = agingStepNanos;
+		if (step == 0) {
+			job.agedPriority = job.jobPriority;
+		} else {
+			job.agedPriority = job.jobPriority - Math.floorDiv(job.queuedNanos - agingEpoch, step);
+		}
+		queue.add(job);
+	}
+
+	/**
+	 * @return the waiting times in queue, for the started jobs, by priority (higher first)
+	 */
+	public List<SpoolQueueWaitStats> getQueueWaitStats() {
+		return queueWaitByPriority.values().stream()
+				.map(SpoolQueueWaitCounter::getStats)
+				.sorted((l, r) -> Integer.compare(r.priority(), l.priority()))
+				.toList();
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity max queued jobs (without the running jobs), 0 for an unlimited queue (default).
+	 *        When the queue is full, the admission policy choose what to do with the new jobs.
+	 */
+	public SpoolExecutor setQueueCapacity(final int queueCapacity) {
+		if (queueCapacity < 0) {
+			throw new IllegalArgumentException("Invalid queueCapacity: " + queueCapacity);
+		}
+		this.queueCapacity = queueCapacity;
+		log.debug("Set queue capacity to {} for spool {}", queueCapacity, name);
+		signalQueueNotFull();
+		return this;
+	}
+
+	public SpoolAdmissionPolicy getAdmissionPolicy() {
+		return admissionPolicy;
+	}
+
+	/**
+	 * Only used with a queue capacity. Default is REJECT.
+	 */
+	public SpoolExecutor setAdmissionPolicy(final SpoolAdmissionPolicy admissionPolicy) {
+		this.admissionPolicy = Objects.requireNonNull(admissionPolicy, "\"admissionPolicy\" can't to be null");
+		log.debug("Set admission policy {} for spool {}", admissionPolicy, name);
+		return this;
+	}
+
+	public Duration getAdmissionBlockTimeout() {
+		return admissionBlockTimeout;
+	}
+
+	/**
+	 * Only used with the BLOCK admission policy. Default is zero (no wait).
+	 */
+	public SpoolExecutor setAdmissionBlockTimeout(final Duration admissionBlockTimeout) {
+		Objects.requireNonNull(admissionBlockTimeout, "\"admissionBlockTimeout\" can't to be null");
+		if (admissionBlockTimeout.isNegative()) {
+			throw new IllegalArgumentException("Invalid admissionBlockTimeout: " + admissionBlockTimeout);
+		}
+		this.admissionBlockTimeout = admissionBlockTimeout;
+		return this;
+	}
+
+	public SpoolAdmissionStats getAdmissionStats() {
+		return new SpoolAdmissionStats(
+				name,
+				queueCapacity,
+				admissionPolicy,
+				rejectedCount.sum(),
+				blockedCount.sum(),
+				callerRunsCount.sum(),
+				shedCount.sum());
+	}
+
+	/**
+	 * Limit the jobs starts on this spool, with a token bucket. Throttled jobs stay in the queue, without use
+	 * a thread: the next start is planned when the next token will be available.
+	 * @param permitsPerSecond max started jobs by second. 0 for remove the limit (default).
+	 * @param burst max jobs that can be started in the same time after an idle period, at least 1.
+	 */
+	public SpoolExecutor setRateLimit(final double permitsPerSecond, final int burst) {
+		if (permitsPerSecond < 0d) {
+			throw new IllegalArgumentException("Invalid permitsPerSecond: " + permitsPerSecond);
+		}
+		final var newRateLimiter = permitsPerSecond == 0d
+											 ? null
+											 : new SpoolRateLimiter(permitsPerSecond, burst, System.nanoTime());
+		queueLock.lock();
+		try {
+			rateLimiter = newRateLimiter;
+		} finally {
+			queueLock.unlock();
+		}
+		log.debug("Set rate limit to {}/sec (burst {}) for spool {}", permitsPerSecond, burst, name);
+		runNext();
+		return this;
+	}
+
+	public SpoolRateLimitStats getRateLimitStats() {
+		queueLock.lock();
+		try {
+			if (rateLimiter == null) {
+				return new SpoolRateLimitStats(name, 0, 0, 0, 0, 0, 0, Duration.ZERO);
+			}
+			return rateLimiter.getStats(name, System.nanoTime());
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private void planThrottledStart(final long waitNanos) {
+		if (throttledStartPlanned) {
+			return;
+		}
+		throttledStartPlanned = true;
+		log.trace("Spool {} is throttled, wait {} ms before start the next job", name, waitNanos / 1_000_000d);
+		CompletableFuture.delayedExecutor(waitNanos, NANOSECONDS).execute(() -> {
+			queueLock.lock();
+			try {
+				throttledStartPlanned = false;
+				/**
+				 * For clean(false), who waits and starts the last jobs
+				 */
+				jobEnded.signalAll();
+			} finally {
+				queueLock.unlock();
+			}
+			runNext();
+		});
+	}
+
+	private void signalQueueNotFull() {
+		queueLock.lock();
+		try {
+			queueNotFull.signalAll();
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private boolean isQueueFull() {
+		final var capacity = queueCapacity;
+		return capacity > 0 && queue.size() >= capacity;
+	}
+
+	private enum Admission {
+		QUEUED,
+		REJECTED,
+		CALLER_RUNS;
+	}
+
+	/**
+	 * Only call it with the lock. Add the new job to the queue if it's admitted.
+	 * @param shedJobs will be populated by the removed jobs from the queue, to cancel after the lock release.
+	 * @param fromTimer never wait, and never run the job in the caller thread: with the BLOCK and CALLER_RUNS
+	 *        policies, the job is queued over the queue capacity.
+	 */
+	private Admission admit(final SpoolJob newJob, final List<SpoolJob> shedJobs, final boolean fromTimer) {
+		if (isQueueFull() == false) {
+			queueJob(newJob);
+			return Admission.QUEUED;
+		}
+		final var policy = admissionPolicy;
+		if (fromTimer
+			&& (policy == SpoolAdmissionPolicy.BLOCK || policy == SpoolAdmissionPolicy.CALLER_RUNS)) {
+			queueJob(newJob);
+			return Admission.QUEUED;
+		}
+		switch (policy) {
+		case BLOCK:
+			blockedCount.increment();
+			if (waitQueueNotFull()) {
+				queueJob(newJob);
+				return Admission.QUEUED;
+			}
+			rejectedCount.increment();
+			return Admission.REJECTED;
+		case CALLER_RUNS:
+			callerRunsCount.increment();
+			return Admission.CALLER_RUNS;
+		case SHED_LOWEST_PRIORITY:
+			queueJob(newJob);
+			final var lowest = queue.pollLast();
+			if (lowest == newJob) {
+				rejectedCount.increment();
+				return Admission.REJECTED;
+			}
+			shedCount.increment();
+			shedJobs.add(lowest);
+			return Admission.QUEUED;
+		case REJECT:
+		default:
+			rejectedCount.increment();
+			return Admission.REJECTED;
+		}
+	}
+
+	/**
+	 * Only call it with the lock
+	 * @return false if the queue is still full after the timeout, or if this spool is now shutdown
+	 */
+	private boolean waitQueueNotFull() {
+		var remaining = admissionBlockTimeout.toNanos();
+		try {
+			while (isQueueFull() && shutdown.get() == false) {
+				if (remaining <= 0) {
+					return false;
+				}
+				remaining = queueNotFull.awaitNanos(remaining);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return shutdown.get() == false;
+	}
+
+	/**
+	 * @return null if this spool is shutdown, or if the queue is full and the job is not admitted
+	 */
+	private SpoolJob enqueue(final RunnableWithException command,
+							 final String name,
+							 final int priority,
+							 final Consumer<Exception> afterRunCommand,
+							 final CallerCaptureMode mode,
+							 final LazyCaller creator,
+							 final boolean fromTimer) {
+		if (shutdown.get()) {
+			log.error("Can't add to queue new command \"{}\" by \"{}\": the spool is shutdown", name, this.name);
+			return null;
+		}
+		final var newJob = new SpoolJob(command, name, priority, afterRunCommand, this, mode, creator);
+
+		/**
+		 * Declared before to be visible by the queue, it can start before the end of this method.
+		 */
+		jobKitWatchdog.addJob(newJob);
+		final var shedJobs = new ArrayList<SpoolJob>(1);
+		final Admission admission;
+		queueLock.lock();
+		try {
+			admission = admit(newJob, shedJobs, fromTimer);
+			if (admission == Admission.CALLER_RUNS) {
+				runningJobs.add(newJob);
+			} else if (admission == Admission.QUEUED) {
+				SpoolJobQueuedEvent.emit(this.name, name, priority, queue.size());
+			}
+		} finally {
+			queueLock.unlock();
+		}
+		shedJobs.forEach(shedJob -> {
+			log.warn("Shed queued command \"{}\" by \"{}\" for \"{}\"", shedJob.commandName, this.name, name);
+			jobKitWatchdog.endJob(shedJob);
+			shedJob.shed(name);
+		});
+
+		switch (admission) {
+		case REJECTED:
+			log.warn("Can't add to queue new command \"{}\" by \"{}\": the queue is full ({} jobs, {})",
+					name, this.name, queueCapacity, admissionPolicy);
+			jobKitWatchdog.endJob(newJob);
+			return null;
+		case CALLER_RUNS:
+			log.debug("Queue is full, run new command \"{}\" by \"{}\" in caller thread", name, this.name);
+			newJob.run();
+			return newJob;
+		case QUEUED:
+		default:
+			log.debug("Add new command \"{}\" by \"{}\" with P{}", name, this.name, priority);
+			runNext();
+			return newJob;
+		}
+	}
+
+	private SpoolJob enqueue(final RunnableWithException command,
+							 final String name,
+							 final int priority,
+							 final Consumer<Exception> afterRunCommand,
+							 final boolean fromTimer) {
+		final var mode = callerCaptureMode;
+		return enqueue(command, name, priority, afterRunCommand, mode, captureCreator(mode), fromTimer);
+	}
+
+	/**
+	 * @return false if this spool is shutdown, or if the queue is full and the job is not admitted.
+	 *         True if the job is queued, or already runned (CALLER_RUNS admission).
+	 */
 	boolean addToQueue(final RunnableWithException command,
 					   final String name,
 					   final int priority,
 					   final Consumer<Exception> afterRunCommand) {
+		return enqueue(command, name, priority, afterRunCommand, false) != null;
+	}
+
+	/**
+	 * Like addToQueue, for the timer thread: never wait (BLOCK) and never run the job in the caller thread
+	 * (CALLER_RUNS). With these admission policies, a full queue will accept the job over its capacity.
+	 * @return false if this spool is shutdown, or if the queue is full and the job is not admitted.
+	 */
+	boolean addToQueueFromTimer(final RunnableWithException command,
+								final String name,
+								final int priority,
+								final Consumer<Exception> afterRunCommand) {
+		return enqueue(command, name, priority, afterRunCommand, true) != null;
+	}
+
+	private JobFuture rejectedFuture() {
+		final var future = new JobFuture(() -> false);
+		future.completeExceptionally(new RejectedExecutionException(
+				"The spool " + name + " is shutdown, or its queue is full"));
+		return future;
+	}
+
+	/**
+	 * @return a failed future (RejectedExecutionException) if this spool is shutdown, or if the queue is full
+	 *         and the job is not admitted
+	 */
+	JobFuture submit(final RunnableWithException command,
+					 final String name,
+					 final int priority,
+					 final Consumer<Exception> afterRunCommand) {
+		return Optional.ofNullable(enqueue(command, name, priority, afterRunCommand, false))
+				.map(job -> job.future)
+				.orElseGet(this::rejectedFuture);
+	}
+
+	/**
+	 * Like submit, for the timer thread: see addToQueueFromTimer.
+	 */
+	JobFuture submitFromTimer(final RunnableWithException command,
+							  final String name,
+							  final int priority,
+							  final Consumer<Exception> afterRunCommand) {
+		return Optional.ofNullable(enqueue(command, name, priority, afterRunCommand, true))
+				.map(job -> job.future)
+				.orElseGet(this::rejectedFuture);
+	}
+
+	/**
+	 * Enqueue all commands in one operation: one caller capture, one watchdog notification
+	 * and one queue lock for the whole batch.
+	 * With a queue capacity, the jobs are admitted one by one, with the admission policy.
+	 * @return the futures, in the commands order. Failed futures (RejectedExecutionException) for the jobs
+	 *         not admitted, or for all if this spool is shutdown
+	 */
+	List<JobFuture> submitAll(final Collection<? extends RunnableWithException> commands,
+							  final String name,
+							  final int priority,
+							  final Consumer<Exception> afterRunCommand) {
+		Objects.requireNonNull(commands, "\"commands\" can't to be null");
 		if (shutdown.get()) {
-			log.error("Can't add to queue new command \"{}\" by \"{}\": the spool is shutdown", name, this.name);
-			return false;
+			log.error("Can't add to queue {} new commands \"{}\" by \"{}\": the spool is shutdown",
+					commands.size(), name, this.name);
+			return commands.stream()
+					.map(c -> rejectedFuture())
+					.toList();
 		}
-		final var newJob = new SpoolJob(command, name, priority, afterRunCommand, this);
-		queue.add(newJob);
-		jobKitWatchdog.addJob(newJob);
-		log.debug("Add new command \"{}\" by \"{}\" with P{}", name, this.name, priority);
+		if (commands.isEmpty()) {
+			return List.of();
+		}
+
+		final var mode = callerCaptureMode;
+		final var creator = captureCreator(mode);
+		if (queueCapacity > 0) {
+			return commands.stream()
+					.map(command -> Optional.ofNullable(
+							enqueue(command, name, priority, afterRunCommand, mode, creator, false))
+							.map(job -> job.future)
+							.orElseGet(this::rejectedFuture))
+					.toList();
+		}
+		final var newJobs = commands.stream()
+				.map(command -> new SpoolJob(command, name, priority, afterRunCommand, this, mode, creator))
+				.toList();
+
+		/**
+		 * Declared before to be visible by the queue, some jobs can start before the end of this batch.
+		 */
+		jobKitWatchdog.addJobs(newJobs);
+		queueLock.lock();
+		try {
+			newJobs.forEach(job -> {
+				queueJob(job);
+				SpoolJobQueuedEvent.emit(this.name, name, priority, queue.size());
+			});
+		} finally {
+			queueLock.unlock();
+		}
+		log.debug("Add {} new commands \"{}\" by \"{}\" with P{}", newJobs.size(), name, this.name, priority);
 		runNext();
+		return newJobs.stream().map(j -> j.future).toList();
+	}
+
+	private static LazyCaller captureCreator(final CallerCaptureMode mode) {
+		return mode.captureFirstOutside(SpoolExecutor.class.getPackageName());
+	}
+
+	/**
+	 * O(log n)
+	 * @return true if the job was still queued, and now removed
+	 */
+	private boolean removeFromQueue(final SpoolJob job) {
+		queueLock.lock();
+		try {
+			if (queue.remove(job) == false) {
+				return false;
+			}
+			jobEnded.signalAll();
+			queueNotFull.signal();
+		} finally {
+			queueLock.unlock();
+		}
+		jobKitWatchdog.endJob(job);
+		log.debug("Remove queued command \"{}\" by \"{}\"", job.commandName, name);
 		return true;
 	}
 
-	int getQueueSize() {
-		return queue.size();
+	public int getQueueSize() {
+		queueLock.lock();
+		try {
+			return queue.size();
+		} finally {
+			queueLock.unlock();
+		}
 	}
 
 	boolean isRunning() {
-		return currentOperation.computePredicate(Thread::isAlive);
+		return runningJobs.isEmpty() == false;
+	}
+
+	public int getRunningCount() {
+		return runningJobs.size();
+	}
+
+	private boolean isDrained() {
+		return queue.isEmpty() && runningJobs.isEmpty();
 	}
 
 	/**
@@ -85,13 +765,45 @@ public class SpoolExecutor {
 	 */
 	public Future<Void> waitToEndQueue(final Executor executor) {
 		return CompletableFuture.runAsync(() -> {
-			while (queue.isEmpty() == false
-				   || currentOperation.isSet()) {
-				Thread.onSpinWait();
+			queueLock.lock();
+			try {
+				while (isDrained() == false) {
+					jobEnded.awaitUninterruptibly();
+				}
+			} finally {
+				queueLock.unlock();
 			}
 		}, executor);
 	}
 
+	/**
+	 * Blocking, never call it from this queue's jobs!
+	 * @return true if the queue is now empty, without running jobs, false if the timeout was reached before.
+	 */
+	public boolean waitToEndQueue(final long timeout, final TimeUnit unit) throws InterruptedException {
+		var remaining = unit.toNanos(timeout);
+		queueLock.lock();
+		try {
+			while (isDrained() == false) {
+				if (remaining <= 0) {
+					return false;
+				}
+				remaining = jobEnded.awaitNanos(remaining);
+			}
+			return true;
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Blocking, never call it from this queue's jobs!
+	 * @return true if the queue is now empty, without running jobs, false if the timeout was reached before.
+	 */
+	public boolean waitToEndQueue(final Duration timeout) throws InterruptedException {
+		return waitToEndQueue(timeout.toNanos(), NANOSECONDS);
+	}
+
 	private void runNext() {
 		if (shutdown.get()) {
 			/**
@@ -99,22 +811,95 @@ public class SpoolExecutor {
 			 */
 			return;
 		}
-		synchronized (queue) {
-			if (isRunning()) {
-				return;
+		startQueuedJobs();
+	}
+
+	/**
+	 * Only call it with the lock
+	 */
+	private boolean hasStartableJob() {
+		return runningJobs.size() < parallelism && queue.isEmpty() == false;
+	}
+
+	/**
+	 * Only call it with the lock
+	 * @return the next job to start, now declared as running, or null if it can't start a job now
+	 */
+	private SpoolJob pollStartableJob() {
+		if (runningJobs.size() >= parallelism) {
+			return null;
+		}
+		if (queue.isEmpty()) {
+			if (rateLimiter != null) {
+				rateLimiter.endThrottle(System.nanoTime());
+			}
+			return null;
+		}
+		if (rateLimiter != null) {
+			final var waitNanos = rateLimiter.tryAcquire(System.nanoTime());
+			if (waitNanos > 0) {
+				planThrottledStart(waitNanos);
+				return null;
 			}
-			final var next = queue.poll();
-			if (next == null) {
-				currentOperation.reset();
+		}
+		final var next = queue.pollFirst();
+		runningJobs.add(next);
+		queueNotFull.signal();
+		queueWaitByPriority.computeIfAbsent(next.jobPriority, SpoolQueueWaitCounter::new)
+				.add(System.nanoTime() - next.queuedNanos);
+		return next;
+	}
+
+	/**
+	 * Start the next queued jobs, by priority order, up to parallelism.
+	 * With a worker pool, just notify it: its workers will poll the jobs.
+	 */
+	private void startQueuedJobs() {
+		final var pool = workerPool;
+		queueLock.lock();
+		try {
+			if (pool != null) {
+				if (hasStartableJob()) {
+					pool.notifyReady(this);
+				}
 				return;
 			}
-			currentOperation.setAnd(next, Thread::start);
+			SpoolJob next;
+			while ((next = pollStartableJob()) != null) {
+				next.createThread().start();
+			}
+		} finally {
+			queueLock.unlock();
+		}
+	}
+
+	/**
+	 * Called by a worker pool thread.
+	 * @return the next job to run by the worker thread, or null if it can't start a job now
+	 */
+	Runnable pollJobForWorker(final SpoolWorkerPool pool) {
+		queueLock.lock();
+		try {
+			if (workerPool != pool) {
+				return null;
+			}
+			final var next = pollStartableJob();
+			if (next != null && hasStartableJob()) {
+				/**
+				 * Let another worker take the next one
+				 */
+				pool.notifyReady(this);
+			}
+			return next;
+		} finally {
+			queueLock.unlock();
 		}
 	}
 
 	void stopToAcceptNewJobs() {
 		log.debug("Stop spool {} to accept new jobs", name);
 		shutdown.set(true);
+		signalQueueNotFull();
 	}
 
 	/**
@@ -124,40 +909,45 @@ public class SpoolExecutor {
 		log.debug("Clean spool {}", name);
 
 		if (purgeWaitList) {
-			queue.clear();
-		}
-		while (isRunning()) {
-			Thread.onSpinWait();
+			final List<SpoolJob> purged;
+			queueLock.lock();
+			try {
+				purged = List.copyOf(queue);
+				queue.clear();
+				queueNotFull.signalAll();
+			} finally {
+				queueLock.unlock();
+			}
+			purged.forEach(job -> job.future.cancel(false));
+			log.debug("Spool {} is purged (with {} canceled task(s))", name, purged.size());
 		}
 
-		if (purgeWaitList) {
-			log.debug("Spool {} is cleaned (with {} canceled task(s))", name, queue.size());
-			return;
-		}
-		if (queue.isEmpty() == false) {
-			log.debug("Wait {} jobs to run before clean spool {}...", name, queue.size());
+		queueLock.lock();
+		try {
+			while (isRunning()) {
+				jobEnded.awaitUninterruptibly();
+			}
+
+			if (purgeWaitList) {
+				log.debug("Spool {} is cleaned", name);
+				jobEnded.signalAll();
+				return;
+			}
+			if (queue.isEmpty() == false) {
+				log.debug("Wait {} jobs to run before clean spool {}...", name, queue.size());
 
-			Thread endOperation;
-			endOperation = queue.poll();
-			while (endOperation != null) {
-				endOperation.start();
-				while (endOperation.isAlive()) {
-					Thread.onSpinWait();
+				while (isDrained() == false) {
+					startQueuedJobs();
+					jobEnded.awaitUninterruptibly();
 				}
-				endOperation = queue.poll();
 			}
+		} finally {
+			queueLock.unlock();
 		}
 		log.debug("Spool {} is now empty, without running tasks", name);
 	}
 
-	private static Optional<StackTraceElement> getCaller() {
-		return Stream.of(new Throwable().getStackTrace())
-				.filter(not(StackTraceElement::isNativeMethod))
-				.filter(not(t -> t.getClassName().startsWith(SpoolExecutor.class.getPackageName())))
-				.findFirst();
-	}
-
-	private class SpoolJob extends Thread implements SupervisableSupplier, WatchableSpoolJob {
+	private class SpoolJob implements Runnable, SupervisableSupplier, WatchableSpoolJob {
 
 		final RunnableWithException command;
 		@Getter
@@ -166,114 +956,211 @@ public class SpoolExecutor {
 		final Consumer<Exception> afterRunCommand;
 		@Getter
 		final SpoolExecutor executorReferer;
-		final AtomicReference<Supervisable> supervisableReference;
 		@Getter
 		final long createdIndex;
-		@Getter
-		final Optional<StackTraceElement> creator;
+		final LazyCaller creator;
+		final CallerCaptureMode supervisableCallerCaptureMode;
+		final JobFuture future;
+		final long queuedNanos;
+		/**
+		 * Only set and read with the queue lock
+		 */
+		long agedPriority;
+		/**
+		 * Only used by the job thread: a phase Supervisable is only created if someone asks it, or on error.
+		 */
+		private String phaseName;
+		private long phaseStartDate;
+		private Supervisable phaseSupervisable;
 
 		SpoolJob(final RunnableWithException command,
 				 final String commandName,
 				 final int jobPriority,
 				 final Consumer<Exception> afterRunCommand,
-				 final SpoolExecutor executorReferer) {
-			super();
+				 final SpoolExecutor executorReferer,
+				 final CallerCaptureMode supervisableCallerCaptureMode,
+				 final LazyCaller creator) {
 			createdIndex = threadCount.getAndIncrement();
-			setName("SpoolExecutor #" + createdIndex);
-			setPriority(MIN_PRIORITY);
-			setDaemon(false);
+			queuedNanos = System.nanoTime();
 
 			this.command = command;
 			this.commandName = commandName;
 			this.jobPriority = jobPriority;
 			this.afterRunCommand = afterRunCommand;
 			this.executorReferer = executorReferer;
-			supervisableReference = new AtomicReference<>();
-			creator = getCaller();
+			this.supervisableCallerCaptureMode = supervisableCallerCaptureMode;
+			this.creator = creator;
+			future = new JobFuture(() -> removeFromQueue(this));
 		}
 
-		private Supervisable createSupervisable(final String jobName) {
-			final var s = new Supervisable(name, jobName, supervisableEvents);
-			supervisableReference.set(s);
-			return s;
+		@Override
+		public Optional<StackTraceElement> getCreator() {
+			return Optional.ofNullable(creator.get());
+		}
+
+		/**
+		 * @return an unstarted Thread, with the actual spool thread type
+		 */
+		Thread createThread() {
+			return threadType.newThread("SpoolExecutor #" + createdIndex, this);
+		}
+
+		private void startPhase(final String jobName) {
+			phaseName = jobName;
+			phaseStartDate = System.currentTimeMillis();
+			phaseSupervisable = null;
+		}
+
+		private Supervisable createPhaseSupervisable() {
+			final var startDate = new Date(phaseStartDate);
+			phaseSupervisable = new Supervisable(
+					name, phaseName, supervisableEvents, supervisableCallerCaptureMode, startDate);
+			phaseSupervisable.start(startDate);
+			return phaseSupervisable;
+		}
+
+		/**
+		 * @param error can be null
+		 */
+		private void endPhase(final Exception error) {
+			if (phaseSupervisable != null) {
+				if (error == null) {
+					phaseSupervisable.end();
+				} else {
+					phaseSupervisable.end(error);
+				}
+			} else if (error != null) {
+				createPhaseSupervisable().end(error);
+			}
+			phaseName = null;
+			phaseSupervisable = null;
 		}
 
 		@Override
 		public void run() {
 			final var startTime = System.currentTimeMillis();
 			jobKitWatchdog.startJob(this, startTime);
+			final var previousSupervisableSupplier = spoolJobSupervisableSuppliers.get();
+			spoolJobSupervisableSuppliers.set(this);
+			future.setRunningThread(Thread.currentThread());
+			final var queueWait = System.nanoTime() - queuedNanos;
+			onJobStarted(queueWait);
+			final var runEvent = new SpoolJobRunEvent();
+			runEvent.begin();
 
-			var currentSupervisable = createSupervisable(commandName + " beforeRunJob");
+			startPhase(commandName + " beforeRunJob");
 			try {
-				supervisableReference.set(currentSupervisable);
-				currentSupervisable.start();
 				event.beforeStart(commandName, System.currentTimeMillis(), executorReferer);
-				currentSupervisable.end();
+				endPhase(null);
 			} catch (final Exception e) {
 				log.warn("Can't send event BeforeStart", e);
-				currentSupervisable.end(e);
+				endPhase(e);
 			}
 
-			currentSupervisable = createSupervisable(commandName);
+			startPhase(commandName);
 			Exception error = null;
+			final var runStartNanos = System.nanoTime();
 			try {
 				log.debug("Start new command \"{}\" by \"{}\"", commandName, name);
-				currentSupervisable.start();
+				if (future.isCancelled()) {
+					throw new CancellationException("Job \"" + commandName + "\" was canceled before its start");
+				}
 				command.run();
-				currentSupervisable.end();
+				endPhase(null);
 				log.debug("Ends correcly command \"{}\" by \"{}\", after {} sec", commandName, name,
 						(System.currentTimeMillis() - startTime) / 1000f);
 			} catch (final Exception e) {
 				error = e;
 				log.warn("Command \"{}\" by \"{}\", failed after {} sec", commandName, name,
 						(System.currentTimeMillis() - startTime) / 1000f, e);
-				currentSupervisable.end(e);
+				endPhase(e);
 			}
+			onJobEnded(System.nanoTime() - runStartNanos, error != null);
 
 			final var endTime = System.currentTimeMillis();
-			currentSupervisable = createSupervisable(commandName + " afterRunJob");
+			startPhase(commandName + " afterRunJob");
 			try {
-				currentSupervisable.start();
 				if (error != null) {
 					event.afterFailedRun(commandName, endTime, endTime - startTime, executorReferer, error);
 				} else {
 					event.afterRunCorrectly(commandName, endTime, endTime - startTime, executorReferer);
 				}
-				currentSupervisable.end();
+				endPhase(null);
 			} catch (final Exception e) {
-				currentSupervisable.end(e);
+				endPhase(e);
 				log.warn("Can't send event afterRun", e);
 			}
 
-			currentSupervisable = createSupervisable(commandName + " endsJob");
+			startPhase(commandName + " endsJob");
 			try {
 				final var startTimeAfterRun = System.currentTimeMillis();
 				log.debug("Start to run afterRunCommand for  \"{}\" by \"{}\"", commandName, name);
-				currentSupervisable.start();
 				afterRunCommand.accept(error);
-				currentSupervisable.end();
+				endPhase(null);
 				log.debug("Ends correcly afterRunCommand \"{}\" by \"{}\", after {} sec", commandName, name,
 						(System.currentTimeMillis() - startTimeAfterRun) / 1000f);
 			} catch (final Exception e) {
-				currentSupervisable.end(e);
+				endPhase(e);
 				log.error("Fail to run afterRunCommand for  \"{}\" by \"{}\"", commandName, name, e);
 			}
+			runEvent.endAndCommit(name, commandName, jobPriority, queueWait, error != null);
 
-			supervisableReference.set(null);
+			if (previousSupervisableSupplier != null) {
+				/**
+				 * Runned in the caller thread (CALLER_RUNS admission) by another job
+				 */
+				spoolJobSupervisableSuppliers.set(previousSupervisableSupplier);
+			} else {
+				spoolJobSupervisableSuppliers.remove();
+			}
+			future.setRunningThread(null);
 
 			jobKitWatchdog.endJob(this);
 
-			synchronized (queue) {
-				currentOperation.reset();
+			queueLock.lock();
+			try {
+				runningJobs.remove(this);
+				jobEnded.signalAll();
+			} finally {
+				queueLock.unlock();
+			}
+
+			if (error == null) {
+				future.complete(null);
+			} else {
+				future.completeExceptionally(error);
 			}
 			runNext();
 		}
 
+		/**
+		 * Removed from the queue by the admission of newJobName: never run, but its afterRunCommand is
+		 * called like a job canceled before its start.
+		 */
+		void shed(final String newJobName) {
+			final var error = new CancellationException(
+					"Job \"" + commandName + "\" was shed from the queue for \"" + newJobName + "\"");
+			try {
+				afterRunCommand.accept(error);
+			} catch (final Exception e) {
+				log.error("Fail to run afterRunCommand for  \"{}\" by \"{}\"", commandName, name, e);
+			}
+			future.cancel(false);
+		}
+
+		@Override
+		public boolean hasSupervisable() {
+			return phaseSupervisable != null || phaseName != null;
+		}
+
 		@Override
 		public Supervisable getSupervisable() {
-			return Optional.ofNullable(supervisableReference.get())
-					.orElseThrow(() -> new IllegalThreadStateException(
-							"Thread don't expose now a Supervisable: it's not run."));
+			if (phaseSupervisable != null) {
+				return phaseSupervisable;
+			} else if (phaseName == null) {
+				throw new IllegalThreadStateException("Thread don't expose now a Supervisable: it's not run.");
+			}
+			return createPhaseSupervisable();
 		}
 
 	}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("tv.hd3g.jobkit.SpoolJobQueued")
+@Label("Spool Job Queued")
+@Description("A job is added in a spool queue")
+@Category({ "JobKit", "Spool" })
+@StackTrace(false)
+final class SpoolJobQueuedEvent extends Event {
+
+	@Label("Spool")
+	String spoolName;
+	@Label("Job")
+	String jobName;
+	@Label("Priority")
+	int priority;
+	@Label("Queue Size")
+	int queueSize;
+
+	/**
+	 * Near zero cost if JFR is off, or if this event is disabled.
+	 */
+	static void emit(final String spoolName, final String jobName, final int priority, final int queueSize) {
+		final var event = new SpoolJobQueuedEvent();
+		if (event.isEnabled() == false) {
+			return;
+		}
+		event.spoolName = spoolName;
+		event.jobName = jobName;
+		event.priority = priority;
+		event.queueSize = queueSize;
+		event.commit();
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Starts with the job start, ends with the job end (after its afterRunCommand).
+ */
+@Name("tv.hd3g.jobkit.SpoolJobRun")
+@Label("Spool Job Run")
+@Description("A spool job run, from its start to its end")
+@Category({ "JobKit", "Spool" })
+@StackTrace(false)
+final class SpoolJobRunEvent extends Event {
+
+	@Label("Spool")
+	String spoolName;
+	@Label("Job")
+	String jobName;
+	@Label("Priority")
+	int priority;
+	@Label("Queue Wait")
+	@Timespan(Timespan.NANOSECONDS)
+	long queueWait;
+	@Label("Failed")
+	boolean failed;
+
+	/**
+	 * Near zero cost if JFR is off, or if this event is disabled, or under its threshold.
+	 */
+	void endAndCommit(final String spoolName,
+					  final String jobName,
+					  final int priority,
+					  final long queueWait,
+					  final boolean failed) {
+		end();
+		if (shouldCommit() == false) {
+			return;
+		}
+		this.spoolName = spoolName;
+		this.jobName = jobName;
+		this.priority = priority;
+		this.queueWait = queueWait;
+		this.failed = failed;
+		commit();
+	}
+
+}
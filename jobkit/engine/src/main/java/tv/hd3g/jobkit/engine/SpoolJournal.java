@@ -0,0 +1,385 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-ahead journal for the journaled jobs, with an append-only file by spool.
+ * Adds and removes are only buffered, and written with a fsync by batch, on each syncInterval.
+ * A file is compacted (rewrited with only the pending jobs) when it contains more removed jobs than pending jobs.
+ * At least once: a job ended but not yet synced will be replayed after a crash.
+ * ThreadSafe.
+ */
+@Slf4j
+public class SpoolJournal {
+	static final String FILE_EXTENSION = ".journal";
+	private static final int DEFAULT_COMPACT_MIN_REMOVED = 1000;
+
+	private final Path directory;
+	private final ObjectMapper objectMapper;
+	private final int compactMinRemoved;
+	private final Map<String, JobTypeFactory> factoriesByJobType;
+	private final Map<String, SpoolFile> filesBySpool;
+	private final AtomicLong nextId;
+	private final AtomicBoolean closed;
+	private final AtomicBoolean replayed;
+	private final ScheduledFuture<?> syncTask;
+
+	/**
+	 * @param directory will be created as needed. Actual journal files will be loaded, for the next replay.
+	 */
+	public SpoolJournal(final Path directory,
+						final ScheduledExecutorService scheduledExecutor,
+						final Duration syncInterval) {
+		this(directory, scheduledExecutor, syncInterval, DEFAULT_COMPACT_MIN_REMOVED);
+	}
+
+	SpoolJournal(final Path directory,
+				 final ScheduledExecutorService scheduledExecutor,
+				 final Duration syncInterval,
+				 final int compactMinRemoved) {
+		this.directory = Objects.requireNonNull(directory, "\"directory\" can't to be null");
+		Objects.requireNonNull(scheduledExecutor, "\"scheduledExecutor\" can't to be null");
+		Objects.requireNonNull(syncInterval, "\"syncInterval\" can't to be null");
+		if (syncInterval.isNegative() || syncInterval.isZero()) {
+			throw new IllegalArgumentException("Invalid syncInterval: " + syncInterval);
+		}
+		this.compactMinRemoved = compactMinRemoved;
+		objectMapper = new ObjectMapper();
+		factoriesByJobType = new ConcurrentHashMap<>();
+		filesBySpool = new ConcurrentHashMap<>();
+		nextId = new AtomicLong();
+		closed = new AtomicBoolean(false);
+		replayed = new AtomicBoolean(false);
+
+		try {
+			Files.createDirectories(directory);
+			try (var files = Files.list(directory)) {
+				files.filter(f -> f.getFileName().toString().endsWith(FILE_EXTENSION))
+						.filter(Files::isRegularFile)
+						.forEach(this::load);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't load journal directory " + directory, e);
+		}
+
+		final var interval = syncInterval.toMillis();
+		syncTask = scheduledExecutor.scheduleWithFixedDelay(this::sync, interval, interval, MILLISECONDS);
+	}
+
+	private void load(final Path file) {
+		final var fileName = file.getFileName().toString();
+		final var spoolName = URLDecoder.decode(
+				fileName.substring(0, fileName.length() - FILE_EXTENSION.length()), UTF_8);
+		final var spoolFile = new SpoolFile(file);
+		spoolFile.load();
+		filesBySpool.put(spoolName, spoolFile);
+		log.info("Load journal for spool {}: {} pending job(s)", spoolName, spoolFile.pending.size());
+	}
+
+	public SpoolJournal registerJobType(final String jobType, final JobTypeFactory factory) {
+		Objects.requireNonNull(jobType, "\"jobType\" can't to be null");
+		Objects.requireNonNull(factory, "\"factory\" can't to be null");
+		factoriesByJobType.put(jobType, factory);
+		return this;
+	}
+
+	Optional<JobTypeFactory> getFactory(final String jobType) {
+		return Optional.ofNullable(factoriesByJobType.get(jobType));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the job type is not registered
+	 */
+	RunnableWithException createTask(final JobDescriptor descriptor) {
+		return getFactory(descriptor.jobType())
+				.orElseThrow(() -> new IllegalArgumentException("Unregistred job type: " + descriptor.jobType()))
+				.createTask(descriptor);
+	}
+
+	private SpoolFile getSpoolFile(final String spoolName) {
+		return filesBySpool.computeIfAbsent(spoolName, n -> new SpoolFile(
+				directory.resolve(URLEncoder.encode(n, UTF_8) + FILE_EXTENSION)));
+	}
+
+	/**
+	 * Buffered, will be write on the next sync.
+	 * @return the journal id for this job
+	 */
+	long append(final String spoolName, final JobDescriptor descriptor) {
+		if (closed.get()) {
+			throw new IllegalStateException("This journal is closed");
+		}
+		final var id = nextId.getAndIncrement();
+		getSpoolFile(spoolName).append(id, descriptor);
+		return id;
+	}
+
+	/**
+	 * Buffered, will be write on the next sync. Ignored if the journal is closed: the job will be replayed.
+	 */
+	void remove(final String spoolName, final long id) {
+		if (closed.get()) {
+			log.debug("Journal is closed, keep #{} on {}", id, spoolName);
+			return;
+		}
+		Optional.ofNullable(filesBySpool.get(spoolName)).ifPresent(f -> f.remove(id));
+	}
+
+	/**
+	 * Only the first call will return the jobs loaded from files, to replay. The next calls will return an empty map.
+	 * @return descriptors by journal id, in the add order, by spool name
+	 */
+	Map<String, SortedMap<Long, JobDescriptor>> getJobsToReplay() {
+		if (replayed.getAndSet(true)) {
+			return Map.of();
+		}
+		return filesBySpool.entrySet().stream()
+				.collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().getLoaded()));
+	}
+
+	/**
+	 * @return pending (not removed) jobs count on this spool
+	 */
+	public int getPendingCount(final String spoolName) {
+		return Optional.ofNullable(filesBySpool.get(spoolName))
+				.map(SpoolFile::getPendingCount)
+				.orElse(0);
+	}
+
+	/**
+	 * Write and fsync all buffered adds and removes now, and compact files as needed.
+	 */
+	public void sync() {
+		filesBySpool.values().forEach(SpoolFile::sync);
+	}
+
+	/**
+	 * Sync and close all files. Pending jobs will stay on the journal.
+	 */
+	public void close() {
+		if (closed.getAndSet(true)) {
+			return;
+		}
+		syncTask.cancel(false);
+		filesBySpool.values().forEach(SpoolFile::close);
+		log.info("Journal {} is closed", directory);
+	}
+
+	private String toLine(final SpoolJournalLine line) {
+		try {
+			return objectMapper.writeValueAsString(line) + "\n";
+		} catch (final JsonProcessingException e) {
+			throw new IllegalArgumentException("Can't serialize " + line, e);
+		}
+	}
+
+	private class SpoolFile {
+		private final Path file;
+		private final ReentrantLock lock;
+		private final TreeMap<Long, JobDescriptor> pending;
+		private final TreeMap<Long, JobDescriptor> loaded;
+		private final StringBuilder buffer;
+		private int removedInFile;
+		private boolean invalidLines;
+		private FileChannel channel;
+
+		SpoolFile(final Path file) {
+			this.file = file;
+			lock = new ReentrantLock();
+			pending = new TreeMap<>();
+			loaded = new TreeMap<>();
+			buffer = new StringBuilder();
+		}
+
+		/**
+		 * Only in constructor: invalid lines (like a partial write before a crash) are ignored,
+		 * and will be removed by a compaction on the next sync.
+		 */
+		void load() {
+			try (var lines = Files.lines(file, UTF_8)) {
+				lines.filter(l -> l.isBlank() == false).forEach(l -> {
+					try {
+						final var line = objectMapper.readValue(l, SpoolJournalLine.class);
+						nextId.accumulateAndGet(line.id() + 1, Math::max);
+						if (line.add() != null) {
+							pending.put(line.id(), line.add());
+						} else {
+							pending.remove(line.id());
+							removedInFile++;
+						}
+					} catch (final JsonProcessingException e) {
+						log.warn("Ignore invalid line in journal {}: \"{}\"", file, l, e);
+						invalidLines = true;
+					}
+				});
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Can't read journal " + file, e);
+			}
+			loaded.putAll(pending);
+		}
+
+		SortedMap<Long, JobDescriptor> getLoaded() {
+			lock.lock();
+			try {
+				final var result = new TreeMap<>(loaded);
+				loaded.clear();
+				return result;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int getPendingCount() {
+			lock.lock();
+			try {
+				return pending.size();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void append(final long id, final JobDescriptor descriptor) {
+			final var line = toLine(new SpoolJournalLine(id, descriptor));
+			lock.lock();
+			try {
+				pending.put(id, descriptor);
+				buffer.append(line);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void remove(final long id) {
+			lock.lock();
+			try {
+				if (pending.remove(id) == null) {
+					return;
+				}
+				loaded.remove(id);
+				buffer.append(toLine(new SpoolJournalLine(id, null)));
+				removedInFile++;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void write(final FileChannel channel, final CharSequence content) throws IOException {
+			final var bytes = ByteBuffer.wrap(content.toString().getBytes(UTF_8));
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			channel.force(false);
+		}
+
+		/**
+		 * Only call it with the lock
+		 */
+		private void compact() throws IOException {
+			final var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+			final var content = new StringBuilder();
+			pending.forEach((id, descriptor) -> content.append(toLine(new SpoolJournalLine(id, descriptor))));
+			try (var tempChannel = FileChannel.open(tempFile, CREATE, WRITE, TRUNCATE_EXISTING)) {
+				write(tempChannel, content);
+			}
+			if (channel != null) {
+				channel.close();
+				channel = null;
+			}
+			Files.move(tempFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+			log.debug("Journal {} is compacted ({} removed job(s), {} pending)", file, removedInFile, pending.size());
+			removedInFile = 0;
+			invalidLines = false;
+			buffer.setLength(0);
+		}
+
+		void sync() {
+			lock.lock();
+			try {
+				if (invalidLines
+					|| (removedInFile >= compactMinRemoved && removedInFile > pending.size())) {
+					compact();
+					return;
+				}
+				if (buffer.isEmpty()) {
+					return;
+				}
+				if (channel == null) {
+					channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+				}
+				write(channel, buffer);
+				buffer.setLength(0);
+			} catch (final IOException e) {
+				log.error("Can't write journal {}", file, e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void close() {
+			lock.lock();
+			try {
+				sync();
+				if (channel != null) {
+					channel.close();
+					channel = null;
+				}
+			} catch (final IOException e) {
+				log.warn("Can't close journal {}", file, e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ThreadSafe and lock free, fixed memory (HdrHistogram-like) histogram for nanoseconds durations.
+ * Values are counted in log2 buckets, each one splitted in 8 linear sub-buckets: max error is 12.5%.
+ */
+class SpoolLatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	static final int SIZE = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts;
+	private final LongAdder count;
+	private final LongAdder total;
+	private final LongAccumulator max;
+
+	SpoolLatencyHistogram() {
+		counts = new AtomicLongArray(SIZE);
+		count = new LongAdder();
+		total = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+
+	static int indexOf(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final var exponent = Long.SIZE - 1 - numberOfLeadingZeros(value);
+		final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * @return the higher value counted by this bucket index
+	 */
+	static long upperValueOf(final int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final var subBucket = index % SUB_BUCKETS;
+		final var width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (SUB_BUCKETS + subBucket) * width + width - 1;
+	}
+
+	/**
+	 * @param nanos negative values will be counted as 0
+	 */
+	void record(final long nanos) {
+		final var value = Math.max(0, nanos);
+		counts.incrementAndGet(indexOf(value));
+		count.increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	long getCount() {
+		return count.sum();
+	}
+
+	long getTotalNanos() {
+		return total.sum();
+	}
+
+	/**
+	 * Not atomic: values recorded during this call can be counted, or not.
+	 */
+	SpoolLatencySnapshot getSnapshot() {
+		final var bucketCounts = new long[SIZE];
+		var actualCount = 0L;
+		for (var pos = 0; pos < SIZE; pos++) {
+			bucketCounts[pos] = counts.get(pos);
+			actualCount += bucketCounts[pos];
+		}
+		final var actualMax = max.get();
+		if (actualCount == 0) {
+			return new SpoolLatencySnapshot(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO,
+					Duration.ofNanos(actualMax));
+		}
+		return new SpoolLatencySnapshot(
+				actualCount,
+				Duration.ofNanos(total.sum() / Math.max(1, count.sum())),
+				percentile(bucketCounts, actualCount, actualMax, 0.5d),
+				percentile(bucketCounts, actualCount, actualMax, 0.9d),
+				percentile(bucketCounts, actualCount, actualMax, 0.99d),
+				Duration.ofNanos(actualMax));
+	}
+
+	private static Duration percentile(final long[] bucketCounts,
+									   final long totalCount,
+									   final long max,
+									   final double percentile) {
+		final var target = (long) Math.ceil(percentile * totalCount);
+		var cumulative = 0L;
+		for (var pos = 0; pos < bucketCounts.length; pos++) {
+			cumulative += bucketCounts[pos];
+			if (cumulative >= target) {
+				return Duration.ofNanos(Math.min(upperValueOf(pos), max));
+			}
+		}
+		return Duration.ofNanos(max);
+	}
+
+}
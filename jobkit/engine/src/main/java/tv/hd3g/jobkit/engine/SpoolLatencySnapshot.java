@@ -0,0 +1,30 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+
+/**
+ * Percentiles are approximated, with a max error of 12.5%, and never more than max.
+ */
+public record SpoolLatencySnapshot(long count,
+								   Duration mean,
+								   Duration p50,
+								   Duration p90,
+								   Duration p99,
+								   Duration max) {
+}
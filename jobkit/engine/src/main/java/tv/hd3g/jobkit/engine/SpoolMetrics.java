@@ -0,0 +1,32 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * Counters are monotonic, since the spool creation: use them to compute a throughput.
+ * @param queueLatency time between the job add to the queue and its start
+ * @param runDuration job run time, without the before and after events
+ */
+public record SpoolMetrics(String spoolName,
+						   int queued,
+						   int running,
+						   long started,
+						   long succeeded,
+						   long failed,
+						   SpoolLatencySnapshot queueLatency,
+						   SpoolLatencySnapshot runDuration) {
+}
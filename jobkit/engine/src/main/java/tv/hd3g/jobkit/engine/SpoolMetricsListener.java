@@ -0,0 +1,33 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+
+/**
+ * SPI for export the spools metrics, like to Micrometer.
+ * Called from the job threads: implementations should be ThreadSafe and fast. Errors are logged and ignored.
+ */
+public interface SpoolMetricsListener {
+
+	default void onJobStarted(final SpoolExecutor spool, final Duration queueLatency) {
+	}
+
+	default void onJobEnded(final SpoolExecutor spool, final Duration runDuration, final boolean failed) {
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ThreadSafe, fixed memory queue wait counter for a priority.
+ */
+class SpoolQueueWaitCounter {
+	private final int priority;
+	private final LongAdder count;
+	private final LongAdder totalWait;
+	private final LongAccumulator maxWait;
+
+	SpoolQueueWaitCounter(final int priority) {
+		this.priority = priority;
+		count = new LongAdder();
+		totalWait = new LongAdder();
+		maxWait = new LongAccumulator(Math::max, 0);
+	}
+
+	void add(final long waitNanos) {
+		count.increment();
+		totalWait.add(waitNanos);
+		maxWait.accumulate(waitNanos);
+	}
+
+	SpoolQueueWaitStats getStats() {
+		final var actualCount = count.sum();
+		var mean = Duration.ZERO;
+		if (actualCount > 0) {
+			mean = Duration.ofNanos(totalWait.sum() / actualCount);
+		}
+		return new SpoolQueueWaitStats(priority, actualCount, mean, Duration.ofNanos(maxWait.get()));
+	}
+
+}
@@ -0,0 +1,30 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+
+/**
+ * Time spent in a spool queue, by the started jobs of a priority.
+ * @param priority the job priority, as set on its submit (without aging)
+ * @param count started jobs
+ */
+public record SpoolQueueWaitStats(int priority,
+								  long count,
+								  Duration meanWait,
+								  Duration maxWait) {
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+
+/**
+ * @param permitsPerSecond 0 if this spool is not rate limited
+ * @param availablePermits the jobs count that can be started now, without wait
+ * @param currentRate the started jobs per second, on the last full second
+ * @param acquired started jobs with a permit
+ * @param throttled how many times this spool has waited a permit for start a job
+ * @param throttledTime the total time spend to wait permits, with queued jobs
+ */
+public record SpoolRateLimitStats(String spoolName,
+								  double permitsPerSecond,
+								  int burst,
+								  double availablePermits,
+								  double currentRate,
+								  long acquired,
+								  long throttled,
+								  Duration throttledTime) {
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.time.Duration;
+
+/**
+ * Token bucket for a spool: each job start takes one token. Tokens are refilled at permitsPerSecond,
+ * up to burst tokens. Not thread safe: only use it with the spool queue lock.
+ */
+class SpoolRateLimiter {
+	private static final long ONE_SECOND = Duration.ofSeconds(1).toNanos();
+	private static final long NOT_THROTTLED = -1;
+
+	private final double permitsPerSecond;
+	private final int burst;
+	private final double nanosPerPermit;
+	private double tokens;
+	private long lastRefill;
+
+	private long acquired;
+	private long throttled;
+	private long throttledNanos;
+	private long throttledSince;
+
+	private long rateWindowStart;
+	private long rateWindowCount;
+	private double lastWindowRate;
+
+	SpoolRateLimiter(final double permitsPerSecond, final int burst, final long now) {
+		if (permitsPerSecond <= 0d || Double.isFinite(permitsPerSecond) == false) {
+			throw new IllegalArgumentException("Invalid permitsPerSecond: " + permitsPerSecond);
+		} else if (burst < 1) {
+			throw new IllegalArgumentException("Invalid burst: " + burst);
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+		nanosPerPermit = ONE_SECOND / permitsPerSecond;
+		tokens = burst;
+		lastRefill = now;
+		throttledSince = NOT_THROTTLED;
+		rateWindowStart = now;
+	}
+
+	private void refill(final long now) {
+		final var elapsed = now - lastRefill;
+		if (elapsed > 0) {
+			tokens = Math.min(burst, tokens + elapsed / nanosPerPermit);
+			lastRefill = now;
+		}
+	}
+
+	/**
+	 * @return 0 if a token is taken, else the nanoseconds to wait before the next available token
+	 */
+	long tryAcquire(final long now) {
+		refill(now);
+		if (tokens >= 1d) {
+			tokens -= 1d;
+			acquired++;
+			endThrottle(now);
+			countInRateWindow(now);
+			return 0;
+		}
+		if (throttledSince == NOT_THROTTLED) {
+			throttledSince = now;
+			throttled++;
+		}
+		return Math.max(1, (long) Math.ceil((1d - tokens) * nanosPerPermit));
+	}
+
+	/**
+	 * Stop to count the throttled time, like if no more jobs wait a permit.
+	 */
+	void endThrottle(final long now) {
+		if (throttledSince != NOT_THROTTLED) {
+			throttledNanos += now - throttledSince;
+			throttledSince = NOT_THROTTLED;
+		}
+	}
+
+	private void countInRateWindow(final long now) {
+		final var elapsed = now - rateWindowStart;
+		if (elapsed >= ONE_SECOND) {
+			lastWindowRate = rateWindowCount * (double) ONE_SECOND / elapsed;
+			rateWindowStart = now;
+			rateWindowCount = 0;
+		}
+		rateWindowCount++;
+	}
+
+	/**
+	 * @return the started jobs per second, on the last full second
+	 */
+	private double getCurrentRate(final long now) {
+		final var elapsed = now - rateWindowStart;
+		if (elapsed >= ONE_SECOND) {
+			return rateWindowCount * (double) ONE_SECOND / elapsed;
+		}
+		return lastWindowRate;
+	}
+
+	SpoolRateLimitStats getStats(final String spoolName, final long now) {
+		refill(now);
+		var actualThrottledNanos = throttledNanos;
+		if (throttledSince != NOT_THROTTLED) {
+			actualThrottledNanos += now - throttledSince;
+		}
+		return new SpoolRateLimitStats(
+				spoolName,
+				permitsPerSecond,
+				burst,
+				tokens,
+				getCurrentRate(now),
+				acquired,
+				throttled,
+				Duration.ofNanos(actualThrottledNanos));
+	}
+
+}
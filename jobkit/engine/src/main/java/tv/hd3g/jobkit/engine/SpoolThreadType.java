@@ -0,0 +1,59 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.lang.Thread.MIN_PRIORITY;
+
+/**
+ * How a SpoolExecutor runs its jobs.
+ */
+public enum SpoolThreadType {
+
+	/**
+	 * One new non-daemon, MIN_PRIORITY platform Thread by job. Default mode.
+	 */
+	PLATFORM {
+		@Override
+		Thread newThread(final String name, final Runnable job) {
+			return Thread.ofPlatform()
+					.name(name)
+					.priority(MIN_PRIORITY)
+					.daemon(false)
+					.unstarted(job);
+		}
+	},
+
+	/**
+	 * One new virtual Thread by job: cheap to start, made for short and/or I/O bound jobs.
+	 * Beware, virtual threads are always daemon threads, and don't manage thread priority.
+	 * Spool job priorities are still applied on the queue.
+	 */
+	VIRTUAL {
+		@Override
+		Thread newThread(final String name, final Runnable job) {
+			return Thread.ofVirtual()
+					.name(name)
+					.unstarted(job);
+		}
+	};
+
+	/**
+	 * @return an unstarted Thread
+	 */
+	abstract Thread newThread(String name, Runnable job);
+
+}
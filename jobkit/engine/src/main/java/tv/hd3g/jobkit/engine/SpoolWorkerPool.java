@@ -0,0 +1,201 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A fixed count of workers, shared by all the spools of a Spooler.
+ * Workers pull the jobs from the spools queues, with a smooth weighted round-robin by spool weight.
+ * Each spool still applies its parallelism (max concurrency), its priority order and its rate limit.
+ * Lock order: a spool queue lock can be held before this pool lock, never the reverse.
+ */
+@Slf4j
+class SpoolWorkerPool {
+
+	private final int size;
+	private final ReentrantLock lock;
+	private final Condition spoolReady;
+	/**
+	 * Only used with the lock
+	 */
+	private final Map<SpoolExecutor, ReadySpool> readySpools;
+	private final List<Thread> workers;
+	private boolean closed;
+
+	/**
+	 * Workers are daemon threads: idle workers will never block the JVM exit.
+	 * Spooler.shutdown() still waits the running jobs.
+	 */
+	SpoolWorkerPool(final int size, final SpoolThreadType threadType) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Invalid size: " + size);
+		}
+		Objects.requireNonNull(threadType, "\"threadType\" can't to be null");
+		this.size = size;
+		lock = new ReentrantLock();
+		spoolReady = lock.newCondition();
+		readySpools = new LinkedHashMap<>();
+		workers = new ArrayList<>(size);
+		for (var pos = 0; pos < size; pos++) {
+			final var worker = threadType.newThread("SpoolWorker #" + pos, this::work);
+			worker.setDaemon(true);
+			workers.add(worker);
+		}
+		workers.forEach(Thread::start);
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	private static class ReadySpool {
+		final SpoolExecutor spool;
+		long currentWeight;
+		/**
+		 * Set on each notifyReady, reset when a worker picks this spool
+		 */
+		boolean notified;
+
+		ReadySpool(final SpoolExecutor spool) {
+			this.spool = spool;
+		}
+	}
+
+	/**
+	 * Can be called with the spool queue lock.
+	 * Call it when the spool may have a startable job: a worker will try to poll it.
+	 */
+	void notifyReady(final SpoolExecutor spool) {
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			readySpools.computeIfAbsent(spool, ReadySpool::new).notified = true;
+			spoolReady.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Only call it with the lock. Smooth weighted round-robin (like nginx upstreams): O(ready spools count).
+	 */
+	private ReadySpool selectNext() {
+		ReadySpool best = null;
+		var total = 0l;
+		for (final var ready : readySpools.values()) {
+			final var weight = ready.spool.getPoolWeight();
+			ready.currentWeight += weight;
+			total += weight;
+			if (best == null || ready.currentWeight > best.currentWeight) {
+				best = ready;
+			}
+		}
+		best.currentWeight -= total;
+		return best;
+	}
+
+	/**
+	 * @return null if this pool is closed
+	 */
+	private ReadySpool waitNextReady() {
+		lock.lock();
+		try {
+			while (readySpools.isEmpty() && closed == false) {
+				spoolReady.awaitUninterruptibly();
+			}
+			if (closed) {
+				return null;
+			}
+			final var next = selectNext();
+			next.notified = false;
+			return next;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void removeIfNotNotified(final ReadySpool ready) {
+		lock.lock();
+		try {
+			if (ready.notified == false) {
+				readySpools.remove(ready.spool, ready);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void work() {
+		log.debug("Start spool worker {}", Thread.currentThread().getName());
+		ReadySpool ready;
+		while ((ready = waitNextReady()) != null) {
+			final var job = ready.spool.pollJobForWorker(this);
+			if (job == null) {
+				/**
+				 * Nothing to start now (empty queue, max parallelism, rate limit): the spool will notify again.
+				 */
+				removeIfNotNotified(ready);
+				continue;
+			}
+			try {
+				job.run();
+			} catch (final RuntimeException e) {
+				log.error("Can't run job on spool {}", ready.spool.getName(), e);
+			}
+			/**
+			 * Clear a job cancel(true) interrupt, before to take the next job
+			 */
+			Thread.interrupted();// NOSONAR
+		}
+		log.debug("Stop spool worker {}", Thread.currentThread().getName());
+	}
+
+	/**
+	 * Non-blocking: the workers stop after their current job.
+	 */
+	void close() {
+		lock.lock();
+		try {
+			closed = true;
+			readySpools.clear();
+			spoolReady.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	boolean isClosed() {
+		lock.lock();
+		try {
+			return closed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
@@ -1,6 +1,10 @@
 package tv.hd3g.jobkit.engine;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -20,6 +24,9 @@ public class Spooler {
 	private final SupervisableEvents supervisableEvents;
 	@Getter
 	private final JobKitWatchdog jobKitWatchdog;
+	private volatile CallerCaptureMode callerCaptureMode;
+	private volatile SpoolMetricsListener metricsListener;
+	private volatile SpoolWorkerPool workerPool;
 
 	public Spooler(final ExecutionEvent event,
 				   final SupervisableEvents supervisableEvents,
@@ -30,6 +37,7 @@ public class Spooler {
 		shutdown = new AtomicBoolean(false);
 		this.supervisableEvents = supervisableEvents;
 		this.jobKitWatchdog = jobKitWatchdog;
+		callerCaptureMode = CallerCaptureMode.OFF;
 	}
 
 	private Stream<SpoolExecutor> getSpoolExecutorStream() {
@@ -45,7 +53,98 @@ public class Spooler {
 			return spoolExecutors.get(name);
 		}
 		return spoolExecutors.computeIfAbsent(name,
-				n -> new SpoolExecutor(n, event, threadCount, supervisableEvents, jobKitWatchdog));
+				n -> new SpoolExecutor(n, event, threadCount, supervisableEvents, jobKitWatchdog)
+						.setCallerCaptureMode(callerCaptureMode)
+						.setMetricsListener(metricsListener)
+						.setWorkerPool(workerPool));
+	}
+
+	public CallerCaptureMode getCallerCaptureMode() {
+		return callerCaptureMode;
+	}
+
+	/**
+	 * Applied to all actual and future spools.
+	 */
+	public void setCallerCaptureMode(final CallerCaptureMode callerCaptureMode) {
+		this.callerCaptureMode = Objects.requireNonNull(callerCaptureMode, "\"callerCaptureMode\" can't to be null");
+		getSpoolExecutorStream().forEach(s -> s.setCallerCaptureMode(callerCaptureMode));
+	}
+
+	/**
+	 * Applied to all actual and future spools.
+	 * @param metricsListener can be null, to remove the actual listener
+	 */
+	public void setMetricsListener(final SpoolMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		getSpoolExecutorStream().forEach(s -> s.setMetricsListener(metricsListener));
+	}
+
+	/**
+	 * @return actual metrics for all spools, sorted by spool name
+	 */
+	public List<SpoolMetrics> getSpoolsMetrics() {
+		return getSpoolExecutorStream()
+				.map(SpoolExecutor::getMetrics)
+				.sorted(Comparator.comparing(SpoolMetrics::spoolName))
+				.toList();
+	}
+
+	/**
+	 * Share a fixed count of workers between all actual and future spools, instead of start one new thread by job.
+	 * Idle spools don't hold any thread, and a busy spool can use all the free workers, up to its parallelism.
+	 * Workers pull the jobs with a weighted round-robin between the spools with queued jobs
+	 * (see SpoolExecutor.setPoolWeight). A spool with a parallelism of 1 (default) still runs its jobs one by
+	 * one, in a strict order. The spool thread types are not used in this mode.
+	 * The actual running jobs are not moved. Call it before the spools usage for a better start.
+	 * @param workers 0 for stop to use a shared pool (default)
+	 * @param threadType for the workers threads
+	 */
+	public void setWorkerPool(final int workers, final SpoolThreadType threadType) {
+		if (workers < 0) {
+			throw new IllegalArgumentException("Invalid workers: " + workers);
+		}
+		if (shutdown.get()) {
+			throw new IllegalStateException("Spooler is shutdown");
+		}
+		final var newWorkerPool = workers == 0 ? null : new SpoolWorkerPool(workers, threadType);
+		final var oldWorkerPool = workerPool;
+		workerPool = newWorkerPool;
+		getSpoolExecutorStream().forEach(s -> s.setWorkerPool(newWorkerPool));
+		if (oldWorkerPool != null) {
+			oldWorkerPool.close();
+		}
+		log.info("Set a shared worker pool of {} {} thread(s) for all spools", workers, threadType);
+	}
+
+	/**
+	 * @return 0 if no shared worker pool is used
+	 */
+	public int getWorkerPoolSize() {
+		return Optional.ofNullable(workerPool)
+				.map(SpoolWorkerPool::getSize)
+				.orElse(0);
+	}
+
+	/**
+	 * Limit the jobs starts on this spool, with a token bucket. Create the spool as needed.
+	 * See SpoolExecutor.setRateLimit.
+	 * @param permitsPerSecond 0 for remove the limit
+	 */
+	public void setRateLimit(final String spoolName, final double permitsPerSecond, final int burst) {
+		Optional.ofNullable(getExecutor(spoolName))
+				.orElseThrow(() -> new IllegalStateException("Spooler is shutdown"))
+				.setRateLimit(permitsPerSecond, burst);
+	}
+
+	/**
+	 * @return actual rate limits stats for all spools, sorted by spool name
+	 */
+	public List<SpoolRateLimitStats> getSpoolsRateLimitStats() {
+		return getSpoolExecutorStream()
+				.map(SpoolExecutor::getRateLimitStats)
+				.sorted(Comparator.comparing(SpoolRateLimitStats::spoolName))
+				.toList();
 	}
 
 	public int getAllQueuesSize() {
@@ -56,6 +155,13 @@ public class Spooler {
 		return (int) getSpoolExecutorStream().filter(SpoolExecutor::isRunning).count();
 	}
 
+	/**
+	 * @return the running jobs count, for all spools. Can be more than getRunningQueuesCount with parallel spools.
+	 */
+	public int getRunningJobsCount() {
+		return getSpoolExecutorStream().mapToInt(SpoolExecutor::getRunningCount).sum();
+	}
+
 	/**
 	 * Blocking
 	 */
@@ -84,6 +190,8 @@ public class Spooler {
 				.map(Entry::getValue)
 				.forEach(se -> se.clean(false));
 
+		Optional.ofNullable(workerPool).ifPresent(SpoolWorkerPool::close);
+
 		final var s = new Supervisable(Thread.currentThread().toString(), "ShutdownSpooler", supervisableEvents);
 		s.start();
 		event.shutdownSpooler(s);
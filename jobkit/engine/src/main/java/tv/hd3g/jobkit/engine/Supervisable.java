@@ -16,7 +16,6 @@
  */
 package tv.hd3g.jobkit.engine;
 
-import static java.util.stream.Collectors.toUnmodifiableSet;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.INTERNAL_STATE_CHANGE;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.SECURITY;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.TRIVIAL;
@@ -29,28 +28,33 @@ import static tv.hd3g.jobkit.engine.SupervisableState.ERROR;
 import static tv.hd3g.jobkit.engine.SupervisableState.NEW;
 import static tv.hd3g.jobkit.engine.SupervisableState.PROCESS;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Not ThreadSafe: a Supervisable is only used by the thread which runs its job.
+ */
 @Slf4j
 public class Supervisable {
 
 	static final ThreadLocal<Supervisable> manuallyRegistedSupervisables = new ThreadLocal<>();
+	static final ThreadLocal<SupervisableSupplier> spoolJobSupervisableSuppliers = new ThreadLocal<>();
 
 	public static final Supervisable getSupervisable() {
 		final var t = Thread.currentThread();
-		if (t instanceof final SupervisableSupplier status) {
+		final var status = spoolJobSupervisableSuppliers.get();
+		if (status != null) {
 			log.trace("Get for {}", status);
 			return status.getSupervisable();
 		} else {
@@ -64,41 +68,87 @@ public class Supervisable {
 		}
 	}
 
+	/**
+	 * Never throws: made for the frequently called code, outside or inside a job thread.
+	 * Don't create a Supervisable if none was used before by the current job phase.
+	 * @return true if getSupervisable() can be called from the current thread
+	 */
+	public static final boolean hasSupervisable() {
+		final var status = spoolJobSupervisableSuppliers.get();
+		if (status != null) {
+			return status.hasSupervisable();
+		}
+		return manuallyRegistedSupervisables.get() != null;
+	}
+
+	/**
+	 * Never throws IllegalThreadStateException.
+	 * @return empty if the current thread don't expose a Supervisable
+	 */
+	public static final Optional<Supervisable> findSupervisable() {
+		if (hasSupervisable() == false) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(getSupervisable());
+	}
+
 	private final String spoolName;
 	private final String jobName;
 	private final SupervisableEvents events;
-	private final BlockingQueue<SupervisableStep> steps;
 	private final Date creationDate;
 	private final Set<SupervisableEventMark> marks;
+	private final CallerCaptureMode callerCaptureMode;
 
 	private Date startDate;
 	private SupervisableState supervisableState;
 	private Date endDate;
 	private JsonNode context;
 	private String typeName;
+	/**
+	 * Created on the first message
+	 */
+	private List<SupervisableStep> steps;
 	private SupervisableResult sResult;
 	private Exception error;
 
 	Supervisable(final String spoolName, final String jobName, final SupervisableEvents events) {
+		this(spoolName, jobName, events, CallerCaptureMode.SINGLE_FRAME);
+	}
+
+	Supervisable(final String spoolName,
+				 final String jobName,
+				 final SupervisableEvents events,
+				 final CallerCaptureMode callerCaptureMode) {
+		this(spoolName, jobName, events, callerCaptureMode, new Date());
+	}
+
+	Supervisable(final String spoolName,
+				 final String jobName,
+				 final SupervisableEvents events,
+				 final CallerCaptureMode callerCaptureMode,
+				 final Date creationDate) {
 		this.spoolName = spoolName;
 		this.jobName = jobName;
 		this.events = events;
+		this.callerCaptureMode = Objects.requireNonNull(callerCaptureMode, "\"callerCaptureMode\" can't to be null");
+		this.creationDate = creationDate;
 
-		steps = new LinkedBlockingQueue<>();
-		creationDate = new Date();
 		supervisableState = NEW;
-		marks = new HashSet<>();
-		marks.add(TRIVIAL);
+		marks = EnumSet.of(TRIVIAL);
 		log.trace("Create Supervisable [{}/{}] {}", spoolName, jobName, supervisableState);
 	}
 
-	synchronized void start() {
-		startDate = new Date();
+	void start() {
+		start(new Date());
+	}
+
+	void start(final Date startDate) {
+		this.startDate = startDate;
 		supervisableState = PROCESS;
 		log.trace("Start Supervisable [{}/{}] {}", spoolName, jobName, supervisableState);
 	}
 
-	synchronized void end() {
+	void end() {
 		if (error != null) {
 			end(error);
 		} else {
@@ -109,7 +159,7 @@ public class Supervisable {
 		}
 	}
 
-	synchronized void end(final Exception e) {
+	void end(final Exception e) {
 		supervisableState = ERROR;
 		marks.remove(TRIVIAL);
 		endDate = new Date();
@@ -120,26 +170,33 @@ public class Supervisable {
 	/**
 	 * @param defaultResult beware of use "{0}, {1}" instead of just "{}".
 	 */
-	public synchronized Supervisable onMessage(final String code,
-											   final String defaultResult,
-											   final Object... vars) {
+	public Supervisable onMessage(final String code,
+								  final String defaultResult,
+								  final Object... vars) {
 		log.trace("{} \"{}\": {}", supervisableState, code, vars);
 
+		if (steps == null) {
+			steps = new ArrayList<>();
+		}
 		steps.add(new SupervisableStep(new Date(),
 				new SupervisableMessage(code, defaultResult, vars),
-				createCaller(2)));
+				captureCaller()));
 		marks.remove(TRIVIAL);
 		return this;
 	}
 
-	public synchronized Supervisable setContext(final String typeName, final JsonNode context) {
+	public Supervisable setContext(final String typeName, final JsonNode context) {
 		this.typeName = Objects.requireNonNull(typeName, "\"typeName\" can't to be null");
 		this.context = Objects.requireNonNull(context, "\"context\" can't to be null");
 		log.trace("{} typeName: \"{}\" context: \"{}\"", supervisableState, typeName, context);
 		return this;
 	}
 
-	public synchronized Supervisable setContext(final String typeName, final Object businessObject) {
+	/**
+	 * The businessObject is serialized on this call, in the job thread: it can be changed after it, and an
+	 * extraction error is thrown here.
+	 */
+	public Supervisable setContext(final String typeName, final Object businessObject) {
 		setContext(typeName, Objects.requireNonNull(events.extractContext(businessObject),
 				"Can't extract a non-null context"));
 		return this;
@@ -148,8 +205,8 @@ public class Supervisable {
 	/**
 	 * @param keysValues must be pair [k0, v0, k1, v1, k2, v2...] will be putted on the root of generated Json
 	 */
-	public synchronized Supervisable setContext(final String typeName,
-												final Object... keysValues) {
+	public Supervisable setContext(final String typeName,
+								   final Object... keysValues) {
 		if (keysValues == null
 			|| keysValues.length == 0
 			|| keysValues.length % 2 != 0) {
@@ -171,88 +228,88 @@ public class Supervisable {
 	/**
 	 * Works is done
 	 */
-	public synchronized void resultDone(final String code,
-										final String defaultResult,
-										final Object... vars) {
+	public void resultDone(final String code,
+						   final String defaultResult,
+						   final Object... vars) {
 		sResult = new SupervisableResult(new Date(), WORKS_DONE,
-				new SupervisableMessage(code, defaultResult, vars), createCaller(2));
+				new SupervisableMessage(code, defaultResult, vars), captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * Works is done
 	 */
-	public synchronized void resultDone() {
-		sResult = new SupervisableResult(new Date(), WORKS_DONE, null, createCaller(2));
+	public void resultDone() {
+		sResult = new SupervisableResult(new Date(), WORKS_DONE, null, captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * Works is not done, but this is not an app problem
 	 */
-	public synchronized void resultCanceled(final String code,
-											final String defaultResult,
-											final Object... vars) {
+	public void resultCanceled(final String code,
+							   final String defaultResult,
+							   final Object... vars) {
 		sResult = new SupervisableResult(new Date(), WORKS_CANCELED,
-				new SupervisableMessage(code, defaultResult, vars), createCaller(2));
+				new SupervisableMessage(code, defaultResult, vars), captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * Works is not done, but this is not an app problem
 	 */
-	public synchronized void resultCanceled() {
-		sResult = new SupervisableResult(new Date(), WORKS_CANCELED, null, createCaller(2));
+	public void resultCanceled() {
+		sResult = new SupervisableResult(new Date(), WORKS_CANCELED, null, captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * No works to not done, this is not a problem
 	 */
-	public synchronized void resultNothingToDo(final String code,
-											   final String defaultResult,
-											   final Object... vars) {
+	public void resultNothingToDo(final String code,
+								  final String defaultResult,
+								  final Object... vars) {
 		sResult = new SupervisableResult(new Date(), NOTHING_TO_DO,
-				new SupervisableMessage(code, defaultResult, vars), createCaller(2));
+				new SupervisableMessage(code, defaultResult, vars), captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * No works to not done, this is not a problem
 	 */
-	public synchronized void resultNothingToDo() {
-		sResult = new SupervisableResult(new Date(), NOTHING_TO_DO, null, createCaller(2));
+	public void resultNothingToDo() {
+		sResult = new SupervisableResult(new Date(), NOTHING_TO_DO, null, captureCaller());
 		marks.remove(TRIVIAL);
 	}
 
 	/**
 	 * This is an app problem
 	 */
-	public synchronized void resultError(final Exception error) {
+	public void resultError(final Exception error) {
 		this.error = error;
 		marks.remove(TRIVIAL);
 	}
 
-	public synchronized Supervisable markAsUrgent() {
+	public Supervisable markAsUrgent() {
 		marks.remove(TRIVIAL);
 		marks.add(URGENT);
 		return this;
 	}
 
-	public synchronized Supervisable markAsInternalStateChange() {
+	public Supervisable markAsInternalStateChange() {
 		marks.remove(TRIVIAL);
 		marks.add(INTERNAL_STATE_CHANGE);
 		return this;
 	}
 
-	public synchronized Supervisable markAsSecurity() {
+	public Supervisable markAsSecurity() {
 		marks.remove(TRIVIAL);
 		marks.add(SECURITY);
 		return this;
 	}
 
 	@Override
-	public synchronized String toString() {
+	public String toString() {
 		final var builder = new StringBuilder();
 		builder.append("Supervisable [spoolName=");
 		builder.append(spoolName);
@@ -266,6 +323,13 @@ public class Supervisable {
 		return builder.toString();
 	}
 
+	/**
+	 * @return the caller of the public method who calls this
+	 */
+	private LazyCaller captureCaller() {
+		return callerCaptureMode.capture(2);
+	}
+
 	static StackTraceElement createCaller(final int relative) {
 		return Stream.of(new Throwable().getStackTrace())
 				.skip(relative)
@@ -273,11 +337,11 @@ public class Supervisable {
 				.orElseThrow(() -> new IllegalArgumentException("Can't found caller"));
 	}
 
-	synchronized Optional<SupervisableEndEvent> getEndEvent(final Optional<Exception> oError,
-															final String managerName) {
+	Optional<SupervisableEndEvent> getEndEvent(final Optional<Exception> oError,
+											   final String managerName) {
 		if (typeName == null
 			&& context == null
-			&& steps.isEmpty()
+			&& steps == null
 			&& sResult == null
 			&& error == null
 			&& oError.isEmpty()) {
@@ -293,10 +357,10 @@ public class Supervisable {
 				creationDate,
 				startDate,
 				endDate,
-				steps.stream().toList(),
+				steps == null ? List.of() : List.copyOf(steps),
 				sResult,
 				oError.orElse(null),
-				marks.stream().collect(toUnmodifiableSet())));
+				Set.copyOf(marks)));
 	}
 
 }
@@ -0,0 +1,133 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Push end events in a bounded queue, consumed by a dedicated thread.
+ */
+@Slf4j
+class SupervisableAsyncEndEventConsumer implements SupervisableOnEndEventConsumer {
+
+	static final SupervisableEndEvent CLOSE_MARK = new SupervisableEndEvent(
+			null, null, null, null, null, null, null, null, null, null, null, Set.of());
+
+	private final SupervisableOnEndEventConsumer consumer;
+	private final SupervisableEndEventOverflowPolicy overflowPolicy;
+	private final ArrayBlockingQueue<SupervisableEndEvent> queue;
+	private final AtomicLong delivered;
+	private final AtomicLong dropped;
+	private volatile boolean closed;
+
+	SupervisableAsyncEndEventConsumer(final SupervisableOnEndEventConsumer consumer,
+									  final int queueSize,
+									  final SupervisableEndEventOverflowPolicy overflowPolicy,
+									  final String threadName) {
+		this.consumer = Objects.requireNonNull(consumer, "\"consumer\" can't to be null");
+		this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "\"overflowPolicy\" can't to be null");
+		queue = new ArrayBlockingQueue<>(queueSize);
+		delivered = new AtomicLong();
+		dropped = new AtomicLong();
+		Thread.ofPlatform()
+				.name(threadName)
+				.daemon(true)
+				.start(this::consume);
+	}
+
+	@Override
+	public void afterProcess(final SupervisableEndEvent endEvent) {
+		if (closed) {
+			dropped.incrementAndGet();
+			log.warn("Can't send end event to a closed consumer {}: {}", consumer, endEvent);
+			return;
+		}
+		try {
+			final var count = overflowPolicy.push(queue, endEvent);
+			if (count > 0) {
+				dropped.addAndGet(count);
+				log.debug("Drop {} end event(s) for {}, queue is full ({})", count, consumer, overflowPolicy);
+			}
+		} catch (final InterruptedException e) {
+			dropped.incrementAndGet();
+			log.warn("Interrupted during end event queuing for {}", consumer, e);
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		/**
+		 * Closed during the push: the consumer thread may have already done its last queue drain.
+		 */
+		if (closed && queue.remove(endEvent)) {
+			dropped.incrementAndGet();
+			log.warn("Can't send end event to a closed consumer {}: {}", consumer, endEvent);
+		}
+	}
+
+	private void consume() {
+		while (closed == false) {
+			try {
+				deliver(queue.take());
+			} catch (final InterruptedException e) {
+				log.warn("Consumer thread interrupted, for {}", consumer, e);
+				Thread.currentThread().interrupt();
+				closed = true;
+			}
+		}
+		SupervisableEndEvent endEvent;
+		while ((endEvent = queue.poll()) != null) {
+			deliver(endEvent);
+		}
+		log.debug("End event consumer thread for {} is now closed", consumer);
+	}
+
+	private void deliver(final SupervisableEndEvent endEvent) {
+		if (endEvent == CLOSE_MARK) {
+			return;
+		}
+		try {
+			consumer.afterProcess(endEvent);
+		} catch (final Exception e) {
+			log.error("Can't process end event on {}", consumer, e);
+		}
+		delivered.incrementAndGet();
+	}
+
+	/**
+	 * Non-blocking. Queued events will still be delivered.
+	 */
+	void close() {
+		closed = true;
+		if (queue.offer(CLOSE_MARK) == false) {
+			log.debug("Queue is full for {}, it will be closed after the next event", consumer);
+		}
+	}
+
+	SupervisableEndEventConsumerStats getStats() {
+		return new SupervisableEndEventConsumerStats(
+				String.valueOf(consumer),
+				queue.size(),
+				delivered.get(),
+				dropped.get());
+	}
+
+}
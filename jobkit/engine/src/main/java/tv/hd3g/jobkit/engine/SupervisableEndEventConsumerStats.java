@@ -0,0 +1,28 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+/**
+ * @param lag queued events, not yet delivered to the consumer
+ * @param delivered events sended to the consumer
+ * @param dropped events never sended to the consumer, due to the overflow policy
+ */
+public record SupervisableEndEventConsumerStats(String consumerName,
+												int lag,
+												long delivered,
+												long dropped) {
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * With asynchronous consumers, only the time to queue the end event is measured.
+ */
+@Name("tv.hd3g.jobkit.SupervisableEndEventDispatch")
+@Label("Supervisable End Event Dispatch")
+@Description("A Supervisable end event is sent to the end event consumers")
+@Category({ "JobKit", "Supervisable" })
+@StackTrace(false)
+final class SupervisableEndEventDispatchEvent extends Event {
+
+	@Label("Manager")
+	String managerName;
+	@Label("Spool")
+	String spoolName;
+	@Label("Job")
+	String jobName;
+	@Label("Consumers")
+	int consumers;
+
+	/**
+	 * Near zero cost if JFR is off, or if this event is disabled, or under its threshold.
+	 */
+	void endAndCommit(final String managerName,
+					  final SupervisableEndEvent endEvent,
+					  final int consumers) {
+		end();
+		if (shouldCommit() == false) {
+			return;
+		}
+		this.managerName = managerName;
+		spoolName = endEvent.spoolName();
+		jobName = endEvent.jobName();
+		this.consumers = consumers;
+		commit();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * What to do when an asynchronous end event consumer queue is full.
+ */
+public enum SupervisableEndEventOverflowPolicy {
+
+	/**
+	 * The job thread waits for a free place in the queue. No event lost.
+	 */
+	BLOCK {
+		@Override
+		int push(final BlockingQueue<SupervisableEndEvent> queue,
+				 final SupervisableEndEvent endEvent) throws InterruptedException {
+			queue.put(endEvent);
+			return 0;
+		}
+	},
+
+	/**
+	 * Remove the older queued events to add the new one. The close mark of a closing consumer is kept.
+	 */
+	DROP_OLDEST {
+		@Override
+		int push(final BlockingQueue<SupervisableEndEvent> queue, final SupervisableEndEvent endEvent) {
+			var dropped = 0;
+			var closeMark = false;
+			while (queue.offer(endEvent) == false) {
+				final var oldest = queue.poll();
+				if (oldest == SupervisableAsyncEndEventConsumer.CLOSE_MARK) {
+					closeMark = true;
+				} else if (oldest != null) {
+					dropped++;
+				}
+			}
+			if (closeMark) {
+				/**
+				 * Never lost the close mark: the consumer thread may wait it
+				 */
+				while (queue.offer(SupervisableAsyncEndEventConsumer.CLOSE_MARK) == false) {
+					if (queue.poll() != null) {
+						dropped++;
+					}
+				}
+			}
+			return dropped;
+		}
+	},
+
+	/**
+	 * Don't add the new event.
+	 */
+	DROP_NEWEST {
+		@Override
+		int push(final BlockingQueue<SupervisableEndEvent> queue, final SupervisableEndEvent endEvent) {
+			if (queue.offer(endEvent)) {
+				return 0;
+			}
+			return 1;
+		}
+	};
+
+	/**
+	 * @return dropped events count
+	 */
+	abstract int push(BlockingQueue<SupervisableEndEvent> queue,
+					  SupervisableEndEvent endEvent) throws InterruptedException;
+
+}
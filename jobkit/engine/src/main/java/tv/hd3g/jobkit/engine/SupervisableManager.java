@@ -21,9 +21,11 @@ import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -45,14 +47,33 @@ public class SupervisableManager implements SupervisableEvents, SupervisableEven
 	private final Set<SupervisableOnEndEventConsumer> onEndEventConsumers;
 	private final ArrayDeque<SupervisableEndEvent> lastEndEvents;
 	private final int maxEndEventsRetention;
-
-	public SupervisableManager(final String name, final ObjectMapper objectMapper, final int maxEndEventsRetention) {
+	private final int asyncQueueSize;
+	private final SupervisableEndEventOverflowPolicy overflowPolicy;
+	private final List<SupervisableAsyncEndEventConsumer> asyncConsumers;
+
+	/**
+	 * @param asyncQueueSize if more than 0, each end event consumer will run in a dedicated thread, fed by a queue
+	 *        of this size. Else, consumers are called by the job thread.
+	 * @param overflowPolicy what to do when an asynchronous consumer queue is full
+	 */
+	public SupervisableManager(final String name,
+							   final ObjectMapper objectMapper,
+							   final int maxEndEventsRetention,
+							   final int asyncQueueSize,
+							   final SupervisableEndEventOverflowPolicy overflowPolicy) {
 		this.name = Objects.requireNonNull(name, "\"name\" can't to be null");
 		this.objectMapper = Objects.requireNonNull(objectMapper, "\"objectMapper\" can't to be null");
+		this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "\"overflowPolicy\" can't to be null");
 		shutdown = new AtomicBoolean(false);
 		onEndEventConsumers = Collections.synchronizedSet(new HashSet<>());
 		this.maxEndEventsRetention = maxEndEventsRetention;
+		this.asyncQueueSize = asyncQueueSize;
 		lastEndEvents = new ArrayDeque<>();
+		asyncConsumers = new CopyOnWriteArrayList<>();
+	}
+
+	public SupervisableManager(final String name, final ObjectMapper objectMapper, final int maxEndEventsRetention) {
+		this(name, objectMapper, maxEndEventsRetention, 0, SupervisableEndEventOverflowPolicy.BLOCK);
 	}
 
 	public SupervisableManager(final String name) {
@@ -75,19 +96,46 @@ public class SupervisableManager implements SupervisableEvents, SupervisableEven
 		if (shutdown.get() == false) {
 			log.info("Close SupervisableManager {}", name);
 			shutdown.set(true);
+			asyncConsumers.forEach(SupervisableAsyncEndEventConsumer::close);
 		}
 	}
 
+	public boolean isAsyncEndEventConsumers() {
+		return asyncQueueSize > 0;
+	}
+
 	@Override
 	public void registerOnEndEventConsumer(final SupervisableOnEndEventConsumer onEndEventConsumer) {
 		Objects.requireNonNull(onEndEventConsumer, "\"onEndEventConsumer\" can't to be null");
-		onEndEventConsumers.add(onEndEventConsumer);
+
+		final SupervisableOnEndEventConsumer consumer;
+		if (isAsyncEndEventConsumers()) {
+			final var asyncConsumer = new SupervisableAsyncEndEventConsumer(
+					onEndEventConsumer,
+					asyncQueueSize,
+					overflowPolicy,
+					"SupervisableEndEvent-" + name + "#" + asyncConsumers.size());
+			asyncConsumers.add(asyncConsumer);
+			consumer = asyncConsumer;
+		} else {
+			consumer = onEndEventConsumer;
+		}
+		onEndEventConsumers.add(consumer);
 
 		synchronized (lastEndEvents) {
-			lastEndEvents.forEach(onEndEventConsumer::afterProcess);
+			lastEndEvents.forEach(consumer::afterProcess);
 		}
 	}
 
+	/**
+	 * @return empty if the end event consumers are not asynchronous
+	 */
+	public List<SupervisableEndEventConsumerStats> getEndEventConsumersStats() {
+		return asyncConsumers.stream()
+				.map(SupervisableAsyncEndEventConsumer::getStats)
+				.toList();
+	}
+
 	@Override
 	public void onEnd(final Supervisable supervisable, final Optional<Exception> oError) {
 		final var oEndEvent = supervisable.getEndEvent(oError, name);
@@ -110,11 +158,14 @@ public class SupervisableManager implements SupervisableEvents, SupervisableEven
 			lastEndEvents.push(endEvent);
 		}
 
+		final var dispatchEvent = new SupervisableEndEventDispatchEvent();
+		dispatchEvent.begin();
 		try {
 			onEndEventConsumers.forEach(event -> event.afterProcess(endEvent));
 		} catch (final Exception e) {
 			log.error("Can't queue end event", e);
 		}
+		dispatchEvent.endAndCommit(name, endEvent, onEndEventConsumers.size());
 	}
 
 	@Override
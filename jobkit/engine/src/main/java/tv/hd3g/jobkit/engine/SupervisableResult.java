@@ -17,12 +17,34 @@
 package tv.hd3g.jobkit.engine;
 
 import java.util.Date;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
- * Only used for non-error results
+ * @param lazyCaller resolved only on caller() call
  */
 public record SupervisableResult(Date date,
 								 SupervisableResultState state,
 								 SupervisableMessage message,
-								 StackTraceElement caller) {
+								 @JsonProperty("caller") LazyCaller lazyCaller) {
+
+	public SupervisableResult {
+		Objects.requireNonNull(lazyCaller, "\"lazyCaller\" can't to be null");
+	}
+
+	public SupervisableResult(final Date date,
+							  final SupervisableResultState state,
+							  final SupervisableMessage message,
+							  final StackTraceElement caller) {
+		this(date, state, message, LazyCaller.of(caller));
+	}
+
+	/**
+	 * @return null if CallerCaptureMode.OFF
+	 */
+	public StackTraceElement caller() {
+		return lazyCaller.get();
+	}
+
 }
@@ -19,15 +19,34 @@ package tv.hd3g.jobkit.engine;
 import java.util.Date;
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * @param lazyCaller resolved only on caller() call
+ */
 public record SupervisableStep(Date stepDate,
 							   SupervisableMessage message,
-							   StackTraceElement caller) {
+							   @JsonProperty("caller") LazyCaller lazyCaller) {
 
 	public SupervisableStep(final Date stepDate,
 							final SupervisableMessage message,
-							final StackTraceElement caller) {
+							final LazyCaller lazyCaller) {
 		this.stepDate = Objects.requireNonNull(stepDate, "\"stepDate\" can't to be null");
 		this.message = Objects.requireNonNull(message, "\"message\" can't to be null");
-		this.caller = Objects.requireNonNull(caller, "\"caller\" can't to be null");
+		this.lazyCaller = Objects.requireNonNull(lazyCaller, "\"lazyCaller\" can't to be null");
 	}
+
+	public SupervisableStep(final Date stepDate,
+							final SupervisableMessage message,
+							final StackTraceElement caller) {
+		this(stepDate, message, LazyCaller.of(Objects.requireNonNull(caller, "\"caller\" can't to be null")));
+	}
+
+	/**
+	 * @return null only if captured with CallerCaptureMode.OFF
+	 */
+	public StackTraceElement caller() {
+		return lazyCaller.get();
+	}
+
 }
@@ -4,4 +4,10 @@ interface SupervisableSupplier {
 
 	Supervisable getSupervisable();
 
+	/**
+	 * Never throws, and don't create a Supervisable.
+	 * @return true if getSupervisable() can be called now
+	 */
+	boolean hasSupervisable();
+
 }
\ No newline at end of file
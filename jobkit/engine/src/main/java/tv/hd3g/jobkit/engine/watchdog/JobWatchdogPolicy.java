@@ -23,12 +23,16 @@ import java.util.Set;
 public interface JobWatchdogPolicy {
 
 	/**
+	 * @param queuedJobs an immutable snapshot, it can be kept after this call.
 	 * @return empty/zero == no plan to future checks, else do a future check after this time.
 	 */
 	Optional<Duration> isStatusOk(String spoolName,
 								  WatchableSpoolJobState activeJob,
 								  Set<WatchableSpoolJobState> queuedJobs) throws JobWatchdogPolicyWarning;
 
+	/**
+	 * @param queuedJobs an immutable snapshot, it can be kept after this call.
+	 */
 	void isStatusOk(String spoolName,
 					WatchableSpoolJobState activeJob,
 					Set<WatchableSpoolJobState> queuedJobs,
@@ -8,8 +8,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.times;
@@ -49,6 +51,8 @@ class BackgroundServiceTest {
 	@Mock
 	ScheduledFuture<Object> nextRunReference;
 	@Mock
+	ScheduledFuture<Object> concurrentRunReference;
+	@Mock
 	SpoolExecutor spoolExecutor;
 	@Mock
 	JobKitWatchdog jobKitWatchdog;
@@ -77,6 +81,7 @@ class BackgroundServiceTest {
 		when(scheduledExecutor.schedule(any(Runnable.class), eq(timedInterval), eq(MILLISECONDS)))
 				.then(invocation -> nextRunReference);
 		when(spooler.getExecutor(spoolName)).thenReturn(spoolExecutor);
+		when(spoolExecutor.addToQueueFromTimer(any(), any(), anyInt(), any())).thenReturn(true);
 		when(nextRunReference.isDone()).thenReturn(false);
 		when(nextRunReference.isCancelled()).thenReturn(false);
 	}
@@ -170,7 +175,7 @@ class BackgroundServiceTest {
 
 		verify(spooler, only()).getExecutor(spoolName);
 		verify(spoolExecutor, only())
-				.addToQueue(commandCaptor.capture(), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(commandCaptor.capture(), eq(name), eq(0), afterRunCommandCaptor.capture());
 
 		assertEquals(task, commandCaptor.getValue());
 
@@ -196,7 +201,7 @@ class BackgroundServiceTest {
 		scheduledCommand.run();
 
 		verify(spoolExecutor, only())
-				.addToQueue(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
 
 		final var lastException = new Exception();
 		afterRunCommandCaptor.getValue().accept(lastException);
@@ -220,7 +225,7 @@ class BackgroundServiceTest {
 
 		scheduleCommandCaptor.getValue().run();
 		verify(spoolExecutor, only())
-				.addToQueue(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
 		afterRunCommandCaptor.getValue().accept(new Exception());
 
 		verify(scheduledExecutor, times(1))
@@ -233,6 +238,22 @@ class BackgroundServiceTest {
 				.schedule(scheduleCommandCaptor.capture(), eq(timedInterval), eq(MILLISECONDS));
 	}
 
+	@Test
+	void testStartup_notQueued() {
+		when(spoolExecutor.addToQueueFromTimer(any(), any(), anyInt(), any())).thenReturn(false);
+		backgroundService.setTimedInterval(timedInterval, MILLISECONDS).enable();
+		verify(scheduledExecutor, only())
+				.schedule(scheduleCommandCaptor.capture(), eq(timedInterval), eq(MILLISECONDS));
+
+		scheduleCommandCaptor.getValue().run();
+
+		verify(spoolExecutor, only())
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), any());
+		verify(scheduledExecutor, times(2))
+				.schedule(any(Runnable.class), eq(timedInterval), eq(MILLISECONDS));
+		verify(event, never()).onPreviousRunWithError(any(), any(), any());
+	}
+
 	@Test
 	void testStartup_disable() {
 		backgroundService.setTimedInterval(timedInterval, MILLISECONDS).enable();
@@ -262,6 +283,29 @@ class BackgroundServiceTest {
 		verify(nextRunReference, times(1)).cancel(false);
 	}
 
+	@Test
+	void testStartup_concurrentPlanning() {
+		when(scheduledExecutor.schedule(any(Runnable.class), eq(1L), eq(MILLISECONDS)))
+				.then(invocation -> concurrentRunReference);
+		when(scheduledExecutor.schedule(any(Runnable.class), eq(timedInterval), eq(MILLISECONDS)))
+				.then(invocation -> {
+					/**
+					 * Another thread plans a run during this planning
+					 */
+					backgroundService.runFirstOnStartup();
+					return nextRunReference;
+				});
+
+		backgroundService.setTimedInterval(timedInterval, MILLISECONDS);
+		backgroundService.enable();
+		verify(nextRunReference, times(1)).cancel(false);
+		verify(concurrentRunReference, times(0)).cancel(false);
+
+		backgroundService.disable();
+		verify(concurrentRunReference, times(1)).cancel(false);
+		verify(nextRunReference, times(1)).cancel(false);
+	}
+
 	@Test
 	void testStartup_changeTimedInterval() {
 		timedInterval = TimeUnit.HOURS.toMillis(1);
@@ -305,7 +349,7 @@ class BackgroundServiceTest {
 		verify(nextRunReference, never()).cancel(false);
 
 		verify(spoolExecutor, only())
-				.addToQueue(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
 		afterRunCommandCaptor.getValue().accept(null);
 
 		verify(scheduledExecutor, times(1))
@@ -339,11 +383,11 @@ class BackgroundServiceTest {
 		verify(nextRunReference, never()).cancel(false);
 
 		verify(spoolExecutor, times(1))
-				.addToQueue(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
 		afterRunCommandCaptor.getValue().accept(null);
 
 		verify(spoolExecutor, times(1))
-				.addToQueue(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
 		afterRunCommandCaptor.getValue().accept(null);
 
 		verify(scheduledExecutor, times(1))
@@ -365,6 +409,138 @@ class BackgroundServiceTest {
 		assertThrows(IllegalArgumentException.class, () -> backgroundService.setRetryAfterTimeFactor(0));
 	}
 
+	@Test
+	void testSetMaxRetryAfterTime() {
+		assertEquals(Duration.ZERO, backgroundService.getMaxRetryAfterTime());
+		assertEquals(backgroundService, backgroundService.setMaxRetryAfterTime(Duration.ofSeconds(10)));
+		assertEquals(Duration.ofSeconds(10), backgroundService.getMaxRetryAfterTime());
+		final var negative = Duration.ofSeconds(-1);
+		assertThrows(IllegalArgumentException.class, () -> backgroundService.setMaxRetryAfterTime(negative));
+	}
+
+	@Test
+	void testSetRetryJitter() {
+		assertEquals(BackgroundServiceRetryJitter.NONE, backgroundService.getRetryJitter());
+		assertEquals(backgroundService, backgroundService.setRetryJitter(BackgroundServiceRetryJitter.FULL));
+		assertEquals(BackgroundServiceRetryJitter.FULL, backgroundService.getRetryJitter());
+		assertThrows(NullPointerException.class, () -> backgroundService.setRetryJitter(null));
+	}
+
+	@Test
+	void testComputeRetryDelay_cap() {
+		backgroundService.setTimedInterval(1000, MILLISECONDS)
+				.setRetryAfterTimeFactor(10)
+				.setMaxRetryAfterTime(Duration.ofSeconds(60));
+		assertEquals(10_000, backgroundService.computeRetryDelay(1));
+		assertEquals(60_000, backgroundService.computeRetryDelay(2));
+		assertEquals(60_000, backgroundService.computeRetryDelay(200));
+	}
+
+	@Test
+	void testComputeRetryDelay_fullJitter() {
+		backgroundService.setTimedInterval(1000, MILLISECONDS)
+				.setRetryAfterTimeFactor(2)
+				.setMaxRetryAfterTime(Duration.ofSeconds(5))
+				.setRetryJitter(BackgroundServiceRetryJitter.FULL);
+		for (var pos = 0; pos < 100; pos++) {
+			final var delay = backgroundService.computeRetryDelay(10);
+			assertTrue(delay >= 1 && delay <= 5000, "Delay: " + delay);
+		}
+	}
+
+	@Test
+	void testComputeRetryDelay_decorrelatedJitter() {
+		backgroundService.setTimedInterval(1000, MILLISECONDS)
+				.setMaxRetryAfterTime(Duration.ofSeconds(5))
+				.setRetryJitter(BackgroundServiceRetryJitter.DECORRELATED);
+		var previous = 1000L;
+		for (var pos = 0; pos < 100; pos++) {
+			final var delay = backgroundService.computeRetryDelay(pos + 1);
+			assertTrue(delay >= 1000 && delay <= Math.min(5000, previous * 3), "Delay: " + delay);
+			previous = delay;
+		}
+	}
+
+	@Test
+	void testSetCircuitBreaker_invalid() {
+		final var zero = Duration.ZERO;
+		final var negative = Duration.ofSeconds(-1);
+		assertThrows(IllegalArgumentException.class, () -> backgroundService.setCircuitBreaker(-1, zero));
+		assertThrows(IllegalArgumentException.class, () -> backgroundService.setCircuitBreaker(1, zero));
+		assertThrows(IllegalArgumentException.class, () -> backgroundService.setCircuitBreaker(1, negative));
+		assertEquals(backgroundService, backgroundService.setCircuitBreaker(0, zero));
+		assertEquals(BackgroundServiceCircuitState.CLOSED, backgroundService.getCircuitState());
+	}
+
+	@Test
+	void testCircuitBreaker_open() {
+		timedInterval = 1000;
+		final var openDuration = TimeUnit.HOURS.toMillis(1);
+		backgroundService.setTimedInterval(timedInterval, MILLISECONDS)
+				.setCircuitBreaker(2, Duration.ofMillis(openDuration))
+				.enable();
+		verify(scheduledExecutor, only())
+				.schedule(scheduleCommandCaptor.capture(), eq(timedInterval), eq(MILLISECONDS));
+
+		final var lastException = new Exception();
+		scheduleCommandCaptor.getValue().run();
+		verify(spoolExecutor, times(1))
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+		afterRunCommandCaptor.getValue().accept(lastException);
+		assertEquals(BackgroundServiceCircuitState.CLOSED, backgroundService.getCircuitState());
+
+		verify(scheduledExecutor, times(2))
+				.schedule(scheduleCommandCaptor.capture(), eq(timedInterval), eq(MILLISECONDS));
+		scheduleCommandCaptor.getValue().run();
+		verify(spoolExecutor, times(2))
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+		afterRunCommandCaptor.getValue().accept(lastException);
+		assertEquals(BackgroundServiceCircuitState.OPEN, backgroundService.getCircuitState());
+		verify(event, times(1)).onChangeCircuitState(name, spoolName, BackgroundServiceCircuitState.OPEN);
+
+		verify(scheduledExecutor, times(1))
+				.schedule(scheduleCommandCaptor.capture(), eq(openDuration), eq(MILLISECONDS));
+
+		/**
+		 * A run during the open time, like by runFirstOnStartup
+		 */
+		scheduleCommandCaptor.getValue().run();
+		verify(scheduledExecutor, times(2))
+				.schedule(any(Runnable.class), longThat(d -> d > openDuration - 10_000 && d <= openDuration),
+						eq(MILLISECONDS));
+		verify(spoolExecutor, times(2))
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), any());
+	}
+
+	@Test
+	void testCircuitBreaker_halfOpen() throws InterruptedException {
+		timedInterval = 1000;
+		backgroundService.setTimedInterval(timedInterval, MILLISECONDS)
+				.setCircuitBreaker(1, Duration.ofMillis(1))
+				.enable();
+		verify(scheduledExecutor, only())
+				.schedule(scheduleCommandCaptor.capture(), eq(timedInterval), eq(MILLISECONDS));
+
+		scheduleCommandCaptor.getValue().run();
+		verify(spoolExecutor, times(1))
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+		afterRunCommandCaptor.getValue().accept(new Exception());
+		assertEquals(BackgroundServiceCircuitState.OPEN, backgroundService.getCircuitState());
+		verify(scheduledExecutor, times(1))
+				.schedule(scheduleCommandCaptor.capture(), eq(1L), eq(MILLISECONDS));
+
+		Thread.sleep(5);// NOSONAR
+		scheduleCommandCaptor.getValue().run();
+		assertEquals(BackgroundServiceCircuitState.HALF_OPEN, backgroundService.getCircuitState());
+		verify(spoolExecutor, times(2))
+				.addToQueueFromTimer(any(RunnableWithException.class), eq(name), eq(0), afterRunCommandCaptor.capture());
+
+		afterRunCommandCaptor.getValue().accept(null);
+		assertEquals(BackgroundServiceCircuitState.CLOSED, backgroundService.getCircuitState());
+		verify(event, times(1)).onChangeCircuitState(name, spoolName, BackgroundServiceCircuitState.HALF_OPEN);
+		verify(event, times(1)).onChangeCircuitState(name, spoolName, BackgroundServiceCircuitState.CLOSED);
+	}
+
 	@Test
 	void testRunFirstOnStartup_enabled_long_time() throws Exception {
 		final var timedInterval = TimeUnit.DAYS.toMillis(Math.abs(random.nextInt()) + 1);
@@ -390,7 +566,7 @@ class BackgroundServiceTest {
 		assertTrue(backgroundService.isHasFirstStarted());
 
 		verify(spoolExecutor, times(1))
-				.addToQueue(commandCaptor.capture(), eq(name), eq(0), afterRunCommandCaptor.capture());
+				.addToQueueFromTimer(commandCaptor.capture(), eq(name), eq(0), afterRunCommandCaptor.capture());
 		commandCaptor.getValue().run();
 		afterRunCommandCaptor.getValue().accept(null);
 		assertTrue(backgroundService.isHasFirstStarted());
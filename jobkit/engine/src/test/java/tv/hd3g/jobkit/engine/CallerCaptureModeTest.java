@@ -0,0 +1,69 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static tv.hd3g.jobkit.engine.CallerCaptureMode.OFF;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class CallerCaptureModeTest {
+
+	static final String PACKAGE_NAME = CallerCaptureModeTest.class.getPackageName();
+
+	@ParameterizedTest
+	@EnumSource(names = { "SINGLE_FRAME", "FULL_TRACE" })
+	void testCapture(final CallerCaptureMode mode) {
+		final var caller = mode.capture(0).get();
+		assertNotNull(caller);
+		assertEquals(getClass().getName(), caller.getClassName());
+		assertEquals("testCapture", caller.getMethodName());
+	}
+
+	@ParameterizedTest
+	@EnumSource(names = { "SINGLE_FRAME", "FULL_TRACE" })
+	void testCapture_skip(final CallerCaptureMode mode) {
+		final var caller = captureFromHere(mode);
+		assertNotNull(caller);
+		assertEquals("testCapture_skip", caller.getMethodName());
+	}
+
+	private static StackTraceElement captureFromHere(final CallerCaptureMode mode) {
+		return mode.capture(1).get();
+	}
+
+	@ParameterizedTest
+	@EnumSource(names = { "SINGLE_FRAME", "FULL_TRACE" })
+	void testCaptureFirstOutside(final CallerCaptureMode mode) {
+		final var caller = mode.captureFirstOutside(PACKAGE_NAME).get();
+		assertNotNull(caller);
+		assertFalse(caller.getClassName().startsWith(PACKAGE_NAME));
+		assertFalse(caller.isNativeMethod());
+	}
+
+	@Test
+	void testOff() {
+		assertNull(OFF.capture(0).get());
+		assertNull(OFF.captureFirstOutside(PACKAGE_NAME).get());
+	}
+
+}
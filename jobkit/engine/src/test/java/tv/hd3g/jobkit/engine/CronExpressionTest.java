@@ -0,0 +1,127 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CronExpressionTest {
+
+	static final ZoneId UTC = ZoneId.of("UTC");
+
+	/**
+	 * A Wednesday
+	 */
+	static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 10, 10, 20, 30, 0, UTC);
+
+	private static ZonedDateTime next(final String expression) {
+		return CronExpression.parse(expression).next(START);
+	}
+
+	private static ZonedDateTime at(final int month, final int day, final int hour, final int minute) {
+		return ZonedDateTime.of(2024, month, day, hour, minute, 0, 0, UTC);
+	}
+
+	@Test
+	void testNext_everyMinute() {
+		assertEquals(at(1, 10, 10, 21), next("* * * * *"));
+	}
+
+	@Test
+	void testNext_steps() {
+		assertEquals(at(1, 10, 10, 30), next("*/15 * * * *"));
+		assertEquals(at(1, 10, 11, 0), next("0-10/5 * * * *"));
+		assertEquals(at(1, 10, 10, 25), next("5/10 * * * *"));
+	}
+
+	@Test
+	void testNext_listAndRange() {
+		assertEquals(at(1, 10, 14, 5), next("5 8,14 * * *"));
+		assertEquals(at(1, 11, 8, 0), next("0 8-9 * * *"));
+	}
+
+	@Test
+	void testNext_month() {
+		assertEquals(at(3, 1, 0, 0), next("0 0 1 MAR *"));
+		assertEquals(ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, UTC), next("@yearly"));
+	}
+
+	@Test
+	void testNext_dayOfWeek() {
+		assertEquals(at(1, 14, 0, 0), next("0 0 * * 0"));
+		assertEquals(at(1, 14, 0, 0), next("0 0 * * 7"));
+		assertEquals(at(1, 11, 0, 0), next("0 0 * * thu"));
+		assertEquals(at(1, 11, 0, 0), next("0 0 * * MON-FRI"));
+	}
+
+	@Test
+	void testNext_dayOfMonthOrDayOfWeek() {
+		assertEquals(at(1, 12, 0, 0), next("0 0 15 * FRI"));
+		assertEquals(at(1, 15, 0, 0), next("0 0 15 * *"));
+	}
+
+	@Test
+	void testNext_leapDay() {
+		assertEquals(at(2, 29, 0, 0), next("0 0 29 2 *"));
+	}
+
+	@Test
+	void testNext_impossible() {
+		final var cron = CronExpression.parse("0 0 31 2 *");
+		assertThrows(IllegalStateException.class, () -> cron.next(START));
+	}
+
+	@Test
+	void testNext_dst() {
+		final var paris = ZoneId.of("Europe/Paris");
+		final var before = ZonedDateTime.of(2024, 3, 31, 1, 30, 0, 0, paris);
+		assertEquals(ZonedDateTime.of(2024, 3, 31, 3, 0, 0, 0, paris),
+				CronExpression.parse("0 * * * *").next(before));
+	}
+
+	@Test
+	void testMacros() {
+		assertEquals(next("0 * * * *"), next("@hourly"));
+		assertEquals(next("0 0 * * *"), next("@DAILY"));
+		assertEquals(next("0 0 * * 0"), next("@weekly"));
+		assertEquals(next("0 0 1 * *"), next("@monthly"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+							 "", "* * * *", "* * * * * *", "60 * * * *", "* 24 * * *", "* * 0 * *", "* * * 13 *",
+							 "* * * * 8", "5-1 * * * *", "*/0 * * * *", "a * * * *", "* * * FOO *" })
+	void testParse_invalid(final String expression) {
+		assertThrows(IllegalArgumentException.class, () -> CronExpression.parse(expression));
+	}
+
+	@Test
+	void testEquals() {
+		assertEquals(CronExpression.parse("0 0 * * *"), CronExpression.parse(" 0 0 * * * "));
+		assertNotEquals(CronExpression.parse("0 0 * * *"), CronExpression.parse("@daily"));
+		assertEquals("0 0 * * *", CronExpression.parse("0 0 * * *").toString());
+	}
+
+}
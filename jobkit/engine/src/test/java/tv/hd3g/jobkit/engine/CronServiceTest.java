@@ -0,0 +1,222 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class CronServiceTest {
+
+	static final ZoneId UTC = ZoneId.of("UTC");
+
+	@Mock
+	Spooler spooler;
+	@Mock
+	SpoolExecutor spoolExecutor;
+	@Mock
+	JobKitTimer timer;
+	@Mock
+	JobKitTimer.TimerEntry timerEntry;
+	@Mock
+	BackgroundServiceEvent event;
+	@Mock
+	JobKitWatchdog jobKitWatchdog;
+	@Mock
+	RunnableWithException task;
+	@Mock
+	RunnableWithException disableTask;
+
+	@Captor
+	ArgumentCaptor<Runnable> timerActionCaptor;
+	@Captor
+	ArgumentCaptor<Consumer<Exception>> afterRunCommandCaptor;
+	@Captor
+	ArgumentCaptor<Duration> delayCaptor;
+
+	String name;
+	String spoolName;
+	CronExpression cronExpression;
+	CronService cronService;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		name = String.valueOf(System.nanoTime());
+		spoolName = String.valueOf(System.nanoTime());
+		cronExpression = CronExpression.parse("0 * * * *");
+		cronService = new CronService(name, spoolName, spooler, timer, event, jobKitWatchdog,
+				cronExpression, UTC, task, disableTask);
+
+		when(spooler.getExecutor(spoolName)).thenReturn(spoolExecutor);
+		when(timer.schedule(any(Duration.class), any(Runnable.class), isNull())).thenReturn(timerEntry);
+		when(spoolExecutor.addToQueue(any(), any(), anyInt(), any())).thenReturn(true);
+		when(spoolExecutor.addToQueueFromTimer(any(), any(), anyInt(), any())).thenReturn(true);
+	}
+
+	@AfterEach
+	void end() {
+		verifyNoMoreInteractions(task, disableTask);
+	}
+
+	@Test
+	void testGetters() {
+		assertEquals(name, cronService.getName());
+		assertEquals(spoolName, cronService.getSpoolName());
+		assertEquals(cronExpression, cronService.getCronExpression());
+		assertEquals(UTC, cronService.getZoneId());
+		assertEquals(0, cronService.getPriority());
+		assertSame(cronService, cronService.setPriority(5));
+		assertEquals(5, cronService.getPriority());
+		assertFalse(cronService.isEnabled());
+		assertTrue(cronService.getNextRunDate().isEmpty());
+	}
+
+	@Test
+	void testEnable() {
+		final var before = ZonedDateTime.now(UTC);
+		assertSame(cronService, cronService.enable());
+		assertSame(cronService, cronService.enable());
+		assertTrue(cronService.isEnabled());
+
+		final var nextRunDate = cronService.getNextRunDate().get();
+		assertEquals(cronExpression.next(before), nextRunDate);
+
+		verify(timer, times(1)).schedule(delayCaptor.capture(), any(Runnable.class), isNull());
+		assertTrue(delayCaptor.getValue().compareTo(Duration.ofHours(1)) <= 0);
+		verify(event, times(1)).onChangeEnabled(name, spoolName, true);
+		verify(event, times(1)).scheduleNextBackgroundServiceTask(eq(name), eq(spoolName), eq(0), anyLong());
+		verify(jobKitWatchdog, times(1)).refreshBackgroundService(name, spoolName, true, 3_600_000L);
+	}
+
+	@Test
+	void testRun() {
+		cronService.enable();
+		verify(timer, times(1)).schedule(any(Duration.class), timerActionCaptor.capture(), isNull());
+
+		timerActionCaptor.getValue().run();
+		assertTrue(cronService.getNextRunDate().isEmpty());
+		verify(event, times(1)).nextBackgroundServiceTask(name, spoolName, 0);
+		verify(spoolExecutor, times(1)).addToQueueFromTimer(eq(task), eq(name), eq(0), afterRunCommandCaptor.capture());
+
+		afterRunCommandCaptor.getValue().accept(null);
+		assertTrue(cronService.getNextRunDate().isPresent());
+		verify(timer, times(2)).schedule(any(Duration.class), any(Runnable.class), isNull());
+		verify(event, times(1)).planNextExec(eq(name), eq(spoolName), anyLong());
+	}
+
+	@Test
+	void testRun_error() {
+		cronService.enable();
+		verify(timer, times(1)).schedule(any(Duration.class), timerActionCaptor.capture(), isNull());
+		timerActionCaptor.getValue().run();
+		verify(spoolExecutor, times(1)).addToQueueFromTimer(eq(task), eq(name), eq(0), afterRunCommandCaptor.capture());
+
+		final var error = new IllegalStateException("For test purpose only");
+		afterRunCommandCaptor.getValue().accept(error);
+		verify(event, times(1)).onPreviousRunWithError(name, spoolName, error);
+		verify(timer, times(2)).schedule(any(Duration.class), any(Runnable.class), isNull());
+	}
+
+	@Test
+	void testRun_rejected() {
+		when(spoolExecutor.addToQueueFromTimer(any(), any(), anyInt(), any())).thenReturn(false);
+		cronService.enable();
+		verify(timer, times(1)).schedule(any(Duration.class), timerActionCaptor.capture(), isNull());
+		timerActionCaptor.getValue().run();
+		verify(timer, times(2)).schedule(any(Duration.class), any(Runnable.class), isNull());
+		assertTrue(cronService.getNextRunDate().isPresent());
+	}
+
+	@Test
+	void testDisable() {
+		assertSame(cronService, cronService.disable());
+		verifyNoMoreInteractions(timer, spoolExecutor);
+
+		cronService.enable();
+		cronService.disable();
+		assertFalse(cronService.isEnabled());
+		assertTrue(cronService.getNextRunDate().isEmpty());
+		verify(timerEntry, times(1)).cancel();
+		verify(event, times(1)).onChangeEnabled(name, spoolName, false);
+		verify(jobKitWatchdog, times(1)).refreshBackgroundService(name, spoolName, false, 0);
+		verify(spoolExecutor, times(1)).addToQueue(eq(disableTask), eq("On disable service " + name), eq(0), any());
+	}
+
+	@Test
+	void testDisable_duringRun() {
+		cronService.enable();
+		verify(timer, times(1)).schedule(any(Duration.class), timerActionCaptor.capture(), isNull());
+		timerActionCaptor.getValue().run();
+		verify(spoolExecutor, times(1)).addToQueueFromTimer(eq(task), eq(name), eq(0), afterRunCommandCaptor.capture());
+
+		cronService.disable();
+		afterRunCommandCaptor.getValue().accept(null);
+		verify(timer, times(1)).schedule(any(Duration.class), any(Runnable.class), isNull());
+		assertTrue(cronService.getNextRunDate().isEmpty());
+	}
+
+	@Test
+	void testDisableEnable_duringRun() {
+		cronService.enable();
+		verify(timer, times(1)).schedule(any(Duration.class), timerActionCaptor.capture(), isNull());
+		timerActionCaptor.getValue().run();
+		verify(spoolExecutor, times(1)).addToQueueFromTimer(eq(task), eq(name), eq(0),
+				afterRunCommandCaptor.capture());
+
+		cronService.disable();
+		cronService.enable();
+		verify(timer, times(2)).schedule(any(Duration.class), any(Runnable.class), isNull());
+		final var nextRunDate = cronService.getNextRunDate().get();
+
+		/**
+		 * The previous run ends after the new enable: the next run is already planned
+		 */
+		afterRunCommandCaptor.getValue().accept(null);
+		verify(timer, times(2)).schedule(any(Duration.class), any(Runnable.class), isNull());
+		verify(event, times(0)).planNextExec(eq(name), eq(spoolName), anyLong());
+		assertEquals(nextRunDate, cronService.getNextRunDate().get());
+
+		cronService.disable();
+		verify(timerEntry, times(1)).cancel();
+		verify(spoolExecutor, times(2)).addToQueue(eq(disableTask), eq("On disable service " + name), eq(0), any());
+	}
+
+}
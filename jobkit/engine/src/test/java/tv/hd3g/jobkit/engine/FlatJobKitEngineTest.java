@@ -24,6 +24,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -144,6 +147,83 @@ class FlatJobKitEngineTest {
 		assertEquals(runtimeException, eR.get());
 	}
 
+	@Test
+	void testSubmit() {
+		final var i = new AtomicInteger();
+		task = () -> i.getAndIncrement();
+		final var future = jobKitEngine.submit(null, null, 0, task, e -> {
+		});
+		assertTrue(future.isDone());
+		assertFalse(future.isCompletedExceptionally());
+		assertEquals(1, i.get());
+	}
+
+	@Test
+	void testSubmitAfter() {
+		final var i = new AtomicInteger();
+		task = () -> i.getAndIncrement();
+		final var future = jobKitEngine.submitAfter(null, null, 0, Duration.ofDays(1), task, e -> {
+		});
+		assertTrue(future.isDone());
+		assertEquals(1, i.get());
+	}
+
+	@Test
+	void testSubmitAt() {
+		final var i = new AtomicInteger();
+		task = () -> i.getAndIncrement();
+		final var future = jobKitEngine.submitAt(null, null, 0, Instant.now().plusSeconds(3600), task, e -> {
+		});
+		assertTrue(future.isDone());
+		assertEquals(1, i.get());
+	}
+
+	@Test
+	void testStartCronService() {
+		final var cron = CronExpression.parse("@daily");
+		final var zoneId = ZoneId.systemDefault();
+		assertThrows(UnsupportedOperationException.class,
+				() -> jobKitEngine.startCronService(null, null, cron, zoneId, task, disableTask));
+	}
+
+	@Test
+	void testSubmit_graph() {
+		final var i = new AtomicInteger();
+		task = () -> i.getAndIncrement();
+		final var graph = new JobGraph("graph")
+				.addNode("a", "spool", 0, task)
+				.addNode("b", "spool", 0, () -> {
+					throw new IllegalArgumentException("A bad thing, but for test purpose only");
+				}, "a")
+				.addNode("c", "spool", 0, task, "b");
+		final var execution = jobKitEngine.submit(graph);
+		assertEquals(1, i.get());
+		assertTrue(execution.getAllDone().isCompletedExceptionally());
+		assertTrue(execution.getFuture("c").get().isCompletedExceptionally());
+	}
+
+	@Test
+	void testSubmitAll() {
+		final var i = new AtomicInteger();
+		task = () -> i.getAndIncrement();
+		final var futures = jobKitEngine.submitAll(null, null, 0, List.of(task, task), e -> {
+		});
+		assertEquals(2, futures.size());
+		assertTrue(futures.stream().allMatch(JobFuture::isDone));
+		assertEquals(2, i.get());
+	}
+
+	@Test
+	void testSubmit_error() {
+		task = () -> {
+			throw new IllegalArgumentException("A bad thing, but for test purpose only");
+		};
+		final var future = jobKitEngine.submit(null, null, 0, task, e -> {
+		});
+		assertTrue(future.isCompletedExceptionally());
+		assertFalse(future.cancel(true));
+	}
+
 	@Test
 	void testRunOneShotJob_error() throws Exception {
 		final var job = Mockito.mock(Job.class);
@@ -0,0 +1,145 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobFutureTest {
+
+	AtomicInteger removeCalls;
+
+	@BeforeEach
+	void init() {
+		removeCalls = new AtomicInteger();
+	}
+
+	private JobFuture create(final boolean removed) {
+		return new JobFuture(() -> {
+			removeCalls.incrementAndGet();
+			return removed;
+		});
+	}
+
+	@Test
+	void testCancel_queued() {
+		final var f = create(true);
+		assertTrue(f.cancel(true));
+		assertTrue(f.isCancelled());
+		assertEquals(1, removeCalls.get());
+	}
+
+	@Test
+	void testCancel_done() {
+		final var f = create(true);
+		f.complete(null);
+		assertFalse(f.cancel(true));
+		assertFalse(f.isCancelled());
+		assertEquals(0, removeCalls.get());
+	}
+
+	@Test
+	void testCancel_running() throws InterruptedException {
+		final var f = create(false);
+		final var started = new CountDownLatch(1);
+		final var interrupted = new CountDownLatch(1);
+		final var t = Thread.ofVirtual().start(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(10_000);// NOSONAR
+			} catch (final InterruptedException e) {
+				interrupted.countDown();
+			}
+		});
+		f.setRunningThread(t);
+		assertTrue(started.await(1, SECONDS));
+
+		assertTrue(f.cancel(true));
+		assertTrue(f.isCancelled());
+		assertTrue(interrupted.await(1, SECONDS));
+		assertEquals(1, removeCalls.get());
+	}
+
+	@Test
+	void testDelegateTo_complete() {
+		final var f = create(false);
+		final var queued = create(true);
+		f.delegateTo(queued);
+		assertFalse(f.isDone());
+		queued.complete(null);
+		assertTrue(f.isDone());
+		assertFalse(f.isCompletedExceptionally());
+	}
+
+	@Test
+	void testDelegateTo_error() {
+		final var f = create(false);
+		final var queued = create(true);
+		f.delegateTo(queued);
+		queued.completeExceptionally(new IllegalStateException("For test purpose only"));
+		assertTrue(f.isCompletedExceptionally());
+		assertFalse(f.isCancelled());
+	}
+
+	@Test
+	void testDelegateTo_cancel() {
+		final var f = create(false);
+		final var queued = create(true);
+		f.delegateTo(queued);
+		assertTrue(f.cancel(false));
+		assertTrue(f.isCancelled());
+		assertTrue(queued.isCancelled());
+		assertEquals(1, removeCalls.get());
+	}
+
+	@Test
+	void testDelegateTo_cancelledBefore() {
+		final var f = create(false);
+		assertTrue(f.cancel(false));
+		final var queued = create(true);
+		f.delegateTo(queued);
+		assertTrue(queued.isCancelled());
+	}
+
+	@Test
+	void testDelegateTo_queuedCancelled() {
+		final var f = create(false);
+		final var queued = create(true);
+		f.delegateTo(queued);
+		queued.cancel(false);
+		assertTrue(f.isCancelled());
+	}
+
+	@Test
+	void testCancel_running_noInterrupt() {
+		final var f = create(false);
+		final var t = Thread.ofVirtual().unstarted(() -> {
+		});
+		f.setRunningThread(t);
+		assertTrue(f.cancel(false));
+		assertFalse(t.isInterrupted());
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobGraphExecutionTest {
+
+	JobFuture a;
+	JobFuture b;
+	JobGraphExecution execution;
+
+	@BeforeEach
+	void init() {
+		a = new JobFuture(() -> true);
+		b = new JobFuture(() -> true);
+		final var futures = new LinkedHashMap<String, JobFuture>();
+		futures.put("a", a);
+		futures.put("b", b);
+		execution = new JobGraphExecution("graph", futures);
+	}
+
+	@Test
+	void testGetters() {
+		assertEquals("graph", execution.getGraphName());
+		assertEquals(List.of("a", "b"), List.copyOf(execution.getFutures().keySet()));
+		assertSame(a, execution.getFuture("a").get());
+		assertTrue(execution.getFuture("c").isEmpty());
+	}
+
+	@Test
+	void testGetAllDone() {
+		a.complete(null);
+		assertFalse(execution.getAllDone().isDone());
+		b.complete(null);
+		assertTrue(execution.getAllDone().isDone());
+		assertFalse(execution.getAllDone().isCompletedExceptionally());
+	}
+
+	@Test
+	void testCancel() {
+		a.complete(null);
+		execution.cancel(false);
+		assertFalse(a.isCancelled());
+		assertTrue(b.isCancelled());
+		assertTrue(execution.getAllDone().isCompletedExceptionally());
+	}
+
+}
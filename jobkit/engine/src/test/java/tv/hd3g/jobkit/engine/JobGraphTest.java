@@ -0,0 +1,83 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobGraphTest {
+
+	RunnableWithException task;
+	JobGraph graph;
+
+	@BeforeEach
+	void init() {
+		task = () -> {
+		};
+		graph = new JobGraph("graph");
+	}
+
+	@Test
+	void testAddNode() {
+		assertTrue(graph.isEmpty());
+		assertSame(graph, graph.addNode("a", "spoolA", 0, task));
+		graph.addNode("b", "spoolB", 1, task, "a");
+		graph.addNode("c", "spoolA", 2, task, "a", "b");
+		assertFalse(graph.isEmpty());
+		assertEquals("graph", graph.getName());
+
+		final var nodes = List.copyOf(graph.getNodes());
+		assertEquals(List.of("a", "b", "c"), nodes.stream().map(JobGraphNode::name).toList());
+		assertEquals(new JobGraphNode("c", "spoolA", 2, task, List.of("a", "b")), nodes.get(2));
+	}
+
+	@Test
+	void testAddNode_duplicate() {
+		graph.addNode("a", "spoolA", 0, task);
+		assertThrows(IllegalArgumentException.class, () -> graph.addNode("a", "spoolB", 0, task));
+	}
+
+	@Test
+	void testAddNode_unknownDependency() {
+		graph.addNode("a", "spoolA", 0, task);
+		assertThrows(IllegalArgumentException.class, () -> graph.addNode("b", "spoolA", 0, task, "c"));
+		assertThrows(IllegalArgumentException.class, () -> graph.addNode("b", "spoolA", 0, task, "b"));
+		assertEquals(1, graph.getNodes().size());
+	}
+
+	@Test
+	void testAddNode_null() {
+		assertThrows(NullPointerException.class, () -> graph.addNode(null, "spoolA", 0, task));
+		assertThrows(NullPointerException.class, () -> graph.addNode("a", null, 0, task));
+		assertThrows(NullPointerException.class, () -> graph.addNode("a", "spoolA", 0, null));
+	}
+
+	@Test
+	void testGetNodes_unmodifiable() {
+		final var nodes = graph.getNodes();
+		assertThrows(UnsupportedOperationException.class, () -> nodes.clear());
+	}
+
+}
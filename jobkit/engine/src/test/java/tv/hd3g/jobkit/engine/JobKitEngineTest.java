@@ -10,23 +10,35 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -124,6 +136,395 @@ class JobKitEngineTest {
 		}).get(1, TimeUnit.SECONDS);
 	}
 
+	@Test
+	void testSetSpoolThreadType() {
+		jobKitEngine.setSpoolThreadType(spoolName, SpoolThreadType.VIRTUAL);
+		assertEquals(SpoolThreadType.VIRTUAL, spooler.getExecutor(spoolName).getThreadType());
+		jobKitEngine.setSpoolThreadType(spoolName, SpoolThreadType.PLATFORM);
+		assertEquals(SpoolThreadType.PLATFORM, spooler.getExecutor(spoolName).getThreadType());
+	}
+
+	@Test
+	void testSetSpoolParallelism() {
+		jobKitEngine.setSpoolParallelism(spoolName, 3);
+		assertEquals(3, spooler.getExecutor(spoolName).getParallelism());
+		assertThrows(IllegalArgumentException.class, () -> jobKitEngine.setSpoolParallelism(spoolName, 0));
+	}
+
+	@Test
+	void testSetSpoolPriorityAging() {
+		jobKitEngine.setSpoolPriorityAging(spoolName, Duration.ofSeconds(1));
+		assertEquals(Duration.ofSeconds(1), spooler.getExecutor(spoolName).getPriorityAging());
+	}
+
+	@Test
+	void testSetSpoolAdmission() {
+		jobKitEngine.setSpoolAdmission(spoolName, 10, SpoolAdmissionPolicy.BLOCK, Duration.ofSeconds(1));
+		final var executor = spooler.getExecutor(spoolName);
+		assertEquals(10, executor.getQueueCapacity());
+		assertEquals(SpoolAdmissionPolicy.BLOCK, executor.getAdmissionPolicy());
+		assertEquals(Duration.ofSeconds(1), executor.getAdmissionBlockTimeout());
+	}
+
+	@Test
+	void testSetSpoolRateLimit() {
+		jobKitEngine.setSpoolRateLimit(spoolName, 10, 2);
+		final var stats = spooler.getExecutor(spoolName).getRateLimitStats();
+		assertEquals(10d, stats.permitsPerSecond());
+		assertEquals(2, stats.burst());
+	}
+
+	@Test
+	void testSetSharedWorkerPool() throws Exception {
+		jobKitEngine.setSharedWorkerPool(2, SpoolThreadType.PLATFORM);
+		jobKitEngine.setSpoolPoolWeight(spoolName, 3);
+		assertEquals(2, spooler.getWorkerPoolSize());
+		assertEquals(3, spooler.getExecutor(spoolName).getPoolWeight());
+
+		final var threadName = new AtomicReference<String>();
+		jobKitEngine.submit(name, spoolName, 0, () -> threadName.set(Thread.currentThread().getName()))
+				.get(10, SECONDS);
+		assertTrue(threadName.get().startsWith("SpoolWorker #"));
+	}
+
+	@Test
+	void testSubmit() throws Exception {
+		final var future = jobKitEngine.submit(name, spoolName, 0, () -> {
+		});
+		future.get(10, SECONDS);
+		assertTrue(future.isDone());
+		assertFalse(future.isCompletedExceptionally());
+	}
+
+	@Test
+	void testSubmitAfter() throws Exception {
+		final var count = new AtomicInteger();
+		final var start = System.nanoTime();
+		final var future = jobKitEngine.submitAfter(name, spoolName, 0, Duration.ofMillis(50),
+				count::incrementAndGet, afterRunCommand);
+		assertFalse(future.isDone());
+		future.get(10, SECONDS);
+		assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+		assertEquals(1, count.get());
+		verify(afterRunCommand, times(1)).accept(isNull());
+	}
+
+	@Test
+	void testSubmitAfter_cancel() {
+		final var future = jobKitEngine.submitAfter(name, spoolName, 0, Duration.ofDays(1), task, afterRunCommand);
+		assertTrue(future.cancel(false));
+		assertTrue(future.isCancelled());
+		verifyNoMoreInteractions(task, afterRunCommand);
+	}
+
+	@Test
+	void testSubmitAfter_shutdown() {
+		final var future = jobKitEngine.submitAfter(name, spoolName, 0, Duration.ofDays(1), task, afterRunCommand);
+		jobKitEngine.shutdown();
+		final var e = assertThrows(ExecutionException.class, () -> future.get(1, SECONDS));
+		assertEquals(RejectedExecutionException.class, e.getCause().getClass());
+		verifyNoMoreInteractions(task, afterRunCommand);
+	}
+
+	@Test
+	void testSubmitAfter_fullCallerRunsSpool() throws Exception {
+		jobKitEngine.setSpoolAdmission(spoolName, 1, SpoolAdmissionPolicy.CALLER_RUNS, Duration.ZERO);
+		final var executor = spooler.getExecutor(spoolName);
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var running = jobKitEngine.submit(name, spoolName, 0, () -> {
+			started.countDown();
+			release.await(10, SECONDS);
+		});
+		assertTrue(started.await(10, SECONDS));
+		final var queued = jobKitEngine.submit(name, spoolName, 0, () -> {
+		});
+		assertEquals(1, executor.getQueueSize());
+
+		final var threadNames = new CopyOnWriteArrayList<String>();
+		final RunnableWithException delayedTask = () -> threadNames.add(Thread.currentThread().getName());
+		final var delayed0 = jobKitEngine.submitAfter(name, spoolName, 0, Duration.ofMillis(10),
+				delayedTask, afterRunCommand);
+		final var delayed1 = jobKitEngine.submitAfter(name, spoolName, 0, Duration.ofMillis(20),
+				delayedTask, afterRunCommand);
+
+		/**
+		 * Queued over the capacity by the timer, without run them in the timer thread
+		 */
+		final var end = System.currentTimeMillis() + 10_000;
+		while (executor.getQueueSize() < 3 && System.currentTimeMillis() < end) {
+			Thread.sleep(1);// NOSONAR
+		}
+		assertEquals(3, executor.getQueueSize());
+		assertTrue(threadNames.isEmpty());
+
+		release.countDown();
+		running.get(10, SECONDS);
+		queued.get(10, SECONDS);
+		delayed0.get(10, SECONDS);
+		delayed1.get(10, SECONDS);
+		assertEquals(2, threadNames.size());
+		assertFalse(threadNames.contains("JobKitTimer"));
+		assertEquals(0, executor.getAdmissionStats().callerRuns());
+	}
+
+	@Test
+	void testSubmitAt() throws Exception {
+		final var count = new AtomicInteger();
+		jobKitEngine.submitAt(name, spoolName, 0, Instant.now().minusSeconds(1), count::incrementAndGet,
+				afterRunCommand).get(10, SECONDS);
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	void testStartCronService() {
+		final var s = jobKitEngine.startCronService(name, spoolName, "0 0 1 1 *", task, disableTask);
+		assertTrue(s.isEnabled());
+		assertEquals(name, s.getName());
+		assertEquals(spoolName, s.getSpoolName());
+		assertEquals(ZoneId.systemDefault(), s.getZoneId());
+		assertTrue(s.getNextRunDate().isPresent());
+		jobKitEngine.shutdown();
+		assertFalse(s.isEnabled());
+		verifyNoMoreInteractions(task);
+	}
+
+	@Test
+	void testSubmit_graph() throws Exception {
+		final var order = new CopyOnWriteArrayList<String>();
+		final Function<String, RunnableWithException> record = nodeName -> () -> {
+			assertNotNull(Supervisable.getSupervisable());
+			order.add(nodeName);
+		};
+		final var graph = new JobGraph(name)
+				.addNode("download", spoolName + "net", 0, record.apply("download"))
+				.addNode("hash", spoolName + "cpu", 0, record.apply("hash"), "download")
+				.addNode("thumbnail", spoolName + "cpu", 0, record.apply("thumbnail"), "download")
+				.addNode("publish", spoolName + "net", 0, record.apply("publish"), "hash", "thumbnail");
+
+		final var execution = jobKitEngine.submit(graph);
+		execution.getAllDone().get(10, SECONDS);
+
+		assertEquals(4, order.size());
+		assertEquals("download", order.get(0));
+		assertEquals("publish", order.get(3));
+		assertTrue(execution.getFutures().values().stream().noneMatch(JobFuture::isCompletedExceptionally));
+	}
+
+	@Test
+	void testSubmit_graph_error() throws Exception {
+		final var error = new IllegalStateException("For test purpose only");
+		final var graph = new JobGraph(name)
+				.addNode("a", spoolName, 0, () -> {
+					throw error;
+				})
+				.addNode("b", spoolName, 0, task, "a")
+				.addNode("c", spoolName, 0, task, "b")
+				.addNode("d", spoolName, 0, () -> {
+				});
+
+		final var execution = jobKitEngine.submit(graph);
+		execution.getFuture("d").get().get(10, SECONDS);
+
+		final var eB = assertThrows(ExecutionException.class, () -> execution.getFuture("b").get().get(10, SECONDS));
+		final var dependencyError = (JobGraphDependencyException) eB.getCause();
+		assertEquals("b", dependencyError.getNodeName());
+		assertEquals("a", dependencyError.getDependencyName());
+		assertEquals(error, dependencyError.getCause());
+
+		final var eC = assertThrows(ExecutionException.class, () -> execution.getFuture("c").get().get(10, SECONDS));
+		assertEquals("b", ((JobGraphDependencyException) eC.getCause()).getDependencyName());
+		verifyNoMoreInteractions(task);
+	}
+
+	@Test
+	void testSubmit_graph_cancel() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var graph = new JobGraph(name)
+				.addNode("a", spoolName, 0, () -> {
+					started.countDown();
+					Thread.sleep(10_000);// NOSONAR
+				})
+				.addNode("b", spoolName, 0, task, "a");
+
+		final var execution = jobKitEngine.submit(graph);
+		assertTrue(started.await(10, SECONDS));
+		execution.cancel(true);
+
+		assertTrue(execution.getFuture("a").get().isCancelled());
+		assertTrue(execution.getFuture("b").get().isCancelled());
+		verifyNoMoreInteractions(task);
+	}
+
+	@Test
+	void testSubmit_graph_cancelDownstream() throws Exception {
+		final var graph = new JobGraph(name)
+				.addNode("a", spoolName, 0, () -> {
+					Thread.sleep(10_000);// NOSONAR
+				})
+				.addNode("b", spoolName, 0, task, "a")
+				.addNode("c", spoolName, 0, task, "b");
+
+		final var execution = jobKitEngine.submit(graph);
+		assertTrue(execution.getFuture("b").get().cancel(false));
+		assertTrue(execution.getFuture("c").get().isCancelled());
+		assertFalse(execution.getFuture("a").get().isDone());
+		execution.cancel(true);
+		verifyNoMoreInteractions(task);
+	}
+
+	@Test
+	void testSubmitAll() throws Exception {
+		final var count = new AtomicInteger();
+		final var futures = jobKitEngine.submitAll(name, spoolName, 0,
+				List.of(count::incrementAndGet, count::incrementAndGet, count::incrementAndGet), e -> {
+				});
+		assertEquals(3, futures.size());
+		for (final var future : futures) {
+			future.get(10, SECONDS);
+		}
+		assertEquals(3, count.get());
+	}
+
+	@Test
+	void testSubmit_job() throws Exception {
+		final var job = mock(Job.class);
+		when(job.getJobName()).thenReturn(name);
+		when(job.getJobSpoolname()).thenReturn(spoolName);
+		jobKitEngine.submit(job).get(10, SECONDS);
+		verify(job, times(1)).onJobStart();
+		verify(job, times(1)).run();
+		verify(job, times(1)).onJobDone();
+	}
+
+	@Nested
+	class Journal {
+
+		Path directory;
+		SpoolJournal spoolJournal;
+		JobDescriptor descriptor;
+		AtomicInteger runs;
+
+		@BeforeEach
+		void init() {
+			directory = Path.of("target", "test-" + JobKitEngineTest.class.getSimpleName(),
+					String.valueOf(System.nanoTime()));
+			runs = new AtomicInteger();
+			spoolJournal = createJournal();
+			descriptor = new JobDescriptor("test", name, 0, "payload");
+		}
+
+		SpoolJournal createJournal() {
+			return new SpoolJournal(directory, scheduledExecutor, Duration.ofMillis(10))
+					.registerJobType("test", d -> runs::incrementAndGet);
+		}
+
+		@Test
+		void testSubmit_noJournal() {
+			assertTrue(jobKitEngine.getSpoolJournal().isEmpty());
+			assertThrows(IllegalStateException.class, () -> jobKitEngine.submit(spoolName, descriptor));
+		}
+
+		@Test
+		void testSubmit() throws Exception {
+			jobKitEngine.setSpoolJournal(spoolJournal);
+			assertEquals(spoolJournal, jobKitEngine.getSpoolJournal().get());
+
+			jobKitEngine.submit(spoolName, descriptor).get(10, SECONDS);
+			assertEquals(1, runs.get());
+			assertEquals(0, spoolJournal.getPendingCount(spoolName));
+		}
+
+		@Test
+		void testSubmit_fullQueue() throws Exception {
+			final var started = new CountDownLatch(1);
+			final var release = new CountDownLatch(1);
+			spoolJournal.registerJobType("blocking", d -> () -> {
+				started.countDown();
+				release.await(10, SECONDS);
+			});
+			jobKitEngine.setSpoolJournal(spoolJournal);
+			jobKitEngine.setSpoolAdmission(spoolName, 1, SpoolAdmissionPolicy.REJECT, Duration.ZERO);
+
+			final var running = jobKitEngine.submit(spoolName, new JobDescriptor("blocking", name, 0, null));
+			assertTrue(started.await(10, SECONDS));
+			final var queued = jobKitEngine.submit(spoolName, descriptor);
+			assertEquals(2, spoolJournal.getPendingCount(spoolName));
+
+			final var rejected = jobKitEngine.submit(spoolName, descriptor);
+			final var e = assertThrows(ExecutionException.class, () -> rejected.get(1, SECONDS));
+			assertEquals(RejectedExecutionException.class, e.getCause().getClass());
+			assertEquals(2, spoolJournal.getPendingCount(spoolName));
+
+			release.countDown();
+			running.get(10, SECONDS);
+			queued.get(10, SECONDS);
+			assertEquals(1, runs.get());
+			assertEquals(0, spoolJournal.getPendingCount(spoolName));
+		}
+
+		@Test
+		void testSubmit_unregistredType() {
+			jobKitEngine.setSpoolJournal(spoolJournal);
+			final var badDescriptor = new JobDescriptor("nope", name, 0, null);
+			assertThrows(IllegalArgumentException.class, () -> jobKitEngine.submit(spoolName, badDescriptor));
+			assertEquals(0, spoolJournal.getPendingCount(spoolName));
+		}
+
+		@Test
+		void testReplay() throws Exception {
+			spoolJournal.append(spoolName, descriptor);
+			spoolJournal.append(spoolName, new JobDescriptor("nope", name, 0, null));
+			spoolJournal.close();
+
+			final var reloaded = createJournal();
+			jobKitEngine.setSpoolJournal(reloaded);
+			jobKitEngine.onApplicationReadyRunBackgroundServices();
+			assertTrue(jobKitEngine.getSpooler().getExecutor(spoolName).waitToEndQueue(10, SECONDS));
+			assertEquals(1, runs.get());
+			assertEquals(1, reloaded.getPendingCount(spoolName));
+
+			jobKitEngine.onApplicationReadyRunBackgroundServices();
+			assertTrue(jobKitEngine.getSpooler().getExecutor(spoolName).waitToEndQueue(10, SECONDS));
+			assertEquals(1, runs.get());
+		}
+
+		@Test
+		void testShutdown_keepQueued() throws Exception {
+			final var started = new CountDownLatch(1);
+			final var release = new CountDownLatch(1);
+			spoolJournal.registerJobType("blocking", d -> () -> {
+				started.countDown();
+				release.await(10, SECONDS);
+			});
+			jobKitEngine.setSpoolJournal(spoolJournal);
+
+			final var running = jobKitEngine.submit(spoolName, new JobDescriptor("blocking", name, 0, null));
+			assertTrue(started.await(10, SECONDS));
+			final var queued = jobKitEngine.submit(spoolName, descriptor);
+
+			final var shutdown = CompletableFuture.runAsync(jobKitEngine::shutdown);
+			assertThrows(CancellationException.class, () -> queued.get(10, SECONDS));
+			release.countDown();
+			running.get(10, SECONDS);
+			shutdown.get(10, SECONDS);
+
+			assertEquals(0, runs.get());
+			assertEquals(descriptor, createJournal().getJobsToReplay().get(spoolName).values().iterator().next());
+		}
+
+	}
+
+	@Test
+	void testSetCallerCaptureMode() {
+		final var spoolExecutor = spooler.getExecutor(spoolName);
+		assertEquals(CallerCaptureMode.OFF, spoolExecutor.getCallerCaptureMode());
+		jobKitEngine.setCallerCaptureMode(CallerCaptureMode.SINGLE_FRAME);
+		assertEquals(CallerCaptureMode.SINGLE_FRAME, spooler.getCallerCaptureMode());
+		assertEquals(CallerCaptureMode.SINGLE_FRAME, spoolExecutor.getCallerCaptureMode());
+		assertEquals(CallerCaptureMode.SINGLE_FRAME, spooler.getExecutor("new" + spoolName).getCallerCaptureMode());
+	}
+
 	@Test
 	void testGetSpooler() {
 		assertNotNull(jobKitEngine.getSpooler());
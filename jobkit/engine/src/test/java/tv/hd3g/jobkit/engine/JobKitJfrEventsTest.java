@@ -0,0 +1,167 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.datafaker.Faker;
+
+class JobKitJfrEventsTest {
+	static Faker faker = net.datafaker.Faker.instance();
+
+	@Mock
+	ExecutionEvent event;
+	@Mock
+	SupervisableEvents sEvent;
+	@Mock
+	JobKitWatchdog jobKitWatchdog;
+	@TempDir
+	Path tempDir;
+
+	String spoolName;
+	String jobName;
+	int priority;
+	Recording recording;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		spoolName = faker.numerify("spool###");
+		jobName = faker.numerify("job###");
+		priority = faker.random().nextInt(1, 100);
+		recording = new Recording();
+		List.of(
+				"tv.hd3g.jobkit.SpoolJobQueued",
+				"tv.hd3g.jobkit.SpoolJobRun",
+				"tv.hd3g.jobkit.BackgroundServiceScheduled",
+				"tv.hd3g.jobkit.SupervisableEndEventDispatch")
+				.forEach(name -> recording.enable(name).withThreshold(Duration.ZERO));
+	}
+
+	@AfterEach
+	void ends() {
+		recording.close();
+	}
+
+	private List<RecordedEvent> stopAndRead(final String eventName) throws IOException {
+		recording.stop();
+		final var file = tempDir.resolve("recording.jfr");
+		recording.dump(file);
+		return RecordingFile.readAllEvents(file).stream()
+				.filter(e -> e.getEventType().getName().equals(eventName))
+				.toList();
+	}
+
+	@Test
+	void testSpoolJobEvents() throws Exception {
+		final var spoolExecutor = new SpoolExecutor(spoolName, event, new AtomicLong(), sEvent, jobKitWatchdog);
+		recording.start();
+		spoolExecutor.submit(() -> {
+		}, jobName, priority, e -> {
+		}).get(10, SECONDS);
+		spoolExecutor.submit(() -> {
+			throw new IllegalStateException();
+		}, jobName, priority, e -> {
+		}).exceptionally(e -> null).get(10, SECONDS);
+
+		final var queued = stopAndRead("tv.hd3g.jobkit.SpoolJobQueued");
+		assertEquals(2, queued.size());
+		queued.forEach(e -> {
+			assertEquals(spoolName, e.getString("spoolName"));
+			assertEquals(jobName, e.getString("jobName"));
+			assertEquals(priority, e.getInt("priority"));
+			assertTrue(e.getInt("queueSize") >= 0);
+		});
+
+		final var runs = RecordingFile.readAllEvents(tempDir.resolve("recording.jfr")).stream()
+				.filter(e -> e.getEventType().getName().equals("tv.hd3g.jobkit.SpoolJobRun"))
+				.toList();
+		assertEquals(2, runs.size());
+		runs.forEach(e -> {
+			assertEquals(spoolName, e.getString("spoolName"));
+			assertEquals(jobName, e.getString("jobName"));
+			assertEquals(priority, e.getInt("priority"));
+			assertFalse(e.getDuration("queueWait").isNegative());
+		});
+		assertEquals(1, runs.stream().filter(e -> e.getBoolean("failed")).count());
+	}
+
+	@Test
+	void testSpoolJobEvents_withoutRecording() throws InterruptedException, ExecutionException {
+		final var spoolExecutor = new SpoolExecutor(spoolName, event, new AtomicLong(), sEvent, jobKitWatchdog);
+		spoolExecutor.submit(() -> {
+		}, jobName, priority, e -> {
+		}).get();
+		assertThrows(IllegalStateException.class, recording::stop);
+	}
+
+	@Test
+	void testBackgroundServiceScheduledEvent() throws IOException {
+		final var delay = faker.random().nextLong(1, 100_000);
+		recording.start();
+		BackgroundServiceScheduledEvent.emit(jobName, spoolName, priority, delay);
+
+		final var events = stopAndRead("tv.hd3g.jobkit.BackgroundServiceScheduled");
+		assertEquals(1, events.size());
+		final var e = events.get(0);
+		assertEquals(jobName, e.getString("serviceName"));
+		assertEquals(spoolName, e.getString("spoolName"));
+		assertEquals(priority, e.getInt("priority"));
+		assertEquals(Duration.ofMillis(delay), e.getDuration("delay"));
+	}
+
+	@Test
+	void testSupervisableEndEventDispatchEvent() throws IOException {
+		final var managerName = faker.numerify("manager###");
+		recording.start();
+		final var dispatchEvent = new SupervisableEndEventDispatchEvent();
+		dispatchEvent.begin();
+		dispatchEvent.endAndCommit(managerName, new SupervisableEndEvent(
+				spoolName, jobName, null, null, null, null, null, null, null, null, null, Set.of()), 3);
+
+		final var events = stopAndRead("tv.hd3g.jobkit.SupervisableEndEventDispatch");
+		assertEquals(1, events.size());
+		final var e = events.get(0);
+		assertEquals(managerName, e.getString("managerName"));
+		assertEquals(spoolName, e.getString("spoolName"));
+		assertEquals(jobName, e.getString("jobName"));
+		assertEquals(3, e.getInt("consumers"));
+	}
+
+}
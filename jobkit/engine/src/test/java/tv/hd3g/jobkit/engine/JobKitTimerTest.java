@@ -0,0 +1,129 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobKitTimerTest {
+
+	JobKitTimer timer;
+	AtomicInteger runs;
+	AtomicInteger closes;
+
+	@BeforeEach
+	void init() {
+		timer = new JobKitTimer("test-timer");
+		runs = new AtomicInteger();
+		closes = new AtomicInteger();
+	}
+
+	@AfterEach
+	void end() {
+		timer.close();
+	}
+
+	@Test
+	void testSchedule() throws InterruptedException {
+		final var latch = new CountDownLatch(1);
+		final var entry = timer.schedule(Duration.ofMillis(10), latch::countDown, closes::incrementAndGet);
+		assertTrue(latch.await(1, SECONDS));
+		assertTrue(entry.isDone());
+		assertFalse(entry.cancel());
+		assertEquals(0, timer.size());
+		assertEquals(0, closes.get());
+	}
+
+	@Test
+	void testSchedule_order() throws InterruptedException {
+		final var order = new CopyOnWriteArrayList<Integer>();
+		final var latch = new CountDownLatch(3);
+		timer.schedule(Duration.ofMillis(60), () -> {
+			order.add(3);
+			latch.countDown();
+		}, null);
+		timer.schedule(Duration.ofMillis(-10), () -> {
+			order.add(1);
+			latch.countDown();
+		}, null);
+		timer.schedule(Duration.ofMillis(30), () -> {
+			order.add(2);
+			latch.countDown();
+		}, null);
+		assertTrue(latch.await(1, SECONDS));
+		assertEquals(List.of(1, 2, 3), order);
+	}
+
+	@Test
+	void testSchedule_error() throws InterruptedException {
+		timer.schedule(Duration.ZERO, () -> {
+			throw new IllegalStateException("For test purpose only");
+		}, null);
+		final var latch = new CountDownLatch(1);
+		timer.schedule(Duration.ofMillis(1), latch::countDown, null);
+		assertTrue(latch.await(1, SECONDS));
+	}
+
+	@Test
+	void testSchedule_hugeDelay() {
+		final var entry = timer.schedule(Duration.ofSeconds(Long.MAX_VALUE), runs::incrementAndGet, null);
+		assertEquals(1, timer.size());
+		assertTrue(entry.cancel());
+	}
+
+	@Test
+	void testCancel() {
+		final var entry = timer.schedule(Duration.ofDays(1), runs::incrementAndGet, closes::incrementAndGet);
+		assertEquals(1, timer.size());
+		assertTrue(entry.cancel());
+		assertTrue(entry.isDone());
+		assertFalse(entry.cancel());
+		assertEquals(0, timer.size());
+		timer.close();
+		assertEquals(0, runs.get());
+		assertEquals(0, closes.get());
+	}
+
+	@Test
+	void testClose() {
+		timer.schedule(Duration.ofDays(1), runs::incrementAndGet, closes::incrementAndGet);
+		timer.schedule(Duration.ofDays(2), runs::incrementAndGet, null);
+		timer.close();
+		assertEquals(0, timer.size());
+		assertEquals(0, runs.get());
+		assertEquals(1, closes.get());
+
+		final var delay = Duration.ZERO;
+		assertThrows(IllegalStateException.class, () -> timer.schedule(delay, runs::incrementAndGet, null));
+		timer.close();
+		assertEquals(1, closes.get());
+	}
+
+}
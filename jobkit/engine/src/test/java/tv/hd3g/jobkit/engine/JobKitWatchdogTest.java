@@ -17,8 +17,10 @@
 package tv.hd3g.jobkit.engine;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +30,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -35,9 +38,11 @@ import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -180,7 +185,7 @@ class JobKitWatchdogTest {
 			w.refreshBackgroundService(serviceNameHigh, spoolName, true, timedInterval * 2l);
 			w.refreshBackgroundService(serviceName, spoolName, true, timedInterval);
 
-			verify(sch, times(3)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 		}
 
@@ -193,7 +198,7 @@ class JobKitWatchdogTest {
 			w.refreshBackgroundService(serviceNameHigh, spoolName, false, timedInterval * 2l);
 			w.refreshBackgroundService(serviceNameHigh, spoolName, true, timedInterval * 2l);
 
-			verify(sch, times(6)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 		}
 
@@ -209,7 +214,7 @@ class JobKitWatchdogTest {
 			w.addJob(job);
 			w.addJob(waitJob);
 			w.startJob(job, startedDate);
-			verify(sch, times(3)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
 			run.getValue().run();
 			verify(policy, times(1)).isStatusOk(eq(spoolName), activeJobCaptor.capture(), queuedJobsCaptor.capture());
 
@@ -232,14 +237,96 @@ class JobKitWatchdogTest {
 			assertEquals(creator, queuedJob.creator());
 		}
 
+		@Test
+		void testPoliciesOutsideLock() throws JobWatchdogPolicyWarning {
+			final var sizesInPolicy = new ArrayList<Integer>();
+			when(policy.isStatusOk(eq(spoolName), any(WatchableSpoolJobState.class), anySet()))
+					.thenAnswer(invocation -> {
+						final Set<WatchableSpoolJobState> queuedJobs = invocation.getArgument(2);
+						sizesInPolicy.add(queuedJobs.size());
+						/**
+						 * Would wait the timeout if the policy was called with the watchdog lock
+						 */
+						CompletableFuture.runAsync(() -> w.endJob(waitJob)).get(10, SECONDS);
+						sizesInPolicy.add(queuedJobs.size());
+						return Optional.empty();
+					});
+
+			w.addJob(job);
+			w.addJob(waitJob);
+			w.startJob(job, startedDate);
+			verify(sch, times(1)).execute(run.capture());
+			run.getValue().run();
+
+			assertEquals(List.of(1, 1), sizesInPolicy);
+			verify(policy, times(1)).isStatusOk(eq(spoolName), any(WatchableSpoolJobState.class), anySet());
+			verify(sch, times(2)).execute(any(Runnable.class));
+		}
+
+		@Test
+		void testQueuedJobsSnapshot() throws JobWatchdogPolicyWarning {
+			w.addJob(job);
+			w.addJob(waitJob);
+			w.startJob(job, startedDate);
+			verify(sch, times(1)).execute(run.capture());
+			run.getValue().run();
+
+			/**
+			 * No queue changes for this spool
+			 */
+			w.refreshBackgroundService(serviceName, faker.numerify("otherSpool###"), false, timedInterval);
+			verify(sch, times(2)).execute(run.capture());
+			run.getValue().run();
+
+			w.endJob(waitJob);
+			verify(sch, times(3)).execute(run.capture());
+			run.getValue().run();
+
+			verify(policy, times(3)).isStatusOk(eq(spoolName), any(WatchableSpoolJobState.class),
+					queuedJobsCaptor.capture());
+			final var queuedJobs = queuedJobsCaptor.getAllValues();
+			assertSame(queuedJobs.get(0), queuedJobs.get(1));
+			assertEquals(1, queuedJobs.get(0).size());
+			assertTrue(queuedJobs.get(2).isEmpty());
+		}
+
 		@Test
 		void testAddStartEndJob() throws JobWatchdogPolicyWarning {
 			w.addJob(job);
 			w.startJob(job, startedDate);
 			w.endJob(job);
 
-			verify(sch, times(3)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
+			run.getValue().run();
+		}
+
+		@Test
+		void testAddJob_coalesced() {
+			w.addJob(job);
+			w.addJob(waitJob);
+			verify(sch, times(1)).execute(run.capture());
+			run.getValue().run();
+
+			w.startJob(job, startedDate);
+			w.endJob(job);
+			verify(sch, times(2)).execute(any(Runnable.class));
+		}
+
+		@Test
+		void testAddJobs() {
+			w.addJobs(List.of(job, waitJob));
+			verify(sch, times(1)).execute(run.capture());
 			run.getValue().run();
+
+			w.endJob(job);
+			w.endJob(waitJob);
+			verify(sch, times(2)).execute(any(Runnable.class));
+		}
+
+		@Test
+		void testAddJobs_empty() {
+			w.addJobs(List.of());
+			verify(sch, never()).execute(any(Runnable.class));
 		}
 
 	}
@@ -262,6 +349,13 @@ class JobKitWatchdogTest {
 			verify(sch, times(1)).schedule(any(Runnable.class), eq(durationToQueue), eq(MILLISECONDS));
 		}
 
+		@Override
+		@Test
+		void testQueuedJobsSnapshot() throws JobWatchdogPolicyWarning {
+			super.testQueuedJobsSnapshot();
+			verify(sch, times(1)).schedule(any(Runnable.class), eq(durationToQueue), eq(MILLISECONDS));
+		}
+
 		@Test
 		void testAddStartEndJob_notLowerDurationToQueue() throws JobWatchdogPolicyWarning {
 			when(scheduledFuture.isDone()).thenReturn(true);
@@ -324,27 +418,27 @@ class JobKitWatchdogTest {
 			w.refreshBackgroundService(serviceNameHigh, spoolName, true, timedInterval * 2l);
 			w.refreshBackgroundService(serviceName, spoolName, true, timedInterval);
 
-			verify(sch, times(3)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.addJob(job);
-			verify(sch, times(4)).execute(run.capture());
+			verify(sch, times(2)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.addJob(waitJob);
-			verify(sch, times(5)).execute(run.capture());
+			verify(sch, times(3)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.startJob(job, startedDate);
-			verify(sch, times(6)).execute(run.capture());
+			verify(sch, times(4)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.endJob(job);
-			verify(sch, times(7)).execute(run.capture());
+			verify(sch, times(5)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			verify(sch, times(1)).schedule(any(Runnable.class), eq(timedInterval / 2), eq(MILLISECONDS));
-			verify(policy, times(18))
+			verify(policy, times(10))
 					.isStatusOk(
 							eq(spoolName),
 							any(WatchableSpoolJobState.class),
@@ -356,7 +450,7 @@ class JobKitWatchdogTest {
 		void testShutdown() throws JobWatchdogPolicyWarning {
 			super.testAddStartJob();
 			w.refreshBackgroundService(serviceName, spoolName, true, timedInterval);
-			verify(sch, times(4)).execute(run.capture());
+			verify(sch, times(2)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			verify(sch, times(1)).schedule(any(Runnable.class), eq(durationToQueue), eq(MILLISECONDS));
@@ -364,7 +458,7 @@ class JobKitWatchdogTest {
 			w.shutdown();
 			verify(scheduledFuture, times(1)).cancel(true);
 
-			verify(policy, times(7)).isStatusOk(eq(spoolName), any(WatchableSpoolJobState.class), anySet(), anySet());
+			verify(policy, times(3)).isStatusOk(eq(spoolName), any(WatchableSpoolJobState.class), anySet(), anySet());
 		}
 
 	}
@@ -470,27 +564,27 @@ class JobKitWatchdogTest {
 			verify(sch, times(1)).execute(run.capture());
 
 			w.addJob(job);
-			verify(sch, times(2)).execute(run.capture());
+			verify(sch, times(1)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.addJob(waitJob);
-			verify(sch, times(3)).execute(run.capture());
+			verify(sch, times(2)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.startJob(job, startedDate);
-			verify(sch, times(4)).execute(run.capture());
+			verify(sch, times(3)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
 			w.endJob(job);
-			verify(sch, times(5)).execute(run.capture());
+			verify(sch, times(4)).execute(run.capture());
 			run.getAllValues().forEach(Runnable::run);
 
-			verify(policy, times(10)).isStatusOk(
+			verify(policy, times(7)).isStatusOk(
 					eq(spoolName),
 					any(WatchableSpoolJobState.class),
 					argThat(s -> s.size() == 1),
 					argThat(s -> s.size() == 1));
-			verify(sch, times(8)).schedule(any(Runnable.class), eq(timedInterval), eq(MILLISECONDS));
+			verify(sch, times(5)).schedule(any(Runnable.class), eq(timedInterval), eq(MILLISECONDS));
 
 			verify(supervisableEvents, times(1)).onJobWatchdogSpoolReport(reportCaptor.capture());
 			final var report = reportCaptor.getValue();
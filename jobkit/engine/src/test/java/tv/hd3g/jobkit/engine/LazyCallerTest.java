@@ -0,0 +1,96 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LazyCallerTest {
+
+	@Test
+	void testGet_resolveOnlyOnce() {
+		final var caller = new Throwable().getStackTrace()[0];
+		final var resolves = new AtomicInteger();
+		final var lazyCaller = new LazyCaller(() -> {
+			resolves.incrementAndGet();
+			return caller;
+		});
+		assertEquals(0, resolves.get());
+		assertSame(caller, lazyCaller.get());
+		assertSame(caller, lazyCaller.get());
+		assertEquals(1, resolves.get());
+		assertEquals(caller.toString(), lazyCaller.toString());
+	}
+
+	@Test
+	void testOf() {
+		final var caller = new Throwable().getStackTrace()[0];
+		assertSame(caller, LazyCaller.of(caller).get());
+	}
+
+	@Test
+	void testOf_null() {
+		assertSame(LazyCaller.NONE, LazyCaller.of(null));
+		assertNull(LazyCaller.NONE.get());
+	}
+
+	@Test
+	void testEquals() {
+		final var caller = new Throwable().getStackTrace()[0];
+		final var lazyCaller = new LazyCaller(() -> caller);
+		assertEquals(LazyCaller.of(caller), lazyCaller);
+		assertEquals(LazyCaller.of(caller).hashCode(), lazyCaller.hashCode());
+		assertNotEquals(LazyCaller.NONE, lazyCaller);
+		assertEquals(LazyCaller.NONE, new LazyCaller(() -> null));
+
+		final var message = new SupervisableMessage("code", "result", List.of());
+		final var date = new Date();
+		assertEquals(new SupervisableStep(date, message, caller), new SupervisableStep(date, message, lazyCaller));
+	}
+
+	@Test
+	void testJson() {
+		final var caller = new Throwable().getStackTrace()[0];
+		final var step = new SupervisableStep(new Date(), new SupervisableMessage("code", "result", List.of()),
+				new LazyCaller(() -> caller));
+		final var json = new ObjectMapper().valueToTree(step);
+		assertTrue(json.has("caller"));
+		assertFalse(json.has("lazyCaller"));
+		assertEquals(caller.getMethodName(), json.get("caller").get("methodName").asText());
+	}
+
+	@Test
+	void testSupervisableStep_nullCaller() {
+		final var message = new SupervisableMessage("code", "result", List.of());
+		final var date = new Date();
+		assertThrows(NullPointerException.class, () -> new SupervisableStep(date, message, (StackTraceElement) null));
+	}
+
+}
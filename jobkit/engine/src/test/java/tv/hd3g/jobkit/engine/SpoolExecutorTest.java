@@ -1,10 +1,15 @@
 package tv.hd3g.jobkit.engine;
 
 import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -12,17 +17,27 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static tv.hd3g.jobkit.engine.SpoolThreadType.PLATFORM;
+import static tv.hd3g.jobkit.engine.SpoolThreadType.VIRTUAL;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -122,11 +137,191 @@ class SpoolExecutorTest {
 		verifyTotalAfterFailedRun(0);
 		verify(event, times(0)).shutdownSpooler(any(Supervisable.class));
 
-		checkSupervisableEventOnEnd(3, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		checkWatchdog(1);
 	}
 
+	@Test
+	void testAddToQueue_platformThread() throws InterruptedException {
+		assertEquals(PLATFORM, spoolExecutor.getThreadType());
+
+		final var isVirtual = new AtomicBoolean(true);
+		final var threadPriority = new AtomicInteger();
+		final var supervisable = new AtomicReference<Supervisable>();
+		final var smAfter = new CountDownLatch(1);
+
+		assertTrue(spoolExecutor.addToQueue(() -> {
+			isVirtual.set(Thread.currentThread().isVirtual());
+			threadPriority.set(Thread.currentThread().getPriority());
+			supervisable.set(Supervisable.getSupervisable());
+		}, name, 0, e -> smAfter.countDown()));
+		assertTrue(smAfter.await(10, SECONDS));
+
+		assertFalse(isVirtual.get());
+		assertEquals(Thread.MIN_PRIORITY, threadPriority.get());
+		assertNotNull(supervisable.get());
+		checkSupervisableEventOnEnd(1, true);
+		checkWatchdog(1);
+	}
+
+	@Test
+	void testAddToQueue_virtualThread() throws InterruptedException {
+		assertEquals(spoolExecutor, spoolExecutor.setThreadType(VIRTUAL));
+		assertEquals(VIRTUAL, spoolExecutor.getThreadType());
+
+		final var total = 50;
+		final var isVirtual = new AtomicBoolean(true);
+		final var supervisables = Collections.synchronizedList(new ArrayList<Supervisable>());
+		final var smAfter = new CountDownLatch(total);
+
+		for (var pos = 0; pos < total; pos++) {
+			final var val = pos;
+			assertTrue(spoolExecutor.addToQueue(() -> {
+				if (Thread.currentThread().isVirtual() == false) {
+					isVirtual.set(false);
+				}
+				supervisables.add(Supervisable.getSupervisable());
+				runnedTasks.add(val);
+			}, name, 0, e -> smAfter.countDown()));
+		}
+		assertTrue(smAfter.await(20, SECONDS));
+
+		assertTrue(isVirtual.get());
+		assertEquals(total, supervisables.size());
+		assertEquals(total, supervisables.stream().distinct().count());
+		assertEquals(total, runnedTasks.size());
+		checkSupervisableEventOnEnd(total, true);
+		checkWatchdog(total);
+	}
+
+	@Test
+	void testAddToQueue_supervisableOnDemand() throws InterruptedException {
+		final var phaseStart = new AtomicLong();
+		final var supervisables = Collections.synchronizedList(new ArrayList<Supervisable>());
+		final var smAfter = new CountDownLatch(1);
+
+		assertTrue(spoolExecutor.addToQueue(() -> {
+			phaseStart.set(System.currentTimeMillis());
+			Thread.sleep(20);// NOSONAR
+			supervisables.add(Supervisable.getSupervisable().onMessage("code", "message"));
+			supervisables.add(Supervisable.getSupervisable());
+		}, name, 0, e -> {
+			supervisables.add(Supervisable.getSupervisable());
+			smAfter.countDown();
+		}));
+		assertTrue(smAfter.await(10, SECONDS));
+		while (spoolExecutor.isRunning()) {
+			Thread.onSpinWait();
+		}
+
+		assertEquals(3, supervisables.size());
+		assertEquals(supervisables.get(0), supervisables.get(1));
+		assertNotEquals(supervisables.get(0), supervisables.get(2));
+		checkSupervisableEventOnEnd(2, true);
+
+		final var endEvent = supervisables.get(0).getEndEvent(Optional.empty(), name).get();
+		assertEquals(name, endEvent.jobName());
+		assertEquals(1, endEvent.steps().size());
+		assertTrue(endEvent.startDate().getTime() <= phaseStart.get());
+		assertEquals(endEvent.creationDate(), endEvent.startDate());
+		assertTrue(supervisables.get(2).getEndEvent(Optional.empty(), name).isEmpty());
+		checkWatchdog(1);
+	}
+
+	@Test
+	void testSetParallelism() {
+		assertEquals(1, spoolExecutor.getParallelism());
+		assertEquals(spoolExecutor, spoolExecutor.setParallelism(4));
+		assertEquals(4, spoolExecutor.getParallelism());
+		assertThrows(IllegalArgumentException.class, () -> spoolExecutor.setParallelism(0));
+		assertEquals(4, spoolExecutor.getParallelism());
+	}
+
+	@Test
+	void testAddToQueue_parallel() throws InterruptedException {
+		final var parallelism = 4;
+		spoolExecutor.setParallelism(parallelism);
+
+		final var smStarted = new CountDownLatch(parallelism);
+		final var smRelease = new CountDownLatch(1);
+		final var smAfter = new CountDownLatch(parallelism + 1);
+
+		for (var pos = 0; pos < parallelism + 1; pos++) {
+			assertTrue(spoolExecutor.addToQueue(() -> {
+				smStarted.countDown();
+				smRelease.await(10, SECONDS);
+			}, name, 0, e -> smAfter.countDown()));
+		}
+
+		assertTrue(smStarted.await(10, SECONDS));
+		assertEquals(parallelism, spoolExecutor.getRunningCount());
+		assertEquals(1, spoolExecutor.getQueueSize());
+		assertTrue(spoolExecutor.isRunning());
+
+		smRelease.countDown();
+		assertTrue(smAfter.await(10, SECONDS));
+		while (spoolExecutor.isRunning()) {
+			Thread.onSpinWait();
+		}
+		assertEquals(0, spoolExecutor.getRunningCount());
+		assertEquals(0, spoolExecutor.getQueueSize());
+
+		checkSupervisableEventOnEnd(0, true);
+		checkParallelWatchdog(parallelism + 1);
+	}
+
+	@Test
+	void testAddToQueue_parallel_priorities() throws InterruptedException {
+		spoolExecutor.setParallelism(2);
+
+		final var smBlockers = new CountDownLatch(2);
+		final var smRelease = new CountDownLatch(1);
+		for (var pos = 0; pos < 2; pos++) {
+			spoolExecutor.addToQueue(() -> {
+				smBlockers.countDown();
+				smRelease.await(10, SECONDS);
+			}, name, 0, e -> {
+			});
+		}
+		assertTrue(smBlockers.await(10, SECONDS));
+
+		final var total = 10;
+		final var smAfter = new CountDownLatch(total);
+		final var startedPriorities = Collections.synchronizedList(new ArrayList<Integer>());
+		for (var pos = 0; pos < total; pos++) {
+			final var priority = pos;
+			spoolExecutor.addToQueue(() -> startedPriorities.add(priority), name, priority, e -> smAfter.countDown());
+		}
+		assertEquals(total, spoolExecutor.getQueueSize());
+
+		spoolExecutor.setParallelism(1);
+		smRelease.countDown();
+		assertTrue(smAfter.await(10, SECONDS));
+
+		assertEquals(IntStream.range(0, total).map(i -> total - 1 - i).boxed().toList(), startedPriorities);
+		checkParallelWatchdog(total + 2);
+	}
+
+	@Test
+	void testClean_notPurgeWaitList_parallel() throws InterruptedException {
+		spoolExecutor.setParallelism(3);
+		final var total = 30;
+		final var count = new AtomicInteger(0);
+
+		for (var pos = 0; pos < total; pos++) {
+			assertTrue(spoolExecutor.addToQueue(() -> {
+				Thread.sleep(1);// NOSONAR
+			}, name, 0, e -> count.incrementAndGet()));
+		}
+		spoolExecutor.stopToAcceptNewJobs();
+		spoolExecutor.clean(false);
+
+		assertEquals(total, count.get());
+		assertEquals(0, spoolExecutor.getQueueSize());
+		assertFalse(spoolExecutor.isRunning());
+	}
+
 	@Test
 	void testAddToQueue_withError() throws InterruptedException {
 		final var total = 5;
@@ -161,7 +356,7 @@ class SpoolExecutorTest {
 				any(IllegalArgumentException.class));
 
 		verify(event, times(0)).shutdownSpooler(any(Supervisable.class));
-		verify(sEvent, times(total * 4)).onEnd(any(), any());
+		checkSupervisableEventOnEnd(total, false);
 
 		checkWatchdog(total);
 	}
@@ -196,7 +391,7 @@ class SpoolExecutorTest {
 			Thread.onSpinWait();
 		}
 
-		checkSupervisableEventOnEnd(total * 3, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		checkWatchdog(total);
 	}
@@ -224,7 +419,7 @@ class SpoolExecutorTest {
 		}
 		assertEquals(total, count.get());
 
-		checkSupervisableEventOnEnd(total * 3, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		checkWatchdog(total);
 	}
@@ -253,7 +448,10 @@ class SpoolExecutorTest {
 			Thread.onSpinWait();
 		}
 
-		verify(sEvent, atLeast(7)).onEnd(any(), any());
+		/**
+		 * Only the "endsJob" phase of the first job ends with an error
+		 */
+		checkSupervisableEventOnEnd(1, false);
 
 		checkWatchdog(2);
 	}
@@ -285,7 +483,7 @@ class SpoolExecutorTest {
 
 		verify(event, times(0)).shutdownSpooler(any(Supervisable.class));
 
-		checkSupervisableEventOnEnd(7, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		checkWatchdog(2);
 	}
@@ -310,7 +508,7 @@ class SpoolExecutorTest {
 		Thread.sleep(50);// NOSONAR
 		assertFalse(spoolExecutor.isRunning());
 
-		checkSupervisableEventOnEnd(3, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		checkWatchdog(1);
 	}
@@ -345,7 +543,7 @@ class SpoolExecutorTest {
 
 		spoolExecutor.clean(true);
 		assertTrue(count.get() / 2 < total);
-		verify(sEvent, atLeast(1)).onEnd(any(), any());
+		verify(sEvent, never()).onEnd(any(), any());
 
 		checkWatchdog(atMost(1000));
 	}
@@ -384,7 +582,7 @@ class SpoolExecutorTest {
 			Thread.onSpinWait();
 		}
 
-		checkSupervisableEventOnEnd(total * 4 - 4, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		verify(jobKitWatchdog, times(total)).addJob(any(WatchableSpoolJob.class));
 		verify(jobKitWatchdog, times(total)).startJob(any(WatchableSpoolJob.class), anyLong());
@@ -442,7 +640,7 @@ class SpoolExecutorTest {
 
 		assertEquals(prioSort, dateSort);
 
-		checkSupervisableEventOnEnd(count * 3, true);
+		checkSupervisableEventOnEnd(0, true);
 
 		verify(jobKitWatchdog, times(count)).addJob(any(WatchableSpoolJob.class));
 		verify(jobKitWatchdog, times(count)).startJob(any(WatchableSpoolJob.class), anyLong());
@@ -450,7 +648,7 @@ class SpoolExecutorTest {
 	}
 
 	private void checkSupervisableEventOnEnd(final int count, final boolean normalyDone) {
-		verify(sEvent, atLeast(count)).onEnd(any(), oExceptionCaptor.capture());
+		verify(sEvent, times(count)).onEnd(any(), oExceptionCaptor.capture());
 		for (final Optional<Exception> oE : oExceptionCaptor.getAllValues()) {
 			if (normalyDone) {
 				assertFalse(oE.isPresent());
@@ -495,13 +693,8 @@ class SpoolExecutorTest {
 			Thread.onSpinWait();
 		}
 
-		verify(sEvent, atLeast(3)).onEnd(any(), oExceptionCaptor.capture());
-
-		final var results = oExceptionCaptor.getAllValues();
-
-		assertEquals(error, results.get(0).get());
-		assertFalse(results.get(1).isPresent());
-		assertFalse(results.get(2).isPresent());
+		verify(sEvent, times(1)).onEnd(any(), oExceptionCaptor.capture());
+		assertEquals(error, oExceptionCaptor.getValue().get());
 
 		checkWatchdog(1);
 	}
@@ -520,13 +713,8 @@ class SpoolExecutorTest {
 		}));
 		assertTrue(sm.await(10, SECONDS));
 
-		verify(sEvent, atLeast(3)).onEnd(any(), oExceptionCaptor.capture());
-
-		final var results = oExceptionCaptor.getAllValues();
-
-		assertFalse(results.get(0).isPresent());
-		assertFalse(results.get(1).isPresent());
-		assertEquals(error, results.get(2).get());
+		verify(sEvent, times(1)).onEnd(any(), oExceptionCaptor.capture());
+		assertEquals(error, oExceptionCaptor.getValue().get());
 		checkWatchdog(atMost(1));
 	}
 
@@ -560,7 +748,7 @@ class SpoolExecutorTest {
 		smAfter.await(10, SECONDS);
 		future.get(10, SECONDS);
 
-		checkSupervisableEventOnEnd(3, true);
+		checkSupervisableEventOnEnd(0, true);
 		checkWatchdog(1);
 	}
 
@@ -601,10 +789,563 @@ class SpoolExecutorTest {
 		smAfter.await(10, SECONDS);
 		future.get(10, SECONDS);
 
-		checkSupervisableEventOnEnd(3 * size, true);
+		checkSupervisableEventOnEnd(0, true);
 		checkWatchdog(size);
 	}
 
+	@Test
+	void testWaitToEndQueue_timeout() throws InterruptedException {
+		assertTrue(spoolExecutor.waitToEndQueue(Duration.ZERO));
+		assertTrue(spoolExecutor.waitToEndQueue(1, MILLISECONDS));
+
+		final var smRelease = new CountDownLatch(1);
+		final var smAfter = new CountDownLatch(2);
+		for (var pos = 0; pos < 2; pos++) {
+			spoolExecutor.addToQueue(() -> smRelease.await(10, SECONDS), name, 0, e -> smAfter.countDown());
+		}
+
+		assertFalse(spoolExecutor.waitToEndQueue(Duration.ZERO));
+		assertFalse(spoolExecutor.waitToEndQueue(10, MILLISECONDS));
+		smRelease.countDown();
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(0, smAfter.getCount());
+		assertFalse(spoolExecutor.isRunning());
+		assertEquals(0, spoolExecutor.getQueueSize());
+
+		checkSupervisableEventOnEnd(0, true);
+		checkWatchdog(2);
+	}
+
+	@Test
+	void testSubmit() throws Exception {
+		final var afterRun = new AtomicReference<Exception>();
+		final var future = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, afterRun::set);
+		assertNull(future.get(10, SECONDS));
+		assertNull(afterRun.get());
+		assertEquals(List.of(0), runnedTasks);
+		checkWatchdog(1);
+	}
+
+	@Test
+	void testSubmit_error() throws InterruptedException, TimeoutException {
+		final var error = new IllegalStateException("Test error");
+		final var future = spoolExecutor.submit(() -> {
+			throw error;
+		}, name, 0, e -> {
+		});
+		final var e = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+		assertEquals(error, e.getCause());
+		checkWatchdog(1);
+	}
+
+	@Test
+	void testSubmit_cancelQueued() throws Exception {
+		final var release = new CountDownLatch(1);
+		final var started = new CountDownLatch(1);
+		final var first = spoolExecutor.submit(() -> {
+			started.countDown();
+			release.await(10, SECONDS);
+		}, name, 0, e -> {
+		});
+		assertTrue(started.await(10, SECONDS));
+
+		final var afterRun = new AtomicInteger();
+		final var queued = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> afterRun.incrementAndGet());
+		assertEquals(1, spoolExecutor.getQueueSize());
+
+		assertTrue(queued.cancel(false));
+		assertTrue(queued.isCancelled());
+		assertEquals(0, spoolExecutor.getQueueSize());
+		verify(jobKitWatchdog, times(2)).addJob(any(WatchableSpoolJob.class));
+		verify(jobKitWatchdog, times(1)).endJob(any(WatchableSpoolJob.class));
+
+		release.countDown();
+		first.get(10, SECONDS);
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertTrue(runnedTasks.isEmpty());
+		assertEquals(0, afterRun.get());
+	}
+
+	@Test
+	void testSubmit_cancelRunning() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var interrupted = new AtomicBoolean();
+		final var afterRun = new AtomicReference<Exception>();
+		final var future = spoolExecutor.submit(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(10_000);// NOSONAR
+			} catch (final InterruptedException e) {
+				interrupted.set(true);
+				throw e;
+			}
+		}, name, 0, afterRun::set);
+		assertTrue(started.await(10, SECONDS));
+
+		assertTrue(future.cancel(true));
+		assertThrows(CancellationException.class, () -> future.get(10, SECONDS));
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertTrue(interrupted.get());
+		assertTrue(afterRun.get() instanceof InterruptedException);
+		checkWatchdog(1);
+	}
+
+	@Test
+	void testSubmit_shutdown() {
+		spoolExecutor.stopToAcceptNewJobs();
+		final var future = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		});
+		final var e = assertThrows(ExecutionException.class, () -> future.get(1, SECONDS));
+		assertTrue(e.getCause() instanceof RejectedExecutionException);
+		assertTrue(runnedTasks.isEmpty());
+	}
+
+	@Test
+	void testSubmitAll() throws Exception {
+		final var count = 50;
+		final var afterRun = new AtomicInteger();
+		final List<RunnableWithException> commands = IntStream.range(0, count)
+				.mapToObj(i -> (RunnableWithException) () -> runnedTasks.add(i))
+				.toList();
+
+		final var futures = spoolExecutor.submitAll(commands, name, 0, e -> afterRun.incrementAndGet());
+		assertEquals(count, futures.size());
+		for (final var future : futures) {
+			assertNull(future.get(10, SECONDS));
+		}
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(count, runnedTasks.size());
+		assertEquals(count, afterRun.get());
+
+		verify(jobKitWatchdog, times(1)).addJobs(any());
+		verify(jobKitWatchdog, never()).addJob(any(WatchableSpoolJob.class));
+		verify(jobKitWatchdog, times(count)).startJob(any(WatchableSpoolJob.class), anyLong());
+		verify(jobKitWatchdog, times(count)).endJob(any(WatchableSpoolJob.class));
+	}
+
+	@Test
+	void testSubmitAll_empty() {
+		assertTrue(spoolExecutor.submitAll(List.of(), name, 0, e -> {
+		}).isEmpty());
+		verify(jobKitWatchdog, never()).addJobs(any());
+	}
+
+	@Test
+	void testSubmitAll_shutdown() {
+		spoolExecutor.stopToAcceptNewJobs();
+		final var futures = spoolExecutor.submitAll(
+				List.of(() -> runnedTasks.add(0), () -> runnedTasks.add(1)), name, 0, e -> {
+				});
+		assertEquals(2, futures.size());
+		for (final var future : futures) {
+			final var e = assertThrows(ExecutionException.class, () -> future.get(1, SECONDS));
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+		assertTrue(runnedTasks.isEmpty());
+		verify(jobKitWatchdog, never()).addJobs(any());
+	}
+
+	@Test
+	void testClean_purgeWaitList_cancelFutures() throws Exception {
+		final var release = new CountDownLatch(1);
+		final var started = new CountDownLatch(1);
+		spoolExecutor.submit(() -> {
+			started.countDown();
+			release.await(10, SECONDS);
+		}, name, 0, e -> {
+		});
+		assertTrue(started.await(10, SECONDS));
+		final var queued = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		});
+
+		final var cleaned = CompletableFuture.runAsync(() -> spoolExecutor.clean(true));
+		assertThrows(CancellationException.class, () -> queued.get(10, SECONDS));
+		release.countDown();
+		cleaned.get(10, SECONDS);
+		assertTrue(runnedTasks.isEmpty());
+	}
+
+	/**
+	 * @return the latch to count down for ends the blocking job
+	 */
+	private CountDownLatch startBlockingJob() throws InterruptedException {
+		final var release = new CountDownLatch(1);
+		final var started = new CountDownLatch(1);
+		assertTrue(spoolExecutor.addToQueue(() -> {
+			started.countDown();
+			release.await(10, SECONDS);
+		}, name, 0, e -> {
+		}));
+		assertTrue(started.await(10, SECONDS));
+		return release;
+	}
+
+	@Test
+	void testSetQueueCapacity() {
+		assertEquals(0, spoolExecutor.getQueueCapacity());
+		assertEquals(SpoolAdmissionPolicy.REJECT, spoolExecutor.getAdmissionPolicy());
+		assertEquals(Duration.ZERO, spoolExecutor.getAdmissionBlockTimeout());
+		assertEquals(spoolExecutor, spoolExecutor.setQueueCapacity(5));
+		assertEquals(5, spoolExecutor.getQueueCapacity());
+		assertThrows(IllegalArgumentException.class, () -> spoolExecutor.setQueueCapacity(-1));
+		assertThrows(IllegalArgumentException.class,
+				() -> spoolExecutor.setAdmissionBlockTimeout(Duration.ofSeconds(-1)));
+		assertEquals(new SpoolAdmissionStats(spoolExecutorName, 5, SpoolAdmissionPolicy.REJECT, 0, 0, 0, 0),
+				spoolExecutor.getAdmissionStats());
+	}
+
+	@Test
+	void testAdmission_reject() throws Exception {
+		spoolExecutor.setQueueCapacity(1);
+		final var release = startBlockingJob();
+
+		assertTrue(spoolExecutor.addToQueue(() -> runnedTasks.add(0), name, 0, e -> {
+		}));
+		assertFalse(spoolExecutor.addToQueue(() -> runnedTasks.add(1), name, 0, e -> {
+		}));
+		final var rejected = spoolExecutor.submit(() -> runnedTasks.add(1), name, 0, e -> {
+		});
+		final var e = assertThrows(ExecutionException.class, () -> rejected.get(1, SECONDS));
+		assertTrue(e.getCause() instanceof RejectedExecutionException);
+		assertEquals(1, spoolExecutor.getQueueSize());
+		assertEquals(2, spoolExecutor.getAdmissionStats().rejected());
+
+		release.countDown();
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0), runnedTasks);
+		verify(jobKitWatchdog, times(4)).addJob(any(WatchableSpoolJob.class));
+		verify(jobKitWatchdog, times(4)).endJob(any(WatchableSpoolJob.class));
+	}
+
+	@Test
+	void testAdmission_blockTimeout() throws Exception {
+		spoolExecutor.setQueueCapacity(1)
+				.setAdmissionPolicy(SpoolAdmissionPolicy.BLOCK)
+				.setAdmissionBlockTimeout(Duration.ofMillis(10));
+		final var release = startBlockingJob();
+
+		assertTrue(spoolExecutor.addToQueue(() -> runnedTasks.add(0), name, 0, e -> {
+		}));
+		assertFalse(spoolExecutor.addToQueue(() -> runnedTasks.add(1), name, 0, e -> {
+		}));
+		final var stats = spoolExecutor.getAdmissionStats();
+		assertEquals(1, stats.blocked());
+		assertEquals(1, stats.rejected());
+
+		release.countDown();
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0), runnedTasks);
+	}
+
+	@Test
+	void testAdmission_block() throws Exception {
+		spoolExecutor.setQueueCapacity(1)
+				.setAdmissionPolicy(SpoolAdmissionPolicy.BLOCK)
+				.setAdmissionBlockTimeout(Duration.ofSeconds(10));
+		final var release = startBlockingJob();
+
+		assertTrue(spoolExecutor.addToQueue(() -> runnedTasks.add(0), name, 0, e -> {
+		}));
+		final var blocked = CompletableFuture.supplyAsync(
+				() -> spoolExecutor.addToQueue(() -> runnedTasks.add(1), name, 0, e -> {
+				}));
+		while (spoolExecutor.getAdmissionStats().blocked() == 0) {
+			Thread.onSpinWait();
+		}
+		assertFalse(blocked.isDone());
+
+		release.countDown();
+		assertTrue(blocked.get(10, SECONDS));
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0, 1), runnedTasks);
+		assertEquals(0, spoolExecutor.getAdmissionStats().rejected());
+	}
+
+	@Test
+	void testAdmission_block_shutdown() throws Exception {
+		spoolExecutor.setQueueCapacity(1)
+				.setAdmissionPolicy(SpoolAdmissionPolicy.BLOCK)
+				.setAdmissionBlockTimeout(Duration.ofSeconds(10));
+		final var release = startBlockingJob();
+
+		assertTrue(spoolExecutor.addToQueue(() -> runnedTasks.add(0), name, 0, e -> {
+		}));
+		final var blocked = CompletableFuture.supplyAsync(
+				() -> spoolExecutor.addToQueue(() -> runnedTasks.add(1), name, 0, e -> {
+				}));
+		while (spoolExecutor.getAdmissionStats().blocked() == 0) {
+			Thread.onSpinWait();
+		}
+		spoolExecutor.stopToAcceptNewJobs();
+		assertFalse(blocked.get(10, SECONDS));
+
+		release.countDown();
+		spoolExecutor.clean(false);
+		assertEquals(List.of(0), runnedTasks);
+	}
+
+	@Test
+	void testAdmission_callerRuns() throws Exception {
+		spoolExecutor.setQueueCapacity(1).setAdmissionPolicy(SpoolAdmissionPolicy.CALLER_RUNS);
+		final var release = startBlockingJob();
+
+		assertTrue(spoolExecutor.addToQueue(() -> runnedTasks.add(1), name, 0, e -> {
+		}));
+		final var callerThread = new AtomicReference<Thread>();
+		final var future = spoolExecutor.submit(() -> {
+			callerThread.set(Thread.currentThread());
+			runnedTasks.add(0);
+		}, name, 0, e -> {
+		});
+		assertTrue(future.isDone());
+		assertEquals(Thread.currentThread(), callerThread.get());
+		assertEquals(1, spoolExecutor.getAdmissionStats().callerRuns());
+
+		release.countDown();
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0, 1), runnedTasks);
+		verify(jobKitWatchdog, times(3)).addJob(any(WatchableSpoolJob.class));
+		verify(jobKitWatchdog, times(3)).startJob(any(WatchableSpoolJob.class), anyLong());
+		verify(jobKitWatchdog, times(3)).endJob(any(WatchableSpoolJob.class));
+	}
+
+	@Test
+	void testAdmission_shedLowestPriority() throws Exception {
+		spoolExecutor.setQueueCapacity(1).setAdmissionPolicy(SpoolAdmissionPolicy.SHED_LOWEST_PRIORITY);
+		final var release = startBlockingJob();
+
+		final var lowAfterRun = new AtomicReference<Exception>();
+		final var low = spoolExecutor.submit(() -> runnedTasks.add(1), name, 0, lowAfterRun::set);
+		final var high = spoolExecutor.submit(() -> runnedTasks.add(0), name, 10, e -> {
+		});
+		assertTrue(low.isCancelled());
+		assertInstanceOf(CancellationException.class, lowAfterRun.get());
+		assertFalse(high.isDone());
+
+		final var tooLow = spoolExecutor.submit(() -> runnedTasks.add(1), name, 10, e -> {
+		});
+		assertTrue(tooLow.isCompletedExceptionally());
+		assertEquals(1, spoolExecutor.getQueueSize());
+		assertEquals(1, spoolExecutor.getAdmissionStats().shed());
+		assertEquals(1, spoolExecutor.getAdmissionStats().rejected());
+
+		release.countDown();
+		high.get(10, SECONDS);
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0), runnedTasks);
+	}
+
+	@Test
+	void testAdmission_shedLowestPriority_newJobIsTheLowest() throws Exception {
+		spoolExecutor.setQueueCapacity(1).setAdmissionPolicy(SpoolAdmissionPolicy.SHED_LOWEST_PRIORITY);
+		final var release = startBlockingJob();
+
+		final var queued = spoolExecutor.submit(() -> runnedTasks.add(0), name, 5, e -> {
+		});
+		final var lower = spoolExecutor.submit(() -> runnedTasks.add(1), name, 0, e -> {
+		});
+		final var same = spoolExecutor.submit(() -> runnedTasks.add(2), name, 5, e -> {
+		});
+		assertTrue(lower.isCompletedExceptionally());
+		assertTrue(same.isCompletedExceptionally());
+		assertFalse(queued.isDone());
+		assertEquals(0, spoolExecutor.getAdmissionStats().shed());
+		assertEquals(2, spoolExecutor.getAdmissionStats().rejected());
+
+		release.countDown();
+		queued.get(10, SECONDS);
+		assertTrue(spoolExecutor.waitToEndQueue(10, SECONDS));
+		assertEquals(List.of(0), runnedTasks);
+	}
+
+	@Test
+	void testSetRateLimit() {
+		final var stats = spoolExecutor.getRateLimitStats();
+		assertEquals(spoolExecutorName, stats.spoolName());
+		assertEquals(0d, stats.permitsPerSecond());
+		assertEquals(spoolExecutor, spoolExecutor.setRateLimit(5, 2));
+		assertEquals(5d, spoolExecutor.getRateLimitStats().permitsPerSecond());
+		assertEquals(2d, spoolExecutor.getRateLimitStats().availablePermits(), 0.01d);
+		assertThrows(IllegalArgumentException.class, () -> spoolExecutor.setRateLimit(-1, 1));
+		assertThrows(IllegalArgumentException.class, () -> spoolExecutor.setRateLimit(1, 0));
+		spoolExecutor.setRateLimit(0, 0);
+		assertEquals(0d, spoolExecutor.getRateLimitStats().permitsPerSecond());
+	}
+
+	@Test
+	void testRateLimit() throws Exception {
+		spoolExecutor.setRateLimit(20, 2);
+		final var start = System.nanoTime();
+		final var futures = spoolExecutor.submitAll(List.of(
+				() -> runnedTasks.add(0),
+				() -> runnedTasks.add(1),
+				() -> runnedTasks.add(2),
+				() -> runnedTasks.add(3)), name, 0, e -> {
+				});
+		for (final var future : futures) {
+			future.get(10, SECONDS);
+		}
+		/**
+		 * 2 jobs with the burst, then 2 jobs at 20/sec
+		 */
+		assertTrue(System.nanoTime() - start >= Duration.ofMillis(90).toNanos());
+		assertEquals(4, runnedTasks.size());
+
+		final var stats = spoolExecutor.getRateLimitStats();
+		assertEquals(4, stats.acquired());
+		assertTrue(stats.throttled() >= 1);
+		assertTrue(stats.throttledTime().compareTo(Duration.ofMillis(50)) >= 0);
+	}
+
+	@Test
+	void testRateLimit_removed() throws Exception {
+		spoolExecutor.setRateLimit(0.001, 1);
+		final var first = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		});
+		first.get(10, SECONDS);
+		final var throttled = spoolExecutor.submit(() -> runnedTasks.add(1), name, 0, e -> {
+		});
+		Thread.sleep(20);// NOSONAR
+		assertFalse(throttled.isDone());
+		assertEquals(1, spoolExecutor.getQueueSize());
+
+		spoolExecutor.setRateLimit(0, 0);
+		throttled.get(10, SECONDS);
+		assertEquals(2, runnedTasks.size());
+	}
+
+	@Test
+	void testSetPriorityAging() {
+		assertEquals(Duration.ZERO, spoolExecutor.getPriorityAging());
+		assertEquals(spoolExecutor, spoolExecutor.setPriorityAging(Duration.ofSeconds(1)));
+		assertEquals(Duration.ofSeconds(1), spoolExecutor.getPriorityAging());
+		assertThrows(IllegalArgumentException.class, () -> spoolExecutor.setPriorityAging(Duration.ofSeconds(-1)));
+	}
+
+	@Test
+	void testPriorityAging() throws Exception {
+		spoolExecutor.setPriorityAging(Duration.ofMillis(1));
+		final var release = startBlockingJob();
+
+		final var older = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		});
+		Thread.sleep(50);// NOSONAR
+		final var newer = spoolExecutor.submit(() -> runnedTasks.add(1), name, 5, e -> {
+		});
+
+		release.countDown();
+		older.get(10, SECONDS);
+		newer.get(10, SECONDS);
+		assertEquals(List.of(0, 1), runnedTasks);
+	}
+
+	@Test
+	void testPriorityAging_resortQueue() throws Exception {
+		final var release = startBlockingJob();
+
+		final var older = spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		});
+		Thread.sleep(50);// NOSONAR
+		final var newer = spoolExecutor.submit(() -> runnedTasks.add(1), name, 5, e -> {
+		});
+		spoolExecutor.setPriorityAging(Duration.ofMillis(1));
+		assertEquals(2, spoolExecutor.getQueueSize());
+
+		release.countDown();
+		older.get(10, SECONDS);
+		newer.get(10, SECONDS);
+		assertEquals(List.of(0, 1), runnedTasks);
+	}
+
+	@Test
+	void testGetQueueWaitStats() throws Exception {
+		assertEquals(List.of(), spoolExecutor.getQueueWaitStats());
+		final var release = startBlockingJob();
+		final var low = spoolExecutor.submit(() -> runnedTasks.add(1), name, -1, e -> {
+		});
+		final var high = spoolExecutor.submit(() -> runnedTasks.add(0), name, 5, e -> {
+		});
+		Thread.sleep(10);// NOSONAR
+		release.countDown();
+		low.get(10, SECONDS);
+		high.get(10, SECONDS);
+
+		final var stats = spoolExecutor.getQueueWaitStats();
+		assertEquals(List.of(5, 0, -1), stats.stream().map(SpoolQueueWaitStats::priority).toList());
+		assertTrue(stats.stream().allMatch(s -> s.count() == 1));
+		assertTrue(stats.get(0).maxWait().toMillis() >= 10);
+		assertEquals(stats.get(0).maxWait(), stats.get(0).meanWait());
+		assertTrue(stats.get(2).maxWait().compareTo(stats.get(0).maxWait()) >= 0);
+	}
+
+	@Test
+	void testGetMetrics() throws Exception {
+		final var emptyMetrics = spoolExecutor.getMetrics();
+		assertEquals(spoolExecutorName, emptyMetrics.spoolName());
+		assertEquals(0, emptyMetrics.started());
+		assertEquals(0, emptyMetrics.queueLatency().count());
+
+		final var listener = Mockito.mock(SpoolMetricsListener.class);
+		spoolExecutor.setMetricsListener(listener);
+		spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		}).get(10, SECONDS);
+		final var failed = spoolExecutor.submit(() -> {
+			throw new IllegalStateException();
+		}, name, 0, e -> {
+		});
+		assertThrows(ExecutionException.class, () -> failed.get(10, SECONDS));
+
+		verify(listener, Mockito.timeout(10000).times(2)).onJobStarted(eq(spoolExecutor), any(Duration.class));
+		verify(listener, Mockito.timeout(10000)).onJobEnded(eq(spoolExecutor), any(Duration.class), eq(false));
+		verify(listener, Mockito.timeout(10000)).onJobEnded(eq(spoolExecutor), any(Duration.class), eq(true));
+		Mockito.verifyNoMoreInteractions(listener);
+
+		final var metrics = spoolExecutor.getMetrics();
+		assertEquals(2, metrics.started());
+		assertEquals(1, metrics.succeeded());
+		assertEquals(1, metrics.failed());
+		assertEquals(0, metrics.queued());
+		assertEquals(2, metrics.queueLatency().count());
+		assertEquals(2, metrics.runDuration().count());
+		assertTrue(metrics.runDuration().p50().compareTo(metrics.runDuration().max()) <= 0);
+
+		assertEquals(2, spoolExecutor.getQueueLatencyCount());
+		assertEquals(2, spoolExecutor.getRunDurationCount());
+		assertEquals(1, spoolExecutor.getFailedCount());
+		assertTrue(spoolExecutor.getQueueLatencyTotalNanos() >= 0);
+		assertTrue(spoolExecutor.getRunDurationTotalNanos() > 0);
+	}
+
+	@Test
+	void testSetMetricsListener_error() throws Exception {
+		final var listener = Mockito.mock(SpoolMetricsListener.class);
+		Mockito.doThrow(IllegalStateException.class).when(listener).onJobStarted(any(), any());
+		spoolExecutor.setMetricsListener(listener);
+		spoolExecutor.submit(() -> runnedTasks.add(0), name, 0, e -> {
+		}).get(10, SECONDS);
+		assertEquals(List.of(0), runnedTasks);
+		assertEquals(1, spoolExecutor.getMetrics().succeeded());
+	}
+
+	@Test
+	void testSubmitAll_admission() throws Exception {
+		spoolExecutor.setQueueCapacity(2);
+		final var release = startBlockingJob();
+
+		final var futures = spoolExecutor.submitAll(
+				List.of(() -> runnedTasks.add(0), () -> runnedTasks.add(1), () -> runnedTasks.add(2)),
+				name, 0, e -> {
+				});
+		assertEquals(3, futures.size());
+		assertTrue(futures.get(2).isCompletedExceptionally());
+		assertEquals(1, spoolExecutor.getAdmissionStats().rejected());
+
+		release.countDown();
+		futures.get(0).get(10, SECONDS);
+		futures.get(1).get(10, SECONDS);
+		assertEquals(List.of(0, 1), runnedTasks);
+	}
+
 	@Test
 	void testWaitToEndQueue_noInterblocking() {
 		spoolExecutor.addToQueue(() -> {
@@ -643,4 +1384,25 @@ class SpoolExecutorTest {
 		checkWatchdog(atLeast(total - 1));
 	}
 
+	/**
+	 * With parallel runs, jobs are not started and ended in the same order as added.
+	 */
+	private void checkParallelWatchdog(final int total) {
+		final var addCaptor = ArgumentCaptor.forClass(WatchableSpoolJob.class);
+		verify(jobKitWatchdog, times(total)).addJob(addCaptor.capture());
+
+		final var startCaptor = ArgumentCaptor.forClass(WatchableSpoolJob.class);
+		final var startTimeCaptor = ArgumentCaptor.forClass(Long.class);
+		verify(jobKitWatchdog, times(total)).startJob(startCaptor.capture(), startTimeCaptor.capture());
+
+		final var endCaptor = ArgumentCaptor.forClass(WatchableSpoolJob.class);
+		verify(jobKitWatchdog, timeout(10_000).times(total)).endJob(endCaptor.capture());
+
+		final var addedJobs = Set.copyOf(addCaptor.getAllValues());
+		assertEquals(total, addedJobs.size());
+		assertEquals(addedJobs, Set.copyOf(startCaptor.getAllValues()));
+		assertEquals(addedJobs, Set.copyOf(endCaptor.getAllValues()));
+		assertTrue(startTimeCaptor.getAllValues().stream().allMatch(startTime -> startTime > 0l));
+	}
+
 }
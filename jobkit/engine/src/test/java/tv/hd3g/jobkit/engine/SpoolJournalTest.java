@@ -0,0 +1,203 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import net.datafaker.Faker;
+
+class SpoolJournalTest {
+	static Faker faker = net.datafaker.Faker.instance();
+
+	@Mock
+	ScheduledExecutorService scheduledExecutor;
+	@Mock
+	ScheduledFuture<Object> syncTask;
+	@Mock
+	RunnableWithException task;
+
+	Path directory;
+	String spoolName;
+	String jobType;
+	JobDescriptor descriptor;
+	SpoolJournal journal;
+
+	@BeforeEach
+	void init() throws Exception {
+		openMocks(this).close();
+		directory = Path.of("target", "test-" + getClass().getSimpleName(), String.valueOf(System.nanoTime()));
+		spoolName = faker.numerify("spool name/###");
+		jobType = faker.numerify("jobType###");
+		descriptor = new JobDescriptor(jobType, faker.numerify("name###"), faker.random().nextInt(10),
+				faker.numerify("payload###"));
+		when(scheduledExecutor.scheduleWithFixedDelay(any(Runnable.class), eq(1000l), eq(1000l), eq(MILLISECONDS)))
+				.thenReturn((ScheduledFuture) syncTask);
+		journal = createJournal(2);
+	}
+
+	@AfterEach
+	void end() {
+		verifyNoMoreInteractions(task);
+	}
+
+	private SpoolJournal createJournal(final int compactMinRemoved) {
+		return new SpoolJournal(directory, scheduledExecutor, Duration.ofSeconds(1), compactMinRemoved);
+	}
+
+	private List<String> readJournalFile() throws IOException {
+		try (var files = Files.list(directory)) {
+			final var file = files.findFirst().orElseThrow();
+			assertTrue(file.getFileName().toString().endsWith(SpoolJournal.FILE_EXTENSION));
+			return Files.readAllLines(file, UTF_8);
+		}
+	}
+
+	@Test
+	void testInit() {
+		assertTrue(Files.isDirectory(directory));
+		verify(scheduledExecutor, times(1))
+				.scheduleWithFixedDelay(any(Runnable.class), eq(1000l), eq(1000l), eq(MILLISECONDS));
+		assertEquals(Map.of(), journal.getJobsToReplay());
+	}
+
+	@Test
+	void testInit_badInterval() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new SpoolJournal(directory, scheduledExecutor, Duration.ZERO));
+	}
+
+	@Test
+	void testRegisterJobType_createTask() {
+		assertThrows(IllegalArgumentException.class, () -> journal.createTask(descriptor));
+		assertEquals(journal, journal.registerJobType(jobType, d -> task));
+		assertEquals(task, journal.createTask(descriptor));
+		assertTrue(journal.getFactory(jobType).isPresent());
+	}
+
+	@Test
+	void testAppendRemove_bufferedUntilSync() throws IOException {
+		final var id = journal.append(spoolName, descriptor);
+		assertEquals(1, journal.getPendingCount(spoolName));
+		try (var files = Files.list(directory)) {
+			assertFalse(files.findAny().isPresent());
+		}
+
+		journal.sync();
+		assertEquals(1, readJournalFile().size());
+
+		journal.remove(spoolName, id);
+		journal.remove(spoolName, id);
+		assertEquals(0, journal.getPendingCount(spoolName));
+		journal.sync();
+		assertEquals(2, readJournalFile().size());
+	}
+
+	@Test
+	void testReplay() {
+		final var id0 = journal.append(spoolName, descriptor);
+		final var id1 = journal.append(spoolName, descriptor);
+		final var id2 = journal.append(spoolName, descriptor);
+		journal.remove(spoolName, id1);
+		journal.close();
+
+		final var reloaded = createJournal(2);
+		assertEquals(2, reloaded.getPendingCount(spoolName));
+		final var toReplay = reloaded.getJobsToReplay();
+		assertEquals(1, toReplay.size());
+		assertEquals(List.of(id0, id2), List.copyOf(toReplay.get(spoolName).keySet()));
+		assertEquals(descriptor, toReplay.get(spoolName).get(id0));
+		assertEquals(Map.of(), reloaded.getJobsToReplay());
+
+		assertTrue(reloaded.append(spoolName, descriptor) > id2);
+	}
+
+	@Test
+	void testReplay_ignoreInvalidLines() throws IOException {
+		journal.append(spoolName, descriptor);
+		journal.sync();
+		final Path file;
+		try (var files = Files.list(directory)) {
+			file = files.findFirst().orElseThrow();
+		}
+		Files.writeString(file, Files.readString(file) + "{\"id\":99,\"add\":{\"jobTy", UTF_8);
+
+		final var reloaded = createJournal(2);
+		assertEquals(1, reloaded.getPendingCount(spoolName));
+		reloaded.append(spoolName, descriptor);
+		reloaded.sync();
+		assertEquals(2, readJournalFile().size());
+		assertEquals(2, createJournal(2).getPendingCount(spoolName));
+	}
+
+	@Test
+	void testCompact() throws IOException {
+		final var id0 = journal.append(spoolName, descriptor);
+		final var id1 = journal.append(spoolName, descriptor);
+		final var id2 = journal.append(spoolName, descriptor);
+		journal.sync();
+		journal.remove(spoolName, id0);
+		journal.remove(spoolName, id1);
+		journal.sync();
+		assertEquals(1, readJournalFile().size());
+		assertEquals(1, journal.getPendingCount(spoolName));
+
+		journal.remove(spoolName, id2);
+		journal.sync();
+		assertEquals(2, readJournalFile().size());
+		assertEquals(0, createJournal(2).getPendingCount(spoolName));
+	}
+
+	@Test
+	void testClose() {
+		final var id = journal.append(spoolName, descriptor);
+		journal.close();
+		journal.close();
+		verify(syncTask, times(1)).cancel(false);
+
+		journal.remove(spoolName, id);
+		assertEquals(1, journal.getPendingCount(spoolName));
+		assertThrows(IllegalStateException.class, () -> journal.append(spoolName, descriptor));
+		assertEquals(1, createJournal(2).getPendingCount(spoolName));
+	}
+
+}
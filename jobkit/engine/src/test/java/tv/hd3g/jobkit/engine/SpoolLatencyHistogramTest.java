@@ -0,0 +1,95 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.jobkit.engine.SpoolLatencyHistogram.SIZE;
+import static tv.hd3g.jobkit.engine.SpoolLatencyHistogram.indexOf;
+import static tv.hd3g.jobkit.engine.SpoolLatencyHistogram.upperValueOf;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SpoolLatencyHistogramTest {
+
+	SpoolLatencyHistogram h;
+
+	@BeforeEach
+	void init() {
+		h = new SpoolLatencyHistogram();
+	}
+
+	@Test
+	void testIndexOf() {
+		assertEquals(0, indexOf(0));
+		assertEquals(7, indexOf(7));
+		assertEquals(8, indexOf(8));
+		assertEquals(SIZE - 1, indexOf(Long.MAX_VALUE));
+		for (var pos = 0; pos < SIZE; pos++) {
+			assertEquals(pos, indexOf(upperValueOf(pos)));
+		}
+		for (var pos = 1; pos < SIZE; pos++) {
+			assertEquals(pos, indexOf(upperValueOf(pos - 1) + 1));
+		}
+	}
+
+	@Test
+	void testUpperValueOf_error() {
+		IntStream.of(1_000, 123_456, 50_000_000, 999_999_999)
+				.forEach(value -> {
+					final var upper = upperValueOf(indexOf(value));
+					assertTrue(upper >= value);
+					assertTrue(upper <= value * 1.125d);
+				});
+	}
+
+	@Test
+	void testGetSnapshot_empty() {
+		final var s = h.getSnapshot();
+		assertEquals(0, s.count());
+		assertEquals(Duration.ZERO, s.mean());
+		assertEquals(Duration.ZERO, s.p99());
+		assertEquals(Duration.ZERO, s.max());
+	}
+
+	@Test
+	void testGetSnapshot() {
+		IntStream.rangeClosed(1, 100).forEach(i -> h.record(i * 1_000_000L));
+		h.record(-1);
+
+		final var s = h.getSnapshot();
+		assertEquals(101, s.count());
+		assertEquals(101, h.getCount());
+		assertEquals(5050L * 1_000_000L, h.getTotalNanos());
+		assertEquals(Duration.ofNanos(5050L * 1_000_000L / 101L), s.mean());
+		assertEquals(Duration.ofMillis(100), s.max());
+		assertBetween(50, s.p50());
+		assertBetween(90, s.p90());
+		assertBetween(99, s.p99());
+	}
+
+	private static void assertBetween(final long expectedMs, final Duration actual) {
+		final var expected = expectedMs * 1_000_000d;
+		assertTrue(actual.toNanos() >= expected * 0.95d, () -> "Too low " + actual);
+		assertTrue(actual.toNanos() <= expected * 1.125d, () -> "Too high " + actual);
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SpoolRateLimiterTest {
+
+	static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+	SpoolRateLimiter limiter;
+
+	@BeforeEach
+	void init() {
+		limiter = new SpoolRateLimiter(10, 3, 0);
+	}
+
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new SpoolRateLimiter(0, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SpoolRateLimiter(-1, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SpoolRateLimiter(Double.NaN, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SpoolRateLimiter(1, 0, 0));
+	}
+
+	@Test
+	void testTryAcquire_burst() {
+		assertEquals(0, limiter.tryAcquire(0));
+		assertEquals(0, limiter.tryAcquire(0));
+		assertEquals(0, limiter.tryAcquire(0));
+		assertEquals(SECOND / 10, limiter.tryAcquire(0));
+		assertEquals(SECOND / 20, limiter.tryAcquire(SECOND / 20));
+		assertEquals(0, limiter.tryAcquire(SECOND / 10));
+	}
+
+	@Test
+	void testTryAcquire_refillUpToBurst() {
+		for (var pos = 0; pos < 3; pos++) {
+			limiter.tryAcquire(0);
+		}
+		assertEquals(3d, limiter.getStats("spool", 10 * SECOND).availablePermits());
+	}
+
+	@Test
+	void testGetStats() {
+		for (var pos = 0; pos < 4; pos++) {
+			limiter.tryAcquire(0);
+		}
+		var stats = limiter.getStats("spool", SECOND / 20);
+		assertEquals("spool", stats.spoolName());
+		assertEquals(10d, stats.permitsPerSecond());
+		assertEquals(3, stats.burst());
+		assertEquals(0.5d, stats.availablePermits(), 0.0001d);
+		assertEquals(3, stats.acquired());
+		assertEquals(1, stats.throttled());
+		assertEquals(Duration.ofNanos(SECOND / 20), stats.throttledTime());
+
+		limiter.tryAcquire(SECOND / 10);
+		limiter.tryAcquire(SECOND);
+		stats = limiter.getStats("spool", SECOND);
+		assertEquals(5, stats.acquired());
+		assertEquals(1, stats.throttled());
+		assertEquals(Duration.ofNanos(SECOND / 10), stats.throttledTime());
+		assertEquals(4d, stats.currentRate(), 0.0001d);
+	}
+
+	@Test
+	void testEndThrottle() {
+		for (var pos = 0; pos < 4; pos++) {
+			limiter.tryAcquire(0);
+		}
+		limiter.endThrottle(SECOND / 100);
+		limiter.endThrottle(SECOND);
+		assertEquals(Duration.ofNanos(SECOND / 100), limiter.getStats("spool", 2 * SECOND).throttledTime());
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.lang.Thread.MIN_PRIORITY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.jobkit.engine.SpoolThreadType.PLATFORM;
+import static tv.hd3g.jobkit.engine.SpoolThreadType.VIRTUAL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.datafaker.Faker;
+
+class SpoolThreadTypeTest {
+	static Faker faker = Faker.instance();
+
+	String name;
+	AtomicInteger runs;
+	Runnable job;
+
+	@BeforeEach
+	void init() {
+		name = faker.numerify("thread###");
+		runs = new AtomicInteger();
+		job = runs::incrementAndGet;
+	}
+
+	@Test
+	void testPlatform() throws InterruptedException {
+		final var t = PLATFORM.newThread(name, job);
+		assertEquals(name, t.getName());
+		assertFalse(t.isVirtual());
+		assertFalse(t.isDaemon());
+		assertEquals(MIN_PRIORITY, t.getPriority());
+		assertEquals(Thread.State.NEW, t.getState());
+
+		t.start();
+		t.join();
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void testVirtual() throws InterruptedException {
+		final var t = VIRTUAL.newThread(name, job);
+		assertEquals(name, t.getName());
+		assertTrue(t.isVirtual());
+		assertEquals(Thread.State.NEW, t.getState());
+
+		t.start();
+		t.join();
+		assertEquals(1, runs.get());
+	}
+
+}
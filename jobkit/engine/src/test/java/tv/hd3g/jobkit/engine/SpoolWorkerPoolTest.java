@@ -0,0 +1,218 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import net.datafaker.Faker;
+
+class SpoolWorkerPoolTest {
+	static Faker faker = net.datafaker.Faker.instance();
+
+	@Mock
+	ExecutionEvent event;
+	@Mock
+	SupervisableEvents sEvent;
+	@Mock
+	JobKitWatchdog jobKitWatchdog;
+
+	AtomicLong threadCount;
+	SpoolWorkerPool pool;
+	List<String> startedJobs;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		threadCount = new AtomicLong();
+		startedJobs = Collections.synchronizedList(new ArrayList<>());
+	}
+
+	@AfterEach
+	void ends() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	private SpoolExecutor createSpool(final String name) {
+		return new SpoolExecutor(name, event, threadCount, sEvent, jobKitWatchdog)
+				.setWorkerPool(pool);
+	}
+
+	private RunnableWithException record(final String jobName) {
+		return () -> startedJobs.add(jobName);
+	}
+
+	@Test
+	void testInvalidSize() {
+		assertThrows(IllegalArgumentException.class, () -> new SpoolWorkerPool(0, SpoolThreadType.PLATFORM));
+	}
+
+	@Test
+	void testRunInWorkers() throws Exception {
+		pool = new SpoolWorkerPool(2, SpoolThreadType.PLATFORM);
+		assertEquals(2, pool.getSize());
+		final var spool = createSpool(faker.numerify("spool###"));
+		assertTrue(spool.isUseWorkerPool());
+
+		final var threadName = new ArrayList<String>();
+		spool.submit(() -> threadName.add(Thread.currentThread().getName()), "job", 0, e -> {
+		}).get(10, SECONDS);
+		assertEquals(1, threadName.size());
+		assertTrue(threadName.get(0).startsWith("SpoolWorker #"));
+		assertTrue(spool.waitToEndQueue(10, SECONDS));
+	}
+
+	@Test
+	void testRunInWorkers_virtual() throws Exception {
+		pool = new SpoolWorkerPool(1, SpoolThreadType.VIRTUAL);
+		final var spool = createSpool(faker.numerify("spool###"));
+
+		final var virtual = new ArrayList<Boolean>();
+		spool.submit(() -> virtual.add(Thread.currentThread().isVirtual()), "job", 0, e -> {
+		}).get(10, SECONDS);
+		assertEquals(List.of(true), virtual);
+	}
+
+	@Test
+	void testStrictOrder() throws Exception {
+		pool = new SpoolWorkerPool(4, SpoolThreadType.PLATFORM);
+		final var spool = createSpool(faker.numerify("spool###"));
+		final var running = new AtomicInteger();
+		final var maxRunning = new AtomicInteger();
+
+		final var tasks = IntStream.range(0, 20)
+				.mapToObj(i -> (RunnableWithException) () -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					startedJobs.add(String.valueOf(i));
+					Thread.sleep(1);// NOSONAR
+					running.decrementAndGet();
+				})
+				.toList();
+		spool.submitAll(tasks, "job", 0, e -> {
+		});
+		assertTrue(spool.waitToEndQueue(10, SECONDS));
+
+		assertEquals(1, maxRunning.get());
+		assertEquals(IntStream.range(0, 20).mapToObj(String::valueOf).toList(), startedJobs);
+	}
+
+	@Test
+	void testBusySpoolUseAllWorkers() throws Exception {
+		pool = new SpoolWorkerPool(4, SpoolThreadType.PLATFORM);
+		createSpool(faker.numerify("idle###"));
+		final var spool = createSpool(faker.numerify("busy###"))
+				.setParallelism(10);
+		final var allStarted = new CountDownLatch(4);
+		final var release = new CountDownLatch(1);
+		final var running = new AtomicInteger();
+		final var maxRunning = new AtomicInteger();
+
+		final var tasks = IntStream.range(0, 8)
+				.mapToObj(i -> (RunnableWithException) () -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					allStarted.countDown();
+					release.await(10, SECONDS);
+					running.decrementAndGet();
+				})
+				.toList();
+		spool.submitAll(tasks, "job", 0, e -> {
+		});
+
+		assertTrue(allStarted.await(10, SECONDS));
+		assertEquals(4, spool.getRunningCount());
+		assertEquals(4, spool.getQueueSize());
+		release.countDown();
+		assertTrue(spool.waitToEndQueue(10, SECONDS));
+		assertEquals(4, maxRunning.get());
+	}
+
+	@Test
+	void testWeightedRoundRobin() throws Exception {
+		pool = new SpoolWorkerPool(1, SpoolThreadType.PLATFORM);
+		final var spoolA = createSpool("A").setPoolWeight(2);
+		final var spoolB = createSpool("B");
+		assertEquals(2, spoolA.getPoolWeight());
+		assertEquals(1, spoolB.getPoolWeight());
+
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		spoolA.addToQueue(() -> {
+			started.countDown();
+			release.await(10, SECONDS);
+		}, "gate", 0, e -> {
+		});
+		assertTrue(started.await(10, SECONDS));
+
+		IntStream.range(0, 6).forEach(i -> {
+			spoolA.addToQueue(record("A"), "A" + i, 0, e -> {
+			});
+			spoolB.addToQueue(record("B"), "B" + i, 0, e -> {
+			});
+		});
+		release.countDown();
+		assertTrue(spoolA.waitToEndQueue(10, SECONDS));
+		assertTrue(spoolB.waitToEndQueue(10, SECONDS));
+
+		assertEquals(12, startedJobs.size());
+		final var firstStarted = startedJobs.subList(0, 6);
+		assertEquals(4, firstStarted.stream().filter("A"::equals).count());
+		assertEquals(2, firstStarted.stream().filter("B"::equals).count());
+	}
+
+	@Test
+	void testInvalidPoolWeight() {
+		pool = new SpoolWorkerPool(1, SpoolThreadType.PLATFORM);
+		final var spool = createSpool(faker.numerify("spool###"));
+		assertThrows(IllegalArgumentException.class, () -> spool.setPoolWeight(0));
+	}
+
+	@Test
+	void testClose() throws Exception {
+		pool = new SpoolWorkerPool(1, SpoolThreadType.PLATFORM);
+		final var spool = createSpool(faker.numerify("spool###"));
+		assertFalse(pool.isClosed());
+		pool.close();
+		assertTrue(pool.isClosed());
+
+		spool.setWorkerPool(null);
+		assertFalse(spool.isUseWorkerPool());
+		final var threadName = new ArrayList<String>();
+		spool.submit(() -> threadName.add(Thread.currentThread().getName()), "job", 0, e -> {
+		}).get(10, SECONDS);
+		assertTrue(threadName.get(0).startsWith("SpoolExecutor #"));
+	}
+
+}
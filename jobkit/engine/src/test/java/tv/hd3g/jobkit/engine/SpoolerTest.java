@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -65,6 +66,34 @@ class SpoolerTest {
 		assertEquals(aBisExec, aExec);
 	}
 
+	@Test
+	void testSetRateLimit() {
+		spooler.setRateLimit(b, 10, 5);
+		spooler.getExecutor(a);
+		final var stats = spooler.getSpoolsRateLimitStats();
+		assertEquals(2, stats.size());
+		assertEquals(a, stats.get(0).spoolName());
+		assertEquals(0d, stats.get(0).permitsPerSecond());
+		assertEquals(b, stats.get(1).spoolName());
+		assertEquals(10d, stats.get(1).permitsPerSecond());
+		assertEquals(5, stats.get(1).burst());
+	}
+
+	@Test
+	void testSetWorkerPool() {
+		assertEquals(0, spooler.getWorkerPoolSize());
+		spooler.setWorkerPool(3, SpoolThreadType.PLATFORM);
+		assertEquals(3, spooler.getWorkerPoolSize());
+		assertTrue(spooler.getExecutor(a).isUseWorkerPool());
+
+		spooler.setWorkerPool(0, SpoolThreadType.PLATFORM);
+		assertEquals(0, spooler.getWorkerPoolSize());
+		assertFalse(spooler.getExecutor(a).isUseWorkerPool());
+		assertFalse(spooler.getExecutor(b).isUseWorkerPool());
+
+		assertThrows(IllegalArgumentException.class, () -> spooler.setWorkerPool(-1, SpoolThreadType.PLATFORM));
+	}
+
 	@Test
 	void testGetAllQueuesSize() {
 		assertEquals(0, spooler.getAllQueuesSize());
@@ -79,6 +108,13 @@ class SpoolerTest {
 		assertEquals(0, spooler.getRunningQueuesCount());
 	}
 
+	@Test
+	void testGetRunningJobsCount() {
+		assertEquals(0, spooler.getRunningJobsCount());
+		spooler.getExecutor(a).setParallelism(2);
+		assertEquals(0, spooler.getRunningJobsCount());
+	}
+
 	@Test
 	void testShutdown_noKeepRun() {
 		assertTrue(spooler.getExecutor(a)
@@ -0,0 +1,158 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.BLOCK;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.DROP_NEWEST;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.DROP_OLDEST;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.datafaker.Faker;
+
+class SupervisableAsyncEndEventConsumerTest {
+	static Faker faker = Faker.instance();
+
+	SupervisableAsyncEndEventConsumer c;
+	List<SupervisableEndEvent> received;
+	CountDownLatch consumerBlocker;
+	CountDownLatch consumerStarted;
+	CountDownLatch consumerReceived;
+	SupervisableEndEvent event0;
+	SupervisableEndEvent event1;
+	SupervisableEndEvent event2;
+	SupervisableEndEvent event3;
+
+	@BeforeEach
+	void init() {
+		received = new CopyOnWriteArrayList<>();
+		consumerBlocker = new CountDownLatch(1);
+		consumerStarted = new CountDownLatch(1);
+		consumerReceived = new CountDownLatch(3);
+		event0 = mock(SupervisableEndEvent.class);
+		event1 = mock(SupervisableEndEvent.class);
+		event2 = mock(SupervisableEndEvent.class);
+		event3 = mock(SupervisableEndEvent.class);
+	}
+
+	@AfterEach
+	void end() {
+		consumerBlocker.countDown();
+		c.close();
+	}
+
+	private void create(final SupervisableEndEventOverflowPolicy policy) {
+		c = new SupervisableAsyncEndEventConsumer(endEvent -> {
+			consumerStarted.countDown();
+			try {
+				consumerBlocker.await(10, SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(endEvent);
+			consumerReceived.countDown();
+		}, 2, policy, faker.numerify("thread###"));
+	}
+
+	/**
+	 * event0 is in process, event1 to 3 try to go to a 2 sized queue.
+	 */
+	private void fillWithABlockedConsumer() throws InterruptedException {
+		c.afterProcess(event0);
+		assertTrue(consumerStarted.await(1, SECONDS));
+		c.afterProcess(event1);
+		c.afterProcess(event2);
+		c.afterProcess(event3);
+
+		final var stats = c.getStats();
+		assertEquals(2, stats.lag());
+		assertEquals(0, stats.delivered());
+		assertEquals(1, stats.dropped());
+		consumerBlocker.countDown();
+		assertTrue(consumerReceived.await(1, SECONDS));
+	}
+
+	@Test
+	void testDropNewest() throws InterruptedException {
+		create(DROP_NEWEST);
+		fillWithABlockedConsumer();
+		assertEquals(List.of(event0, event1, event2), received);
+	}
+
+	@Test
+	void testDropOldest() throws InterruptedException {
+		create(DROP_OLDEST);
+		fillWithABlockedConsumer();
+		assertEquals(List.of(event0, event2, event3), received);
+	}
+
+	@Test
+	void testClose() throws InterruptedException {
+		create(DROP_NEWEST);
+		c.afterProcess(event0);
+		assertTrue(consumerStarted.await(1, SECONDS));
+		c.afterProcess(event1);
+		c.close();
+		c.afterProcess(event2);
+		assertEquals(1, c.getStats().dropped());
+
+		consumerBlocker.countDown();
+		consumerReceived.countDown();
+		assertTrue(consumerReceived.await(1, SECONDS));
+		assertEquals(List.of(event0, event1), received);
+	}
+
+	@Test
+	void testClose_blockedProducer() throws InterruptedException {
+		create(BLOCK);
+		c.afterProcess(event0);
+		assertTrue(consumerStarted.await(1, SECONDS));
+		c.afterProcess(event1);
+		c.afterProcess(event2);
+
+		final var producer = Thread.ofPlatform().start(() -> c.afterProcess(event3));
+		while (producer.getState() != Thread.State.WAITING && producer.isAlive()) {
+			Thread.onSpinWait();
+		}
+		c.close();
+		consumerBlocker.countDown();
+		producer.join(10_000);
+
+		/**
+		 * event3 is delivered, or counted as dropped: never stranded in the queue.
+		 */
+		final var end = System.currentTimeMillis() + 10_000;
+		var stats = c.getStats();
+		while (stats.delivered() + stats.dropped() < 4 && System.currentTimeMillis() < end) {
+			Thread.sleep(10);// NOSONAR
+			stats = c.getStats();
+		}
+		assertEquals(4, stats.delivered() + stats.dropped());
+		assertEquals(List.of(event0, event1, event2), received.subList(0, 3));
+	}
+
+}
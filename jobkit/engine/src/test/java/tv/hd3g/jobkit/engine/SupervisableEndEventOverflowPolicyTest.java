@@ -0,0 +1,77 @@
+/*
+ * This file is part of jobkit-engine.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.BLOCK;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.DROP_NEWEST;
+import static tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy.DROP_OLDEST;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SupervisableEndEventOverflowPolicyTest {
+
+	ArrayBlockingQueue<SupervisableEndEvent> queue;
+	SupervisableEndEvent event0;
+	SupervisableEndEvent event1;
+
+	@BeforeEach
+	void init() {
+		queue = new ArrayBlockingQueue<>(1);
+		event0 = mock(SupervisableEndEvent.class);
+		event1 = mock(SupervisableEndEvent.class);
+	}
+
+	@Test
+	void testBlock() throws InterruptedException {
+		assertEquals(0, BLOCK.push(queue, event0));
+		assertEquals(List.of(event0), List.copyOf(queue));
+	}
+
+	@Test
+	void testDropOldest() throws InterruptedException {
+		assertEquals(0, DROP_OLDEST.push(queue, event0));
+		assertEquals(1, DROP_OLDEST.push(queue, event1));
+		assertEquals(List.of(event1), List.copyOf(queue));
+	}
+
+	@Test
+	void testDropOldest_keepCloseMark() throws InterruptedException {
+		queue.add(SupervisableAsyncEndEventConsumer.CLOSE_MARK);
+		assertEquals(1, DROP_OLDEST.push(queue, event0));
+		assertEquals(List.of(SupervisableAsyncEndEventConsumer.CLOSE_MARK), List.copyOf(queue));
+
+		queue = new ArrayBlockingQueue<>(2);
+		queue.add(SupervisableAsyncEndEventConsumer.CLOSE_MARK);
+		queue.add(event0);
+		assertEquals(1, DROP_OLDEST.push(queue, event1));
+		assertEquals(List.of(event1, SupervisableAsyncEndEventConsumer.CLOSE_MARK), List.copyOf(queue));
+	}
+
+	@Test
+	void testDropNewest() throws InterruptedException {
+		assertEquals(0, DROP_NEWEST.push(queue, event0));
+		assertEquals(1, DROP_NEWEST.push(queue, event1));
+		assertEquals(List.of(event0), List.copyOf(queue));
+	}
+
+}
@@ -113,6 +113,11 @@ class SupervisableEndEventTest {
 		assertEquals(typeName, event.typeName());
 	}
 
+	@Test
+	void testContext() {
+		assertEquals(context, event.context());
+	}
+
 	@Test
 	void testTypeName_null() {
 		event = new SupervisableEndEvent(
@@ -135,6 +135,32 @@ class SupervisableManagerTest {
 		verify(supervisable, times(1)).getEndEvent(oError, name);
 	}
 
+	@Test
+	void testGetLifeCycle_onEnd_async() {
+		s = new SupervisableManager(name, objectMapper, 1, 10, SupervisableEndEventOverflowPolicy.BLOCK);
+		assertTrue(s.isAsyncEndEventConsumers());
+		when(supervisable.getEndEvent(oError, name)).thenReturn(ofNullable(supervisableEndEvent));
+		s.registerOnEndEventConsumer(eventConsumer);
+
+		s.onEnd(supervisable, oError);
+
+		verify(eventConsumer, Mockito.timeout(1000).times(1)).afterProcess(supervisableEndEvent);
+		verify(supervisable, times(1)).getEndEvent(oError, name);
+
+		final var stats = s.getEndEventConsumersStats();
+		assertEquals(1, stats.size());
+		assertEquals(0, stats.get(0).lag());
+		assertEquals(0, stats.get(0).dropped());
+		s.close();
+	}
+
+	@Test
+	void testGetEndEventConsumersStats_sync() {
+		assertFalse(s.isAsyncEndEventConsumers());
+		s.registerOnEndEventConsumer(eventConsumer);
+		assertTrue(s.getEndEventConsumersStats().isEmpty());
+	}
+
 	@Test
 	void testGetLifeCycle_onEnd_Exception() {
 
@@ -17,6 +17,7 @@
 package tv.hd3g.jobkit.engine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -26,6 +27,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static tv.hd3g.jobkit.engine.Supervisable.manuallyRegistedSupervisables;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.INTERNAL_STATE_CHANGE;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.SECURITY;
 import static tv.hd3g.jobkit.engine.SupervisableEventMark.TRIVIAL;
@@ -105,6 +107,46 @@ class SupervisableTest {
 		assertEquals(Set.of(TRIVIAL), getEndEvent().marks());
 	}
 
+	@Test
+	void testHasSupervisable_outside() {
+		assertFalse(Supervisable.hasSupervisable());
+		assertTrue(Supervisable.findSupervisable().isEmpty());
+	}
+
+	@Test
+	void testHasSupervisable_manually() {
+		manuallyRegistedSupervisables.set(s);
+		try {
+			assertTrue(Supervisable.hasSupervisable());
+			assertEquals(s, Supervisable.findSupervisable().get());
+		} finally {
+			manuallyRegistedSupervisables.remove();
+		}
+	}
+
+	@Test
+	void testHasSupervisable_inJob() throws InterruptedException {
+		final var jk = new JobKitEngine(Executors.newScheduledThreadPool(1),
+				new ExecutionEvent() {},
+				new BackgroundServiceEvent() {},
+				new SupervisableManager(managerName));
+
+		final var arHas = new AtomicReference<Boolean>();
+		final var arSupervisable = new AtomicReference<Optional<Supervisable>>();
+		final var latch = new CountDownLatch(1);
+
+		jk.runOneShot(jobName, spoolName, 0, () -> {
+			arHas.set(Supervisable.hasSupervisable());
+			arSupervisable.set(Supervisable.findSupervisable());
+			latch.countDown();
+		}, e -> {
+		});
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertTrue(arHas.get());
+		assertTrue(arSupervisable.get().isPresent());
+	}
+
 	@Test
 	void testGetSupervisable_ok() throws InterruptedException {
 		final var jk = new JobKitEngine(Executors.newScheduledThreadPool(1),
@@ -288,6 +330,24 @@ class SupervisableTest {
 		assertEquals(Set.of(TRIVIAL), getEndEvent().marks());
 	}
 
+	@Test
+	void testSetContextStringObject_extractedOnSet() {
+		when(events.extractContext(businessObject)).thenReturn(context);
+
+		s.setContext(typeName, businessObject);
+		verify(events, times(1)).extractContext(businessObject);
+
+		assertEquals(context, getEndEvent().context());
+		assertEquals(context, getEndEvent().context());
+		verify(events, times(1)).extractContext(businessObject);
+	}
+
+	@Test
+	void testSetContextStringObject_nullResult() {
+		assertThrows(NullPointerException.class, () -> s.setContext(typeName, businessObject));
+		verify(events, times(1)).extractContext(businessObject);
+	}
+
 	@Test
 	void testSetContextVarargs() {
 		when(events.extractContext(any(LinkedHashMap.class))).thenReturn(context);
@@ -364,6 +424,26 @@ class SupervisableTest {
 		assertEquals(Set.of(), getEndEvent().marks());
 	}
 
+	@Test
+	void testCallerCaptureMode_off() {
+		s = new Supervisable(spoolName, jobName, events, CallerCaptureMode.OFF)
+				.setContext(typeName, NullNode.getInstance());
+		s.onMessage(code, defaultResult, vars);
+		s.resultDone();
+		assertNull(getLastStep().caller());
+		assertNull(getEndEvent().result().caller());
+	}
+
+	@Test
+	void testCallerCaptureMode_fullTrace() {
+		s = new Supervisable(spoolName, jobName, events, CallerCaptureMode.FULL_TRACE)
+				.setContext(typeName, NullNode.getInstance());
+		s.onMessage(code, defaultResult, vars);
+		s.resultDone();
+		checkCaller(getLastStep().caller());
+		checkCaller(getEndEvent().result().caller());
+	}
+
 	@Test
 	void testResultCanceledString() {
 		s.resultCanceled(code, defaultResult, vars);
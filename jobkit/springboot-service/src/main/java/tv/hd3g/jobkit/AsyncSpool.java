@@ -0,0 +1,49 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Run the annotated method (or all the public methods of the annotated class) like a Spring @Async method,
+ * but as a job on a named JobKit spool. Don't add @Async with it.
+ * The method must return void, a Future, or a CompletableFuture (like CompletableFuture.completedFuture(value)).
+ * On an annotated class, the public methods with another return type (getters, toString...) are not async.
+ * Independent spools run concurrently.
+ */
+@Retention(RUNTIME)
+@Target({ METHOD, TYPE })
+public @interface AsyncSpool {
+
+	/**
+	 * Spool name
+	 */
+	String value();
+
+	int priority() default 0;
+
+	/**
+	 * Used as JobKit job name. By default, "ClassName.methodName"
+	 */
+	String jobName() default "";
+
+}
@@ -1,20 +1,18 @@
 package tv.hd3g.jobkit.mod;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 import lombok.extern.slf4j.Slf4j;
 import tv.hd3g.jobkit.engine.JobKitEngine;
-import tv.hd3g.jobkit.engine.RunnableWithException;
 
 @Configuration
 @EnableAsync
@@ -24,25 +22,19 @@ public class JobKitAsyncConfigurer implements AsyncConfigurer {
 
 	@Autowired
 	JobKitEngine jobKitEngine;
+	@Value("${jobkit.async.parallelism:1}")
+	int parallelism;
 
+	/**
+	 * Used for all @Async without qualifier. For run them on other spools, use @AsyncSpool, or declare
+	 * some JobKitAsyncExecutor beans and use their names as @Async qualifiers.
+	 */
 	@Override
 	public Executor getAsyncExecutor() {
-		final var pattern = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss,S");
-		return task -> {
-			final var dateText = LocalDateTime.now().format(pattern);
-			final var sended = jobKitEngine.runOneShot("SpringBoot Async " + dateText,
-					POOL_NAME,
-					0,
-					RunnableWithException.fromRunnable(task),
-					e -> {
-						if (e != null) {
-							log.error("Can't execute SpringBootAsync task", e);
-						}
-					});
-			if (sended == false) {
-				log.error("Can't queue new @async executor task, jobKitEngine refuse new jobs");
-			}
-		};
+		if (parallelism > 1) {
+			jobKitEngine.setSpoolParallelism(POOL_NAME, parallelism);
+		}
+		return new JobKitAsyncExecutor(jobKitEngine, POOL_NAME, 0, "SpringBoot Async");
 	}
 
 	@Override
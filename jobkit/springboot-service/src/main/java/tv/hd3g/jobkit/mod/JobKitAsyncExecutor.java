@@ -0,0 +1,133 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import lombok.extern.slf4j.Slf4j;
+import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.RunnableWithException;
+
+/**
+ * Run Spring async tasks as jobs on one JobKit spool, with the same priority and job name.
+ * Declare it as a Bean for use it with a qualifier, like @Async("beanName").
+ */
+@Slf4j
+public class JobKitAsyncExecutor implements AsyncTaskExecutor {
+
+	private final JobKitEngine jobKitEngine;
+	private final String spoolName;
+	private final int priority;
+	private final String jobName;
+
+	/**
+	 * @param jobName the same for all tasks: no per task name computing
+	 */
+	public JobKitAsyncExecutor(final JobKitEngine jobKitEngine,
+							   final String spoolName,
+							   final int priority,
+							   final String jobName) {
+		this.jobKitEngine = Objects.requireNonNull(jobKitEngine, "\"jobKitEngine\" can't to be null");
+		this.spoolName = Objects.requireNonNull(spoolName, "\"spoolName\" can't to be null");
+		this.jobName = Objects.requireNonNull(jobName, "\"jobName\" can't to be null");
+		this.priority = priority;
+	}
+
+	public String getSpoolName() {
+		return spoolName;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		final boolean sended;
+		try {
+			sended = jobKitEngine.runOneShot(jobName, spoolName, priority, RunnableWithException.fromRunnable(task),
+					e -> {
+						if (e != null) {
+							log.error("Can't execute async task {} on {}", jobName, spoolName, e);
+						}
+					});
+		} catch (final IllegalStateException e) {
+			throw new TaskRejectedException("Can't queue async task " + jobName + " on " + spoolName, e);
+		}
+		if (sended == false) {
+			throw new TaskRejectedException("Can't queue async task " + jobName + " on " + spoolName
+											+ ": jobKitEngine refuse new jobs");
+		}
+	}
+
+	/**
+	 * @return completed with the task result after the job end. Cancel it for remove the job from its spool queue.
+	 */
+	@Override
+	public <T> CompletableFuture<T> submitCompletable(final Callable<T> task) {
+		final var result = new CompletableFuture<T>();
+		final var jobFuture = submitJob(() -> result.complete(task.call()));
+		jobFuture.whenComplete((v, e) -> {
+			if (e != null) {
+				result.completeExceptionally(e);
+			}
+		});
+		result.whenComplete((v, e) -> {
+			if (result.isCancelled()) {
+				jobFuture.cancel(false);
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public CompletableFuture<Void> submitCompletable(final Runnable task) {
+		return submitCompletable(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	@Override
+	public <T> Future<T> submit(final Callable<T> task) {
+		return submitCompletable(task);
+	}
+
+	@Override
+	public Future<?> submit(final Runnable task) {
+		return submitCompletable(task);
+	}
+
+	private CompletableFuture<Void> submitJob(final RunnableWithException job) {
+		try {
+			return jobKitEngine.submit(jobName, spoolName, priority, job);
+		} catch (final IllegalStateException e) {
+			throw new TaskRejectedException("Can't queue async task " + jobName + " on " + spoolName, e);
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package tv.hd3g.jobkit.mod;
 import static java.lang.Thread.MIN_PRIORITY;
 import static java.util.stream.Collectors.joining;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
@@ -21,6 +23,8 @@ import lombok.extern.slf4j.Slf4j;
 import tv.hd3g.jobkit.engine.BackgroundServiceEvent;
 import tv.hd3g.jobkit.engine.ExecutionEvent;
 import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.SpoolJournal;
+import tv.hd3g.jobkit.engine.SupervisableEndEventOverflowPolicy;
 import tv.hd3g.jobkit.engine.SupervisableManager;
 import tv.hd3g.jobkit.engine.SupervisableServiceSupplier;
 
@@ -29,6 +33,14 @@ import tv.hd3g.jobkit.engine.SupervisableServiceSupplier;
 public class JobKitSetup {
 	@Value("${jobkit.supervisable.maxEndEventsRetention:100}")
 	private int maxEndEventsRetention;
+	@Value("${jobkit.supervisable.asyncEndEventsQueueSize:0}")
+	private int asyncEndEventsQueueSize;
+	@Value("${jobkit.supervisable.asyncEndEventsOverflowPolicy:BLOCK}")
+	private SupervisableEndEventOverflowPolicy asyncEndEventsOverflowPolicy;
+	@Value("${jobkit.journal.directory:}")
+	private String journalDirectory;
+	@Value("${jobkit.journal.syncInterval:1s}")
+	private Duration journalSyncInterval;
 
 	@Bean
 	ScheduledExecutorService getScheduledExecutor() {
@@ -56,7 +68,11 @@ public class JobKitSetup {
 				.map(s -> s.collect(joining(", ")))
 				.orElse("");
 
-		return new SupervisableManager((appName + " " + env).trim(), jacksonObjectMapper, maxEndEventsRetention);
+		return new SupervisableManager((appName + " " + env).trim(),
+				jacksonObjectMapper,
+				maxEndEventsRetention,
+				asyncEndEventsQueueSize,
+				asyncEndEventsOverflowPolicy);
 	}
 
 	@Bean
@@ -77,6 +93,10 @@ public class JobKitSetup {
 		watchdogConfig.getMaxSpoolQueueSize().forEach(watchdog::addPolicies);
 		watchdogConfig.getLimitedExecTime().forEach(watchdog::addPolicies);
 		watchdogConfig.getLimitedServiceExecTime().forEach(watchdog::addPolicies);
+
+		if (journalDirectory.isBlank() == false) {
+			jobKit.setSpoolJournal(new SpoolJournal(Path.of(journalDirectory), scheduledExecutor, journalSyncInterval));
+		}
 		return jobKit;
 	}
 
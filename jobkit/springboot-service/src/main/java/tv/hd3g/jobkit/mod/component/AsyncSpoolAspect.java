@@ -0,0 +1,134 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import tv.hd3g.jobkit.AsyncSpool;
+import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.mod.JobKitAsyncExecutor;
+
+@Aspect
+@Component
+@EnableAspectJAutoProxy
+@Slf4j
+public class AsyncSpoolAspect {
+	@Autowired
+	private JobKitEngine jobKitEngine;
+
+	/**
+	 * Computed one time by method: spool, priority, job name and return type checks.
+	 */
+	private final Map<Method, AsyncSpoolRoute> routes = new ConcurrentHashMap<>();
+
+	record AsyncSpoolRoute(JobKitAsyncExecutor executor, boolean returnVoid) {
+	}
+
+	AsyncSpoolRoute getRoute(final Method method) {
+		return routes.computeIfAbsent(method, m -> {
+			final var asyncSpool = Optional.ofNullable(m.getAnnotation(AsyncSpool.class))
+					.orElseGet(() -> m.getDeclaringClass().getAnnotation(AsyncSpool.class));
+			var jobName = asyncSpool.jobName();
+			if (jobName.isEmpty()) {
+				jobName = m.getDeclaringClass().getSimpleName() + "." + m.getName();
+			}
+			final var returnType = m.getReturnType();
+			final var returnVoid = returnType == void.class;
+			if (returnVoid == false
+				&& returnType.isAssignableFrom(CompletableFuture.class) == false) {
+				throw new IllegalStateException("Invalid return type for an @AsyncSpool method: " + m
+												+ ". It must be void, Future or CompletableFuture");
+			}
+			log.debug("Route async method {} to spool {}, P{}", jobName, asyncSpool.value(), asyncSpool.priority());
+			return new AsyncSpoolRoute(
+					new JobKitAsyncExecutor(jobKitEngine, asyncSpool.value(), asyncSpool.priority(), jobName),
+					returnVoid);
+		});
+	}
+
+	@Around("annotationAsyncSpool() || classAsyncSpool()")
+	public Object runOnSpool(final ProceedingJoinPoint joinPoint) {
+		final var route = getRoute(((MethodSignature) joinPoint.getSignature()).getMethod());
+		final var args = joinPoint.getArgs();
+		final var result = route.executor().submitCompletable(() -> {
+			final var value = proceed(joinPoint, args);
+			if (value instanceof final CompletionStage<?> stage) {
+				return stage.toCompletableFuture().get();
+			} else if (value instanceof final Future<?> future) {
+				return future.get();
+			}
+			return value;
+		});
+		if (route.returnVoid()) {
+			result.exceptionally(e -> {
+				log.error("Can't execute async method {}", route.executor().getJobName(), e);
+				return null;
+			});
+			return null;
+		}
+		return result;
+	}
+
+	private static Object proceed(final ProceedingJoinPoint joinPoint, final Object[] args) throws Exception {
+		try {
+			return joinPoint.proceed(args);
+		} catch (final Exception e) {
+			throw e;
+		} catch (final Throwable e) {// NOSONAR S1181
+			throw new ExecutionException(e);
+		}
+	}
+
+	@Pointcut("@annotation(tv.hd3g.jobkit.AsyncSpool)")
+	public void annotationAsyncSpool() {
+		/**
+		 *
+		 */
+	}
+
+	/**
+	 * Only public methods with an async compatible return type, the same as getRoute: getters, toString, equals,
+	 * or a method returning a Future subtype (like ScheduledFuture), run as usual.
+	 */
+	@Pointcut("@within(tv.hd3g.jobkit.AsyncSpool) && ("
+			  + "execution(public void *(..)) "
+			  + "|| execution(public java.util.concurrent.Future *(..)) "
+			  + "|| execution(public java.util.concurrent.CompletionStage *(..)) "
+			  + "|| execution(public java.util.concurrent.CompletableFuture *(..)))")
+	public void classAsyncSpool() {
+		/**
+		 *
+		 */
+	}
+}
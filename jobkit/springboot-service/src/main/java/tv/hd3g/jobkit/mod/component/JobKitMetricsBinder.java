@@ -0,0 +1,156 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.SpoolExecutor;
+import tv.hd3g.jobkit.engine.SpoolLatencySnapshot;
+import tv.hd3g.jobkit.engine.SpoolMetrics;
+import tv.hd3g.jobkit.engine.SpoolMetricsListener;
+
+/**
+ * Export the spools metrics to Micrometer, when a MeterRegistry is available (like with Spring Boot Actuator).
+ * Meters are created by spool, on its first started job, and only read the spool counters and histograms: the
+ * latencies are recorded one time, by the spool.
+ * Each bound MeterRegistry gets the meters of all the spools.
+ */
+@Component
+@Slf4j
+public class JobKitMetricsBinder implements MeterBinder, SpoolMetricsListener {
+	static final String QUEUE_LATENCY = "jobkit.spool.queue.latency";
+	static final String RUN_DURATION = "jobkit.spool.run.duration";
+	static final String PERCENTILE_SUFFIX = ".percentile";
+	static final String FAILED = "jobkit.spool.failed";
+	static final String QUEUE_SIZE = "jobkit.spool.queue.size";
+	static final String RUNNING = "jobkit.spool.running";
+	static final String SPOOL_TAG = "spool";
+	static final String PHI_TAG = "phi";
+
+	private static final Map<String, Function<SpoolLatencySnapshot, Duration>> PERCENTILES = Map.of(
+			"0.5", SpoolLatencySnapshot::p50,
+			"0.9", SpoolLatencySnapshot::p90,
+			"0.99", SpoolLatencySnapshot::p99);
+
+	@Autowired
+	private JobKitEngine jobKitEngine;
+
+	/**
+	 * Only changed with the lock
+	 */
+	private final Map<String, SpoolExecutor> spools = new ConcurrentHashMap<>();
+	/**
+	 * Only used with the lock
+	 */
+	private final List<MeterRegistry> registries = new ArrayList<>();
+
+	/**
+	 * Additive: the actual and next spools meters are registered on all the bound registries.
+	 * Bind again the same registry is ignored.
+	 */
+	@Override
+	public synchronized void bindTo(final MeterRegistry registry) {
+		Objects.requireNonNull(registry, "\"registry\" can't to be null");
+		if (registries.contains(registry)) {
+			log.debug("JobKit spools metrics are already bound to {}", registry);
+			return;
+		}
+		log.debug("Bind JobKit spools metrics to {}", registry);
+		registries.add(registry);
+		spools.values().forEach(spool -> register(spool, registry));
+		jobKitEngine.setSpoolMetricsListener(this);
+	}
+
+	private static void register(final SpoolExecutor spool, final MeterRegistry registry) {
+		final var tags = Tags.of(SPOOL_TAG, spool.getName());
+		Gauge.builder(QUEUE_SIZE, spool, SpoolExecutor::getQueueSize)
+				.tags(tags)
+				.description("Queued jobs, waiting to run")
+				.register(registry);
+		Gauge.builder(RUNNING, spool, SpoolExecutor::getRunningCount)
+				.tags(tags)
+				.description("Running jobs")
+				.register(registry);
+		FunctionTimer.builder(QUEUE_LATENCY, spool,
+				SpoolExecutor::getQueueLatencyCount, SpoolExecutor::getQueueLatencyTotalNanos, NANOSECONDS)
+				.tags(tags)
+				.description("Time between the job add to the queue and its start")
+				.register(registry);
+		FunctionTimer.builder(RUN_DURATION, spool,
+				SpoolExecutor::getRunDurationCount, SpoolExecutor::getRunDurationTotalNanos, NANOSECONDS)
+				.tags(tags)
+				.description("Job run time, without the before and after events")
+				.register(registry);
+		FunctionCounter.builder(FAILED, spool, SpoolExecutor::getFailedCount)
+				.tags(tags)
+				.description("Ended jobs with an error")
+				.register(registry);
+		registerPercentiles(spool, registry, tags, QUEUE_LATENCY, SpoolMetrics::queueLatency);
+		registerPercentiles(spool, registry, tags, RUN_DURATION, SpoolMetrics::runDuration);
+	}
+
+	/**
+	 * Computed from the spool histogram on each read.
+	 */
+	private static void registerPercentiles(final SpoolExecutor spool,
+											final MeterRegistry registry,
+											final Tags tags,
+											final String name,
+											final Function<SpoolMetrics, SpoolLatencySnapshot> histogram) {
+		PERCENTILES.forEach((phi, percentile) -> Gauge.builder(name + PERCENTILE_SUFFIX, spool,
+				s -> percentile.apply(histogram.apply(s.getMetrics())).toNanos() / 1_000_000_000d)
+				.tags(tags)
+				.tag(PHI_TAG, phi)
+				.baseUnit("seconds")
+				.register(registry));
+	}
+
+	/**
+	 * Only register the meters of a new spool: its values are read from the spool.
+	 */
+	@Override
+	public void onJobStarted(final SpoolExecutor spool, final Duration queueLatency) {
+		if (spools.containsKey(spool.getName())) {
+			return;
+		}
+		synchronized (this) {
+			if (spools.putIfAbsent(spool.getName(), spool) == null) {
+				registries.forEach(registry -> register(spool, registry));
+			}
+		}
+	}
+
+}
@@ -16,7 +16,10 @@
  */
 package tv.hd3g.jobkit.mod.component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -38,26 +41,28 @@ public class SupervisableAspect {
 	@Autowired
 	private SupervisableServiceSupplier supervisableServiceSupplier;
 
+	/**
+	 * Computed one time by method
+	 */
+	private final Map<Method, String> jobNames = new ConcurrentHashMap<>();
+
+	String getJobName(final Method method) {
+		return jobNames.computeIfAbsent(method, m -> {
+			final var jobName = m.getAnnotation(WithSupervisable.class).value();
+			if (jobName.isEmpty()) {
+				return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+			}
+			return jobName;
+		});
+	}
+
 	@Around("annotationWithSupervisable()")
 	public Object manageSupervisable(final ProceedingJoinPoint joinPoint) throws Throwable {
-		try {
-			Supervisable.getSupervisable();
+		if (Supervisable.hasSupervisable()) {
 			return joinPoint.proceed(joinPoint.getArgs());
-		} catch (final IllegalThreadStateException e) {
-			/**
-			 * Now, we will need to create it manually
-			 */
 		}
 
-		var jobName = ((MethodSignature) joinPoint.getSignature())
-				.getMethod()
-				.getAnnotation(WithSupervisable.class)
-				.value();
-		if (jobName.isEmpty()) {
-			jobName = joinPoint.getSignature().getDeclaringType().getSimpleName()
-					  + "."
-					  + joinPoint.getSignature().getName();
-		}
+		final var jobName = getJobName(((MethodSignature) joinPoint.getSignature()).getMethod());
 		final var supervisable = supervisableServiceSupplier.createAndStart(jobName);
 		try {
 			final var result = joinPoint.proceed(joinPoint.getArgs());
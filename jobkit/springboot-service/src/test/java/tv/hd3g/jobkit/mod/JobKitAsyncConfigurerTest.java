@@ -1,5 +1,7 @@
 package tv.hd3g.jobkit.mod;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -7,6 +9,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -52,6 +55,15 @@ class JobKitAsyncConfigurerTest {
 		verify(jobKitEngine, times(1)).runOneShot(
 		        startsWith("SpringBoot Async"), eq(POOL_NAME), eq(0),
 		        any(RunnableWithException.class), any());
+		verify(jobKitEngine, never()).setSpoolParallelism(POOL_NAME, 0);
+	}
+
+	@Test
+	void testGetAsyncExecutor_parallelism() {
+		jobKitAsyncConfigurer.parallelism = 4;
+		final var executor = assertInstanceOf(JobKitAsyncExecutor.class, jobKitAsyncConfigurer.getAsyncExecutor());
+		assertEquals(POOL_NAME, executor.getSpoolName());
+		verify(jobKitEngine, times(1)).setSpoolParallelism(POOL_NAME, 4);
 	}
 
 	@Test
@@ -0,0 +1,125 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.internal.verification.VerificationModeFactory.times;
+
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskRejectedException;
+
+import net.datafaker.Faker;
+import tv.hd3g.jobkit.engine.FlatJobKitEngine;
+import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.RunnableWithException;
+
+class JobKitAsyncExecutorTest {
+	static Faker faker = net.datafaker.Faker.instance();
+
+	@Mock
+	JobKitEngine jobKitEngine;
+
+	String spoolName;
+	String jobName;
+	int priority;
+	JobKitAsyncExecutor executor;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		spoolName = faker.numerify("spool###");
+		jobName = faker.numerify("job###");
+		priority = faker.random().nextInt(-10, 10);
+		executor = new JobKitAsyncExecutor(jobKitEngine, spoolName, priority, jobName);
+	}
+
+	@Test
+	void testGetters() {
+		assertEquals(spoolName, executor.getSpoolName());
+		assertEquals(priority, executor.getPriority());
+		assertEquals(jobName, executor.getJobName());
+	}
+
+	@Test
+	void testExecute() {
+		when(jobKitEngine.runOneShot(eq(jobName), eq(spoolName), eq(priority), any(RunnableWithException.class),
+				any())).thenReturn(true);
+		executor.execute(mock(Runnable.class));
+		verify(jobKitEngine, times(1)).runOneShot(eq(jobName), eq(spoolName), eq(priority),
+				any(RunnableWithException.class), any());
+	}
+
+	@Test
+	void testExecute_refused() {
+		when(jobKitEngine.runOneShot(eq(jobName), eq(spoolName), eq(priority), any(RunnableWithException.class),
+				any())).thenReturn(false);
+		final var task = mock(Runnable.class);
+		assertThrows(TaskRejectedException.class, () -> executor.execute(task));
+	}
+
+	@Test
+	void testExecute_shutdown() {
+		when(jobKitEngine.runOneShot(eq(jobName), eq(spoolName), eq(priority), any(RunnableWithException.class),
+				any())).thenThrow(new IllegalStateException());
+		final var task = mock(Runnable.class);
+		assertThrows(TaskRejectedException.class, () -> executor.execute(task));
+	}
+
+	@Test
+	void testSubmitCompletable() throws Exception {
+		executor = new JobKitAsyncExecutor(new FlatJobKitEngine(), spoolName, priority, jobName);
+		assertEquals("value", executor.submitCompletable(() -> "value").get(10, SECONDS));
+		assertEquals("value", executor.submit(() -> "value").get(10, SECONDS));
+
+		final var runned = mock(Runnable.class);
+		executor.submitCompletable(runned).get(10, SECONDS);
+		verify(runned, times(1)).run();
+	}
+
+	@Test
+	void testSubmitCompletable_error() {
+		executor = new JobKitAsyncExecutor(new FlatJobKitEngine(), spoolName, priority, jobName);
+		final var future = executor.submitCompletable(() -> {
+			throw new IllegalArgumentException("Test error");
+		});
+		assertTrue(future.isCompletedExceptionally());
+		final var e = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+	}
+
+	@Test
+	void testSubmitCompletable_shutdown() {
+		when(jobKitEngine.submit(eq(jobName), eq(spoolName), eq(priority), any(RunnableWithException.class)))
+				.thenThrow(new IllegalStateException());
+		assertThrows(TaskRejectedException.class, () -> executor.submitCompletable(() -> "value"));
+	}
+
+}
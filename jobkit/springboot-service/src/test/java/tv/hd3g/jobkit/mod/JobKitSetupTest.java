@@ -18,6 +18,7 @@ package tv.hd3g.jobkit.mod;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -35,6 +36,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
 import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.SupervisableManager;
 import tv.hd3g.jobkit.engine.watchdog.LimitedExecTimePolicy;
 import tv.hd3g.jobkit.engine.watchdog.LimitedServiceExecTimePolicy;
 import tv.hd3g.jobkit.engine.watchdog.MaxSpoolQueueSizePolicy;
@@ -46,6 +48,8 @@ class JobKitSetupTest {
 	ScheduledExecutorService scheduledExecutorService;
 	@Autowired
 	JobKitEngine jobKitEngine;
+	@Autowired
+	SupervisableManager supervisableManager;
 
 	@Test
 	void testGetScheduledExecutor() throws InterruptedException {
@@ -59,6 +63,46 @@ class JobKitSetupTest {
 		assertTrue(jobKitEngine.getJobKitWatchdog().getPolicies().isEmpty());
 	}
 
+	@Test
+	void testGetSupervisableManager_sync() {
+		assertFalse(supervisableManager.isAsyncEndEventConsumers());
+	}
+
+	@Test
+	void testGetJobKitEngine_noJournal() {
+		assertTrue(jobKitEngine.getSpoolJournal().isEmpty());
+	}
+
+	@SpringBootTest
+	@TestPropertySource(properties = { "jobkit.journal.directory=target/test-journal-JobKitSetupTest",
+									   "jobkit.journal.syncInterval=100ms" })
+	static class Journal {
+
+		@Autowired
+		JobKitEngine jobKitEngine;
+
+		@Test
+		void testGetJobKitEngine_journal() {
+			assertTrue(jobKitEngine.getSpoolJournal().isPresent());
+		}
+
+	}
+
+	@SpringBootTest
+	@TestPropertySource(properties = { "jobkit.supervisable.asyncEndEventsQueueSize=10",
+									   "jobkit.supervisable.asyncEndEventsOverflowPolicy=DROP_OLDEST" })
+	static class AsyncEndEvents {
+
+		@Autowired
+		SupervisableManager supervisableManager;
+
+		@Test
+		void testGetSupervisableManager_async() {
+			assertTrue(supervisableManager.isAsyncEndEventConsumers());
+		}
+
+	}
+
 	@SpringBootTest
 	@TestPropertySource(locations = "classpath:application-watchdogpolicies.yml")
 	static class Watchdog {
@@ -0,0 +1,117 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AsyncSpoolAspectTest {
+
+	@Autowired
+	TestWithAsyncSpool testWithAsyncSpool;
+	@Autowired
+	TestWithClassAsyncSpool testWithClassAsyncSpool;
+	@Autowired
+	AsyncSpoolAspect asyncSpoolAspect;
+
+	@Test
+	void testVoidMethod() throws Exception {
+		final var threadName = new AtomicReference<String>();
+		final var latch = new CountDownLatch(1);
+		testWithAsyncSpool.aVoidMethod(() -> {
+			threadName.set(Thread.currentThread().getName());
+			latch.countDown();
+		});
+		assertTrue(latch.await(10, SECONDS));
+		assertTrue(threadName.get().startsWith("SpoolExecutor #"));
+	}
+
+	@Test
+	void testFutureMethod() throws Exception {
+		final var result = testWithAsyncSpool.aFutureMethod("value").get(10, SECONDS);
+		assertTrue(result.startsWith("SpoolExecutor #"));
+		assertTrue(result.endsWith("/value"));
+	}
+
+	@Test
+	void testFailedFutureMethod() {
+		final var future = testWithAsyncSpool.aFailedFutureMethod();
+		final var e = assertThrows(ExecutionException.class, () -> future.get(10, SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+	}
+
+	@Test
+	void testInvalidMethod() {
+		assertThrows(IllegalStateException.class, () -> testWithAsyncSpool.anInvalidMethod());
+	}
+
+	@Test
+	void testClassAnnotation() throws Exception {
+		final var latch = new CountDownLatch(1);
+		final var threadName = new AtomicReference<String>();
+		testWithClassAsyncSpool.aVoidMethod(() -> {
+			threadName.set(Thread.currentThread().getName());
+			latch.countDown();
+		});
+		assertTrue(latch.await(10, SECONDS));
+		assertTrue(threadName.get().startsWith("SpoolExecutor #"));
+		assertTrue(testWithClassAsyncSpool.aFutureMethod().get(10, SECONDS).startsWith("SpoolExecutor #"));
+	}
+
+	@Test
+	void testClassAnnotation_notAsyncMethods() {
+		assertEquals(Thread.currentThread().getName(), testWithClassAsyncSpool.getThreadName());
+		assertEquals("TestWithClassAsyncSpool", testWithClassAsyncSpool.toString());
+		assertEquals(testWithClassAsyncSpool.hashCode(), testWithClassAsyncSpool.hashCode());
+		assertTrue(testWithClassAsyncSpool.equals(testWithClassAsyncSpool));
+	}
+
+	@Test
+	void testClassAnnotation_futureSubtype() throws Exception {
+		assertEquals(Thread.currentThread().getName(),
+				testWithClassAsyncSpool.aFutureTaskMethod().get(10, SECONDS));
+	}
+
+	@Test
+	void testGetRoute() throws NoSuchMethodException {
+		final var method = TestWithAsyncSpool.class.getDeclaredMethod("aFutureMethod", String.class);
+		final var route = asyncSpoolAspect.getRoute(method);
+		assertSame(route, asyncSpoolAspect.getRoute(method));
+		assertEquals("asyncspooltest2", route.executor().getSpoolName());
+		assertEquals(5, route.executor().getPriority());
+		assertEquals("jobkitasynctest", route.executor().getJobName());
+
+		final var voidRoute = asyncSpoolAspect.getRoute(
+				TestWithAsyncSpool.class.getDeclaredMethod("aVoidMethod", Runnable.class));
+		assertTrue(voidRoute.returnVoid());
+		assertEquals("TestWithAsyncSpool.aVoidMethod", voidRoute.executor().getJobName());
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.FAILED;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.PERCENTILE_SUFFIX;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.PHI_TAG;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.QUEUE_LATENCY;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.QUEUE_SIZE;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.RUNNING;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.RUN_DURATION;
+import static tv.hd3g.jobkit.mod.component.JobKitMetricsBinder.SPOOL_TAG;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.datafaker.Faker;
+import tv.hd3g.jobkit.engine.JobKitEngine;
+import tv.hd3g.jobkit.engine.SpoolExecutor;
+import tv.hd3g.jobkit.engine.SpoolLatencySnapshot;
+import tv.hd3g.jobkit.engine.SpoolMetrics;
+
+@SpringBootTest
+class JobKitMetricsBinderTest {
+	static Faker faker = net.datafaker.Faker.instance();
+
+	@MockBean
+	JobKitEngine jobKitEngine;
+	@Autowired
+	JobKitMetricsBinder binder;
+
+	@Mock
+	SpoolExecutor spool;
+
+	SimpleMeterRegistry registry;
+	String spoolName;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		registry = new SimpleMeterRegistry();
+		spoolName = faker.numerify("spool###");
+		when(spool.getName()).thenReturn(spoolName);
+		when(spool.getQueueSize()).thenReturn(3);
+		when(spool.getRunningCount()).thenReturn(1);
+		when(spool.getQueueLatencyCount()).thenReturn(2L);
+		when(spool.getQueueLatencyTotalNanos()).thenReturn(Duration.ofMillis(40).toNanos());
+		when(spool.getRunDurationCount()).thenReturn(3L);
+		when(spool.getRunDurationTotalNanos()).thenReturn(Duration.ofMillis(60).toNanos());
+		when(spool.getFailedCount()).thenReturn(2L);
+		final var latency = new SpoolLatencySnapshot(2, Duration.ofMillis(20), Duration.ofMillis(10),
+				Duration.ofMillis(30), Duration.ofMillis(30), Duration.ofMillis(30));
+		final var duration = new SpoolLatencySnapshot(3, Duration.ofMillis(20), Duration.ofMillis(20),
+				Duration.ofMillis(30), Duration.ofMillis(30), Duration.ofMillis(30));
+		when(spool.getMetrics()).thenReturn(new SpoolMetrics(spoolName, 3, 1, 2, 1, 2, latency, duration));
+
+		reset(jobKitEngine);
+		binder.bindTo(registry);
+		verify(jobKitEngine, only()).setSpoolMetricsListener(binder);
+	}
+
+	@AfterEach
+	void end() {
+		verifyNoMoreInteractions(jobKitEngine);
+	}
+
+	@Test
+	void testOnJobStarted() {
+		binder.onJobStarted(spool, Duration.ofMillis(10));
+		binder.onJobStarted(spool, Duration.ofMillis(30));
+
+		final var queueLatency = registry.get(QUEUE_LATENCY).tag(SPOOL_TAG, spoolName).functionTimer();
+		assertEquals(2, queueLatency.count(), 0.1d);
+		assertEquals(40, queueLatency.totalTime(MILLISECONDS), 0.1d);
+		final var runDuration = registry.get(RUN_DURATION).tag(SPOOL_TAG, spoolName).functionTimer();
+		assertEquals(3, runDuration.count(), 0.1d);
+		assertEquals(60, runDuration.totalTime(MILLISECONDS), 0.1d);
+		assertEquals(2, registry.get(FAILED).tag(SPOOL_TAG, spoolName).functionCounter().count(), 0.1d);
+		assertEquals(3, registry.get(QUEUE_SIZE).tag(SPOOL_TAG, spoolName).gauge().value(), 0.1d);
+		assertEquals(1, registry.get(RUNNING).tag(SPOOL_TAG, spoolName).gauge().value(), 0.1d);
+		assertEquals(0.01d, registry.get(QUEUE_LATENCY + PERCENTILE_SUFFIX)
+				.tags(SPOOL_TAG, spoolName, PHI_TAG, "0.5").gauge().value(), 0.0001d);
+		assertEquals(0.03d, registry.get(RUN_DURATION + PERCENTILE_SUFFIX)
+				.tags(SPOOL_TAG, spoolName, PHI_TAG, "0.99").gauge().value(), 0.0001d);
+	}
+
+	@Test
+	void testBindTo_sameRegistry() {
+		binder.bindTo(registry);
+		binder.onJobStarted(spool, Duration.ofMillis(10));
+		assertEquals(1, registry.get(QUEUE_LATENCY).tag(SPOOL_TAG, spoolName).functionTimers().size());
+	}
+
+	@Test
+	void testBindTo_additive() {
+		binder.onJobStarted(spool, Duration.ofMillis(10));
+		final var otherRegistry = new SimpleMeterRegistry();
+		binder.bindTo(otherRegistry);
+		verify(jobKitEngine, times(2)).setSpoolMetricsListener(binder);
+
+		assertEquals(2, otherRegistry.get(QUEUE_LATENCY).tag(SPOOL_TAG, spoolName).functionTimer().count(), 0.1d);
+		assertEquals(2, registry.get(QUEUE_LATENCY).tag(SPOOL_TAG, spoolName).functionTimer().count(), 0.1d);
+	}
+
+}
@@ -16,6 +16,8 @@
  */
 package tv.hd3g.jobkit.mod.component;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
@@ -49,6 +51,8 @@ class SupervisableAspectTest {
 	TestWithSupervisable testWithSupervisable;
 	@Autowired
 	JobKitEngine jobKitEngine;
+	@Autowired
+	SupervisableAspect supervisableAspect;
 	@Mock
 	Supervisable supervisable;
 	@MockBean
@@ -88,6 +92,18 @@ class SupervisableAspectTest {
 		verify(supervisableServiceSupplier, times(1)).end(supervisable, Optional.empty());
 	}
 
+	@Test
+	void testGetJobName() throws NoSuchMethodException {
+		final var method = TestWithSupervisable.class
+				.getDeclaredMethod("aSupervisableMethod", RunnableWithException.class);
+		final var jobName = supervisableAspect.getJobName(method);
+		assertEquals("TestWithSupervisable.aSupervisableMethod", jobName);
+		assertSame(jobName, supervisableAspect.getJobName(method));
+
+		assertEquals("jobkittest", supervisableAspect.getJobName(TestWithSupervisable.class
+				.getDeclaredMethod("aSupervisableMethodWithName", RunnableWithException.class)));
+	}
+
 	@Test
 	void testWithout() throws Exception {
 		testWithSupervisable.aNoSupervisableMethod(() -> {
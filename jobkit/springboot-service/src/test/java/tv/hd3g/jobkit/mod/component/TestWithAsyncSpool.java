@@ -0,0 +1,48 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import tv.hd3g.jobkit.AsyncSpool;
+
+@Component
+public class TestWithAsyncSpool {
+
+	@AsyncSpool("asyncspooltest")
+	void aVoidMethod(final Runnable toTest) {
+		toTest.run();
+	}
+
+	@AsyncSpool(value = "asyncspooltest2", priority = 5, jobName = "jobkitasynctest")
+	CompletableFuture<String> aFutureMethod(final String value) {
+		return CompletableFuture.completedFuture(Thread.currentThread().getName() + "/" + value);
+	}
+
+	@AsyncSpool("asyncspooltest2")
+	CompletableFuture<String> aFailedFutureMethod() {
+		throw new IllegalArgumentException("Test error");
+	}
+
+	@AsyncSpool("asyncspooltest")
+	String anInvalidMethod() {
+		return "";
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of jobkit.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.mod.component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.stereotype.Component;
+
+import tv.hd3g.jobkit.AsyncSpool;
+
+@Component
+@AsyncSpool("asyncspooltest")
+public class TestWithClassAsyncSpool {
+
+	public void aVoidMethod(final Runnable toTest) {
+		toTest.run();
+	}
+
+	public CompletableFuture<String> aFutureMethod() {
+		return CompletableFuture.completedFuture(Thread.currentThread().getName());
+	}
+
+	public FutureTask<String> aFutureTaskMethod() {
+		final var task = new FutureTask<>(() -> Thread.currentThread().getName());
+		task.run();
+		return task;
+	}
+
+	public String getThreadName() {
+		return Thread.currentThread().getName();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
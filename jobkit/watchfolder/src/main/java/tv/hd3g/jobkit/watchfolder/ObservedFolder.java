@@ -28,8 +28,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.UnaryOperator;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.EqualsAndHashCode.Include;
 import lombok.Getter;
@@ -67,8 +69,25 @@ public class ObservedFolder {
 	private boolean allowedLinks;
 	private boolean recursive;
 	private Duration minFixedStateTime;
+	/**
+	 * Only for local (file://) folders: use file system events between two full scans.
+	 */
+	private boolean fileSystemEvents;
+	/**
+	 * With fileSystemEvents, time between two full scans (default: 1 hour).
+	 */
+	private Duration fullScanInterval;
+	/**
+	 * Max directories listed in the same time during a recursive scan (default: 1, no parallel scans).
+	 * Always 1 with FTP.
+	 */
+	private int scanParallelism;
 	@Include
 	private boolean disabled;
+	@JsonIgnore
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.NONE)
+	private ObservedFolderFilter filter;
 
 	private static final UnaryOperator<String> removeFirstDot = ext -> {
 		if (ext.startsWith(".")) {
@@ -108,6 +127,8 @@ public class ObservedFolder {
 		allowedDirNames = Optional.ofNullable(allowedDirNames).orElse(Set.of());
 		blockedFileNames = Optional.ofNullable(blockedFileNames).orElse(Set.of());
 		blockedDirNames = Optional.ofNullable(blockedDirNames).orElse(Set.of());
+		fullScanInterval = Optional.ofNullable(fullScanInterval).orElse(Duration.ofHours(1));
+		scanParallelism = Math.max(1, scanParallelism);
 		internalPostConfiguration();
 
 		Objects.requireNonNull(targetFolder, "Null targetFolder");
@@ -161,6 +182,7 @@ public class ObservedFolder {
 				.collect(toUnmodifiableSet());
 		blockedDirNames = Optional.ofNullable(blockedDirNames).orElse(Set.of()).stream()
 				.collect(toUnmodifiableSet());
+		filter = new ObservedFolderFilter(this);
 	}
 
 	protected void internalPostConfiguration() {
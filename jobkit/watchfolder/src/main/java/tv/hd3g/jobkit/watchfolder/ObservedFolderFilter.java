@@ -0,0 +1,173 @@
+/*
+ * This file is part of jobkit-watchfolder.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.watchfolder;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * ObservedFolder name and path rules, compiled one time by postConfiguration.
+ * Immutable and thread safe.
+ */
+final class ObservedFolderFilter {
+
+	private final Set<String> ignoreFiles;
+	private final Set<String> allowedExtentions;
+	private final Set<String> blockedExtentions;
+	private final Set<String> ignoreRelativePaths;
+	private final WildcardNames allowedFileNames;
+	private final WildcardNames allowedDirNames;
+	private final WildcardNames blockedFileNames;
+	private final WildcardNames blockedDirNames;
+
+	/**
+	 * @param observedFolder with normalized (lower case, without dot) extensions and lower case ignoreFiles
+	 */
+	ObservedFolderFilter(final ObservedFolder observedFolder) {
+		ignoreFiles = Set.copyOf(observedFolder.getIgnoreFiles());
+		allowedExtentions = Set.copyOf(observedFolder.getAllowedExtentions());
+		blockedExtentions = Set.copyOf(observedFolder.getBlockedExtentions());
+		ignoreRelativePaths = Set.copyOf(observedFolder.getIgnoreRelativePaths());
+		allowedFileNames = WildcardNames.compile(observedFolder.getAllowedFileNames());
+		allowedDirNames = WildcardNames.compile(observedFolder.getAllowedDirNames());
+		blockedFileNames = WildcardNames.compile(observedFolder.getBlockedFileNames());
+		blockedDirNames = WildcardNames.compile(observedFolder.getBlockedDirNames());
+	}
+
+	/**
+	 * Don't check hidden, links and special files here.
+	 * @param name file name, like "file.ext"
+	 * @param path relative path, like "/dir/file.ext"
+	 */
+	boolean isAccepted(final String name, final String path, final boolean directory) {
+		final var lowerCaseName = name.toLowerCase();
+		if (ignoreFiles.contains(lowerCaseName)) {
+			return false;
+		}
+		if (directory == false
+			&& (allowedExtentions.isEmpty() == false && containExtension(lowerCaseName, allowedExtentions) == false
+				|| containExtension(lowerCaseName, blockedExtentions))) {
+			return false;
+		}
+		if (ignoreRelativePaths.contains(path)) {
+			return false;
+		}
+		if (directory) {
+			return isAllowedNotBlocked(name, allowedDirNames, blockedDirNames);
+		}
+		return isAllowedNotBlocked(name, allowedFileNames, blockedFileNames);
+	}
+
+	private static boolean isAllowedNotBlocked(final String name,
+											   final WildcardNames allowed,
+											   final WildcardNames blocked) {
+		if (allowed != null) {
+			return allowed.test(name);
+		} else if (blocked != null) {
+			return blocked.test(name) == false;
+		}
+		return true;
+	}
+
+	/**
+	 * Same result as WatchedFileScanner.containExtension, without iterate on all extensions:
+	 * only one lookup by dot in the name ("a.tar.gz" look for "tar.gz" and "gz").
+	 * @param lowerCaseName the name, already in lower case
+	 */
+	static boolean containExtension(final String lowerCaseName, final Set<String> extensions) {
+		if (extensions.isEmpty()) {
+			return false;
+		}
+		for (var pos = lowerCaseName.indexOf('.'); pos > -1; pos = lowerCaseName.indexOf('.', pos + 1)) {
+			if (extensions.contains(lowerCaseName.substring(pos + 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Same behavior as commons-io wildcardMatch (case sensitive, with "*" and "?").
+	 * Names without wildcards are checked in a Set, all the others in a single precompiled Pattern.
+	 */
+	record WildcardNames(Set<String> literals, Pattern pattern) implements Predicate<String> {
+
+		/**
+		 * @return null if wildcards is empty
+		 */
+		static WildcardNames compile(final Set<String> wildcards) {
+			if (wildcards.isEmpty()) {
+				return null;
+			}
+			final var literals = wildcards.stream()
+					.filter(w -> isWildcard(w) == false)
+					.collect(toUnmodifiableSet());
+			final var regex = wildcards.stream()
+					.filter(WildcardNames::isWildcard)
+					.sorted()
+					.map(WildcardNames::toRegex)
+					.collect(joining("|"));
+			if (regex.isEmpty()) {
+				return new WildcardNames(literals, null);
+			}
+			return new WildcardNames(literals, Pattern.compile(regex, Pattern.DOTALL));
+		}
+
+		private static boolean isWildcard(final String wildcard) {
+			return wildcard.indexOf('*') > -1 || wildcard.indexOf('?') > -1;
+		}
+
+		static String toRegex(final String wildcard) {
+			final var regex = new StringBuilder("(?:");
+			var literalStart = 0;
+			for (var pos = 0; pos < wildcard.length(); pos++) {
+				final var chr = wildcard.charAt(pos);
+				if (chr != '*' && chr != '?') {
+					continue;
+				}
+				if (literalStart < pos) {
+					regex.append(Pattern.quote(wildcard.substring(literalStart, pos)));
+				}
+				if (chr == '?') {
+					regex.append('.');
+				} else if (regex.charAt(regex.length() - 1) != '*') {
+					/**
+					 * "**" is like "*"
+					 */
+					regex.append(".*");
+				}
+				literalStart = pos + 1;
+			}
+			if (literalStart < wildcard.length()) {
+				regex.append(Pattern.quote(wildcard.substring(literalStart)));
+			}
+			return regex.append(')').toString();
+		}
+
+		@Override
+		public boolean test(final String name) {
+			return literals.contains(name)
+				   || pattern != null && pattern.matcher(name).matches();
+		}
+
+	}
+
+}
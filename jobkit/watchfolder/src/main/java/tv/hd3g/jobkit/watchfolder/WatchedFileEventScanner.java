@@ -0,0 +1,319 @@
+/*
+ * This file is part of jobkit-watchfolder.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.watchfolder;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import lombok.extern.slf4j.Slf4j;
+import tv.hd3g.transfertfiles.AbstractFileSystemURL;
+import tv.hd3g.transfertfiles.CachedFileAttributes;
+import tv.hd3g.transfertfiles.local.LocalFile;
+
+/**
+ * For local (file://) ObservedFolders: keep the last scan result in memory, and only update it with the
+ * file system events (WatchService) between two full scans.
+ * A full scan is done on the first scan, on an event overflow, and after each fullScanInterval.
+ * Fallback to full scans only if the file system events can't be used.
+ * Not thread safe
+ */
+@Slf4j
+class WatchedFileEventScanner {
+
+	private final WatchedFileScanner scanner;
+	private final ObservedFolder observedFolder;
+	private final long fullScanIntervalMs;
+	/**
+	 * By relative path
+	 */
+	private final TreeMap<String, CachedFileAttributes> detected;
+	private final Map<Path, WatchKey> watchedDirs;
+	private WatchService watchService;
+	private Path rootPath;
+	private long lastFullScan;
+	private boolean needFullScan;
+	private boolean eventsDisabled;
+
+	WatchedFileEventScanner(final WatchedFileScanner scanner, final ObservedFolder observedFolder) {
+		this.scanner = scanner;
+		this.observedFolder = observedFolder;
+		fullScanIntervalMs = observedFolder.getFullScanInterval().toMillis();
+		detected = new TreeMap<>();
+		watchedDirs = new HashMap<>();
+		needFullScan = true;
+	}
+
+	List<CachedFileAttributes> scan(final AbstractFileSystemURL fileSystem) {
+		final var root = fileSystem.getRootPath();
+		if (eventsDisabled || root instanceof LocalFile == false) {
+			return scanner.scan(fileSystem);
+		}
+
+		if (watchService != null
+			&& needFullScan == false
+			&& System.currentTimeMillis() - lastFullScan < fullScanIntervalMs) {
+			applyEvents(fileSystem);
+		}
+		if (watchService == null || needFullScan || System.currentTimeMillis() - lastFullScan >= fullScanIntervalMs) {
+			fullScan(fileSystem, ((LocalFile) root).getInternalFile().toPath());
+		}
+		if (eventsDisabled) {
+			return scanner.scan(fileSystem);
+		}
+		return List.copyOf(detected.values());
+	}
+
+	private void fullScan(final AbstractFileSystemURL fileSystem, final Path root) {
+		log.debug("Full scan for {}", observedFolder.getLabel());
+		if (watchService == null) {
+			try {
+				watchService = root.getFileSystem().newWatchService();
+			} catch (final IOException | UnsupportedOperationException e) {
+				disableEvents(e);
+				return;
+			}
+			rootPath = root;
+		} else {
+			/**
+			 * Pending events are now useless: this scan will see them.
+			 */
+			WatchKey key;
+			while ((key = watchService.poll()) != null) {
+				key.pollEvents();
+				if (key.reset() == false) {
+					watchedDirs.remove(key.watchable());
+				}
+			}
+		}
+
+		/**
+		 * The root and the already known directories are watched during the listing.
+		 */
+		register(rootPath);
+		if (eventsDisabled) {
+			return;
+		}
+
+		lastFullScan = System.currentTimeMillis();
+		needFullScan = false;
+		detected.clear();
+		scanner.scan(fileSystem).forEach(f -> detected.put(f.getPath(), f));
+
+		final var actualDirs = detected.values().stream()
+				.filter(CachedFileAttributes::isDirectory)
+				.filter(f -> getLevel(f.getPath()) <= scanner.getMaxDeep())
+				.toList();
+		final var actualDirPaths = new HashSet<Path>();
+		actualDirPaths.add(rootPath);
+		actualDirs.forEach(f -> actualDirPaths.add(toAbsolutePath(f.getPath())));
+		watchedDirs.entrySet().removeIf(entry -> {
+			if (actualDirPaths.contains(entry.getKey())) {
+				return false;
+			}
+			entry.getValue().cancel();
+			return true;
+		});
+		actualDirs.forEach(this::watchNewDirectory);
+	}
+
+	private void applyEvents(final AbstractFileSystemURL fileSystem) {
+		/**
+		 * Many events can be sent for the same file (like during a copy): only check it one time
+		 */
+		final var changed = new LinkedHashSet<Path>();
+		WatchKey key;
+		while ((key = watchService.poll()) != null) {
+			final var dir = (Path) key.watchable();
+			for (final var event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					log.debug("Too many file system events for {}, a full scan is needed", observedFolder.getLabel());
+					needFullScan = true;
+				} else {
+					changed.add(dir.resolve((Path) event.context()));
+				}
+			}
+			if (key.reset() == false) {
+				watchedDirs.remove(dir);
+			}
+		}
+		if (needFullScan) {
+			return;
+		}
+		log.trace("File system events for {}: {}", observedFolder.getLabel(), changed);
+		changed.forEach(path -> onChange(fileSystem, path));
+	}
+
+	private void onChange(final AbstractFileSystemURL fileSystem, final Path path) {
+		final var relativePath = toRelativePath(path);
+		final var level = getLevel(relativePath);
+
+		CachedFileAttributes file = null;
+		if (level - 1 <= scanner.getMaxDeep()) {
+			try {
+				file = new CachedFileAttributes(fileSystem.getFromPath(relativePath));
+			} catch (final UncheckedIOException | IllegalArgumentException e) {
+				log.debug("Can't access to {}", path, e);
+			}
+		}
+		if (file == null || file.exists() == false || scanner.isAccepted(file) == false) {
+			remove(relativePath, path);
+			return;
+		}
+
+		final var wasKnown = detected.put(relativePath, file) != null;
+		if (file.isDirectory() && wasKnown == false && level <= scanner.getMaxDeep()) {
+			watchNewDirectory(file);
+		}
+	}
+
+	/**
+	 * Register a listed directory, then list it again: files can be added in it before its watch registration.
+	 * Recursive on its sub directories not yet watched.
+	 */
+	private void watchNewDirectory(final CachedFileAttributes dir) {
+		final var relativePath = dir.getPath();
+		final var path = toAbsolutePath(relativePath);
+		if (detected.containsKey(relativePath) == false || watchedDirs.containsKey(path)) {
+			return;
+		}
+		register(path);
+		if (watchedDirs.containsKey(path) == false) {
+			return;
+		}
+
+		final var listed = scanner.scan(dir.getAbstractFile(), 0);
+		final var listedPaths = listed.stream()
+				.map(CachedFileAttributes::getPath)
+				.collect(toUnmodifiableSet());
+		final var childLevel = getLevel(relativePath) + 1;
+		detected.subMap(relativePath + "/", relativePath + "/￿").keySet().stream()
+				.filter(p -> getLevel(p) == childLevel && listedPaths.contains(p) == false)
+				.toList()
+				.forEach(p -> remove(p, toAbsolutePath(p)));
+		listed.forEach(f -> detected.put(f.getPath(), f));
+		listed.stream()
+				.filter(CachedFileAttributes::isDirectory)
+				.filter(f -> childLevel <= scanner.getMaxDeep())
+				.forEach(this::watchNewDirectory);
+	}
+
+	/**
+	 * Remove this file, or this directory with all its content
+	 */
+	private void remove(final String relativePath, final Path path) {
+		if (detected.remove(relativePath) == null) {
+			return;
+		}
+		detected.subMap(relativePath + "/", relativePath + "/￿").clear();
+		watchedDirs.entrySet().removeIf(entry -> {
+			if (entry.getKey().startsWith(path) == false) {
+				return false;
+			}
+			entry.getValue().cancel();
+			return true;
+		});
+	}
+
+	private void register(final Path dir) {
+		if (watchService == null || watchedDirs.containsKey(dir)) {
+			return;
+		}
+		try {
+			watchedDirs.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+		} catch (final NoSuchFileException e) {
+			/**
+			 * Deleted after its listing: its parent directory event will remove it.
+			 */
+			log.debug("Can't watch a deleted directory {}", dir);
+		} catch (final IOException e) {
+			disableEvents(e);
+		}
+	}
+
+	private void disableEvents(final Exception cause) {
+		log.warn("Can't use file system events for {}, only full scans will be used", observedFolder.getLabel(),
+				cause);
+		eventsDisabled = true;
+		close();
+	}
+
+	/**
+	 * Next scans will start with a full scan
+	 */
+	void close() {
+		watchedDirs.clear();
+		detected.clear();
+		needFullScan = true;
+		if (watchService == null) {
+			return;
+		}
+		try {
+			watchService.close();
+		} catch (final IOException e) {
+			log.warn("Can't close WatchService for {}", observedFolder.getLabel(), e);
+		}
+		watchService = null;
+	}
+
+	boolean isEventsDisabled() {
+		return eventsDisabled;
+	}
+
+	Set<Path> getWatchedDirs() {
+		return watchedDirs.keySet();
+	}
+
+	private String toRelativePath(final Path path) {
+		return "/" + rootPath.relativize(path).toString().replace('\\', '/');
+	}
+
+	private Path toAbsolutePath(final String relativePath) {
+		return rootPath.resolve(relativePath.substring(1));
+	}
+
+	/**
+	 * @return 1 for "/file", 2 for "/dir/file"...
+	 */
+	private static int getLevel(final String relativePath) {
+		var level = 0;
+		for (var pos = 0; pos < relativePath.length(); pos++) {
+			if (relativePath.charAt(pos) == '/') {
+				level++;
+			}
+		}
+		return level;
+	}
+
+}
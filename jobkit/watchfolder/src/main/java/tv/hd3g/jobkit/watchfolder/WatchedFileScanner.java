@@ -17,22 +17,27 @@
 package tv.hd3g.jobkit.watchfolder;
 
 import static java.util.stream.Collectors.joining;
-import static org.apache.commons.io.FilenameUtils.wildcardMatch;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import tv.hd3g.transfertfiles.AbstractFile;
 import tv.hd3g.transfertfiles.AbstractFileSystemURL;
 import tv.hd3g.transfertfiles.CachedFileAttributes;
+import tv.hd3g.transfertfiles.ftp.FTPFileSystem;
 
 @Slf4j
 public class WatchedFileScanner {
@@ -70,60 +75,58 @@ public class WatchedFileScanner {
 	public List<CachedFileAttributes> scan(final AbstractFileSystemURL fileSystem) {
 		final var detected = new ArrayList<CachedFileAttributes>();
 		log.debug("Start scan {} to {}", observedFolder, fileSystem);
-		actualScan(fileSystem.getRootPath(), maxDeep, detected);
+		final var scanParallelism = getScanParallelism(fileSystem);
+		if (scanParallelism > 1 && maxDeep > 0) {
+			parallelScan(fileSystem.getRootPath(), scanParallelism, detected);
+		} else {
+			actualScan(fileSystem.getRootPath(), maxDeep, detected);
+		}
 		return detected;
 	}
 
+	/**
+	 * @return the max directories to list in the same time, capped by the FileSystem type.
+	 */
+	int getScanParallelism(final AbstractFileSystemURL fileSystem) {
+		if (fileSystem.getFileSystem() instanceof FTPFileSystem) {
+			/**
+			 * Only one control connection by FTP FileSystem, it can't list two directories at the same time.
+			 */
+			return 1;
+		}
+		return observedFolder.getScanParallelism();
+	}
+
+	/**
+	 * Scan only a sub directory, like scan() do it.
+	 * @param deep remaining sub directory levels to scan, 0 for only scan this directory content
+	 */
+	List<CachedFileAttributes> scan(final AbstractFile directory, final int deep) {
+		final var detected = new ArrayList<CachedFileAttributes>();
+		actualScan(directory, deep, detected);
+		return detected;
+	}
+
+	/**
+	 * Check all the ObservedFolder rules for this file or directory, but not for its parent directories.
+	 */
+	boolean isAccepted(final CachedFileAttributes f) {
+		if (observedFolder.isAllowedHidden() == false && (f.isHidden() || f.getName().startsWith("."))
+			|| observedFolder.isAllowedLinks() == false && f.isLink()
+			|| f.isDirectory() == false && f.isSpecial()) {
+			return false;
+		}
+		return observedFolder.getFilter().isAccepted(f.getName(), f.getPath(), f.isDirectory());
+	}
+
 	/**
 	 * Recursive
 	 */
 	private void actualScan(final AbstractFile aSource,
 							final int deep,
 							final Collection<CachedFileAttributes> detected) {
-		final var ignoreFiles = observedFolder.getIgnoreFiles();
-		final var allowedHidden = observedFolder.isAllowedHidden();
-		final var allowedLinks = observedFolder.isAllowedLinks();
-		final var allowedExtentions = observedFolder.getAllowedExtentions();
-		final var blockedExtentions = observedFolder.getBlockedExtentions();
-		final var ignoreRelativePaths = observedFolder.getIgnoreRelativePaths();
-
-		final var result = aSource.toCachedList()
-				.peek(f -> log.trace("Detect file={}", f))// NOSONAR S3864
-				.filter(f -> ignoreFiles.contains(f.getName().toLowerCase()) == false)
-				.filter(f -> (allowedHidden == false && (f.isHidden() || f.getName().startsWith("."))) == false)
-				.filter(f -> (allowedLinks == false && f.isLink()) == false)
-				.filter(f -> {
-					if (f.isDirectory()) {
-						return true;
-					} else if (allowedExtentions.isEmpty() == false) {
-						return containExtension(f.getName(), allowedExtentions);
-					}
-					return true;
-				})
-				.filter(f -> {
-					if (f.isDirectory()) {
-						return true;
-					}
-					return containExtension(f.getName(), blockedExtentions) == false;
-				})
-				.filter(f -> {
-					if (ignoreRelativePaths.isEmpty()) {
-						return true;
-					}
-					return ignoreRelativePaths.contains(f.getPath()) == false;
-				})
-				.filter(this::checkAllowedNotBlocked)
-				.filter(f -> f.isDirectory() || f.isSpecial() == false)
-				.toList();
-
+		final var result = listDirectory(aSource, deep);
 		detected.addAll(result);
-
-		log.debug("Scanned files/dirs for \"" + aSource.getPath() + "\" (deep " + deep + "): "
-				  + result.stream()
-						  .map(CachedFileAttributes::getName)
-						  .sorted()
-						  .collect(joining(", "))
-				  + " on \"" + aSource.getFileSystem().toString() + "\"");
 		if (deep > 0) {
 			result.stream()
 					.filter(CachedFileAttributes::isDirectory)
@@ -131,28 +134,86 @@ public class WatchedFileScanner {
 		}
 	}
 
-	private boolean checkAllowedNotBlocked(final CachedFileAttributes detectedFile) {
-		final var name = detectedFile.getName();
-		if (detectedFile.isDirectory()) {
-			final var allowedDirNames = observedFolder.getAllowedDirNames();
-			if (allowedDirNames.isEmpty() == false) {
-				return allowedDirNames.stream().anyMatch(w -> wildcardMatch(name, w));
-			}
-			final var blockedDirNames = observedFolder.getBlockedDirNames();
-			if (blockedDirNames.isEmpty() == false) {
-				return blockedDirNames.stream().noneMatch(w -> wildcardMatch(name, w));
-			}
-		} else {
-			final var allowedFileNames = observedFolder.getAllowedFileNames();
-			if (allowedFileNames.isEmpty() == false) {
-				return allowedFileNames.stream().anyMatch(w -> wildcardMatch(name, w));
+	/**
+	 * List directories level by level, with a bounded concurrency, then put results in the same order as actualScan.
+	 */
+	private void parallelScan(final AbstractFile root,
+							  final int scanParallelism,
+							  final Collection<CachedFileAttributes> detected) {
+		final var listingsByPath = new HashMap<String, List<CachedFileAttributes>>();
+		final var threadFactory = Thread.ofVirtual().name("WatchfolderScan-" + observedFolder.getLabel() + "-", 0)
+				.factory();
+
+		try (var executor = Executors.newFixedThreadPool(scanParallelism, threadFactory)) {
+			var directories = List.of(root);
+			var deep = maxDeep;
+			while (directories.isEmpty() == false) {
+				final var currentDeep = deep;
+				final var listings = directories.stream()
+						.map(d -> executor.submit(() -> listDirectory(d, currentDeep)))
+						.toList();
+
+				final var nextDirectories = new ArrayList<AbstractFile>();
+				for (var pos = 0; pos < directories.size(); pos++) {
+					final var result = getListing(listings.get(pos));
+					listingsByPath.put(directories.get(pos).getPath(), result);
+					if (currentDeep > 0) {
+						result.stream()
+								.filter(CachedFileAttributes::isDirectory)
+								.map(CachedFileAttributes::getAbstractFile)
+								.forEach(nextDirectories::add);
+					}
+				}
+				directories = nextDirectories;
+				deep--;
 			}
-			final var blockedFileNames = observedFolder.getBlockedFileNames();
-			if (blockedFileNames.isEmpty() == false) {
-				return blockedFileNames.stream().noneMatch(w -> wildcardMatch(name, w));
+		}
+		addListings(root.getPath(), listingsByPath, detected);
+	}
+
+	private List<CachedFileAttributes> getListing(final Future<List<CachedFileAttributes>> listing) {
+		try {
+			return listing.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted scan for " + observedFolder, e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof final UncheckedIOException cause) {
+				throw cause;
 			}
+			throw new IllegalStateException("Can't scan " + observedFolder, e.getCause());
+		}
+	}
+
+	/**
+	 * Recursive, depth-first like actualScan
+	 */
+	private static void addListings(final String path,
+									final Map<String, List<CachedFileAttributes>> listingsByPath,
+									final Collection<CachedFileAttributes> detected) {
+		final var result = listingsByPath.get(path);
+		if (result == null) {
+			return;
 		}
-		return true;
+		detected.addAll(result);
+		result.stream()
+				.filter(CachedFileAttributes::isDirectory)
+				.forEach(f -> addListings(f.getPath(), listingsByPath, detected));
+	}
+
+	private List<CachedFileAttributes> listDirectory(final AbstractFile aSource, final int deep) {
+		final var result = aSource.toCachedList()
+				.peek(f -> log.trace("Detect file={}", f))// NOSONAR S3864
+				.filter(this::isAccepted)
+				.toList();
+
+		log.debug("Scanned files/dirs for \"" + aSource.getPath() + "\" (deep " + deep + "): "
+				  + result.stream()
+						  .map(CachedFileAttributes::getName)
+						  .sorted()
+						  .collect(joining(", "))
+				  + " on \"" + aSource.getFileSystem().toString() + "\"");
+		return result;
 	}
 
 	public static boolean containExtension(final String baseFileName, final Set<String> candidates) {
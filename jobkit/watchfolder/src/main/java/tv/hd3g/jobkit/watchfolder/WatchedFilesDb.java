@@ -29,4 +29,11 @@ public interface WatchedFilesDb {
 
 	void reset(final ObservedFolder observedFolder, Set<CachedFileAttributes> foundedFiles);
 
+	/**
+	 * Release the resources kept between scans, like file system watchers.
+	 * Next update calls must still work, and can re-open them.
+	 */
+	default void close() {
+	}
+
 }
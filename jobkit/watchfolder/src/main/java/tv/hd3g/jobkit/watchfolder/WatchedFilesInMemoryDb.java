@@ -22,6 +22,7 @@ import static tv.hd3g.jobkit.watchfolder.WatchFolderPickupType.FILES_DIRS;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -42,6 +43,7 @@ public class WatchedFilesInMemoryDb implements WatchedFilesDb {
 	private WatchFolderPickupType pickUp;
 	private Duration minFixedStateTime;
 	private WatchedFileScanner scanner;
+	private WatchedFileEventScanner eventScanner;
 
 	public WatchedFilesInMemoryDb(final int defaultMaxDeep) {
 		this.defaultMaxDeep = defaultMaxDeep;
@@ -57,11 +59,30 @@ public class WatchedFilesInMemoryDb implements WatchedFilesDb {
 		if (observedFolder.isDisabled()) {
 			throw new IllegalArgumentException("Can't setup a disabled observedFolder: " + observedFolder);
 		}
+		close();
+		eventScanner = null;
 		scanner = new WatchedFileScanner(observedFolder, defaultMaxDeep);
+		if (observedFolder.isFileSystemEvents()) {
+			if (observedFolder.getTargetFolder().startsWith("file://")) {
+				eventScanner = new WatchedFileEventScanner(scanner, observedFolder);
+			} else {
+				log.warn("File system events can only be used with local folders, not with {}", observedFolder);
+			}
+		}
 		this.pickUp = pickUp;
 		minFixedStateTime = observedFolder.getMinFixedStateTime();
 	}
 
+	/**
+	 * Close the file system events watcher, if any. The next update will start with a full scan.
+	 */
+	@Override
+	public void close() {
+		if (eventScanner != null) {
+			eventScanner.close();
+		}
+	}
+
 	@Override
 	public void reset(final ObservedFolder observedFolder, final Set<CachedFileAttributes> foundedFiles) {
 		foundedFiles.forEach(allWatchedFiles::remove);
@@ -69,7 +90,12 @@ public class WatchedFilesInMemoryDb implements WatchedFilesDb {
 
 	@Override
 	public WatchedFiles update(final ObservedFolder observedFolder, final AbstractFileSystemURL fileSystem) {
-		final var detected = scanner.scan(fileSystem);
+		final List<CachedFileAttributes> detected;
+		if (eventScanner != null) {
+			detected = eventScanner.scan(fileSystem);
+		} else {
+			detected = scanner.scan(fileSystem);
+		}
 
 		/**
 		 * update all founded
@@ -229,9 +229,19 @@ public class Watchfolders {
 		});
 	}
 
+	/**
+	 * The watchfolder dbs are closed in the scans spools, after the running scans.
+	 */
 	public synchronized void stopScans() {
-		observedFoldersServices.values().stream()
-				.forEach(BackgroundService::disable);
+		observedFoldersServices.forEach((oF, service) -> {
+			service.disable();
+			jobKitEngine.runOneShot(
+					"Close watchfolder db for " + oF.getLabel(),
+					oF.getSpoolScans(),
+					oF.getJobsPriority(),
+					observedFoldersDb.get(oF)::close,
+					this::justLogAfterBadUserRun);
+		});
 	}
 
 }
@@ -0,0 +1,137 @@
+/*
+ * This file is part of jobkit-watchfolder.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.watchfolder;
+
+import static org.apache.commons.io.FilenameUtils.wildcardMatch;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.jobkit.watchfolder.ObservedFolderFilter.WildcardNames;
+
+class ObservedFolderFilterTest {
+
+	static final List<String> names = List.of(
+			"", "a", "file.ok", "FILE.OK", "file.ok.long", "file.no", "file.OK.LONG", ".ok", "file.", "file..ok",
+			"archive.tar.gz", "tar.gz", "desktop.ini", "Desktop.ini", "a*b", "a?b", "a.b", "ab", "aXb", "aXXb",
+			"[dir]", "dir(1)", "$dir^", "back\\slash", "new\nline", "\\Equote\\E");
+
+	static final List<String> wildcards = List.of(
+			"*", "**", "?", "a*", "*b", "a?b", "a*b", "a**b", "*.ok", "*.tar.*", "[dir]", "dir(?)", "$dir^",
+			"back\\*", "new*", "\\E*", "*\\E", "??", "a");
+
+	ObservedFolder observedFolder;
+
+	@BeforeEach
+	void init() {
+		observedFolder = new ObservedFolder();
+		observedFolder.setTargetFolder(new File("").getAbsolutePath());
+		observedFolder.setLabel("test");
+	}
+
+	@Test
+	void testContainExtension() {
+		for (final var extensions : List.of(
+				Set.<String> of(), Set.of("ok"), Set.of("ok", "ok.long"), Set.of("gz"), Set.of("tar.gz"), Set.of(""))) {
+			for (final var name : names) {
+				assertEquals(WatchedFileScanner.containExtension(name, extensions),
+						ObservedFolderFilter.containExtension(name.toLowerCase(), extensions),
+						() -> name + " / " + extensions);
+			}
+		}
+	}
+
+	@Test
+	void testWildcardNames() {
+		assertNull(WildcardNames.compile(Set.of()));
+		for (final var wildcard : wildcards) {
+			final var compiled = WildcardNames.compile(Set.of(wildcard));
+			for (final var name : names) {
+				assertEquals(wildcardMatch(name, wildcard), compiled.test(name), () -> name + " / " + wildcard);
+			}
+		}
+	}
+
+	@Test
+	void testWildcardNames_many() {
+		final var compiled = WildcardNames.compile(Set.of("a", "*.ok", "dir(?)"));
+		assertEquals(Set.of("a"), compiled.literals());
+		for (final var name : names) {
+			assertEquals(wildcardMatch(name, "a") || wildcardMatch(name, "*.ok") || wildcardMatch(name, "dir(?)"),
+					compiled.test(name), name);
+		}
+	}
+
+	@Test
+	void testIsAccepted_extensions() {
+		observedFolder.setAllowedExtentions(Set.of(".OK", "ok.long"));
+		observedFolder.setBlockedExtentions(Set.of("no"));
+		observedFolder.setIgnoreFiles(Set.of("Desktop.ini", "ignoreme.ok"));
+		observedFolder.postConfiguration();
+		final var filter = observedFolder.getFilter();
+
+		assertTrue(filter.isAccepted("file.ok", "/file.ok", false));
+		assertTrue(filter.isAccepted("FILE.Ok", "/FILE.Ok", false));
+		assertTrue(filter.isAccepted("file.ok.long", "/file.ok.long", false));
+		assertFalse(filter.isAccepted("file.no", "/file.no", false));
+		assertFalse(filter.isAccepted("file.ok.no", "/file.ok.no", false));
+		assertFalse(filter.isAccepted("file", "/file", false));
+		assertFalse(filter.isAccepted("IgnoreMe.ok", "/IgnoreMe.ok", false));
+		assertFalse(filter.isAccepted("desktop.ini", "/desktop.ini", false));
+		assertTrue(filter.isAccepted("dir", "/dir", true));
+		assertFalse(filter.isAccepted("desktop.ini", "/desktop.ini", true));
+	}
+
+	@Test
+	void testIsAccepted_paths() {
+		observedFolder.setIgnoreRelativePaths(Set.of("never\\here"));
+		observedFolder.postConfiguration();
+		final var filter = observedFolder.getFilter();
+
+		assertFalse(filter.isAccepted("here", "/never/here", true));
+		assertFalse(filter.isAccepted("here", "/never/here", false));
+		assertTrue(filter.isAccepted("here", "/never/here2", true));
+		assertTrue(filter.isAccepted("never", "/never", true));
+	}
+
+	@Test
+	void testIsAccepted_names() {
+		observedFolder.setAllowedFileNames(Set.of("*.mxf", "clip_??.mov"));
+		observedFolder.setBlockedFileNames(Set.of("*"));
+		observedFolder.setBlockedDirNames(Set.of("tmp*", "trash"));
+		observedFolder.postConfiguration();
+		final var filter = observedFolder.getFilter();
+
+		assertTrue(filter.isAccepted("a.mxf", "/a.mxf", false));
+		assertTrue(filter.isAccepted("clip_01.mov", "/clip_01.mov", false));
+		assertFalse(filter.isAccepted("clip_001.mov", "/clip_001.mov", false));
+		assertFalse(filter.isAccepted("a.MXF", "/a.MXF", false));
+		assertTrue(filter.isAccepted("dir", "/dir", true));
+		assertFalse(filter.isAccepted("tmp01", "/tmp01", true));
+		assertFalse(filter.isAccepted("trash", "/trash", true));
+		assertTrue(filter.isAccepted("Trash", "/Trash", true));
+	}
+
+}
@@ -118,6 +118,8 @@ class ObservedFolderTest {
 		assertEquals(Set.of(), observedFolder.getIgnoreRelativePaths());
 		assertEquals(Set.of(), observedFolder.getIgnoreFiles());
 		assertEquals(Duration.ZERO, observedFolder.getMinFixedStateTime());
+		assertEquals(Duration.ofHours(1), observedFolder.getFullScanInterval());
+		assertEquals(1, observedFolder.getScanParallelism());
 	}
 
 	@Test
@@ -0,0 +1,210 @@
+/*
+ * This file is part of jobkit-watchfolder.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2024
+ *
+ */
+package tv.hd3g.jobkit.watchfolder;
+
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.jobkit.watchfolder.WatchFolderPickupType.FILES_ONLY;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.transfertfiles.AbstractFileSystemURL;
+import tv.hd3g.transfertfiles.CachedFileAttributes;
+
+class WatchedFileEventScannerTest {
+
+	static final File rootDir = new File("target/test-" + WatchedFileEventScannerTest.class.getSimpleName());
+	static final long TIMEOUT = 10_000;
+
+	@BeforeAll
+	static void prepare() throws IOException {
+		FileUtils.forceMkdir(rootDir);
+		FileUtils.cleanDirectory(rootDir);
+	}
+
+	File workingFile;
+	ObservedFolder observedFolder;
+	AbstractFileSystemURL fs;
+	WatchedFileEventScanner eventScanner;
+
+	@BeforeEach
+	void init() throws IOException {
+		observedFolder = new ObservedFolder();
+		workingFile = new File(rootDir, String.valueOf(Math.abs(System.nanoTime())));
+		FileUtils.forceMkdir(workingFile);
+		observedFolder.setTargetFolder("file://localhost/" + workingFile.getAbsolutePath());
+		observedFolder.setLabel("test");
+		observedFolder.setRecursive(true);
+		observedFolder.setFileSystemEvents(true);
+		observedFolder.setAllowedExtentions(Set.of("ok"));
+		observedFolder.setIgnoreRelativePaths(Set.of("/never"));
+
+		eventScanner = new WatchedFileEventScanner(new WatchedFileScanner(observedFolder, 2), observedFolder);
+		fs = observedFolder.createFileSystem();
+	}
+
+	@AfterEach
+	void ends() throws IOException {
+		eventScanner.close();
+		fs.close();
+	}
+
+	@Test
+	void testScan_create_modify_delete() throws IOException, InterruptedException {
+		write("before.ok");
+		assertEquals(Set.of("/before.ok"), scanPaths());
+		assertFalse(eventScanner.isEventsDisabled());
+		assertEquals(1, eventScanner.getWatchedDirs().size());
+
+		write("after.ok", "after.no");
+		awaitScan(Set.of("/before.ok", "/after.ok"));
+
+		write("after.ok");
+		awaitScan(f -> f.getPath().equals("/after.ok") && f.length() == 2);
+
+		FileUtils.forceDelete(toAbsolutePath("before.ok"));
+		awaitScan(Set.of("/after.ok"));
+	}
+
+	@Test
+	void testScan_newSubDir() throws IOException, InterruptedException {
+		assertEquals(Set.of(), scanPaths());
+
+		write("/sub/inside.ok", "/sub/sub2/deep.ok", "/sub/sub2/sub3/toodeep.ok", "/never/here.ok");
+		awaitScan(Set.of("/sub", "/sub/inside.ok", "/sub/sub2", "/sub/sub2/deep.ok", "/sub/sub2/sub3"));
+		assertEquals(3, eventScanner.getWatchedDirs().size());
+
+		write("/sub/sub2/deep2.ok");
+		awaitScan(Set.of("/sub", "/sub/inside.ok", "/sub/sub2", "/sub/sub2/deep.ok", "/sub/sub2/deep2.ok",
+				"/sub/sub2/sub3"));
+
+		FileUtils.deleteDirectory(toAbsolutePath("sub"));
+		awaitScan(Set.of());
+		assertEquals(1, eventScanner.getWatchedDirs().size());
+	}
+
+	@Test
+	void testScan_sameAsFullScan() throws InterruptedException {
+		final var scanner = new WatchedFileScanner(observedFolder, 2);
+		scanPaths();
+		write("a.ok", "b.no", "/c/d.ok", "/c/.hidden.ok", "/never/e.ok");
+		awaitScan(scanner.scan(fs).stream()
+				.map(CachedFileAttributes::getPath)
+				.collect(toUnmodifiableSet()));
+	}
+
+	@Test
+	void testScan_fullScanInterval() throws InterruptedException {
+		observedFolder.setFullScanInterval(Duration.ZERO);
+		eventScanner.close();
+		eventScanner = new WatchedFileEventScanner(new WatchedFileScanner(observedFolder, 2), observedFolder);
+		assertEquals(Set.of(), scanPaths());
+		write("a.ok");
+		/**
+		 * No need to wait events here
+		 */
+		assertEquals(Set.of("/a.ok"), scanPaths());
+	}
+
+	@Test
+	void testWithInMemoryDb() throws InterruptedException {
+		final var watchedFilesDb = new WatchedFilesInMemoryDb();
+		watchedFilesDb.setup(observedFolder, FILES_ONLY);
+		var w = watchedFilesDb.update(observedFolder, fs);
+		assertEquals(0, w.totalFiles());
+
+		write("a.ok");
+		final var end = System.currentTimeMillis() + TIMEOUT;
+		while (w.totalFiles() == 0 && System.currentTimeMillis() < end) {
+			Thread.sleep(10);// NOSONAR
+			w = watchedFilesDb.update(observedFolder, fs);
+		}
+		assertEquals(1, w.totalFiles());
+		assertTrue(w.founded().isEmpty());
+
+		/**
+		 * The file is founded only when it's older than minFixedStateTime, not in the same ms
+		 */
+		w = watchedFilesDb.update(observedFolder, fs);
+		while (w.founded().isEmpty() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);// NOSONAR
+			w = watchedFilesDb.update(observedFolder, fs);
+		}
+		assertEquals(Set.of("/a.ok"), w.founded().stream()
+				.map(CachedFileAttributes::getPath)
+				.collect(toUnmodifiableSet()));
+
+		watchedFilesDb.close();
+		write("b.ok");
+		w = watchedFilesDb.update(observedFolder, fs);
+		assertEquals(2, w.totalFiles());
+		watchedFilesDb.close();
+	}
+
+	private Set<String> scanPaths() {
+		return eventScanner.scan(fs).stream()
+				.map(CachedFileAttributes::getPath)
+				.collect(toUnmodifiableSet());
+	}
+
+	private void awaitScan(final Set<String> expected) throws InterruptedException {
+		final var end = System.currentTimeMillis() + TIMEOUT;
+		var actual = scanPaths();
+		while (expected.equals(actual) == false && System.currentTimeMillis() < end) {
+			Thread.sleep(10);// NOSONAR
+			actual = scanPaths();
+		}
+		assertEquals(expected, actual);
+	}
+
+	private void awaitScan(final Predicate<CachedFileAttributes> expected) throws InterruptedException {
+		final var end = System.currentTimeMillis() + TIMEOUT;
+		var found = eventScanner.scan(fs).stream().anyMatch(expected);
+		while (found == false && System.currentTimeMillis() < end) {
+			Thread.sleep(10);// NOSONAR
+			found = eventScanner.scan(fs).stream().anyMatch(expected);
+		}
+		assertTrue(found);
+	}
+
+	private File toAbsolutePath(final String relativePath) {
+		return new File(workingFile, relativePath).getAbsoluteFile();
+	}
+
+	private void write(final String... relativePaths) {
+		for (final var relativePath : relativePaths) {
+			try {
+				FileUtils.write(toAbsolutePath(relativePath), "a", "UTF-8", true);
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
@@ -184,6 +184,7 @@ class WatchfoldersTest {
 		verify(watchedFilesDb, times(1)).update(eq(observedFolder), any(AbstractFileSystemURL.class));
 		verify(folderActivity, times(1)).onAfterScan(eq(observedFolder), any(Duration.class), eq(watchedFiles));
 		verify(folderActivity, times(1)).onStopScan(observedFolder);
+		verify(watchedFilesDb, times(1)).close();
 
 		watchfolders.startScans();
 		watchfolders.startScans();
@@ -206,6 +207,7 @@ class WatchfoldersTest {
 		verify(watchedFilesDb, times(2)).update(eq(observedFolder), any(AbstractFileSystemURL.class));
 		verify(folderActivity, times(2)).onAfterScan(eq(observedFolder), any(Duration.class), eq(watchedFiles));
 		verify(folderActivity, times(3)).onStopScan(observedFolder);
+		verify(watchedFilesDb, times(3)).close();
 
 		verify(folderActivity, times(0)).onScanErrorFolder(eq(observedFolder), any(Exception.class));
 
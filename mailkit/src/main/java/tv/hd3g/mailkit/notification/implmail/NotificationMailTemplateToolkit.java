@@ -213,9 +213,10 @@ public class NotificationMailTemplateToolkit {
 		final var messageSpan = span(translateMessage(lang, event, step.message()));
 
 		DomContent verboseSpan = null;
-		if (verbose) {
-			final var fName = step.caller().getFileName();
-			final var line = step.caller().getLineNumber();
+		final var caller = verbose ? step.caller() : null;
+		if (caller != null) {
+			final var fName = caller.getFileName();
+			final var line = caller.getLineNumber();
 			if (line > 0) {
 				verboseSpan = span(attrs(".verbose"), fName.substring(0, fName.lastIndexOf(".")) + " L" + line);
 			} else {
@@ -509,11 +510,14 @@ public class NotificationMailTemplateToolkit {
 				}
 				""");
 
-		final var resultCaller = translate.i18n(lang, event, "result.caller", "Result caller source: {0}.",
-				spanWrapp(".result.caller", callerToString(event.result().caller())));
+		final var caller = event.result().caller();
+		if (caller != null) {
+			final var resultCaller = translate.i18n(lang, event, "result.caller", "Result caller source: {0}.",
+					spanWrapp(".result.caller", callerToString(caller)));
+			listBodyContent.add(div(attrs(".result.caller"), rawHtml(resultCaller)));
+		}
 		final var resultDate = translate.i18n(lang, event, "result.date", "Result caller provided at {0}.",
 				spanWrapp(".result.date", formatShortDate(event.result().date(), lang)));
-		listBodyContent.add(div(attrs(".result.caller"), rawHtml(resultCaller)));
 		listBodyContent.add(div(attrs(".result.date"), rawHtml(resultDate)));
 	}
 
@@ -47,7 +47,9 @@ import com.fasterxml.jackson.databind.node.JsonNodeType;
 import j2html.tags.DomContent;
 import net.datafaker.Faker;
 import tv.hd3g.commons.version.EnvironmentVersion;
+import tv.hd3g.jobkit.engine.LazyCaller;
 import tv.hd3g.jobkit.engine.SupervisableEndEvent;
+import tv.hd3g.jobkit.engine.SupervisableStep;
 import tv.hd3g.mailkit.mod.component.Translate;
 import tv.hd3g.mailkit.mod.service.SendAsSimpleNotificationContextPredicate;
 import tv.hd3g.mailkit.notification.NotificationEnvironment;
@@ -205,6 +207,12 @@ class NotificationMailTemplateToolkitTest {
 		assertNotNull(t.stepLineToString(lang, event, event.steps().get(0), true));
 	}
 
+	@Test
+	void testStepLineToString_Verbose_noCaller() {
+		final var step = new SupervisableStep(new Date(), event.steps().get(0).message(), LazyCaller.of(null));
+		assertNotNull(t.stepLineToString(lang, event, step, true));
+	}
+
 	@ParameterizedTest
 	@ValueSource(booleans = { false, true })
 	void testStepsList_noVerbose(final boolean verbose) {